@@ -0,0 +1,89 @@
+package de.uniba.dsg.wss.driver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Thin asynchronous client for the API of the wholesale supplier server. All requests are sent
+ * without blocking the calling thread, which allows a small number of threads to serve a large
+ * number of terminals.
+ *
+ * @author Benedikt Full
+ */
+public class ApiClient {
+
+  private final HttpClient httpClient;
+  private final ObjectMapper objectMapper;
+  private final URI baseUri;
+  private final Duration requestTimeout;
+
+  public ApiClient(HttpClient httpClient, ObjectMapper objectMapper, DriverSettings settings) {
+    this.httpClient = httpClient;
+    this.objectMapper = objectMapper;
+    baseUri = settings.getBaseUri();
+    requestTimeout = settings.getRequestTimeout();
+  }
+
+  /**
+   * Creates a request builder for the given API path, which already carries the authorization and
+   * content type headers.
+   *
+   * @param pathAndQuery the path relative to the {@code /api/} base path, including the query
+   * @param credentials the credentials of the terminal sending the request
+   * @return the request builder
+   */
+  public HttpRequest.Builder request(String pathAndQuery, EmployeeCredentials credentials) {
+    return HttpRequest.newBuilder(baseUri.resolve(pathAndQuery))
+        .timeout(requestTimeout)
+        .header("Authorization", credentials.getAuthorizationHeader())
+        .header("Content-Type", "application/json; charset=utf-8");
+  }
+
+  /**
+   * Sends the given request and discards the response body.
+   *
+   * @param request the request
+   * @return the future response
+   */
+  public CompletableFuture<HttpResponse<Void>> send(HttpRequest request) {
+    return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+  }
+
+  /**
+   * Performs a {@code GET} request and parses the response body as JSON.
+   *
+   * @param pathAndQuery the path relative to the {@code /api/} base path, including the query
+   * @param credentials the credentials of the terminal sending the request
+   * @return the future JSON content, completed exceptionally if the server did not respond with
+   *     {@code 200}
+   */
+  public CompletableFuture<JsonNode> getJson(String pathAndQuery, EmployeeCredentials credentials) {
+    HttpRequest request = request(pathAndQuery, credentials).GET().build();
+    return httpClient
+        .sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+        .thenApply(
+            res -> {
+              if (res.statusCode() != 200) {
+                throw new IllegalStateException(
+                    "GET " + request.uri() + " failed with status " + res.statusCode());
+              }
+              try {
+                return objectMapper.readTree(res.body());
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+  }
+
+  public ObjectMapper getObjectMapper() {
+    return objectMapper;
+  }
+}
@@ -0,0 +1,18 @@
+package de.uniba.dsg.wss.driver;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * The main class of the wholesale supplier load driver, which simulates the employee terminals
+ * in-process instead of relying on the JMeter test plan.
+ *
+ * @author Benedikt Full
+ */
+@SpringBootApplication
+public class DriverApplication {
+
+  public static void main(String[] args) {
+    System.exit(SpringApplication.exit(SpringApplication.run(DriverApplication.class, args)));
+  }
+}
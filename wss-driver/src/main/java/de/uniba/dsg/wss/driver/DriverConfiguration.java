@@ -0,0 +1,69 @@
+package de.uniba.dsg.wss.driver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.http.HttpClient;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configures all beans which are required for running the load driver.
+ *
+ * @author Benedikt Full
+ */
+@Configuration
+public class DriverConfiguration {
+
+  private final Environment environment;
+
+  @Autowired
+  public DriverConfiguration(Environment environment) {
+    this.environment = environment;
+  }
+
+  @Bean
+  public DriverSettings driverSettings() {
+    return new DriverSettings(environment);
+  }
+
+  @Bean
+  public ApiClient apiClient(ObjectMapper objectMapper) {
+    DriverSettings settings = driverSettings();
+    HttpClient httpClient =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(settings.getRequestTimeout())
+            .executor(Executors.newFixedThreadPool(ioThreadCount(), daemonThreads("wss-http")))
+            .build();
+    return new ApiClient(httpClient, objectMapper, settings);
+  }
+
+  @Bean(destroyMethod = "shutdownNow")
+  public ScheduledExecutorService terminalScheduler() {
+    return Executors.newScheduledThreadPool(ioThreadCount(), daemonThreads("wss-terminal"));
+  }
+
+  @Bean
+  public TransactionMetrics transactionMetrics() {
+    return new TransactionMetrics();
+  }
+
+  private int ioThreadCount() {
+    return environment.getProperty(
+        "wss.driver.threads", Integer.class, Runtime.getRuntime().availableProcessors());
+  }
+
+  private static ThreadFactory daemonThreads(String prefix) {
+    AtomicInteger counter = new AtomicInteger();
+    return r -> {
+      Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
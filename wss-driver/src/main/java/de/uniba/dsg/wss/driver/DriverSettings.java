@@ -0,0 +1,131 @@
+package de.uniba.dsg.wss.driver;
+
+import static java.util.Objects.requireNonNull;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Immutable view on the {@code wss.driver.*} configuration properties of the load driver.
+ *
+ * @author Benedikt Full
+ */
+public final class DriverSettings {
+
+  /** The origin of the employee credentials used by the simulated terminals. */
+  public enum CredentialsSource {
+    /** Credentials are read from a CSV file with a header line, like {@code employees.csv}. */
+    CSV,
+    /** Credentials are derived from the employees of a freshly generated data model. */
+    GENERATED
+  }
+
+  private final URI baseUri;
+  private final int terminalCount;
+  private final Duration duration;
+  private final Duration warmUp;
+  private final Duration rampUp;
+  private final Duration requestTimeout;
+  private final double timeScale;
+  private final CredentialsSource credentialsSource;
+  private final Path credentialsFile;
+  private final int modelWarehouseCount;
+  private final double remoteSupplyProbability;
+  private final double customerEmailProbability;
+  private final Path resultsDir;
+
+  public DriverSettings(Environment environment) {
+    baseUri =
+        URI.create(
+            environment.getProperty("wss.driver.server.protocol", "http")
+                + "://"
+                + environment.getProperty("wss.driver.server.url", "localhost")
+                + ":"
+                + environment.getProperty("wss.driver.server.port", Integer.class, 8080)
+                + "/api/");
+    terminalCount = environment.getProperty("wss.driver.terminals", Integer.class, 10);
+    duration =
+        Duration.ofSeconds(environment.getProperty("wss.driver.duration", Long.class, 9000L));
+    warmUp = Duration.ofSeconds(environment.getProperty("wss.driver.warm-up", Long.class, 0L));
+    rampUp = Duration.ofSeconds(environment.getProperty("wss.driver.ramp-up", Long.class, 10L));
+    requestTimeout =
+        Duration.ofSeconds(environment.getProperty("wss.driver.request-timeout", Long.class, 60L));
+    timeScale = environment.getProperty("wss.driver.time-scale", Double.class, 1.0);
+    credentialsSource =
+        CredentialsSource.valueOf(
+            environment.getProperty("wss.driver.credentials.source", "csv").toUpperCase());
+    credentialsFile =
+        Path.of(
+            environment.getProperty(
+                "wss.driver.credentials.file", "../wss-terminals/employees.csv"));
+    modelWarehouseCount = environment.getProperty("wss.model.warehouse-count", Integer.class, 1);
+    remoteSupplyProbability =
+        environment.getProperty(
+            "wss.driver.new-order.remote-supply-probability", Double.class, 0.0);
+    customerEmailProbability =
+        environment.getProperty("wss.driver.customer-email-probability", Double.class, 0.6);
+    resultsDir = Path.of(environment.getProperty("wss.driver.results-dir", "results"));
+
+    if (terminalCount < 1) {
+      throw new IllegalArgumentException("Terminal count must be greater than zero");
+    }
+    if (timeScale < 0) {
+      throw new IllegalArgumentException("Time scale must not be negative");
+    }
+    requireNonNull(credentialsFile);
+  }
+
+  public URI getBaseUri() {
+    return baseUri;
+  }
+
+  public int getTerminalCount() {
+    return terminalCount;
+  }
+
+  public Duration getDuration() {
+    return duration;
+  }
+
+  public Duration getWarmUp() {
+    return warmUp;
+  }
+
+  public Duration getRampUp() {
+    return rampUp;
+  }
+
+  public Duration getRequestTimeout() {
+    return requestTimeout;
+  }
+
+  public double getTimeScale() {
+    return timeScale;
+  }
+
+  public CredentialsSource getCredentialsSource() {
+    return credentialsSource;
+  }
+
+  public Path getCredentialsFile() {
+    return credentialsFile;
+  }
+
+  public int getModelWarehouseCount() {
+    return modelWarehouseCount;
+  }
+
+  public double getRemoteSupplyProbability() {
+    return remoteSupplyProbability;
+  }
+
+  public double getCustomerEmailProbability() {
+    return customerEmailProbability;
+  }
+
+  public Path getResultsDir() {
+    return resultsDir;
+  }
+}
@@ -0,0 +1,137 @@
+package de.uniba.dsg.wss.driver;
+
+import static java.util.Objects.requireNonNull;
+
+import de.uniba.dsg.wss.data.gen.DefaultDataGenerator;
+import de.uniba.dsg.wss.data.gen.model.Employee;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The plaintext credentials of a single employee, which are used by one terminal to authenticate
+ * itself against the server via HTTP Basic authentication.
+ *
+ * @author Benedikt Full
+ */
+public final class EmployeeCredentials {
+
+  private static final Comparator<String> NATURAL_ORDER = EmployeeCredentials::compareNaturally;
+
+  private final String username;
+  private final String password;
+  private final String authorizationHeader;
+
+  public EmployeeCredentials(String username, String password) {
+    this.username = requireNonNull(username);
+    this.password = requireNonNull(password);
+    authorizationHeader =
+        "Basic "
+            + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Reads the credentials from a CSV file with a header line and the columns {@code USERNAME} and
+   * {@code PASSWORD}, such as the {@code employees.csv} file of the JMeter terminals.
+   *
+   * @param file the CSV file
+   * @return the credentials in the order of the file
+   * @throws IOException if reading the file fails
+   */
+  public static List<EmployeeCredentials> fromCsv(Path file) throws IOException {
+    List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    return lines.stream()
+        .skip(1)
+        .map(String::trim)
+        .filter(l -> !l.isEmpty())
+        .map(
+            l -> {
+              String[] columns = l.split(",", 2);
+              if (columns.length != 2) {
+                throw new IllegalArgumentException("Malformed credentials line: " + l);
+              }
+              return new EmployeeCredentials(columns[0].trim(), columns[1].trim());
+            })
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Derives the credentials from the employees generated by a {@link DefaultDataGenerator} for the
+   * given number of warehouses. As the employee credentials do not depend on the scale of the
+   * model, a downscaled model is generated and the passwords are not encoded.
+   *
+   * @param warehouseCount the number of warehouses of the model used by the server
+   * @return the credentials, sorted by username with numeric parts compared by value
+   */
+  public static List<EmployeeCredentials> fromGeneratedModel(int warehouseCount) {
+    List<Employee> employees =
+        new DefaultDataGenerator(warehouseCount, false, Function.identity(), "")
+            .generate()
+            .getEmployees();
+    return employees.stream()
+        .map(e -> new EmployeeCredentials(e.getUsername(), e.getPassword()))
+        .sorted(Comparator.comparing(EmployeeCredentials::getUsername, NATURAL_ORDER))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Compares the given strings while treating digit sequences as numbers, so that {@code
+   * terminal_user_2_1} is ordered before {@code terminal_user_10_1}.
+   */
+  private static int compareNaturally(String a, String b) {
+    int i = 0;
+    int j = 0;
+    while (i < a.length() && j < b.length()) {
+      char ca = a.charAt(i);
+      char cb = b.charAt(j);
+      if (Character.isDigit(ca) && Character.isDigit(cb)) {
+        int startA = i;
+        int startB = j;
+        while (i < a.length() && Character.isDigit(a.charAt(i))) {
+          i++;
+        }
+        while (j < b.length() && Character.isDigit(b.charAt(j))) {
+          j++;
+        }
+        int result =
+            Long.compare(
+                Long.parseLong(a.substring(startA, i)), Long.parseLong(b.substring(startB, j)));
+        if (result != 0) {
+          return result;
+        }
+      } else {
+        if (ca != cb) {
+          return Character.compare(ca, cb);
+        }
+        i++;
+        j++;
+      }
+    }
+    return Integer.compare(a.length() - i, b.length() - j);
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public String getPassword() {
+    return password;
+  }
+
+  /**
+   * Returns the value of the {@code Authorization} header for these credentials. The value is
+   * computed once, so terminals do not have to encode it for every request.
+   *
+   * @return the HTTP Basic authorization header value
+   */
+  public String getAuthorizationHeader() {
+    return authorizationHeader;
+  }
+}
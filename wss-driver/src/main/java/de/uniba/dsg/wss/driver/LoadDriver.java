@@ -0,0 +1,139 @@
+package de.uniba.dsg.wss.driver;
+
+import static org.apache.logging.log4j.util.Unbox.box;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import de.uniba.dsg.wss.commons.Stopwatch;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the simulation: loads the employee credentials, prepares one {@link Terminal} per employee,
+ * starts all terminals over the ramp-up period, waits until the configured duration has passed and
+ * finally reports the recorded {@link TransactionMetrics}.
+ *
+ * @author Benedikt Full
+ */
+@Component
+public class LoadDriver implements CommandLineRunner {
+
+  private static final Logger LOG = LogManager.getLogger(LoadDriver.class);
+  private final DriverSettings settings;
+  private final ApiClient client;
+  private final ScheduledExecutorService scheduler;
+  private final TransactionMetrics metrics;
+
+  @Autowired
+  public LoadDriver(
+      DriverSettings settings,
+      ApiClient client,
+      ScheduledExecutorService scheduler,
+      TransactionMetrics metrics) {
+    this.settings = settings;
+    this.client = client;
+    this.scheduler = scheduler;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void run(String... args) throws Exception {
+    List<EmployeeCredentials> credentials = loadCredentials();
+    Stopwatch stopwatch = new Stopwatch().start();
+    List<Terminal> terminals = createTerminals(credentials);
+    stopwatch.stop();
+    LOG.info("Prepared {} terminals, took {}", box(terminals.size()), stopwatch.getDuration());
+
+    long startNanos = System.nanoTime();
+    long deadlineNanos = startNanos + settings.getDuration().toNanos();
+    long warmUpNanos = settings.getWarmUp().toNanos();
+    long rampUpMillis = settings.getRampUp().toMillis();
+    if (warmUpNanos > 0) {
+      scheduler.schedule(() -> metrics.setRecording(true), warmUpNanos, TimeUnit.NANOSECONDS);
+    } else {
+      metrics.setRecording(true);
+    }
+    List<CompletableFuture<Void>> completions = new ArrayList<>(terminals.size());
+    for (int i = 0; i < terminals.size(); i++) {
+      completions.add(terminals.get(i).start(rampUpMillis * i / terminals.size(), deadlineNanos));
+    }
+    LOG.info(
+        "Started {} terminals, running for {} seconds (warm-up: {} seconds)",
+        box(terminals.size()),
+        box(settings.getDuration().toSeconds()),
+        box(settings.getWarmUp().toSeconds()));
+
+    CompletableFuture.allOf(completions.toArray(new CompletableFuture[0]))
+        .get(
+            settings.getDuration().plus(settings.getRequestTimeout()).toNanos(),
+            TimeUnit.NANOSECONDS);
+    metrics.setRecording(false);
+    double measurementSeconds =
+        Math.max(System.nanoTime() - startNanos - warmUpNanos, 1) / 1_000_000_000.0;
+
+    metrics.logSummary(measurementSeconds);
+    metrics.writeHistograms(settings.getResultsDir());
+    LOG.info("Wrote histograms to {}", settings.getResultsDir().toAbsolutePath());
+  }
+
+  private List<EmployeeCredentials> loadCredentials() throws Exception {
+    List<EmployeeCredentials> credentials;
+    switch (settings.getCredentialsSource()) {
+      case CSV:
+        credentials = EmployeeCredentials.fromCsv(settings.getCredentialsFile());
+        break;
+      case GENERATED:
+        credentials = EmployeeCredentials.fromGeneratedModel(settings.getModelWarehouseCount());
+        break;
+      default:
+        throw new IllegalStateException("Unknown credentials source");
+    }
+    if (credentials.size() < settings.getTerminalCount()) {
+      throw new IllegalStateException(
+          "Only "
+              + credentials.size()
+              + " employee credentials available for "
+              + settings.getTerminalCount()
+              + " terminals");
+    }
+    return credentials.subList(0, settings.getTerminalCount());
+  }
+
+  private List<Terminal> createTerminals(List<EmployeeCredentials> credentials) {
+    ReferenceData referenceData = ReferenceData.load(client, credentials.get(0)).join();
+    List<CompletableFuture<Terminal>> terminals = new ArrayList<>(credentials.size());
+    for (EmployeeCredentials c : credentials) {
+      terminals.add(
+          client
+              .getJson("employees/" + c.getUsername(), c)
+              .thenCompose(
+                  employee -> {
+                    JsonNode district = employee.get("district");
+                    String warehouseId = district.get("warehouse").get("id").asText();
+                    return referenceData
+                        .getWarehouse(warehouseId)
+                        .thenApply(
+                            warehouse ->
+                                new Terminal(
+                                    c,
+                                    district.get("id").asText(),
+                                    warehouse,
+                                    referenceData,
+                                    client,
+                                    scheduler,
+                                    metrics,
+                                    settings));
+                  }));
+    }
+    List<Terminal> result = new ArrayList<>(terminals.size());
+    terminals.forEach(t -> result.add(t.join()));
+    return result;
+  }
+}
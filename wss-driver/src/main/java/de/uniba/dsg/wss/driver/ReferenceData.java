@@ -0,0 +1,195 @@
+package de.uniba.dsg.wss.driver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The identifiers the terminals need for composing their requests. This is the counterpart of the
+ * "Setup local cache" step of the JMeter test plan, but the data is fetched once per driver (and
+ * once per warehouse respectively) instead of once per terminal.
+ *
+ * @author Benedikt Full
+ */
+public class ReferenceData {
+
+  private final ApiClient client;
+  private final EmployeeCredentials credentials;
+  private final String[] productIds;
+  private final String[] carrierIds;
+  private final List<String> warehouseIds;
+  private final ConcurrentMap<String, CompletableFuture<Warehouse>> warehouses;
+
+  private ReferenceData(
+      ApiClient client,
+      EmployeeCredentials credentials,
+      String[] productIds,
+      String[] carrierIds,
+      List<String> warehouseIds) {
+    this.client = client;
+    this.credentials = credentials;
+    this.productIds = productIds;
+    this.carrierIds = carrierIds;
+    this.warehouseIds = warehouseIds;
+    warehouses = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Loads the identifiers of all products, carriers and warehouses.
+   *
+   * @param client the client used for all requests
+   * @param credentials the credentials used for all requests
+   * @return the future reference data
+   */
+  public static CompletableFuture<ReferenceData> load(
+      ApiClient client, EmployeeCredentials credentials) {
+    CompletableFuture<List<String>> products =
+        client.getJson("products", credentials).thenApply(ReferenceData::ids);
+    CompletableFuture<List<String>> carriers =
+        client.getJson("carriers", credentials).thenApply(ReferenceData::ids);
+    CompletableFuture<List<String>> warehouses =
+        client.getJson("warehouses", credentials).thenApply(ReferenceData::ids);
+    return CompletableFuture.allOf(products, carriers, warehouses)
+        .thenApply(
+            v ->
+                new ReferenceData(
+                    client,
+                    credentials,
+                    products.join().toArray(new String[0]),
+                    carriers.join().toArray(new String[0]),
+                    List.copyOf(warehouses.join())));
+  }
+
+  /**
+   * Returns the districts and customers of the given warehouse, which are loaded on first access
+   * and shared by all terminals of that warehouse.
+   *
+   * @param warehouseId the id of the warehouse
+   * @return the future warehouse data
+   */
+  public CompletableFuture<Warehouse> getWarehouse(String warehouseId) {
+    return warehouses.computeIfAbsent(warehouseId, this::loadWarehouse);
+  }
+
+  public String randomProductId(Random random) {
+    return productIds[random.nextInt(productIds.length)];
+  }
+
+  public String randomCarrierId(Random random) {
+    return carrierIds[random.nextInt(carrierIds.length)];
+  }
+
+  /**
+   * Selects a random warehouse that is not the given one.
+   *
+   * @param homeWarehouseId the warehouse to exclude
+   * @param random the source of randomness
+   * @return the id of a remote warehouse, or the given id if there is only one warehouse
+   */
+  public String randomRemoteWarehouseId(String homeWarehouseId, Random random) {
+    if (warehouseIds.size() < 2) {
+      return homeWarehouseId;
+    }
+    String id;
+    do {
+      id = warehouseIds.get(random.nextInt(warehouseIds.size()));
+    } while (id.equals(homeWarehouseId));
+    return id;
+  }
+
+  private CompletableFuture<Warehouse> loadWarehouse(String warehouseId) {
+    String path = "warehouses/" + warehouseId + "/districts";
+    return client
+        .getJson(path, credentials)
+        .thenCompose(
+            districts -> {
+              List<String> districtIds = ids(districts);
+              Map<String, CompletableFuture<JsonNode>> customers = new HashMap<>();
+              for (String districtId : districtIds) {
+                customers.put(
+                    districtId,
+                    client.getJson(path + "/" + districtId + "/customers", credentials));
+              }
+              return CompletableFuture.allOf(customers.values().toArray(new CompletableFuture[0]))
+                  .thenApply(
+                      v -> {
+                        Map<String, Customer[]> customersByDistrict = new HashMap<>();
+                        customers.forEach(
+                            (id, json) -> customersByDistrict.put(id, customers(json.join())));
+                        return new Warehouse(warehouseId, districtIds, customersByDistrict);
+                      });
+            });
+  }
+
+  private static List<String> ids(JsonNode array) {
+    List<String> ids = new ArrayList<>(array.size());
+    array.forEach(n -> ids.add(n.get("id").asText()));
+    if (ids.isEmpty()) {
+      throw new IllegalStateException("Server returned no entries for reference data");
+    }
+    return ids;
+  }
+
+  private static Customer[] customers(JsonNode array) {
+    Customer[] customers = new Customer[array.size()];
+    for (int i = 0; i < customers.length; i++) {
+      JsonNode node = array.get(i);
+      customers[i] = new Customer(node.get("id").asText(), node.get("email").asText());
+    }
+    return customers;
+  }
+
+  /** The districts of a warehouse along with the customers of each district. */
+  public static class Warehouse {
+
+    private final String id;
+    private final String[] districtIds;
+    private final Map<String, Customer[]> customersByDistrict;
+
+    private Warehouse(
+        String id, List<String> districtIds, Map<String, Customer[]> customersByDistrict) {
+      this.id = id;
+      this.districtIds = districtIds.toArray(new String[0]);
+      this.customersByDistrict = customersByDistrict;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public String randomDistrictId(Random random) {
+      return districtIds[random.nextInt(districtIds.length)];
+    }
+
+    public Customer randomCustomer(String districtId, Random random) {
+      Customer[] customers = customersByDistrict.get(districtId);
+      return customers[random.nextInt(customers.length)];
+    }
+  }
+
+  /** The identifying attributes of a customer. */
+  public static class Customer {
+
+    private final String id;
+    private final String email;
+
+    private Customer(String id, String email) {
+      this.id = id;
+      this.email = email;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public String getEmail() {
+      return email;
+    }
+  }
+}
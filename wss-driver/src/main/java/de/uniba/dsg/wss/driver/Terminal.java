@@ -0,0 +1,236 @@
+package de.uniba.dsg.wss.driver;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import de.uniba.dsg.wss.driver.ReferenceData.Customer;
+import de.uniba.dsg.wss.driver.ReferenceData.Warehouse;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A simulated employee terminal, which runs a closed loop of transactions: select a transaction
+ * according to the mix, wait for the menu step and keying time, send the request, wait for the
+ * response, wait for the think time, repeat.
+ *
+ * <p>Terminals do not own a thread. All waiting is done by scheduling the next step on a shared
+ * {@link ScheduledExecutorService}, and requests are sent asynchronously, so a single driver can
+ * simulate thousands of terminals.
+ *
+ * @author Benedikt Full
+ */
+public class Terminal {
+
+  private static final String PROCESSING_NANOS_HEADER_NAME = "Processing-Ns";
+
+  private final EmployeeCredentials credentials;
+  private final String districtId;
+  private final Warehouse warehouse;
+  private final ReferenceData referenceData;
+  private final ApiClient client;
+  private final ScheduledExecutorService scheduler;
+  private final TransactionMetrics metrics;
+  private final double timeScale;
+  private final double remoteSupplyProbability;
+  private final double customerEmailProbability;
+  private final CompletableFuture<Void> completion;
+  private long deadlineNanos;
+
+  public Terminal(
+      EmployeeCredentials credentials,
+      String districtId,
+      Warehouse warehouse,
+      ReferenceData referenceData,
+      ApiClient client,
+      ScheduledExecutorService scheduler,
+      TransactionMetrics metrics,
+      DriverSettings settings) {
+    this.credentials = credentials;
+    this.districtId = districtId;
+    this.warehouse = warehouse;
+    this.referenceData = referenceData;
+    this.client = client;
+    this.scheduler = scheduler;
+    this.metrics = metrics;
+    timeScale = settings.getTimeScale();
+    remoteSupplyProbability = settings.getRemoteSupplyProbability();
+    customerEmailProbability = settings.getCustomerEmailProbability();
+    completion = new CompletableFuture<>();
+  }
+
+  /**
+   * Starts the transaction loop of this terminal after the given delay. No new transaction is
+   * started once the deadline has passed.
+   *
+   * @param delayMillis the delay before the first transaction is selected
+   * @param deadlineNanos the {@link System#nanoTime()} value after which the terminal stops
+   * @return a future that completes once the terminal has stopped
+   */
+  public CompletableFuture<Void> start(long delayMillis, long deadlineNanos) {
+    this.deadlineNanos = deadlineNanos;
+    scheduler.schedule(this::nextTransaction, delayMillis, TimeUnit.MILLISECONDS);
+    return completion;
+  }
+
+  public String getUsername() {
+    return credentials.getUsername();
+  }
+
+  private void nextTransaction() {
+    Random random = ThreadLocalRandom.current();
+    TransactionType type = TransactionType.next(random);
+    schedule(() -> perform(type), type.nextKeyingMillis(random));
+  }
+
+  private void perform(TransactionType type) {
+    HttpRequest request = buildRequest(type, ThreadLocalRandom.current());
+    long start = System.nanoTime();
+    client
+        .send(request)
+        .whenComplete(
+            (res, e) -> {
+              long end = System.nanoTime();
+              if (e == null && isSuccessful(res)) {
+                metrics.recordSuccess(
+                    type,
+                    end - start,
+                    res.headers().firstValueAsLong(PROCESSING_NANOS_HEADER_NAME).orElse(-1));
+              } else {
+                metrics.recordFailure(type);
+              }
+              schedule(this::nextTransaction, type.nextThinkMillis(ThreadLocalRandom.current()));
+            });
+  }
+
+  private void schedule(Runnable step, long unscaledDelayMillis) {
+    long delayNanos = (long) (TimeUnit.MILLISECONDS.toNanos(unscaledDelayMillis) * timeScale);
+    if (System.nanoTime() + delayNanos - deadlineNanos >= 0) {
+      completion.complete(null);
+      return;
+    }
+    scheduler.schedule(
+        () -> {
+          try {
+            step.run();
+          } catch (RuntimeException e) {
+            completion.completeExceptionally(e);
+          }
+        },
+        delayNanos,
+        TimeUnit.NANOSECONDS);
+  }
+
+  private HttpRequest buildRequest(TransactionType type, Random random) {
+    String warehouseId = warehouse.getId();
+    switch (type) {
+      case NEW_ORDER:
+        {
+          String district = warehouse.randomDistrictId(random);
+          Customer customer = warehouse.randomCustomer(district, random);
+          return client
+              .request(
+                  "warehouses/"
+                      + warehouseId
+                      + "/districts/"
+                      + district
+                      + "/customers/"
+                      + customer.getId()
+                      + "/orders",
+                  credentials)
+              .POST(BodyPublishers.ofString(newOrderItems(random)))
+              .build();
+        }
+      case PAYMENT:
+        {
+          String district = warehouse.randomDistrictId(random);
+          String identifier =
+              customerIdentifier(warehouse.randomCustomer(district, random), random);
+          int amount = random.nextInt(5_000) + 1;
+          return client
+              .request(
+                  "warehouses/"
+                      + warehouseId
+                      + "/districts/"
+                      + district
+                      + "/customers/payments?"
+                      + identifier,
+                  credentials)
+              .POST(BodyPublishers.ofString(String.valueOf(amount)))
+              .build();
+        }
+      case ORDER_STATUS:
+        {
+          String district = warehouse.randomDistrictId(random);
+          String identifier =
+              customerIdentifier(warehouse.randomCustomer(district, random), random);
+          return client
+              .request(
+                  "warehouses/"
+                      + warehouseId
+                      + "/districts/"
+                      + district
+                      + "/customers/orders/status?"
+                      + identifier,
+                  credentials)
+              .GET()
+              .build();
+        }
+      case DELIVERY:
+        return client
+            .request("warehouses/" + warehouseId + "/deliveries", credentials)
+            .POST(BodyPublishers.ofString(referenceData.randomCarrierId(random)))
+            .build();
+      case STOCK_LEVEL:
+        {
+          int threshold = random.nextInt(11) + 10;
+          return client
+              .request(
+                  "warehouses/"
+                      + warehouseId
+                      + "/stock-levels?districtId="
+                      + districtId
+                      + "&threshold="
+                      + threshold,
+                  credentials)
+              .GET()
+              .build();
+        }
+      default:
+        throw new IllegalArgumentException("Unknown transaction type " + type);
+    }
+  }
+
+  private String newOrderItems(Random random) {
+    int itemCount = random.nextInt(11) + 5;
+    ArrayNode items = client.getObjectMapper().createArrayNode();
+    for (int i = 0; i < itemCount; i++) {
+      String supplyingWarehouseId =
+          random.nextDouble() < remoteSupplyProbability
+              ? referenceData.randomRemoteWarehouseId(warehouse.getId(), random)
+              : warehouse.getId();
+      items
+          .addObject()
+          .put("productId", referenceData.randomProductId(random))
+          .put("quantity", random.nextInt(11) + 10)
+          .put("supplyingWarehouseId", supplyingWarehouseId);
+    }
+    return items.toString();
+  }
+
+  private String customerIdentifier(Customer customer, Random random) {
+    if (random.nextDouble() < customerEmailProbability) {
+      return "customerEmail=" + URLEncoder.encode(customer.getEmail(), StandardCharsets.UTF_8);
+    }
+    return "customerId=" + customer.getId();
+  }
+
+  private static boolean isSuccessful(HttpResponse<?> res) {
+    return res.statusCode() >= 200 && res.statusCode() < 300;
+  }
+}
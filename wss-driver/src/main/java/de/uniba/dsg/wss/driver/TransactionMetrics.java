@@ -0,0 +1,159 @@
+package de.uniba.dsg.wss.driver;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Records the outcome of the transactions performed by all terminals in HdrHistograms.
+ *
+ * <p>For every transaction type, two histograms are maintained: one for the end-to-end duration as
+ * observed by the terminal, and one for the processing duration reported by the server in the
+ * {@code Processing-Ns} header. Both record nanoseconds. Failed requests are only counted.
+ *
+ * @author Benedikt Full
+ */
+public class TransactionMetrics {
+
+  private static final Logger LOG = LogManager.getLogger(TransactionMetrics.class);
+  private static final int SIGNIFICANT_DIGITS = 3;
+  private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final Map<TransactionType, Histogram> endToEnd;
+  private final Map<TransactionType, Histogram> processing;
+  private final Map<TransactionType, LongAdder> failures;
+  private volatile boolean recording;
+
+  public TransactionMetrics() {
+    endToEnd = new EnumMap<>(TransactionType.class);
+    processing = new EnumMap<>(TransactionType.class);
+    failures = new EnumMap<>(TransactionType.class);
+    for (TransactionType type : TransactionType.values()) {
+      endToEnd.put(type, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+      processing.put(type, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+      failures.put(type, new LongAdder());
+    }
+    recording = false;
+  }
+
+  /**
+   * Enables or disables recording, which allows excluding the warm-up phase from the results.
+   *
+   * @param recording {@code true} to record subsequent outcomes, {@code false} to ignore them
+   */
+  public void setRecording(boolean recording) {
+    this.recording = recording;
+  }
+
+  /**
+   * Records a successful transaction.
+   *
+   * @param type the transaction type
+   * @param endToEndNanos the duration between sending the request and receiving the response
+   * @param processingNanos the processing duration reported by the server, or a negative value if
+   *     the response did not include it
+   */
+  public void recordSuccess(TransactionType type, long endToEndNanos, long processingNanos) {
+    if (!recording) {
+      return;
+    }
+    endToEnd.get(type).recordValue(endToEndNanos);
+    if (processingNanos >= 0) {
+      processing.get(type).recordValue(processingNanos);
+    }
+  }
+
+  /**
+   * Records a failed transaction, i.e. one with a non-successful status code or no response.
+   *
+   * @param type the transaction type
+   */
+  public void recordFailure(TransactionType type) {
+    if (recording) {
+      failures.get(type).increment();
+    }
+  }
+
+  public Histogram getEndToEndHistogram(TransactionType type) {
+    return endToEnd.get(type);
+  }
+
+  public Histogram getProcessingHistogram(TransactionType type) {
+    return processing.get(type);
+  }
+
+  public long getFailureCount(TransactionType type) {
+    return failures.get(type).sum();
+  }
+
+  /**
+   * Logs a summary line per transaction type, including the throughput based on the given
+   * measurement duration and selected percentiles in milliseconds.
+   *
+   * @param measurementSeconds the length of the recording phase
+   */
+  public void logSummary(double measurementSeconds) {
+    LOG.info(
+        "{} | {} | {} | {} | {} | {}",
+        String.format("%-16s", "transaction"),
+        String.format("%9s", "count"),
+        String.format("%7s", "failed"),
+        String.format("%8s", "tx/s"),
+        "end-to-end ms (p50 / p90 / p99 / max)",
+        "server ms (p50 / p90 / p99 / max)");
+    for (TransactionType type : TransactionType.values()) {
+      Histogram e2e = endToEnd.get(type);
+      LOG.info(
+          "{} | {} | {} | {} | {} | {}",
+          String.format("%-16s", type.getLabel()),
+          String.format("%9d", e2e.getTotalCount()),
+          String.format("%7d", getFailureCount(type)),
+          String.format("%8.2f", e2e.getTotalCount() / measurementSeconds),
+          percentiles(e2e),
+          percentiles(processing.get(type)));
+    }
+  }
+
+  /**
+   * Writes the percentile distribution of every histogram to a separate {@code .hgrm} file in the
+   * given directory. The values are scaled to milliseconds, and the files can be plotted with the
+   * usual HdrHistogram tooling.
+   *
+   * @param directory the target directory, created if necessary
+   * @throws IOException if writing any of the files fails
+   */
+  public void writeHistograms(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    for (TransactionType type : TransactionType.values()) {
+      String name = type.name().toLowerCase().replace('_', '-');
+      write(endToEnd.get(type), directory.resolve(name + "-end-to-end.hgrm"));
+      write(processing.get(type), directory.resolve(name + "-processing.hgrm"));
+    }
+  }
+
+  private static void write(Histogram histogram, Path file) throws IOException {
+    try (PrintStream out =
+        new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+      histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+    }
+  }
+
+  private static String percentiles(Histogram histogram) {
+    return String.format(
+        "%9.2f / %9.2f / %9.2f / %9.2f",
+        histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+        histogram.getValueAtPercentile(90) / NANOS_PER_MILLI,
+        histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+        histogram.getMaxValue() / NANOS_PER_MILLI);
+  }
+}
@@ -0,0 +1,112 @@
+package de.uniba.dsg.wss.driver;
+
+import java.util.Random;
+
+/**
+ * The business transactions performed by the terminals, including their share of the transaction
+ * mix and their keying and think times.
+ *
+ * <p>All values mirror the throughput controllers and uniform random timers of the {@code
+ * wss-terminals/terminals.jmx} test plan: every timer waits for a constant delay plus a uniformly
+ * distributed random range, both in milliseconds.
+ *
+ * @author Benedikt Full
+ */
+public enum TransactionType {
+  NEW_ORDER("POST new-order", 45, 18_000, 2_000, 12_000, 1_000),
+  PAYMENT("POST payment", 43, 3_000, 1_000, 12_000, 1_000),
+  ORDER_STATUS("GET order-status", 4, 2_000, 1_000, 10_000, 1_000),
+  DELIVERY("POST delivery", 4, 2_000, 1_000, 5_000, 1_000),
+  STOCK_LEVEL("GET stock-level", 4, 2_000, 1_000, 5_000, 1_000);
+
+  /** Constant delay of the menu step time, which precedes every transaction. */
+  public static final long MENU_STEP_DELAY_MILLIS = 1_500;
+  /** Random range of the menu step time, which precedes every transaction. */
+  public static final long MENU_STEP_RANGE_MILLIS = 500;
+
+  private static final TransactionType[] VALUES = values();
+  private static final int TOTAL_WEIGHT = totalWeight();
+
+  private final String label;
+  private final int weight;
+  private final long keyingDelayMillis;
+  private final long keyingRangeMillis;
+  private final long thinkDelayMillis;
+  private final long thinkRangeMillis;
+
+  TransactionType(
+      String label,
+      int weight,
+      long keyingDelayMillis,
+      long keyingRangeMillis,
+      long thinkDelayMillis,
+      long thinkRangeMillis) {
+    this.label = label;
+    this.weight = weight;
+    this.keyingDelayMillis = keyingDelayMillis;
+    this.keyingRangeMillis = keyingRangeMillis;
+    this.thinkDelayMillis = thinkDelayMillis;
+    this.thinkRangeMillis = thinkRangeMillis;
+  }
+
+  /**
+   * Selects the next transaction according to the weights of the transaction mix.
+   *
+   * @param random the source of randomness
+   * @return the selected transaction type
+   */
+  public static TransactionType next(Random random) {
+    int value = random.nextInt(TOTAL_WEIGHT);
+    for (TransactionType type : VALUES) {
+      value -= type.weight;
+      if (value < 0) {
+        return type;
+      }
+    }
+    throw new AssertionError();
+  }
+
+  /**
+   * Returns the time that passes between the selection of this transaction and the submission of
+   * its request, which is the sum of the menu step time and the keying time.
+   *
+   * @param random the source of randomness
+   * @return the delay in milliseconds, not yet scaled
+   */
+  public long nextKeyingMillis(Random random) {
+    return MENU_STEP_DELAY_MILLIS
+        + nextRange(random, MENU_STEP_RANGE_MILLIS)
+        + keyingDelayMillis
+        + nextRange(random, keyingRangeMillis);
+  }
+
+  /**
+   * Returns the time a terminal waits after having received the response of this transaction.
+   *
+   * @param random the source of randomness
+   * @return the delay in milliseconds, not yet scaled
+   */
+  public long nextThinkMillis(Random random) {
+    return thinkDelayMillis + nextRange(random, thinkRangeMillis);
+  }
+
+  public String getLabel() {
+    return label;
+  }
+
+  public int getWeight() {
+    return weight;
+  }
+
+  private static long nextRange(Random random, long range) {
+    return (long) (random.nextDouble() * range);
+  }
+
+  private static int totalWeight() {
+    int sum = 0;
+    for (TransactionType type : values()) {
+      sum += type.weight;
+    }
+    return sum;
+  }
+}
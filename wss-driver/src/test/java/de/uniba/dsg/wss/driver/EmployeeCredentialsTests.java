@@ -0,0 +1,57 @@
+package de.uniba.dsg.wss.driver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class EmployeeCredentialsTests {
+
+  @TempDir Path tempDir;
+
+  @Test
+  public void csvCredentialsAreReadInFileOrder() throws IOException {
+    Path file = tempDir.resolve("employees.csv");
+    Files.writeString(
+        file,
+        "USERNAME,PASSWORD\nterminal_user_1_2,password_1_2\nterminal_user_1_1,password_1_1\n");
+
+    List<EmployeeCredentials> credentials = EmployeeCredentials.fromCsv(file);
+
+    assertEquals(2, credentials.size());
+    assertEquals("terminal_user_1_2", credentials.get(0).getUsername());
+    assertEquals("password_1_2", credentials.get(0).getPassword());
+    assertEquals("terminal_user_1_1", credentials.get(1).getUsername());
+  }
+
+  @Test
+  public void malformedCsvLineThrowsIllegalArgumentException() throws IOException {
+    Path file = tempDir.resolve("employees.csv");
+    Files.writeString(file, "USERNAME,PASSWORD\nterminal_user_1_1\n");
+
+    assertThrows(IllegalArgumentException.class, () -> EmployeeCredentials.fromCsv(file));
+  }
+
+  @Test
+  public void generatedCredentialsAreOrderedByWarehouseAndDistrict() {
+    List<EmployeeCredentials> credentials = EmployeeCredentials.fromGeneratedModel(2);
+
+    assertEquals(20, credentials.size());
+    assertEquals("terminal_user_1_1", credentials.get(0).getUsername());
+    assertEquals("password_1_1", credentials.get(0).getPassword());
+    assertEquals("terminal_user_1_10", credentials.get(9).getUsername());
+    assertEquals("terminal_user_2_1", credentials.get(10).getUsername());
+  }
+
+  @Test
+  public void authorizationHeaderUsesBasicScheme() {
+    EmployeeCredentials credentials = new EmployeeCredentials("user", "pass");
+
+    assertEquals("Basic dXNlcjpwYXNz", credentials.getAuthorizationHeader());
+  }
+}
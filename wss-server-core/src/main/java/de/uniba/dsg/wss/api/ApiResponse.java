@@ -2,6 +2,7 @@ package de.uniba.dsg.wss.api;
 
 import static java.util.Objects.requireNonNull;
 
+import de.uniba.dsg.wss.service.TransactionTimings;
 import java.util.function.Supplier;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -21,6 +22,15 @@ public final class ApiResponse {
    */
   public static final String REQUEST_PROCESSING_NANOS_HEADER_NAME = "Processing-Ns";
 
+  /**
+   * HTTP header name for the standard <a href="https://www.w3.org/TR/server-timing/">{@code
+   * Server-Timing}</a> header, which details the time spent in the individual phases of a business
+   * transaction.
+   *
+   * @see TransactionTimings#toServerTimingHeader()
+   */
+  public static final String SERVER_TIMING_HEADER_NAME = "Server-Timing";
+
   private ApiResponse() {
     throw new AssertionError();
   }
@@ -68,10 +78,14 @@ public final class ApiResponse {
 
     private final HttpStatus status;
     private boolean durationHeader;
+    private String transaction;
+    private TransactionTimingRecorder timingRecorder;
 
     private ApiResponseBuilder(HttpStatus status) {
       this.status = requireNonNull(status);
       durationHeader = false;
+      transaction = null;
+      timingRecorder = null;
     }
 
     /**
@@ -106,6 +120,27 @@ public final class ApiResponse {
       return withDurationHeader(true);
     }
 
+    /**
+     * Can be used to indicate that the time spent in the {@link
+     * de.uniba.dsg.wss.service.TransactionPhase phases} of the business transaction executed by the
+     * task provided to {@link #withBody(Supplier)} should be measured.
+     *
+     * <p>The phase durations will be included as HTTP header with the name {@link
+     * #SERVER_TIMING_HEADER_NAME} and recorded by the given recorder. This only happens if timing
+     * is {@link TransactionTimings#isEnabled() enabled}, otherwise calling this method has no
+     * effect.
+     *
+     * @param transaction the name of the transaction, e.g. {@code new-order}
+     * @param timingRecorder the recorder for the phase durations
+     * @return this builder instance
+     */
+    public ApiResponseBuilder withServerTiming(
+        String transaction, TransactionTimingRecorder timingRecorder) {
+      this.transaction = requireNonNull(transaction);
+      this.timingRecorder = requireNonNull(timingRecorder);
+      return this;
+    }
+
     /**
      * Uses the current state of the builder to create a {@link ResponseEntity}, while the result of
      * the provided {@link Supplier} is used to populate the response body.
@@ -118,16 +153,29 @@ public final class ApiResponse {
       if (bodySupplier == null) {
         throw new IllegalArgumentException();
       }
+      TransactionTimings timings = timingRecorder == null ? null : TransactionTimings.start();
+      if (!durationHeader && timings == null) {
+        return ResponseEntity.status(status).body(bodySupplier.get());
+      }
+      long start = System.nanoTime();
+      T value;
+      try {
+        value = bodySupplier.get();
+      } finally {
+        if (timings != null) {
+          timings.stop();
+        }
+      }
+      long end = System.nanoTime();
+      HttpHeaders responseHeaders = new HttpHeaders();
       if (durationHeader) {
-        long start = System.nanoTime();
-        T value = bodySupplier.get();
-        long end = System.nanoTime();
-        HttpHeaders responseHeaders = new HttpHeaders();
         responseHeaders.set(REQUEST_PROCESSING_NANOS_HEADER_NAME, String.valueOf(end - start));
-        return ResponseEntity.status(status).headers(responseHeaders).body(value);
-      } else {
-        return ResponseEntity.status(status).body(bodySupplier.get());
       }
+      if (timings != null) {
+        responseHeaders.set(SERVER_TIMING_HEADER_NAME, timings.toServerTimingHeader());
+        timingRecorder.record(transaction, timings);
+      }
+      return ResponseEntity.status(status).headers(responseHeaders).body(value);
     }
   }
 }
@@ -0,0 +1,31 @@
+package de.uniba.dsg.wss.api;
+
+import de.uniba.dsg.wss.service.TransactionTimings;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configures the timing of business transactions. Timing is enabled or disabled for all threads
+ * based on the {@code wss.timing.enabled} property, timing is disabled by default. The flag is
+ * static, so that services can mark phases without any reference to a bean, and is set once when
+ * this configuration is created, i.e. before any transaction is processed.
+ *
+ * @author Benedikt Full
+ */
+@Configuration
+public class TransactionTimingConfiguration {
+
+  @Autowired
+  public TransactionTimingConfiguration(Environment environment) {
+    TransactionTimings.setEnabled(
+        environment.getProperty("wss.timing.enabled", Boolean.class, false));
+  }
+
+  @Bean
+  public TransactionTimingRecorder transactionTimingRecorder(MeterRegistry meterRegistry) {
+    return new TransactionTimingRecorder(meterRegistry);
+  }
+}
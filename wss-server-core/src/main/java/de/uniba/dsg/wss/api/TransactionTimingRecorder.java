@@ -0,0 +1,75 @@
+package de.uniba.dsg.wss.api;
+
+import de.uniba.dsg.wss.service.TransactionPhase;
+import de.uniba.dsg.wss.service.TransactionTimings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the {@link TransactionTimings} of successfully processed business transactions as
+ * histograms, which are available via the {@code metrics} and {@code prometheus} actuator endpoints
+ * under the name {@value #METRIC_NAME}.
+ *
+ * @see TransactionTimingConfiguration
+ * @author Benedikt Full
+ */
+public class TransactionTimingRecorder {
+
+  /** Name of the timer metric, tagged with {@code transaction} and {@code phase}. */
+  public static final String METRIC_NAME = "wss.transaction.phase";
+
+  private static final TransactionPhase[] PHASES = TransactionPhase.values();
+  private final MeterRegistry meterRegistry;
+  // Phase timers per transaction, the total duration is recorded by the last timer
+  private final Map<String, Timer[]> timers;
+
+  public TransactionTimingRecorder(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    timers = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Records the durations of all phases of the given timings which have been passed through, as
+   * well as the total duration.
+   *
+   * @param transaction the name of the transaction, e.g. {@code new-order}
+   * @param timings the stopped timings of the transaction
+   */
+  public void record(String transaction, TransactionTimings timings) {
+    Timer[] transactionTimers = timers.get(transaction);
+    if (transactionTimers == null) {
+      transactionTimers = timers.computeIfAbsent(transaction, this::createTimers);
+    }
+    for (TransactionPhase phase : PHASES) {
+      long duration = timings.getDuration(phase);
+      if (duration > 0) {
+        transactionTimers[phase.ordinal()].record(duration, TimeUnit.NANOSECONDS);
+      }
+    }
+    transactionTimers[PHASES.length].record(timings.getTotalDuration(), TimeUnit.NANOSECONDS);
+  }
+
+  private Timer[] createTimers(String transaction) {
+    Timer[] transactionTimers = new Timer[PHASES.length + 1];
+    for (TransactionPhase phase : PHASES) {
+      transactionTimers[phase.ordinal()] = createTimer(transaction, phase.getMetricName());
+    }
+    transactionTimers[PHASES.length] = createTimer(transaction, "total");
+    return transactionTimers;
+  }
+
+  private Timer createTimer(String transaction, String phase) {
+    return Timer.builder(METRIC_NAME)
+        .tag("transaction", transaction)
+        .tag("phase", phase)
+        .publishPercentiles(0.5, 0.9, 0.99)
+        .publishPercentileHistogram()
+        .minimumExpectedValue(Duration.ofNanos(1_000))
+        .maximumExpectedValue(Duration.ofSeconds(10))
+        .register(meterRegistry);
+  }
+}
@@ -2,6 +2,7 @@ package de.uniba.dsg.wss.api.controllers;
 
 import de.uniba.dsg.wss.api.ApiResponse;
 import de.uniba.dsg.wss.api.BadRequestException;
+import de.uniba.dsg.wss.api.TransactionTimingRecorder;
 import de.uniba.dsg.wss.auth.Privileges;
 import de.uniba.dsg.wss.data.transfer.messages.DeliveryRequest;
 import de.uniba.dsg.wss.data.transfer.messages.DeliveryResponse;
@@ -47,6 +48,10 @@ import org.springframework.web.bind.annotation.RestController;
  * request. This processing duration is the 'raw' service processing duration. This means that
  * request parsing and (de)serialization are not included.
  *
+ * <p>If transaction timing is enabled, responses will also include the {@link
+ * ApiResponse#SERVER_TIMING_HEADER_NAME SERVER_TIMING_HEADER_NAME} header, which breaks this
+ * duration down into the phases of the transaction.
+ *
  * @author Benedikt Full
  */
 @RestController
@@ -60,6 +65,7 @@ public class TransactionController {
   private final OrderStatusService orderStatusService;
   private final DeliveryService deliveryService;
   private final StockLevelService stockLevelService;
+  private final TransactionTimingRecorder timingRecorder;
 
   @Autowired
   public TransactionController(
@@ -67,12 +73,14 @@ public class TransactionController {
       PaymentService paymentService,
       OrderStatusService orderStatusService,
       DeliveryService deliveryService,
-      StockLevelService stockLevelService) {
+      StockLevelService stockLevelService,
+      TransactionTimingRecorder timingRecorder) {
     this.newOrderService = newOrderService;
     this.paymentService = paymentService;
     this.orderStatusService = orderStatusService;
     this.deliveryService = deliveryService;
     this.stockLevelService = stockLevelService;
+    this.timingRecorder = timingRecorder;
   }
 
   @PostMapping(
@@ -93,7 +101,10 @@ public class TransactionController {
       @PathVariable(name = "customerId") @NotBlank String customerId,
       @RequestBody @NotEmpty List<NewOrderRequestItem> items) {
     NewOrderRequest req = new NewOrderRequest(warehouseId, districtId, customerId, items);
-    return ApiResponse.created().withDurationHeader().withBody(() -> newOrderService.process(req));
+    return ApiResponse.created()
+        .withDurationHeader()
+        .withServerTiming("new-order", timingRecorder)
+        .withBody(() -> newOrderService.process(req));
   }
 
   @PostMapping(
@@ -120,7 +131,10 @@ public class TransactionController {
     requireEitherCustomerIdOrEmail(customerId, customerEmail);
     PaymentRequest req =
         new PaymentRequest(warehouseId, districtId, customerId, customerEmail, amount);
-    return ApiResponse.created().withDurationHeader().withBody(() -> paymentService.process(req));
+    return ApiResponse.created()
+        .withDurationHeader()
+        .withServerTiming("payment", timingRecorder)
+        .withBody(() -> paymentService.process(req));
   }
 
   @GetMapping(
@@ -146,7 +160,10 @@ public class TransactionController {
     requireEitherCustomerIdOrEmail(customerId, customerEmail);
     OrderStatusRequest req =
         new OrderStatusRequest(warehouseId, districtId, customerId, customerEmail);
-    return ApiResponse.ok().withDurationHeader().withBody(() -> orderStatusService.process(req));
+    return ApiResponse.ok()
+        .withDurationHeader()
+        .withServerTiming("order-status", timingRecorder)
+        .withBody(() -> orderStatusService.process(req));
   }
 
   @PostMapping(
@@ -165,7 +182,10 @@ public class TransactionController {
       @PathVariable(name = "warehouseId") @NotBlank String warehouseId,
       @RequestBody @NotBlank String carrierId) {
     DeliveryRequest req = new DeliveryRequest(warehouseId, carrierId);
-    return ApiResponse.created().withDurationHeader().withBody(() -> deliveryService.process(req));
+    return ApiResponse.created()
+        .withDurationHeader()
+        .withServerTiming("delivery", timingRecorder)
+        .withBody(() -> deliveryService.process(req));
   }
 
   @GetMapping(
@@ -186,7 +206,10 @@ public class TransactionController {
       @RequestParam(name = "districtId") @NotBlank String districtId,
       @RequestParam(name = "threshold") @Min(value = 10) int threshold) {
     StockLevelRequest req = new StockLevelRequest(warehouseId, districtId, threshold);
-    return ApiResponse.ok().withDurationHeader().withBody(() -> stockLevelService.process(req));
+    return ApiResponse.ok()
+        .withDurationHeader()
+        .withServerTiming("stock-level", timingRecorder)
+        .withBody(() -> stockLevelService.process(req));
   }
 
   private void requireEitherCustomerIdOrEmail(String id, String email) throws BadRequestException {
@@ -0,0 +1,139 @@
+package de.uniba.dsg.wss.auth;
+
+import static java.util.Objects.requireNonNull;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Authentication provider which keeps a bounded, time-limited cache of successfully verified
+ * credentials in front of another provider, usually a {@link
+ * org.springframework.security.authentication.dao.DaoAuthenticationProvider
+ * DaoAuthenticationProvider} relying on a deliberately slow password encoder such as BCrypt.
+ *
+ * <p>As HTTP Basic authentication is used without sessions, every single request has to be
+ * authenticated. With this provider, only the first request of an employee (and the first request
+ * after the cached entry has expired) pays for the password verification of the delegate, while all
+ * subsequent requests with the same credentials are authenticated by comparing a salted SHA-256
+ * digest. Plain text passwords are never cached, and the salt is generated randomly whenever the
+ * provider is created. Failed authentication attempts are never cached. As the server does not
+ * offer any way of changing the credentials of employees, cached credentials are only removed once
+ * they expire or are evicted to make room for others. Entries are kept in a Caffeine cache, which
+ * evicts the least recently and frequently used credentials in amortized constant time, and which
+ * keeps frequently used credentials even if there are more employees than cached credentials.
+ *
+ * <p>The numbers of cache hits and misses are available as {@value #METRIC_NAME} counters, tagged
+ * with {@code result}.
+ *
+ * @author Benedikt Full
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+  /** Name of the counter metric, tagged with {@code result} ({@code hit} or {@code miss}). */
+  public static final String METRIC_NAME = "wss.auth.cache";
+
+  private final AuthenticationProvider delegate;
+  private final byte[] salt;
+  private final Cache<String, CachedCredentials> cache;
+  private final Counter hits;
+  private final Counter misses;
+
+  /**
+   * Creates a new caching provider.
+   *
+   * @param delegate the provider which actually verifies credentials in case of a cache miss
+   * @param timeToLive how long verified credentials remain valid
+   * @param maxSize the maximum number of cached credentials, must be greater than zero
+   * @param meterRegistry the registry for the cache metrics
+   */
+  public CachingAuthenticationProvider(
+      AuthenticationProvider delegate,
+      Duration timeToLive,
+      int maxSize,
+      MeterRegistry meterRegistry) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Max size must be greater than zero");
+    }
+    this.delegate = requireNonNull(delegate);
+    salt = new byte[16];
+    new SecureRandom().nextBytes(salt);
+    cache =
+        Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(requireNonNull(timeToLive))
+            // Evicts in the authenticating threads, which keeps the size of the cache bounded
+            .executor(Runnable::run)
+            .build();
+    hits = meterRegistry.counter(METRIC_NAME, "result", "hit");
+    misses = meterRegistry.counter(METRIC_NAME, "result", "miss");
+    Gauge.builder(METRIC_NAME + ".size", cache, Cache::estimatedSize).register(meterRegistry);
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+    String username = authentication.getName();
+    Object credentials = authentication.getCredentials();
+    if (username == null || !(credentials instanceof String)) {
+      return delegate.authenticate(authentication);
+    }
+    byte[] digest = digest(username, (String) credentials);
+    CachedCredentials cached = cache.getIfPresent(username);
+    if (cached != null && MessageDigest.isEqual(cached.digest, digest)) {
+      hits.increment();
+      // Fresh token, as the returned one may be modified, e.g. by erasing its credentials
+      UsernamePasswordAuthenticationToken result =
+          new UsernamePasswordAuthenticationToken(
+              cached.authentication.getPrincipal(), null, cached.authentication.getAuthorities());
+      result.setDetails(authentication.getDetails());
+      return result;
+    }
+
+    misses.increment();
+    Authentication result = delegate.authenticate(authentication);
+    if (result != null && result.isAuthenticated()) {
+      cache.put(username, new CachedCredentials(digest, result));
+    }
+    return result;
+  }
+
+  @Override
+  public boolean supports(Class<?> authentication) {
+    return delegate.supports(authentication);
+  }
+
+  private byte[] digest(String username, String password) {
+    try {
+      MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+      messageDigest.update(salt);
+      messageDigest.update(username.getBytes(StandardCharsets.UTF_8));
+      messageDigest.update((byte) 0);
+      return messageDigest.digest(password.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static class CachedCredentials {
+
+    private final byte[] digest;
+    private final Authentication authentication;
+
+    private CachedCredentials(byte[] digest, Authentication authentication) {
+      this.digest = digest;
+      this.authentication = authentication;
+    }
+  }
+}
@@ -1,8 +1,12 @@
 package de.uniba.dsg.wss.auth;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
 import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -24,6 +28,10 @@ import org.springframework.security.crypto.password.PasswordEncoder;
  * users which can authenticate themselves with basic authentication and hold the role {@link
  * Roles#USER}. Note that the controller implementations may restrict access even further.
  *
+ * <p>If enabled via {@code wss.auth.cache.enabled}, successfully verified credentials are cached
+ * for {@code wss.auth.cache.ttl} seconds by a {@link CachingAuthenticationProvider}, so that only
+ * the first request of an employee pays for the expensive password verification.
+ *
  * @author Benedikt Full
  */
 @Configuration
@@ -31,19 +39,30 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @EnableGlobalMethodSecurity(prePostEnabled = true)
 public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
+  private final Environment environment;
   private final EmployeeUserDetailsService userDetailsService;
   private final AuthorityMapping authorityMapping;
+  private final MeterRegistry meterRegistry;
 
   @Autowired
   public SecurityConfiguration(
-      EmployeeUserDetailsService userDetailsService, AuthorityMapping authorityMapping) {
+      Environment environment,
+      EmployeeUserDetailsService userDetailsService,
+      AuthorityMapping authorityMapping,
+      MeterRegistry meterRegistry) {
+    this.environment = environment;
     this.userDetailsService = userDetailsService;
     this.authorityMapping = authorityMapping;
+    this.meterRegistry = meterRegistry;
   }
 
   @Override
   public void configure(AuthenticationManagerBuilder authBuilder) {
-    authBuilder.authenticationProvider(daoAuthenticationProvider());
+    if (environment.getProperty("wss.auth.cache.enabled", Boolean.class, false)) {
+      authBuilder.authenticationProvider(cachingAuthenticationProvider());
+    } else {
+      authBuilder.authenticationProvider(daoAuthenticationProvider());
+    }
   }
 
   @Override
@@ -79,6 +98,16 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
     return provider;
   }
 
+  @Bean
+  @ConditionalOnProperty(name = "wss.auth.cache.enabled", havingValue = "true")
+  public CachingAuthenticationProvider cachingAuthenticationProvider() {
+    return new CachingAuthenticationProvider(
+        daoAuthenticationProvider(),
+        Duration.ofSeconds(environment.getProperty("wss.auth.cache.ttl", Long.class, 300L)),
+        environment.getProperty("wss.auth.cache.max-size", Integer.class, 1_000),
+        meterRegistry);
+  }
+
   @Bean
   public RoleHierarchy roleHierarchy() {
     RoleHierarchyImpl roleHierarchy = new RoleHierarchyImpl();
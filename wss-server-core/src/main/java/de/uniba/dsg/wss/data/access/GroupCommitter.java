@@ -0,0 +1,424 @@
+package de.uniba.dsg.wss.data.access;
+
+import static java.util.Objects.requireNonNull;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Combines the writes of concurrent transactions into batches, so that a single (usually
+ * fsync-bound) storage commit makes the changes of many transactions durable at once.
+ *
+ * <p>Transactions {@link #enqueue(Collection) enqueue} the objects they have modified. The objects
+ * are written to the currently open batch right away, i.e. while the transaction still holds its
+ * locks, and a dedicated flusher thread commits the batch once it contains {@code maxBatchSize}
+ * transactions or has been open for {@code maxDelay}. The returned future completes as soon as the
+ * batch has been committed, which means that transactions should release their locks before waiting
+ * for it. Batches are committed in the order in which they have been opened.
+ *
+ * <p>An object can only be written once per batch, which is why a transaction modifying an object
+ * already written by another transaction of the open batch closes the batch and opens a new one.
+ * Once {@code queueCapacity} transactions are waiting for their batches to be committed, further
+ * transactions are blocked until the flusher catches up.
+ *
+ * <p>Committing a batch only holds a lock of its own, which keeps the batches committed in order,
+ * but not the lock guarding the open batch. Transactions thus join the open batch without waiting
+ * for the commit of previous batches, and writers must allow objects to be written to one batch
+ * while another one is being committed. A maximum batch size of one disables group commit, in which
+ * case every transaction commits its own batch in the calling thread and no flusher thread is
+ * started.
+ *
+ * <p>The sizes of committed batches, the commit latency, and the number of transactions waiting for
+ * their commit are available as {@value #METRIC_NAME}{@code .batch.size}, {@value
+ * #METRIC_NAME}{@code .flush}, and {@value #METRIC_NAME}{@code .queue.depth} metrics, tagged with
+ * {@code name}.
+ *
+ * @param <B> the type of the batches, e.g. a MicroStream {@code Storer}
+ * @author Benedikt Full
+ */
+public class GroupCommitter<B> implements AutoCloseable {
+
+  /** Prefix of the metric names. */
+  public static final String METRIC_NAME = "wss.group-commit";
+
+  private static final Logger LOG = LogManager.getLogger(GroupCommitter.class);
+
+  private final String name;
+  private final BatchWriter<B> writer;
+  private final int maxBatchSize;
+  private final long maxDelayNanos;
+  private final int queueCapacity;
+  private final ReentrantLock lock;
+  private final ReentrantLock flushLock;
+  private final Condition batchAvailable;
+  private final Condition capacityAvailable;
+  private final Deque<Batch<B>> closedBatches;
+  private final Thread flusher;
+  private final DistributionSummary batchSizes;
+  private final Timer flushLatency;
+  private Batch<B> openBatch;
+  private volatile int queueDepth;
+  private boolean closed;
+
+  /**
+   * Creates a new group committer and starts its flusher thread, unless group commit is disabled.
+   *
+   * @param name the name of the committer, used for the flusher thread and the metric tags
+   * @param writer the writer for the batches
+   * @param maxBatchSize the maximum number of transactions per batch, must be greater than zero
+   * @param maxDelay the maximum time a batch is kept open before being committed
+   * @param queueCapacity the maximum number of transactions waiting for their commit, must not be
+   *     lower than the maximum batch size
+   * @param meterRegistry the registry for the metrics
+   */
+  public GroupCommitter(
+      String name,
+      BatchWriter<B> writer,
+      int maxBatchSize,
+      Duration maxDelay,
+      int queueCapacity,
+      MeterRegistry meterRegistry) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("Max batch size must be greater than zero");
+    }
+    if (queueCapacity < maxBatchSize) {
+      throw new IllegalArgumentException("Queue capacity must not be lower than max batch size");
+    }
+    this.name = requireNonNull(name);
+    this.writer = requireNonNull(writer);
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelayNanos = requireNonNull(maxDelay).toNanos();
+    this.queueCapacity = queueCapacity;
+    lock = new ReentrantLock();
+    flushLock = new ReentrantLock();
+    batchAvailable = lock.newCondition();
+    capacityAvailable = lock.newCondition();
+    closedBatches = new ArrayDeque<>();
+    batchSizes =
+        DistributionSummary.builder(METRIC_NAME + ".batch.size")
+            .tag("name", name)
+            .register(meterRegistry);
+    flushLatency = Timer.builder(METRIC_NAME + ".flush").tag("name", name).register(meterRegistry);
+    Gauge.builder(METRIC_NAME + ".queue.depth", this, GroupCommitter::getQueueDepth)
+        .tag("name", name)
+        .register(meterRegistry);
+    if (maxBatchSize > 1) {
+      flusher = new Thread(this::flushContinuously, "wss-group-commit-" + name);
+      flusher.setDaemon(true);
+      flusher.start();
+      LOG.info(
+          "Using group commit for {} (max batch size: {}, max delay: {}, queue capacity: {})",
+          name,
+          maxBatchSize,
+          maxDelay,
+          queueCapacity);
+    } else {
+      flusher = null;
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public boolean isEnabled() {
+    return flusher != null;
+  }
+
+  /**
+   * Returns the number of transactions which have been enqueued, but whose batch has not been
+   * committed yet.
+   *
+   * @return the current queue depth
+   */
+  public int getQueueDepth() {
+    return queueDepth;
+  }
+
+  /**
+   * Writes the given objects to the open batch. Must be called while the caller still holds the
+   * locks protecting the objects, as the objects may be serialized immediately.
+   *
+   * @param objects the objects modified by a transaction
+   * @return a future which completes once the objects have been committed
+   * @throws IllegalStateException if the committer has been closed
+   */
+  public CompletableFuture<Void> enqueue(Collection<?> objects) {
+    if (objects.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    if (flusher == null) {
+      Batch<B> batch;
+      lock.lock();
+      try {
+        batch = new Batch<>(writer.open(), System.nanoTime());
+        writer.write(batch.target, objects);
+        batch.transactionCount++;
+        closedBatches.add(batch);
+      } finally {
+        lock.unlock();
+      }
+      flushClosedBatches();
+      return batch.committed;
+    }
+    lock.lock();
+    try {
+      while (queueDepth >= queueCapacity && !closed) {
+        capacityAvailable.awaitUninterruptibly();
+      }
+      if (closed) {
+        throw new IllegalStateException("Group committer " + name + " has been closed");
+      }
+      if (openBatch != null && !Collections.disjoint(openBatch.objects, objects)) {
+        closeOpenBatch();
+      }
+      if (openBatch == null) {
+        openBatch = new Batch<>(writer.open(), System.nanoTime());
+        batchAvailable.signal();
+      }
+      Batch<B> batch = openBatch;
+      writer.write(batch.target, objects);
+      batch.objects.addAll(objects);
+      batch.transactionCount++;
+      queueDepth++;
+      if (batch.transactionCount >= maxBatchSize) {
+        closeOpenBatch();
+      }
+      return batch.committed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Waits for the completion of the given future and rethrows any exception thrown while committing
+   * the batch.
+   *
+   * @param future a future created by {@link #enqueue(Collection)}
+   */
+  public static void await(CompletableFuture<Void> future) {
+    try {
+      future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /** Commits all pending batches and stops the flusher thread. */
+  @Override
+  public void close() {
+    if (flusher == null) {
+      return;
+    }
+    lock.lock();
+    try {
+      closed = true;
+      batchAvailable.signalAll();
+      capacityAvailable.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    try {
+      flusher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void closeOpenBatch() {
+    closedBatches.add(openBatch);
+    openBatch = null;
+    batchAvailable.signal();
+  }
+
+  private void flushContinuously() {
+    while (awaitClosedBatch()) {
+      flushClosedBatches();
+    }
+  }
+
+  // returns false once the committer has been closed and all batches have been committed
+  private boolean awaitClosedBatch() {
+    lock.lock();
+    try {
+      while (true) {
+        if (!closedBatches.isEmpty()) {
+          return true;
+        }
+        if (openBatch != null) {
+          long remainingNanos = openBatch.openedAt + maxDelayNanos - System.nanoTime();
+          if (remainingNanos <= 0 || closed) {
+            closeOpenBatch();
+            return true;
+          }
+          batchAvailable.awaitNanos(remainingNanos);
+        } else if (closed) {
+          return false;
+        } else {
+          batchAvailable.await();
+        }
+      }
+    } catch (InterruptedException e) {
+      // Interrupted flushers commit the remaining batches like closed ones
+      closed = true;
+      capacityAvailable.signalAll();
+      if (openBatch != null) {
+        closeOpenBatch();
+      }
+      return !closedBatches.isEmpty();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void flushClosedBatches() {
+    flushLock.lock();
+    try {
+      Batch<B> batch;
+      while ((batch = pollClosedBatch()) != null) {
+        flush(batch);
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private Batch<B> pollClosedBatch() {
+    lock.lock();
+    try {
+      return closedBatches.poll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // must be called while holding the flush lock, but not the lock guarding the open batch
+  private void flush(Batch<B> batch) {
+    RuntimeException failure = null;
+    long start = System.nanoTime();
+    try {
+      writer.flush(batch.target);
+    } catch (RuntimeException e) {
+      LOG.error("Failed to commit batch of {} transactions", batch.transactionCount, e);
+      failure = e;
+    }
+    flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    batchSizes.record(batch.transactionCount);
+    if (flusher != null) {
+      lock.lock();
+      try {
+        queueDepth -= batch.transactionCount;
+        capacityAvailable.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+    if (failure == null) {
+      batch.committed.complete(null);
+    } else {
+      batch.committed.completeExceptionally(failure);
+    }
+  }
+
+  /**
+   * Writes the objects of transactions to batches and commits them, e.g. by using a MicroStream
+   * {@code Storer}.
+   *
+   * @param <B> the type of the batches
+   */
+  public interface BatchWriter<B> {
+
+    /**
+     * Opens a new, empty batch.
+     *
+     * @return the batch
+     */
+    B open();
+
+    /**
+     * Writes the given objects to the given open batch.
+     *
+     * @param batch the batch
+     * @param objects the objects to write
+     */
+    void write(B batch, Collection<?> objects);
+
+    /**
+     * Commits the given batch, i.e. makes all objects written to it durable. Objects may be written
+     * to another batch concurrently.
+     *
+     * @param batch the batch
+     */
+    void flush(B batch);
+
+    /**
+     * Creates a writer from the given functions.
+     *
+     * @param open opens a new batch
+     * @param write writes objects to a batch
+     * @param flush commits a batch
+     * @param <B> the type of the batches
+     * @return the writer
+     */
+    static <B> BatchWriter<B> of(
+        Supplier<B> open, BiConsumer<B, Collection<?>> write, Consumer<B> flush) {
+      requireNonNull(open);
+      requireNonNull(write);
+      requireNonNull(flush);
+      return new BatchWriter<>() {
+        @Override
+        public B open() {
+          return open.get();
+        }
+
+        @Override
+        public void write(B batch, Collection<?> objects) {
+          write.accept(batch, objects);
+        }
+
+        @Override
+        public void flush(B batch) {
+          flush.accept(batch);
+        }
+      };
+    }
+  }
+
+  private static class Batch<B> {
+
+    private final B target;
+    private final long openedAt;
+    private final Set<Object> objects;
+    private final CompletableFuture<Void> committed;
+    private int transactionCount;
+
+    private Batch(B target, long openedAt) {
+      this.target = target;
+      this.openedAt = openedAt;
+      objects = Collections.newSetFromMap(new IdentityHashMap<>());
+      committed = new CompletableFuture<>();
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package de.uniba.dsg.wss.data.access;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import one.microstream.persistence.binary.types.Binary;
+import one.microstream.persistence.types.PersistenceTarget;
+import one.microstream.persistence.types.Storer;
+import one.microstream.storage.embedded.types.EmbeddedStorageConnectionFoundation;
+import one.microstream.storage.embedded.types.EmbeddedStorageFoundation;
+import one.microstream.storage.embedded.types.EmbeddedStorageManager;
+import one.microstream.storage.types.StorageConnection;
+
+/**
+ * Batch writer for a {@link GroupCommitter} which uses MicroStream storers as batches and allows
+ * objects to be written to one storer while another one is being committed.
+ *
+ * <p>Concurrently used lazy storers deadlock if objects are written to one storer while another one
+ * registers the ids of its committed objects, since both lock the object registry and the storers
+ * in opposite order. The writer thus serializes writing objects and registering committed objects
+ * with a merge lock. Storers of this writer acquire the lock only once their data has been written
+ * to the storage, which means that writing objects waits for the in-memory part of a commit, but
+ * never for its I/O. Storers only acquire the lock while being {@link #flush(Storer) flushed},
+ * which releases it in any case.
+ *
+ * <p>The writer is shared by the MicroStream implementations, which provide the MicroStream
+ * dependency.
+ *
+ * @author Benedikt Full
+ */
+public class MsBatchWriter implements GroupCommitter.BatchWriter<Storer> {
+
+  private final ReentrantLock mergeLock;
+  private final ThreadLocal<Boolean> flushing;
+  private final StorageConnection connection;
+
+  /**
+   * Creates a new writer whose storers write to the storage of the given storage manager.
+   *
+   * @param storageManager the running storage manager
+   * @param foundation the foundation the storage manager has been created with
+   */
+  public MsBatchWriter(
+      EmbeddedStorageManager storageManager, EmbeddedStorageFoundation<?> foundation) {
+    if (!storageManager.isRunning()) {
+      throw new IllegalStateException("Storage manager is not running");
+    }
+    mergeLock = new ReentrantLock();
+    flushing = ThreadLocal.withInitial(() -> false);
+    EmbeddedStorageConnectionFoundation<?> connectionFoundation =
+        foundation.getConnectionFoundation();
+    PersistenceTarget<Binary> target = connectionFoundation.getPersistenceTarget();
+    // only the connection of this writer uses the merge lock
+    connectionFoundation.setPersistenceTarget(new MergeLockingTarget(target));
+    try {
+      connection = connectionFoundation.createStorageConnection();
+    } finally {
+      connectionFoundation.setPersistenceTarget(target);
+    }
+  }
+
+  @Override
+  public Storer open() {
+    return connection.createLazyStorer();
+  }
+
+  @Override
+  public void write(Storer batch, Collection<?> objects) {
+    mergeLock.lock();
+    try {
+      batch.storeAll(objects);
+    } finally {
+      mergeLock.unlock();
+    }
+  }
+
+  @Override
+  public void flush(Storer batch) {
+    flushing.set(true);
+    try {
+      batch.commit();
+    } finally {
+      flushing.set(false);
+      // acquired by the target once the data of the batch has been written
+      if (mergeLock.isHeldByCurrentThread()) {
+        mergeLock.unlock();
+      }
+    }
+  }
+
+  private class MergeLockingTarget implements PersistenceTarget<Binary> {
+
+    private final PersistenceTarget<Binary> delegate;
+
+    private MergeLockingTarget(PersistenceTarget<Binary> delegate) {
+      this.delegate = requireNonNull(delegate);
+    }
+
+    @Override
+    public void write(Binary data) {
+      delegate.write(data);
+      // the storer registers the written objects next, which must not overlap with writes
+      if (flushing.get() && !mergeLock.isHeldByCurrentThread()) {
+        mergeLock.lock();
+      }
+    }
+
+    @Override
+    public void validateIsWritable() {
+      delegate.validateIsWritable();
+    }
+
+    @Override
+    public boolean isWritable() {
+      return delegate.isWritable();
+    }
+
+    @Override
+    public void validateIsStoringEnabled() {
+      delegate.validateIsStoringEnabled();
+    }
+
+    @Override
+    public boolean isStoringEnabled() {
+      return delegate.isStoringEnabled();
+    }
+  }
+}
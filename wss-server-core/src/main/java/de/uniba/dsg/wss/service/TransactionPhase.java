@@ -0,0 +1,39 @@
+package de.uniba.dsg.wss.service;
+
+/**
+ * The phases the processing of a business transaction is divided into for the purpose of {@link
+ * TransactionTimings timing}.
+ *
+ * <p>Not every transaction passes through every phase, and implementations may pass through a phase
+ * more than once, e.g. when retrying a transaction.
+ *
+ * @author Benedikt Full
+ */
+public enum TransactionPhase {
+
+  /** Finding and reading the objects required by the transaction. */
+  LOOKUP("lookup"),
+  /** Waiting for locks or for exclusive access to the persistence solution. */
+  LOCK_WAIT("lock-wait"),
+  /** Creating new and modifying existing objects in memory. */
+  MUTATE("mutate"),
+  /** Writing the modified objects to the persistent storage, including commits. */
+  PERSIST("persist"),
+  /** Assembling the response of the transaction. */
+  BUILD_RESPONSE("build-response");
+
+  private final String metricName;
+
+  TransactionPhase(String metricName) {
+    this.metricName = metricName;
+  }
+
+  /**
+   * Returns the name of the phase as used in the {@code Server-Timing} header and as metric tag.
+   *
+   * @return the name, in lower case and with dashes
+   */
+  public String getMetricName() {
+    return metricName;
+  }
+}
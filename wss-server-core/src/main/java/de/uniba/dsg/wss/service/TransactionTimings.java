@@ -0,0 +1,196 @@
+package de.uniba.dsg.wss.service;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Lightweight, per-thread breakdown of the time spent in the {@link TransactionPhase phases} of a
+ * business transaction.
+ *
+ * <p>Services and data access components mark the end of a phase by calling {@link
+ * #mark(TransactionPhase)}. The time elapsed since the previous mark (or since the timing has been
+ * started) is then attributed to the given phase. Any time which elapses after the last mark until
+ * the timing is stopped is attributed to {@link TransactionPhase#BUILD_RESPONSE}. A typical
+ * transaction therefore looks like the following:
+ *
+ * <pre>
+ *   // Find warehouse, district, customer...
+ *   TransactionTimings.mark(TransactionPhase.LOOKUP);
+ *   synchronized (lock) {
+ *     TransactionTimings.mark(TransactionPhase.LOCK_WAIT);
+ *     // Update objects...
+ *     TransactionTimings.mark(TransactionPhase.MUTATE);
+ *     // Store objects...
+ *     TransactionTimings.mark(TransactionPhase.PERSIST);
+ *   }
+ *   return new Response(...);
+ * </pre>
+ *
+ * <p>Timing is disabled by default, in which case marking a phase only consists of reading a single
+ * static field. No objects are allocated, which means that marks may remain in the code of the
+ * services at all times. When enabled, every thread reuses its own instance of this class, so
+ * marking a phase does not allocate either.
+ *
+ * <p>Since the timing belongs to the thread which started it, marks of other threads are ignored.
+ * Tasks handed over to another thread, while the starting thread waits for their completion, can
+ * continue the timing by being wrapped with {@link #propagate(Supplier)}. Threads which serve
+ * several transactions at once, like the writers of group commits, do not mark any phase. The
+ * waiting transactions attribute the time to the phase they have been waiting in instead.
+ *
+ * @author Benedikt Full
+ */
+public final class TransactionTimings {
+
+  private static final TransactionPhase[] PHASES = TransactionPhase.values();
+  private static final ThreadLocal<TransactionTimings> CURRENT =
+      ThreadLocal.withInitial(TransactionTimings::new);
+  private static volatile boolean enabled = false;
+
+  private final long[] durations;
+  private long start;
+  private long last;
+  private long total;
+  private boolean running;
+
+  private TransactionTimings() {
+    durations = new long[PHASES.length];
+    running = false;
+  }
+
+  /**
+   * Enables or disables timing for all threads.
+   *
+   * @param enable {@code true} to enable timing, {@code false} to disable it
+   */
+  public static void setEnabled(boolean enable) {
+    enabled = enable;
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts the timing of a new transaction processed by the current thread, discarding any previous
+   * timing of this thread.
+   *
+   * @return the timings of the current thread, or {@code null} if timing is disabled
+   */
+  public static TransactionTimings start() {
+    if (!enabled) {
+      return null;
+    }
+    TransactionTimings timings = CURRENT.get();
+    for (int i = 0; i < timings.durations.length; i++) {
+      timings.durations[i] = 0;
+    }
+    timings.start = System.nanoTime();
+    timings.last = timings.start;
+    timings.total = 0;
+    timings.running = true;
+    return timings;
+  }
+
+  /**
+   * Wraps the given task, so that the thread executing it continues the timing of the current
+   * thread. The current thread has to wait for the completion of the task without marking any phase
+   * in the meantime, as the timing must only be marked by one thread at a time.
+   *
+   * @param task the task to be executed by another thread
+   * @param <T> the type of the result
+   * @return the wrapped task, or the task itself if timing is disabled or no timing has been
+   *     started by the current thread
+   */
+  public static <T> Supplier<T> propagate(Supplier<T> task) {
+    if (!enabled) {
+      return task;
+    }
+    TransactionTimings timings = CURRENT.get();
+    if (!timings.running) {
+      return task;
+    }
+    return () -> {
+      TransactionTimings previous = CURRENT.get();
+      CURRENT.set(timings);
+      try {
+        return task.get();
+      } finally {
+        CURRENT.set(previous);
+      }
+    };
+  }
+
+  /**
+   * Attributes the time elapsed since the previous mark to the given phase. Does nothing if timing
+   * is disabled or if no timing has been started by the current thread.
+   *
+   * @param phase the phase which has just ended
+   */
+  public static void mark(TransactionPhase phase) {
+    if (!enabled) {
+      return;
+    }
+    TransactionTimings timings = CURRENT.get();
+    if (timings.running) {
+      long now = System.nanoTime();
+      timings.durations[phase.ordinal()] += now - timings.last;
+      timings.last = now;
+    }
+  }
+
+  /**
+   * Stops the timing, attributing the time elapsed since the last mark to {@link
+   * TransactionPhase#BUILD_RESPONSE}.
+   */
+  public void stop() {
+    if (running) {
+      long now = System.nanoTime();
+      durations[TransactionPhase.BUILD_RESPONSE.ordinal()] += now - last;
+      total = now - start;
+      running = false;
+    }
+  }
+
+  /**
+   * Returns the time spent in the given phase.
+   *
+   * @param phase the phase
+   * @return the duration in nanoseconds, {@code 0} if the phase has never been marked
+   */
+  public long getDuration(TransactionPhase phase) {
+    return durations[phase.ordinal()];
+  }
+
+  /**
+   * Returns the time between starting and stopping the timing.
+   *
+   * @return the duration in nanoseconds
+   */
+  public long getTotalDuration() {
+    return total;
+  }
+
+  /**
+   * Creates the value of a <a href="https://www.w3.org/TR/server-timing/">{@code Server-Timing}</a>
+   * HTTP header, which lists the duration of all phases that have been marked as well as the total
+   * duration in milliseconds, e.g. {@code lookup;dur=0.041, persist;dur=1.327, total;dur=1.402}.
+   *
+   * @return the header value
+   */
+  public String toServerTimingHeader() {
+    StringBuilder sb = new StringBuilder(160);
+    for (TransactionPhase phase : PHASES) {
+      long duration = durations[phase.ordinal()];
+      if (duration > 0) {
+        appendMetric(sb, phase.getMetricName(), duration).append(", ");
+      }
+    }
+    return appendMetric(sb, "total", total).toString();
+  }
+
+  private static StringBuilder appendMetric(StringBuilder sb, String name, long nanos) {
+    return sb.append(name)
+        .append(";dur=")
+        .append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+  }
+}
@@ -0,0 +1,179 @@
+package de.uniba.dsg.wss.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+public class CachingAuthenticationProviderTests {
+
+  private AtomicInteger delegateCalls;
+  private AuthenticationProvider delegate;
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  public void setUp() {
+    delegateCalls = new AtomicInteger();
+    // Accepts every user whose password is "password_" followed by the username
+    delegate =
+        new AuthenticationProvider() {
+          @Override
+          public Authentication authenticate(Authentication authentication) {
+            delegateCalls.incrementAndGet();
+            if (!("password_" + authentication.getName()).equals(authentication.getCredentials())) {
+              throw new BadCredentialsException("Bad credentials");
+            }
+            return new UsernamePasswordAuthenticationToken(
+                authentication.getName(),
+                authentication.getCredentials(),
+                List.of(new SimpleGrantedAuthority(Privileges.EXECUTE_BUSINESS_TRANSACTIONS_ALL)));
+          }
+
+          @Override
+          public boolean supports(Class<?> authentication) {
+            return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+          }
+        };
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  public void repeatedAuthenticationIsServedFromCache() {
+    CachingAuthenticationProvider provider =
+        new CachingAuthenticationProvider(delegate, Duration.ofMinutes(5), 10, meterRegistry);
+
+    for (int i = 0; i < 5; i++) {
+      Authentication result = provider.authenticate(token("u1", "password_u1"));
+      assertTrue(result.isAuthenticated());
+      assertEquals("u1", result.getName());
+      assertEquals(1, result.getAuthorities().size());
+    }
+
+    assertEquals(1, delegateCalls.get());
+    assertEquals(4, hits());
+    assertEquals(1, misses());
+  }
+
+  @Test
+  public void wrongPasswordIsNeverServedFromCache() {
+    CachingAuthenticationProvider provider =
+        new CachingAuthenticationProvider(delegate, Duration.ofMinutes(5), 10, meterRegistry);
+    provider.authenticate(token("u1", "password_u1"));
+
+    assertThrows(
+        BadCredentialsException.class, () -> provider.authenticate(token("u1", "password_u2")));
+    assertThrows(
+        BadCredentialsException.class, () -> provider.authenticate(token("u1", "password_u2")));
+
+    assertEquals(3, delegateCalls.get());
+    assertEquals(0, hits());
+  }
+
+  @Test
+  public void expiredCredentialsAreVerifiedAgain() throws InterruptedException {
+    CachingAuthenticationProvider provider =
+        new CachingAuthenticationProvider(delegate, Duration.ofMillis(1), 10, meterRegistry);
+
+    provider.authenticate(token("u1", "password_u1"));
+    Thread.sleep(5);
+    provider.authenticate(token("u1", "password_u1"));
+
+    assertEquals(2, delegateCalls.get());
+  }
+
+  @Test
+  public void cacheSizeIsBounded() {
+    CachingAuthenticationProvider provider =
+        new CachingAuthenticationProvider(delegate, Duration.ofMinutes(5), 2, meterRegistry);
+
+    for (int i = 0; i < 10; i++) {
+      provider.authenticate(token("u" + i, "password_u" + i));
+    }
+
+    assertEquals(
+        2, meterRegistry.get(CachingAuthenticationProvider.METRIC_NAME + ".size").gauge().value());
+  }
+
+  @Test
+  public void frequentlyUsedCredentialsAreKeptWhenCacheIsFull() {
+    CachingAuthenticationProvider provider =
+        new CachingAuthenticationProvider(delegate, Duration.ofMinutes(5), 2, meterRegistry);
+
+    for (int i = 0; i < 10; i++) {
+      provider.authenticate(token("u0", "password_u0"));
+      provider.authenticate(token("u" + (i + 1), "password_u" + (i + 1)));
+    }
+
+    // Only the first authentication of the frequently used credentials was a miss
+    assertEquals(11, delegateCalls.get());
+    assertEquals(9, hits());
+  }
+
+  @Test
+  public void cacheSizeIsBoundedWithConcurrentAuthentications() throws Exception {
+    CachingAuthenticationProvider provider =
+        new CachingAuthenticationProvider(delegate, Duration.ofMinutes(5), 2, meterRegistry);
+    int threadCount = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threadCount; t++) {
+        int thread = t;
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 1_000; i++) {
+                    String username = "u" + thread + "_" + i;
+                    provider.authenticate(token(username, "password_" + username));
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertTrue(
+        meterRegistry.get(CachingAuthenticationProvider.METRIC_NAME + ".size").gauge().value()
+            <= 2 + threadCount);
+  }
+
+  private static UsernamePasswordAuthenticationToken token(String username, String password) {
+    return new UsernamePasswordAuthenticationToken(username, password);
+  }
+
+  private double hits() {
+    return meterRegistry
+        .get(CachingAuthenticationProvider.METRIC_NAME)
+        .tag("result", "hit")
+        .counter()
+        .count();
+  }
+
+  private double misses() {
+    return meterRegistry
+        .get(CachingAuthenticationProvider.METRIC_NAME)
+        .tag("result", "miss")
+        .counter()
+        .count();
+  }
+}
@@ -0,0 +1,144 @@
+package de.uniba.dsg.wss.data.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class GroupCommitterTests {
+
+  private List<List<Object>> flushedBatches;
+  private GroupCommitter.BatchWriter<List<Object>> writer;
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  public void setUp() {
+    flushedBatches = Collections.synchronizedList(new ArrayList<>());
+    writer = GroupCommitter.BatchWriter.of(ArrayList::new, List::addAll, flushedBatches::add);
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  public void batchSizeOfOneCommitsInCallingThread() {
+    GroupCommitter<List<Object>> committer = committer(1, Duration.ofSeconds(10));
+
+    CompletableFuture<Void> commit = committer.enqueue(List.of("a", "b"));
+
+    assertFalse(committer.isEnabled());
+    assertTrue(commit.isDone());
+    assertEquals(List.of(List.of("a", "b")), flushedBatches);
+    assertEquals(1, batchSizes().count());
+  }
+
+  @Test
+  public void fullBatchIsCommittedOnce() {
+    try (GroupCommitter<List<Object>> committer = committer(3, Duration.ofSeconds(10))) {
+      CompletableFuture<Void> first = committer.enqueue(List.of("a"));
+      CompletableFuture<Void> second = committer.enqueue(List.of("b"));
+      CompletableFuture<Void> third = committer.enqueue(List.of("c"));
+
+      GroupCommitter.await(CompletableFuture.allOf(first, second, third));
+
+      assertEquals(List.of(List.of("a", "b", "c")), flushedBatches);
+      assertEquals(3, batchSizes().max());
+    }
+  }
+
+  @Test
+  public void openBatchIsCommittedAfterMaxDelay() throws Exception {
+    try (GroupCommitter<List<Object>> committer = committer(100, Duration.ofMillis(1))) {
+      committer.enqueue(List.of("a")).get(10, TimeUnit.SECONDS);
+
+      assertEquals(List.of(List.of("a")), flushedBatches);
+      assertEquals(0, committer.getQueueDepth());
+    }
+  }
+
+  @Test
+  public void objectOfOpenBatchClosesBatch() {
+    Object shared = new Object();
+    GroupCommitter<List<Object>> committer = committer(100, Duration.ofSeconds(10));
+    CompletableFuture<Void> first = committer.enqueue(List.of(shared));
+    CompletableFuture<Void> second = committer.enqueue(List.of(shared, "b"));
+
+    committer.close();
+
+    assertTrue(first.isDone());
+    assertTrue(second.isDone());
+    assertEquals(List.of(List.of(shared), List.of(shared, "b")), flushedBatches);
+    assertThrows(IllegalStateException.class, () -> committer.enqueue(List.of("c")));
+  }
+
+  @Test
+  public void failedCommitIsRethrown() {
+    writer =
+        GroupCommitter.BatchWriter.of(
+            ArrayList::new,
+            List::addAll,
+            batch -> {
+              throw new IllegalStateException("Disk full");
+            });
+    try (GroupCommitter<List<Object>> committer = committer(2, Duration.ofMillis(1))) {
+      CompletableFuture<Void> commit = committer.enqueue(List.of("a"));
+
+      IllegalStateException e =
+          assertThrows(IllegalStateException.class, () -> GroupCommitter.await(commit));
+      assertEquals("Disk full", e.getMessage());
+    }
+  }
+
+  @Test
+  public void enqueueDoesNotWaitForBlockedCommit() throws Exception {
+    CountDownLatch commitStarted = new CountDownLatch(1);
+    CountDownLatch commitReleased = new CountDownLatch(1);
+    writer =
+        GroupCommitter.BatchWriter.of(
+            ArrayList::new,
+            List::addAll,
+            batch -> {
+              commitStarted.countDown();
+              try {
+                commitReleased.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              flushedBatches.add(batch);
+            });
+    try (GroupCommitter<List<Object>> committer = committer(100, Duration.ofMillis(1))) {
+      CompletableFuture<Void> first = committer.enqueue(List.of("a"));
+      assertTrue(commitStarted.await(10, TimeUnit.SECONDS));
+
+      CompletableFuture<Void> second =
+          CompletableFuture.supplyAsync(() -> committer.enqueue(List.of("b")))
+              .get(10, TimeUnit.SECONDS);
+
+      assertFalse(first.isDone());
+      assertFalse(second.isDone());
+      assertEquals(2, committer.getQueueDepth());
+      commitReleased.countDown();
+      GroupCommitter.await(CompletableFuture.allOf(first, second));
+      assertEquals(List.of(List.of("a"), List.of("b")), flushedBatches);
+    }
+  }
+
+  private GroupCommitter<List<Object>> committer(int maxBatchSize, Duration maxDelay) {
+    return new GroupCommitter<>("test", writer, maxBatchSize, maxDelay, 100, meterRegistry);
+  }
+
+  private DistributionSummary batchSizes() {
+    return meterRegistry.get(GroupCommitter.METRIC_NAME + ".batch.size").summary();
+  }
+}
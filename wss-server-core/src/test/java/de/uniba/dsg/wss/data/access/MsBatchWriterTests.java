@@ -0,0 +1,116 @@
+package de.uniba.dsg.wss.data.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import one.microstream.persistence.types.Storer;
+import one.microstream.storage.embedded.types.EmbeddedStorage;
+import one.microstream.storage.embedded.types.EmbeddedStorageFoundation;
+import one.microstream.storage.embedded.types.EmbeddedStorageManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MsBatchWriterTests {
+
+  private static final int THREAD_COUNT = 8;
+  private static final int COMMIT_COUNT = 200;
+
+  @TempDir Path storageDir;
+
+  @Test
+  public void objectsAreWrittenWhileBatchesAreCommitted() {
+    List<List<String>> root = new ArrayList<>();
+    for (int i = 0; i < THREAD_COUNT; i++) {
+      root.add(new ArrayList<>());
+    }
+    EmbeddedStorageFoundation<?> foundation = EmbeddedStorage.Foundation(storageDir);
+    EmbeddedStorageManager storageManager = foundation.createEmbeddedStorageManager(root).start();
+    storageManager.storeRoot();
+
+    assertTimeoutPreemptively(
+        Duration.ofMinutes(1),
+        () -> {
+          ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+          try (GroupCommitter<Storer> committer =
+              new GroupCommitter<>(
+                  "test",
+                  new MsBatchWriter(storageManager, foundation),
+                  THREAD_COUNT,
+                  Duration.ofMillis(1),
+                  THREAD_COUNT,
+                  new SimpleMeterRegistry())) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<String> values : root) {
+              futures.add(
+                  executor.submit(
+                      () -> {
+                        for (int i = 0; i < COMMIT_COUNT; i++) {
+                          // new objects are registered while other storers are being committed
+                          values.add(String.valueOf(i));
+                          CompletableFuture<Void> commit = committer.enqueue(List.of(values));
+                          GroupCommitter.await(commit);
+                        }
+                      }));
+            }
+            for (Future<?> future : futures) {
+              future.get();
+            }
+          } finally {
+            executor.shutdown();
+          }
+        });
+    storageManager.shutdown();
+
+    EmbeddedStorageManager loadedStorageManager = EmbeddedStorage.start(storageDir);
+    @SuppressWarnings("unchecked")
+    List<List<String>> loaded = (List<List<String>>) loadedStorageManager.root();
+    assertEquals(THREAD_COUNT, loaded.size());
+    loaded.forEach(values -> assertEquals(COMMIT_COUNT, values.size()));
+    loadedStorageManager.shutdown();
+  }
+
+  @Test
+  public void storersCommittedWithoutFlushingDoNotBlockWrites() {
+    List<List<String>> root = new ArrayList<>();
+    root.add(new ArrayList<>());
+    root.add(new ArrayList<>());
+    EmbeddedStorageFoundation<?> foundation = EmbeddedStorage.Foundation(storageDir);
+    EmbeddedStorageManager storageManager = foundation.createEmbeddedStorageManager(root).start();
+    storageManager.storeRoot();
+    MsBatchWriter writer = new MsBatchWriter(storageManager, foundation);
+
+    root.get(0).add("committed");
+    Storer storer = writer.open();
+    storer.store(root.get(0));
+    storer.commit();
+
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(10),
+        () -> {
+          ExecutorService executor = Executors.newSingleThreadExecutor();
+          try {
+            root.get(1).add("flushed");
+            executor
+                .submit(
+                    () -> {
+                      Storer batch = writer.open();
+                      writer.write(batch, List.of(root.get(1)));
+                      writer.flush(batch);
+                    })
+                .get();
+          } finally {
+            executor.shutdown();
+          }
+        });
+    storageManager.shutdown();
+  }
+}
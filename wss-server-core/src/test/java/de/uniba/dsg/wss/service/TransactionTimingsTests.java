@@ -0,0 +1,110 @@
+package de.uniba.dsg.wss.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TransactionTimingsTests {
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  public void setUp() {
+    TransactionTimings.setEnabled(true);
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdown();
+    TransactionTimings.setEnabled(false);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  public void marksOfOtherThreadsAreIgnored() {
+    TransactionTimings timings = TransactionTimings.start();
+    CompletableFuture.runAsync(
+            () -> {
+              sleep(5);
+              TransactionTimings.mark(TransactionPhase.MUTATE);
+            },
+            executor)
+        .join();
+    timings.stop();
+
+    assertEquals(0, timings.getDuration(TransactionPhase.MUTATE));
+  }
+
+  @Test
+  public void propagatedTasksContinueTimingOfCallingThread() {
+    TransactionTimings timings = TransactionTimings.start();
+    CompletableFuture.supplyAsync(
+            TransactionTimings.propagate(
+                () -> {
+                  sleep(5);
+                  TransactionTimings.mark(TransactionPhase.MUTATE);
+                  return null;
+                }),
+            executor)
+        .join();
+    TransactionTimings.mark(TransactionPhase.PERSIST);
+    timings.stop();
+
+    assertTrue(timings.getDuration(TransactionPhase.MUTATE) >= 5_000_000);
+    assertTrue(timings.getDuration(TransactionPhase.PERSIST) < 5_000_000);
+  }
+
+  @Test
+  public void executingThreadResumesItsOwnTimingAfterPropagatedTask() {
+    TransactionTimings timings = TransactionTimings.start();
+    Supplier<Void> task =
+        TransactionTimings.propagate(
+            () -> {
+              TransactionTimings.mark(TransactionPhase.LOOKUP);
+              return null;
+            });
+    TransactionTimings executorTimings =
+        CompletableFuture.supplyAsync(
+                () -> {
+                  TransactionTimings started = TransactionTimings.start();
+                  task.get();
+                  sleep(5);
+                  TransactionTimings.mark(TransactionPhase.MUTATE);
+                  started.stop();
+                  return started;
+                },
+                executor)
+            .join();
+    timings.stop();
+
+    assertTrue(executorTimings.getDuration(TransactionPhase.MUTATE) >= 5_000_000);
+    assertEquals(0, executorTimings.getDuration(TransactionPhase.LOOKUP));
+    assertEquals(0, timings.getDuration(TransactionPhase.MUTATE));
+  }
+
+  @Test
+  public void tasksAreNotWrappedIfTimingIsDisabledOrNotStarted() {
+    Supplier<Void> task = () -> null;
+    assertSame(task, TransactionTimings.propagate(task));
+
+    TransactionTimings.setEnabled(false);
+    TransactionTimings.start();
+    assertSame(task, TransactionTimings.propagate(task));
+  }
+}
@@ -0,0 +1,155 @@
+package de.uniba.dsg.wss.benchmark;
+
+import de.uniba.dsg.wss.data.gen.DataModel;
+import de.uniba.dsg.wss.data.gen.model.Carrier;
+import de.uniba.dsg.wss.data.gen.model.Customer;
+import de.uniba.dsg.wss.data.gen.model.District;
+import de.uniba.dsg.wss.data.gen.model.Employee;
+import de.uniba.dsg.wss.data.gen.model.Product;
+import de.uniba.dsg.wss.data.gen.model.Warehouse;
+import de.uniba.dsg.wss.data.transfer.messages.DeliveryRequest;
+import de.uniba.dsg.wss.data.transfer.messages.NewOrderRequest;
+import de.uniba.dsg.wss.data.transfer.messages.NewOrderRequestItem;
+import de.uniba.dsg.wss.data.transfer.messages.OrderStatusRequest;
+import de.uniba.dsg.wss.data.transfer.messages.PaymentRequest;
+import de.uniba.dsg.wss.data.transfer.messages.StockLevelRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates random, valid transaction requests based on the identifiers of a generated data model.
+ * The parameters follow the same distributions as the requests sent by the JMeter terminals, except
+ * that all requests may target any warehouse and district of the model.
+ *
+ * @author Benedikt Full
+ */
+public class TransactionRequestGenerator {
+
+  private final String[] productIds;
+  private final String[] carrierIds;
+  private final WarehouseIds[] warehouses;
+
+  /**
+   * Creates a new generator. No references to the model objects are kept, only their identifiers.
+   *
+   * @param model the model the persistence solution has been populated with
+   */
+  public TransactionRequestGenerator(DataModel<Product, Warehouse, Employee, Carrier> model) {
+    productIds = model.getProducts().stream().map(Product::getId).toArray(String[]::new);
+    carrierIds = model.getCarriers().stream().map(Carrier::getId).toArray(String[]::new);
+    warehouses = model.getWarehouses().stream().map(WarehouseIds::new).toArray(WarehouseIds[]::new);
+  }
+
+  public NewOrderRequest newOrderRequest(Random random) {
+    WarehouseIds warehouse = randomWarehouse(random);
+    return newOrderRequest(warehouse, warehouse.randomDistrict(random), random);
+  }
+
+  /**
+   * Creates one new order request for every district of a random warehouse, e.g. in order to ensure
+   * that a subsequent delivery for this warehouse has unfulfilled orders to process.
+   *
+   * @param random the source of randomness
+   * @return the requests, all of which target the same warehouse
+   */
+  public List<NewOrderRequest> newOrderRequestPerDistrict(Random random) {
+    WarehouseIds warehouse = randomWarehouse(random);
+    List<NewOrderRequest> requests = new ArrayList<>(warehouse.districts.length);
+    for (DistrictIds district : warehouse.districts) {
+      requests.add(newOrderRequest(warehouse, district, random));
+    }
+    return requests;
+  }
+
+  public PaymentRequest paymentRequest(Random random) {
+    WarehouseIds warehouse = randomWarehouse(random);
+    DistrictIds district = warehouse.randomDistrict(random);
+    int customerIdx = random.nextInt(district.customerIds.length);
+    boolean byEmail = random.nextInt(100) < 60;
+    return new PaymentRequest(
+        warehouse.id,
+        district.id,
+        byEmail ? null : district.customerIds[customerIdx],
+        byEmail ? district.customerEmails[customerIdx] : null,
+        random.nextInt(5_000) + 1);
+  }
+
+  public OrderStatusRequest orderStatusRequest(Random random) {
+    WarehouseIds warehouse = randomWarehouse(random);
+    DistrictIds district = warehouse.randomDistrict(random);
+    int customerIdx = random.nextInt(district.customerIds.length);
+    boolean byEmail = random.nextInt(100) < 60;
+    return new OrderStatusRequest(
+        warehouse.id,
+        district.id,
+        byEmail ? null : district.customerIds[customerIdx],
+        byEmail ? district.customerEmails[customerIdx] : null);
+  }
+
+  public DeliveryRequest deliveryRequest(Random random) {
+    return deliveryRequest(randomWarehouse(random).id, random);
+  }
+
+  public DeliveryRequest deliveryRequest(String warehouseId, Random random) {
+    return new DeliveryRequest(warehouseId, carrierIds[random.nextInt(carrierIds.length)]);
+  }
+
+  public StockLevelRequest stockLevelRequest(Random random) {
+    WarehouseIds warehouse = randomWarehouse(random);
+    return new StockLevelRequest(
+        warehouse.id, warehouse.randomDistrict(random).id, random.nextInt(11) + 10);
+  }
+
+  private NewOrderRequest newOrderRequest(
+      WarehouseIds warehouse, DistrictIds district, Random random) {
+    int itemCount = random.nextInt(11) + 5;
+    List<NewOrderRequestItem> items = new ArrayList<>(itemCount);
+    for (int i = 0; i < itemCount; i++) {
+      items.add(
+          new NewOrderRequestItem(
+              productIds[random.nextInt(productIds.length)],
+              warehouse.id,
+              random.nextInt(11) + 10));
+    }
+    return new NewOrderRequest(
+        warehouse.id,
+        district.id,
+        district.customerIds[random.nextInt(district.customerIds.length)],
+        items);
+  }
+
+  private WarehouseIds randomWarehouse(Random random) {
+    return warehouses[random.nextInt(warehouses.length)];
+  }
+
+  private static class WarehouseIds {
+
+    private final String id;
+    private final DistrictIds[] districts;
+
+    private WarehouseIds(Warehouse warehouse) {
+      id = warehouse.getId();
+      districts =
+          warehouse.getDistricts().stream().map(DistrictIds::new).toArray(DistrictIds[]::new);
+    }
+
+    private DistrictIds randomDistrict(Random random) {
+      return districts[random.nextInt(districts.length)];
+    }
+  }
+
+  private static class DistrictIds {
+
+    private final String id;
+    private final String[] customerIds;
+    private final String[] customerEmails;
+
+    private DistrictIds(District district) {
+      id = district.getId();
+      customerIds = district.getCustomers().stream().map(Customer::getId).toArray(String[]::new);
+      customerEmails =
+          district.getCustomers().stream().map(Customer::getEmail).toArray(String[]::new);
+    }
+  }
+}
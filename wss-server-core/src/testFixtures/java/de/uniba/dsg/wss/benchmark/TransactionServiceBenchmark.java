@@ -0,0 +1,257 @@
+package de.uniba.dsg.wss.benchmark;
+
+import de.uniba.dsg.wss.auth.Roles;
+import de.uniba.dsg.wss.data.gen.DataModel;
+import de.uniba.dsg.wss.data.gen.DefaultDataGenerator;
+import de.uniba.dsg.wss.data.gen.model.Carrier;
+import de.uniba.dsg.wss.data.gen.model.Employee;
+import de.uniba.dsg.wss.data.gen.model.Product;
+import de.uniba.dsg.wss.data.gen.model.Warehouse;
+import de.uniba.dsg.wss.data.transfer.messages.DeliveryRequest;
+import de.uniba.dsg.wss.data.transfer.messages.DeliveryResponse;
+import de.uniba.dsg.wss.data.transfer.messages.NewOrderRequest;
+import de.uniba.dsg.wss.data.transfer.messages.NewOrderResponse;
+import de.uniba.dsg.wss.data.transfer.messages.OrderStatusResponse;
+import de.uniba.dsg.wss.data.transfer.messages.PaymentResponse;
+import de.uniba.dsg.wss.data.transfer.messages.StockLevelResponse;
+import de.uniba.dsg.wss.service.DeliveryService;
+import de.uniba.dsg.wss.service.NewOrderService;
+import de.uniba.dsg.wss.service.OrderStatusService;
+import de.uniba.dsg.wss.service.PaymentService;
+import de.uniba.dsg.wss.service.StockLevelService;
+import de.uniba.dsg.wss.service.TransactionService;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Base class for the JMH benchmarks of the {@link de.uniba.dsg.wss.service.TransactionService
+ * transaction services} of a server implementation.
+ *
+ * <p>The benchmark boots only the beans required by the services of the implementation, without any
+ * web server or security infrastructure, populates the persistence solution with a model created by
+ * the {@link DefaultDataGenerator}, and then calls {@code process()} directly. This means that the
+ * measured durations only include the transaction logic and the persistence layer, but neither HTTP
+ * handling, (de)serialization nor authentication.
+ *
+ * <p>Implementations only have to provide the configuration class which defines the required beans
+ * and a way to write the model to the persistence solution.
+ *
+ * @author Benedikt Full
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public abstract class TransactionServiceBenchmark {
+
+  /** Primary scaling factor of the data model, see {@code wss.model.warehouse-count}. */
+  @Param("1")
+  public int warehouseCount;
+
+  /** Secondary scaling factor of the data model, see {@code wss.model.full-scale}. */
+  @Param("false")
+  public boolean fullScale;
+
+  private static final Logger LOG = LogManager.getLogger(TransactionServiceBenchmark.class);
+
+  // JMH cannot inject abstract state classes, so states depending on the benchmark use this instead
+  private static volatile TransactionServiceBenchmark current;
+
+  private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+  private volatile RuntimeException firstFailure;
+  private ConfigurableApplicationContext context;
+  private int threadCount;
+  private TransactionRequestGenerator requests;
+  private NewOrderService newOrderService;
+  private PaymentService paymentService;
+  private OrderStatusService orderStatusService;
+  private DeliveryService deliveryService;
+  private StockLevelService stockLevelService;
+
+  @Setup(Level.Trial)
+  public void setUp(BenchmarkParams params) {
+    threadCount = params.getThreads();
+    DataModel<Product, Warehouse, Employee, Carrier> model =
+        new DefaultDataGenerator(
+                warehouseCount, fullScale, Function.identity(), Roles.TERMINAL_USER)
+            .generate();
+    requests = new TransactionRequestGenerator(model);
+
+    Map<String, Object> properties = new LinkedHashMap<>();
+    properties.put("spring.profiles.active", "benchmark");
+    properties.put("wss.model.initialize", false);
+    properties.put(
+        "spring.autoconfigure.exclude",
+        "org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration,"
+            + "org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration");
+    properties.putAll(getProperties());
+    context =
+        new SpringApplicationBuilder(getConfigurationClass())
+            .web(WebApplicationType.NONE)
+            .bannerMode(Banner.Mode.OFF)
+            .run(
+                properties.entrySet().stream()
+                    .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                    .toArray(String[]::new));
+    writeModel(context, model);
+
+    newOrderService = context.getBean(NewOrderService.class);
+    paymentService = context.getBean(PaymentService.class);
+    orderStatusService = context.getBean(OrderStatusService.class);
+    deliveryService = context.getBean(DeliveryService.class);
+    stockLevelService = context.getBean(StockLevelService.class);
+    current = this;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    current = null;
+    if (!failures.isEmpty()) {
+      LOG.warn("Failed transactions: {}", failures, firstFailure);
+    }
+    if (context != null) {
+      context.close();
+    }
+  }
+
+  /**
+   * Returns the configuration class which defines (or imports) all beans required by the services
+   * of the implementation.
+   *
+   * @return the configuration class
+   */
+  protected abstract Class<?> getConfigurationClass();
+
+  /**
+   * Returns the number of threads calling the services concurrently, i.e. the number of simulated
+   * terminals. Available when {@link #getProperties()} is called.
+   *
+   * @return the thread count
+   */
+  protected int getThreadCount() {
+    return threadCount;
+  }
+
+  /**
+   * Returns additional configuration properties for the application context, e.g. the location of
+   * the storage. These take precedence over any properties defined in the application properties
+   * files, as the {@code benchmark} profile is active instead of the {@code dev} profile. The
+   * default implementation returns no properties.
+   *
+   * @return the properties, never {@code null}
+   */
+  protected Map<String, Object> getProperties() {
+    return Map.of();
+  }
+
+  /**
+   * Converts the given model into the implementation-specific model and writes it to the
+   * persistence solution, usually by means of the {@link de.uniba.dsg.wss.data.gen.DataConverter}
+   * and {@link de.uniba.dsg.wss.data.gen.DataWriter} of the implementation.
+   *
+   * @param context the running application context
+   * @param model the generated model
+   */
+  protected abstract void writeModel(
+      ConfigurableApplicationContext context,
+      DataModel<Product, Warehouse, Employee, Carrier> model);
+
+  /**
+   * Processes the given request, but does not propagate any exception thrown by the service, as
+   * this would abort the whole benchmark. Depending on the implementation, transactions may fail
+   * under contention or when running out of stock, in the same way as they would when being called
+   * by a terminal. Failures are counted instead and reported at the end of the trial.
+   */
+  private <Q, R> R process(String transaction, TransactionService<Q, R> service, Q request) {
+    try {
+      return service.process(request);
+    } catch (RuntimeException e) {
+      failures.computeIfAbsent(transaction, k -> new LongAdder()).increment();
+      if (firstFailure == null) {
+        firstFailure = e;
+      }
+      return null;
+    }
+  }
+
+  @Benchmark
+  public NewOrderResponse newOrder() {
+    return process(
+        "newOrder", newOrderService, requests.newOrderRequest(ThreadLocalRandom.current()));
+  }
+
+  @Benchmark
+  public PaymentResponse payment() {
+    return process("payment", paymentService, requests.paymentRequest(ThreadLocalRandom.current()));
+  }
+
+  @Benchmark
+  public OrderStatusResponse orderStatus() {
+    return process(
+        "orderStatus",
+        orderStatusService,
+        requests.orderStatusRequest(ThreadLocalRandom.current()));
+  }
+
+  @Benchmark
+  public DeliveryResponse delivery(PendingDelivery pending) {
+    return process("delivery", deliveryService, pending.request);
+  }
+
+  @Benchmark
+  public StockLevelResponse stockLevel() {
+    return process(
+        "stockLevel", stockLevelService, requests.stockLevelRequest(ThreadLocalRandom.current()));
+  }
+
+  /**
+   * Places one new order per district of a random warehouse before every delivery invocation (not
+   * included in the measurement). Without it, the delivery benchmark would fulfill all initially
+   * unfulfilled orders within the first few invocations and afterwards only measure deliveries
+   * without any work to do.
+   */
+  @State(Scope.Thread)
+  public static class PendingDelivery {
+
+    private DeliveryRequest request;
+
+    @Setup(Level.Invocation)
+    public void placeOrders() {
+      TransactionServiceBenchmark benchmark = current;
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      String warehouseId = null;
+      for (NewOrderRequest req : benchmark.requests.newOrderRequestPerDistrict(random)) {
+        benchmark.process("newOrder", benchmark.newOrderService, req);
+        warehouseId = req.getWarehouseId();
+      }
+      request = benchmark.requests.deliveryRequest(warehouseId, random);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package de.uniba.dsg.wss.benchmark;
+
+import de.uniba.dsg.wss.JpaConfiguration;
+import de.uniba.dsg.wss.data.gen.DataModel;
+import de.uniba.dsg.wss.data.gen.JpaDataConverter;
+import de.uniba.dsg.wss.data.gen.JpaDataWriter;
+import de.uniba.dsg.wss.data.gen.model.Carrier;
+import de.uniba.dsg.wss.data.gen.model.Employee;
+import de.uniba.dsg.wss.data.gen.model.Product;
+import de.uniba.dsg.wss.data.gen.model.Warehouse;
+import java.util.Map;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Benchmarks the transaction services of the JPA-based implementation.
+ *
+ * <p>By default, an in-memory H2 database is used. Other databases, e.g. PostgreSQL, can be
+ * benchmarked by overriding the {@code wss.jpa.*} properties via the {@code jdbcUrl}, {@code
+ * jdbcDriver}, {@code jdbcUsername}, {@code jdbcPassword} and {@code hibernateDialect} system
+ * properties. The connection pool has one connection per benchmark thread, unless configured
+ * otherwise via the {@code jdbcPoolSize} system property. The second-level cache is enabled by
+ * setting the {@code hibernateCache} system property to {@code true}.
+ *
+ * @author Benedikt Full
+ */
+public class JpaTransactionServiceBenchmark extends TransactionServiceBenchmark {
+
+  @Override
+  protected Class<?> getConfigurationClass() {
+    return BenchmarkConfiguration.class;
+  }
+
+  @Override
+  protected Map<String, Object> getProperties() {
+    return Map.of(
+        "wss.jpa.datasource.url",
+        System.getProperty(
+            "jdbcUrl", "jdbc:h2:mem:wholesale_supplier_benchmark;DB_CLOSE_DELAY=-1;MVCC=true"),
+        "wss.jpa.datasource.driverClassName",
+        System.getProperty("jdbcDriver", "org.h2.Driver"),
+        "wss.jpa.datasource.username",
+        System.getProperty("jdbcUsername", "sa"),
+        "wss.jpa.datasource.password",
+        System.getProperty("jdbcPassword", ""),
+        "wss.jpa.hibernate.ddl-auto",
+        "create-drop",
+        "wss.jpa.hibernate.dialect",
+        System.getProperty("hibernateDialect", "org.hibernate.dialect.H2Dialect"),
+        "wss.jpa.hibernate.jdbc.time_zone",
+        "UTC",
+        "spring.jpa.open-in-view",
+        false,
+        "wss.jpa.datasource.pool.size",
+        Integer.getInteger("jdbcPoolSize", getThreadCount()),
+        "wss.jpa.hibernate.cache.enabled",
+        Boolean.getBoolean("hibernateCache"));
+  }
+
+  @Override
+  protected void writeModel(
+      ConfigurableApplicationContext context,
+      DataModel<Product, Warehouse, Employee, Carrier> model) {
+    context.getBean(JpaDataWriter.class).write(new JpaDataConverter().convert(model));
+  }
+
+  @Configuration
+  @EnableAutoConfiguration
+  @Import(JpaConfiguration.class)
+  @ComponentScan(basePackages = {"de.uniba.dsg.wss.data", "de.uniba.dsg.wss.service"})
+  static class BenchmarkConfiguration {}
+}
@@ -1,20 +1,41 @@
 package de.uniba.dsg.wss;
 
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import de.uniba.dsg.wss.data.access.ConcurrencyStrategy;
+import de.uniba.dsg.wss.data.access.MultiLoadJpaRepository;
+import de.uniba.dsg.wss.data.access.StatementCounter;
+import de.uniba.dsg.wss.data.access.TimedJpaTransactionManager;
+import de.uniba.dsg.wss.data.access.TransactionRunner;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.net.URI;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
-import org.springframework.retry.annotation.EnableRetry;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
@@ -24,11 +45,14 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
  * @author Benedikt Full
  */
 @Configuration
-@EnableJpaRepositories(basePackages = "de.uniba.dsg.wss.data.access")
+@EnableJpaRepositories(
+    basePackages = "de.uniba.dsg.wss.data.access",
+    repositoryBaseClass = MultiLoadJpaRepository.class)
 @EnableTransactionManagement
-@EnableRetry
 public class JpaConfiguration {
 
+  private static final Logger LOG = LogManager.getLogger(JpaConfiguration.class);
+
   private static final Map<String, String> PROPERTY_KEYS =
       Map.of(
           "wss.jpa.hibernate.jdbc.time_zone",
@@ -37,6 +61,8 @@ public class JpaConfiguration {
           "hibernate.ddl-auto",
           "wss.jpa.hibernate.dialect",
           "hibernate.dialect");
+  private static final List<String> CACHE_REGIONS =
+      List.of("products", "carriers", "warehouses", "districts");
   private final Environment environment;
 
   @Autowired
@@ -44,43 +70,200 @@ public class JpaConfiguration {
     this.environment = environment;
   }
 
+  /**
+   * Creates the connection pool, so that transactions reuse connections instead of opening a new
+   * one every time.
+   *
+   * <p>Each terminal runs one transaction at a time, which is why the pool size defaults to the
+   * number of terminals of the configured model, i.e. ten per warehouse. Prepared statements are
+   * cached per connection by the JDBC driver, as the pool itself does not cache statements. The
+   * metrics of the pool, e.g. the time spent waiting for a connection and the number of active and
+   * idle connections, are available as {@code hikaricp.connections.*} metrics.
+   *
+   * @param meterRegistry the registry for the metrics of the pool
+   * @return the data source
+   */
   @Bean
   @Primary
-  public DataSource dataSource() {
-    DriverManagerDataSource dataSource = new DriverManagerDataSource();
-    dataSource.setDriverClassName(
+  public DataSource dataSource(MeterRegistry meterRegistry) {
+    HikariConfig config = new HikariConfig();
+    config.setPoolName("wss-jpa");
+    config.setDriverClassName(
         environment.getRequiredProperty("wss.jpa.datasource.driverClassName"));
-    dataSource.setUrl(environment.getRequiredProperty("wss.jpa.datasource.url"));
-    dataSource.setUsername(environment.getRequiredProperty("wss.jpa.datasource.username"));
-    dataSource.setPassword(environment.getRequiredProperty("wss.jpa.datasource.password"));
-    dataSource.setSchema(environment.getProperty("wss.jpa.datasource.schema"));
-    return dataSource;
+    String url = environment.getRequiredProperty("wss.jpa.datasource.url");
+    config.setJdbcUrl(url);
+    config.setUsername(environment.getRequiredProperty("wss.jpa.datasource.username"));
+    config.setPassword(environment.getRequiredProperty("wss.jpa.datasource.password"));
+    config.setSchema(environment.getProperty("wss.jpa.datasource.schema"));
+
+    int terminalCount = 10 * environment.getProperty("wss.model.warehouse-count", Integer.class, 1);
+    int poolSize =
+        environment.getProperty("wss.jpa.datasource.pool.size", Integer.class, terminalCount);
+    config.setMaximumPoolSize(poolSize);
+    config.setMinimumIdle(poolSize);
+    config.setConnectionTimeout(
+        environment.getProperty("wss.jpa.datasource.pool.acquire-timeout", Long.class, 30_000L));
+
+    int statementCacheSize =
+        environment.getProperty("wss.jpa.datasource.statement-cache-size", Integer.class, 256);
+    if (url.startsWith("jdbc:postgresql:")) {
+      config.addDataSourceProperty("preparedStatementCacheQueries", statementCacheSize);
+      // sends batched inserts as multi-row inserts instead of one statement per row
+      config.addDataSourceProperty("reWriteBatchedInserts", getBatchSize() > 1);
+    } else if (url.startsWith("jdbc:h2:")) {
+      config.addDataSourceProperty("QUERY_CACHE_SIZE", statementCacheSize);
+    }
+    config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+    LOG.info(
+        "Using connection pool with {} connections (statement cache size: {})",
+        poolSize,
+        statementCacheSize);
+    return new HikariDataSource(config);
   }
 
   @Bean
   @Primary
-  public EntityManagerFactory entityManagerFactory() {
+  public EntityManagerFactory entityManagerFactory(
+      DataSource dataSource, MeterRegistry meterRegistry) {
     HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
     vendorAdapter.setGenerateDdl(true);
 
     LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
     factory.setJpaVendorAdapter(vendorAdapter);
     factory.setPackagesToScan("de.uniba.dsg.wss.data.model");
-    factory.setDataSource(dataSource());
+    factory.setDataSource(dataSource);
     Map<String, Object> props = new HashMap<>(PROPERTY_KEYS.size());
     PROPERTY_KEYS.forEach(
         (jpbKey, springKey) -> props.put(springKey, environment.getRequiredProperty(jpbKey)));
+    int batchSize = getBatchSize();
+    if (batchSize > 1) {
+      props.put("hibernate.jdbc.batch_size", batchSize);
+      // group the statements of a flush by table, so that they can be batched
+      props.put("hibernate.order_inserts", true);
+      props.put("hibernate.order_updates", true);
+      props.put("hibernate.jdbc.batch_versioned_data", true);
+      LOG.info("Using JDBC batches of up to {} statements", batchSize);
+    }
+    boolean cacheEnabled =
+        environment.getProperty("wss.jpa.hibernate.cache.enabled", Boolean.class, false);
+    // Hibernate would otherwise enable the cache as soon as a cache provider is available
+    props.put("hibernate.cache.use_second_level_cache", cacheEnabled);
+    if (cacheEnabled) {
+      props.put("hibernate.cache.region.factory_class", "jcache");
+      props.put("hibernate.javax.cache.cache_manager", createCacheManager(meterRegistry));
+    }
+    if (isStatementCountEnabled()) {
+      props.put("hibernate.session_factory.statement_inspector", new StatementCounter());
+    }
     factory.setJpaPropertyMap(props);
     factory.afterPropertiesSet();
 
     return factory.getObject();
   }
 
+  /**
+   * Returns whether the statements sent to the database per transaction are counted, which requires
+   * Hibernate to pass every statement to the {@link StatementCounter}.
+   *
+   * @return {@code true} if {@code wss.jpa.statements.enabled} is set
+   */
+  private boolean isStatementCountEnabled() {
+    return environment.getProperty("wss.jpa.statements.enabled", Boolean.class, false);
+  }
+
+  /**
+   * Returns the maximum number of statements sent to the database in a single JDBC batch. Batching
+   * works with the UUIDs of the entities, as they are assigned by the application instead of being
+   * generated by the database on insert.
+   *
+   * @return the batch size, batching is disabled for values lower than two
+   */
+  private int getBatchSize() {
+    return environment.getProperty("wss.jpa.hibernate.jdbc.batch-size", Integer.class, 50);
+  }
+
+  /**
+   * Creates the in-process cache manager of the second-level cache, which keeps the entities read
+   * by nearly every transaction, i.e. products, carriers, warehouses and districts, in memory.
+   *
+   * <p>Each region holds up to {@code wss.jpa.hibernate.cache.size} entities. Hibernate caches the
+   * disassembled state of the entities, which is why the caches store references instead of copying
+   * the cached values once more. The hit and miss counts and evictions of every region are
+   * available as {@code cache.gets} and {@code cache.evictions} metrics, the hit ratio as {@code
+   * wss.jpa.cache.hit.ratio} metric, all of them tagged with the name of the region.
+   *
+   * @param meterRegistry the registry for the metrics of the cache
+   * @return the cache manager, which is closed by Hibernate once the entity manager factory closes
+   */
+  private CacheManager createCacheManager(MeterRegistry meterRegistry) {
+    long cacheSize = environment.getProperty("wss.jpa.hibernate.cache.size", Long.class, 100_000L);
+    // every application context, e.g. of tests, requires a cache manager of its own
+    CacheManager cacheManager =
+        Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(
+                URI.create("wss-jpa-" + UUID.randomUUID()), getClass().getClassLoader());
+    for (String region : CACHE_REGIONS) {
+      CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+      config.setMaximumSize(OptionalLong.of(cacheSize));
+      config.setNativeStatisticsEnabled(true);
+      config.setStoreByValue(false);
+      com.github.benmanes.caffeine.cache.Cache<?, ?> cache =
+          cacheManager
+              .createCache(region, config)
+              .unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+      CaffeineCacheMetrics.monitor(meterRegistry, cache, region);
+      Gauge.builder("wss.jpa.cache.hit.ratio", cache, c -> c.stats().hitRate())
+          .tag("cache", region)
+          .register(meterRegistry);
+    }
+    LOG.info("Using second-level cache with up to {} entities per region", cacheSize);
+    return cacheManager;
+  }
+
   @Bean
   @Primary
-  public PlatformTransactionManager transactionManager() {
-    JpaTransactionManager transactionManager = new JpaTransactionManager();
-    transactionManager.setEntityManagerFactory(entityManagerFactory());
+  public PlatformTransactionManager transactionManager(
+      EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+    JpaTransactionManager transactionManager =
+        new TimedJpaTransactionManager(meterRegistry, isStatementCountEnabled());
+    transactionManager.setEntityManagerFactory(entityManagerFactory);
     return transactionManager;
   }
+
+  /**
+   * Creates the runner of the transactions of the services, which retries transactions failing due
+   * to conflicts with concurrent ones.
+   *
+   * <p>The {@link ConcurrencyStrategy} of all transaction types is set via {@code
+   * wss.jpa.concurrency.strategy}, which can be overridden per type via {@code
+   * wss.jpa.concurrency.strategy.<type>}, e.g. {@code wss.jpa.concurrency.strategy.payment}. The
+   * default is {@link ConcurrencyStrategy#REPEATABLE_READ}, the isolation level all transactions
+   * used originally. Delays are configured in microseconds.
+   *
+   * @param transactionManager the manager of the transactions
+   * @param meterRegistry the registry for the contention metrics
+   * @return the transaction runner
+   */
+  @Bean
+  public TransactionRunner transactionRunner(
+      PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+    String defaultStrategy =
+        environment.getProperty("wss.jpa.concurrency.strategy", "repeatable-read");
+    return new TransactionRunner(
+        transactionManager,
+        type -> {
+          String strategy =
+              environment.getProperty("wss.jpa.concurrency.strategy." + type, defaultStrategy);
+          LOG.info("Using {} concurrency strategy for {} transactions", strategy, type);
+          return ConcurrencyStrategy.valueOf(
+              strategy.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        },
+        environment.getProperty("wss.jpa.concurrency.max-attempts", Integer.class, 5),
+        Duration.ofNanos(
+            1_000 * environment.getProperty("wss.jpa.concurrency.base-delay", Long.class, 1_000L)),
+        Duration.ofNanos(
+            1_000 * environment.getProperty("wss.jpa.concurrency.max-delay", Long.class, 100_000L)),
+        meterRegistry);
+  }
 }
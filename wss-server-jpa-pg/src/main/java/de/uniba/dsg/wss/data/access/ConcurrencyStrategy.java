@@ -0,0 +1,61 @@
+package de.uniba.dsg.wss.data.access;
+
+import org.springframework.transaction.annotation.Isolation;
+
+/**
+ * The ways in which the JPA services prevent concurrent transactions from interfering with each
+ * other. The strategy is chosen per transaction type and decides both the isolation level of the
+ * transaction and whether the services lock the rows they are going to modify.
+ *
+ * <p>Independent of the strategy, the version column of every entity makes updates of rows which
+ * have been modified since being read fail, so that no modification is ever lost.
+ *
+ * @author Benedikt Full
+ */
+public enum ConcurrencyStrategy {
+
+  /**
+   * Read committed isolation, rows which are going to be modified are locked when being read via
+   * {@code SELECT ... FOR UPDATE}. Conflicting transactions wait for each other instead of failing.
+   */
+  PESSIMISTIC(Isolation.READ_COMMITTED, true),
+
+  /**
+   * Read committed isolation without locks. Conflicts are detected by the version columns when the
+   * modifications are flushed, in which case the transaction is retried.
+   */
+  OPTIMISTIC(Isolation.READ_COMMITTED, false),
+
+  /**
+   * Repeatable read isolation without locks. Conflicts are detected by the database, which aborts
+   * transactions modifying rows changed after their snapshot, in which case they are retried.
+   */
+  REPEATABLE_READ(Isolation.REPEATABLE_READ, false),
+
+  /**
+   * Serializable isolation without locks. Like {@link #REPEATABLE_READ}, but the database also
+   * aborts transactions whose reads conflict with concurrent modifications.
+   */
+  SERIALIZABLE(Isolation.SERIALIZABLE, false);
+
+  private final Isolation isolation;
+  private final boolean locking;
+
+  ConcurrencyStrategy(Isolation isolation, boolean locking) {
+    this.isolation = isolation;
+    this.locking = locking;
+  }
+
+  public Isolation getIsolation() {
+    return isolation;
+  }
+
+  /**
+   * Returns whether services have to lock the rows they are going to modify when reading them.
+   *
+   * @return {@code true} if rows have to be locked
+   */
+  public boolean isLocking() {
+    return locking;
+  }
+}
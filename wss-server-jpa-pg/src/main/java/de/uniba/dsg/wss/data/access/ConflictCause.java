@@ -0,0 +1,87 @@
+package de.uniba.dsg.wss.data.access;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Set;
+import javax.persistence.OptimisticLockException;
+import org.hibernate.StaleStateException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * The reasons for which a transaction may fail due to concurrent transactions, in which case it can
+ * be retried.
+ *
+ * <p>Database errors are classified by their SQLState, as reported by PostgreSQL and H2. Optimistic
+ * lock failures are detected by the exceptions raised by JPA and Hibernate, as they are caused by
+ * updates which did not match the expected version of a row.
+ *
+ * @author Benedikt Full
+ */
+public enum ConflictCause {
+
+  /** The database could not serialize the transaction with concurrent ones. */
+  SERIALIZATION_FAILURE("40001", "90131"),
+
+  /** The transaction was part of a deadlock and has been chosen to be aborted. */
+  DEADLOCK("40P01"),
+
+  /** The transaction did not acquire a lock in time. */
+  LOCK_TIMEOUT("55P03", "HYT00"),
+
+  /** A row has been modified concurrently since being read by the transaction. */
+  OPTIMISTIC_LOCK;
+
+  private final Set<String> sqlStates;
+
+  ConflictCause(String... sqlStates) {
+    this.sqlStates = Set.of(sqlStates);
+  }
+
+  /**
+   * Returns the name used for tagging metrics, e.g. {@code serialization-failure}.
+   *
+   * @return the name of the cause
+   */
+  public String getTagValue() {
+    return name().toLowerCase(Locale.ROOT).replace('_', '-');
+  }
+
+  /**
+   * Determines the cause of the given exception, which has been thrown by a transaction.
+   *
+   * @param exception the exception
+   * @return the cause of the conflict, or {@code null} if the exception has not been caused by a
+   *     conflict with concurrent transactions, in which case retrying does not help
+   */
+  public static ConflictCause of(Throwable exception) {
+    for (Throwable e = exception; e != null; e = e.getCause()) {
+      if (e instanceof OptimisticLockException
+          || e instanceof StaleStateException
+          || e instanceof OptimisticLockingFailureException) {
+        return OPTIMISTIC_LOCK;
+      }
+      if (e instanceof SQLException) {
+        // batches report the failure of a single statement as next exception
+        for (SQLException s = (SQLException) e; s != null; s = s.getNextException()) {
+          ConflictCause cause = ofSqlState(s.getSQLState());
+          if (cause != null) {
+            return cause;
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  private static ConflictCause ofSqlState(String sqlState) {
+    if (sqlState == null) {
+      return null;
+    }
+    for (ConflictCause cause : values()) {
+      if (cause.sqlStates.contains(sqlState)) {
+        return cause;
+      }
+    }
+    return null;
+  }
+}
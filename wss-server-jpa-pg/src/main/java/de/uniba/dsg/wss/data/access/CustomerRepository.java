@@ -12,7 +12,8 @@ import org.springframework.transaction.annotation.Transactional;
  * @author Benedikt Full
  */
 @Transactional(readOnly = true)
-public interface CustomerRepository extends JpaRepository<CustomerEntity, String> {
+public interface CustomerRepository
+    extends JpaRepository<CustomerEntity, String>, LockingRepository<CustomerEntity> {
 
   List<CustomerEntity> findByDistrictId(String districtId);
 
@@ -11,7 +11,8 @@ import org.springframework.transaction.annotation.Transactional;
  * @author Benedikt Full
  */
 @Transactional(readOnly = true)
-public interface DistrictRepository extends JpaRepository<DistrictEntity, String> {
+public interface DistrictRepository
+    extends JpaRepository<DistrictEntity, String>, LockingRepository<DistrictEntity> {
 
   List<DistrictEntity> findByWarehouseId(String warehouseId);
 }
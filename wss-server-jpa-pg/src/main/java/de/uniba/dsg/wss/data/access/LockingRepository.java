@@ -0,0 +1,23 @@
+package de.uniba.dsg.wss.data.access;
+
+/**
+ * Repository fragment for locking entities which have already been loaded, e.g. as part of another
+ * entity, before modifying them.
+ *
+ * @param <T> the type of the entities
+ * @author Benedikt Full
+ */
+public interface LockingRepository<T> {
+
+  /**
+   * Locks the row of the given entity until the end of the current transaction.
+   *
+   * <p>Entity references which have not been loaded yet, e.g. as returned by {@code getById}, are
+   * loaded together with the lock and therefore reflect the latest committed state of the row.
+   * Locking an entity which has already been loaded fails with an optimistic lock conflict if its
+   * row has been modified since, so that the transaction can be retried.
+   *
+   * @param entity the managed entity or entity reference
+   */
+  void lockForUpdate(T entity);
+}
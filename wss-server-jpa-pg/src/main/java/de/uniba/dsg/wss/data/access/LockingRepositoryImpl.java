@@ -0,0 +1,38 @@
+package de.uniba.dsg.wss.data.access;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+
+/**
+ * Implementation of the {@link LockingRepository} fragment, which is shared by all repositories
+ * extending the fragment.
+ *
+ * <p>Entities are not refreshed, as refreshing cascades to all associated entities, whose pending
+ * modifications would be discarded.
+ *
+ * @param <T> the type of the entities
+ * @author Benedikt Full
+ */
+public class LockingRepositoryImpl<T> implements LockingRepository<T> {
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  public void lockForUpdate(T entity) {
+    if (entity instanceof HibernateProxy) {
+      LazyInitializer initializer = ((HibernateProxy) entity).getHibernateLazyInitializer();
+      if (initializer.isUninitialized()) {
+        // locked entities are loaded from the database instead of the second-level cache
+        entityManager.find(
+            initializer.getPersistentClass(),
+            initializer.getIdentifier(),
+            LockModeType.PESSIMISTIC_WRITE);
+        return;
+      }
+    }
+    entityManager.lock(entity, LockModeType.PESSIMISTIC_WRITE);
+  }
+}
@@ -0,0 +1,58 @@
+package de.uniba.dsg.wss.data.access;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.util.Streamable;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Base class of all JPA repositories, which loads multiple entities by their identifiers the same
+ * way as single entities are loaded.
+ *
+ * <p>{@link SimpleJpaRepository#findAllById(Iterable)} always queries the database, even if some of
+ * the entities are already part of the current persistence context or have been cached in the
+ * second-level cache. This repository uses the multi-load operation of Hibernate instead, which
+ * takes both into account and only queries the entities which are missing.
+ *
+ * @param <T> the type of the entities
+ * @param <ID> the type of the identifiers of the entities
+ * @author Benedikt Full
+ */
+@Transactional(readOnly = true)
+public class MultiLoadJpaRepository<T, ID extends Serializable> extends SimpleJpaRepository<T, ID> {
+
+  private final JpaEntityInformation<T, ?> entityInformation;
+  private final EntityManager entityManager;
+
+  public MultiLoadJpaRepository(
+      JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+    super(entityInformation, entityManager);
+    this.entityInformation = entityInformation;
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public List<T> findAllById(Iterable<ID> ids) {
+    List<ID> idList = Streamable.of(ids).toList();
+    if (idList.isEmpty()) {
+      return List.of();
+    }
+    return entityManager
+        .unwrap(Session.class)
+        .byMultipleIds(entityInformation.getJavaType())
+        .with(CacheMode.NORMAL)
+        .enableSessionCheck(true)
+        .multiLoad(idList)
+        .stream()
+        // entities which do not exist are returned as null
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+}
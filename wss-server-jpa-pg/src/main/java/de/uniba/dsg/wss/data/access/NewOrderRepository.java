@@ -0,0 +1,73 @@
+package de.uniba.dsg.wss.data.access;
+
+import de.uniba.dsg.wss.data.model.NewOrderEntity;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JPA repository for accessing and modifying the queue of {@link NewOrderEntity orders which have
+ * not been delivered yet}.
+ *
+ * @author Benedikt Full
+ */
+@Transactional(readOnly = true)
+public interface NewOrderRepository extends JpaRepository<NewOrderEntity, String> {
+
+  // selects by the foreign key of the district, as locking a join would lock the district as well
+  String OLDEST_OF_DISTRICT =
+      "SELECT n FROM NewOrder n WHERE n.district.id = :districtId ORDER BY n.entryDate ASC";
+
+  /** Lock timeout which makes locking queries skip rows locked by other transactions. */
+  String SKIP_LOCKED = "-2";
+
+  @Query(OLDEST_OF_DISTRICT)
+  List<NewOrderEntity> findOldestOfDistrict(String districtId, Pageable pageable);
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = SKIP_LOCKED))
+  @Query(OLDEST_OF_DISTRICT)
+  List<NewOrderEntity> findOldestOfDistrictForUpdate(String districtId, Pageable pageable);
+
+  /**
+   * Finds the oldest entry of the queue of a district.
+   *
+   * @param districtId the identifier of the district
+   * @return the oldest entry, or an empty optional if all orders of the district have been
+   *     delivered
+   */
+  default Optional<NewOrderEntity> findOldestOfDistrict(String districtId) {
+    return findOldestOfDistrict(districtId, PageRequest.of(0, 1)).stream().findFirst();
+  }
+
+  /**
+   * Like {@link #findOldestOfDistrict(String)}, but locks the entry until the end of the current
+   * transaction.
+   *
+   * <p>Entries locked by concurrent transactions are skipped via {@code FOR UPDATE SKIP LOCKED}, so
+   * that concurrent deliveries of the same district take different orders instead of waiting for
+   * each other. Databases whose Hibernate dialect does not support skipping locked rows, e.g. H2,
+   * wait for the lock instead.
+   *
+   * <p>The query must run in the read-write transaction of the calling service, as databases like
+   * PostgreSQL refuse to lock rows in the read-only transactions of this repository.
+   *
+   * @param districtId the identifier of the district
+   * @return the oldest entry which is not locked by another transaction, or an empty optional if
+   *     there is none
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  default Optional<NewOrderEntity> findOldestOfDistrictForUpdate(String districtId) {
+    return findOldestOfDistrictForUpdate(districtId, PageRequest.of(0, 1)).stream().findFirst();
+  }
+}
@@ -2,7 +2,6 @@ package de.uniba.dsg.wss.data.access;
 
 import de.uniba.dsg.wss.data.model.OrderEntity;
 import java.util.List;
-import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,21 +16,42 @@ public interface OrderRepository extends JpaRepository<OrderEntity, String> {
 
   List<OrderEntity> findByDistrictId(String districtId);
 
-  @Query(
-      value =
-          "SELECT * FROM orders WHERE customer_id = :customerId ORDER BY entrydate DESC LIMIT 1",
-      nativeQuery = true)
-  Optional<OrderEntity> findMostRecentOrderOfCustomer(String customerId);
+  String MOST_RECENT_ORDER_STATUS =
+      "SELECT c.id AS customerId, c.firstName AS customerFirstName,"
+          + " c.middleName AS customerMiddleName, c.lastName AS customerLastName,"
+          + " c.balance AS customerBalance, o.id AS orderId, o.entryDate AS orderEntryDate,"
+          + " ca.id AS orderCarrierId, i.supplyingWarehouse.id AS supplyingWarehouseId,"
+          + " i.product.id AS productId, i.quantity AS quantity, i.amount AS amount,"
+          + " i.deliveryDate AS deliveryDate"
+          + " FROM Customer c LEFT JOIN c.orders o LEFT JOIN o.carrier ca LEFT JOIN o.items i"
+          + " WHERE (o.id IS NULL"
+          + " OR o.entryDate = (SELECT MAX(r.entryDate) FROM Order r WHERE r.customer = c))";
 
-  @Query(
-      value =
-          "SELECT * FROM orders WHERE fulfilled = false AND district_id = :districtId ORDER BY entrydate ASC LIMIT 1",
-      nativeQuery = true)
-  Optional<OrderEntity> findOldestUnfulfilledOrderOfDistrict(String districtId);
+  /**
+   * Finds the items of the most recent order of a customer in a single statement, which joins the
+   * customer, the order and its items and returns only the fields required by the Order-Status
+   * transaction.
+   *
+   * <p>The customer is joined with its orders by an outer join, so that a customer which has not
+   * placed any order yet is returned as a single projection without order and item fields.
+   *
+   * @param customerId the identifier of the customer
+   * @return one projection per item, ordered by order and item number, a single projection whose
+   *     order identifier is {@code null} if the customer has not placed any order yet, or an empty
+   *     list if the customer does not exist
+   */
+  @Query(MOST_RECENT_ORDER_STATUS + " AND c.id = :customerId ORDER BY o.id, i.number")
+  List<OrderStatusView> findMostRecentOrderStatusOfCustomer(String customerId);
 
-  @Query(
-      value =
-          "SELECT * FROM orders WHERE district_id = :districtId ORDER BY entrydate DESC LIMIT 20",
-      nativeQuery = true)
-  List<OrderEntity> findTwentyMostRecentOrdersOfDistrict(String districtId);
+  /**
+   * Like {@link #findMostRecentOrderStatusOfCustomer(String)}, but identifies the customer by
+   * email.
+   *
+   * @param email the email of the customer
+   * @return one projection per item, ordered by order and item number, a single projection whose
+   *     order identifier is {@code null} if the customer has not placed any order yet, or an empty
+   *     list if the customer does not exist
+   */
+  @Query(MOST_RECENT_ORDER_STATUS + " AND c.email = :email ORDER BY o.id, i.number")
+  List<OrderStatusView> findMostRecentOrderStatusOfCustomerByEmail(String email);
 }
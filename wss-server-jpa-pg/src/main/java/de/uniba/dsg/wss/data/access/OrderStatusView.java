@@ -0,0 +1,47 @@
+package de.uniba.dsg.wss.data.access;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a single item of the most recent order of a customer, together with the customer
+ * and order fields required by the Order-Status transaction.
+ *
+ * <p>The customer and order fields are the same for all items of an order. Projections are not
+ * managed by the persistence context, so reading them neither requires dirty checking nor copying
+ * the state of entities which are never modified.
+ *
+ * @author Benedikt Full
+ */
+public interface OrderStatusView {
+
+  String getCustomerId();
+
+  String getCustomerFirstName();
+
+  String getCustomerMiddleName();
+
+  String getCustomerLastName();
+
+  double getCustomerBalance();
+
+  String getOrderId();
+
+  LocalDateTime getOrderEntryDate();
+
+  /**
+   * Returns the identifier of the carrier of the order.
+   *
+   * @return the identifier, or {@code null} if the order has not been delivered yet
+   */
+  String getOrderCarrierId();
+
+  String getSupplyingWarehouseId();
+
+  String getProductId();
+
+  int getQuantity();
+
+  double getAmount();
+
+  LocalDateTime getDeliveryDate();
+}
@@ -0,0 +1,36 @@
+package de.uniba.dsg.wss.data.access;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Statement inspector which counts the SQL statements sent to the database by the current thread,
+ * leaving the statements themselves unchanged.
+ *
+ * <p>Hibernate inspects every statement once when preparing it, which means that a JDBC batch
+ * counts as a single statement. The count thus approximates the number of database round trips of a
+ * transaction (see {@link TimedJpaTransactionManager}).
+ *
+ * @author Benedikt Full
+ */
+public class StatementCounter implements StatementInspector {
+
+  private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+  @Override
+  public String inspect(String sql) {
+    COUNT.get()[0]++;
+    return sql;
+  }
+
+  /**
+   * Returns the number of statements counted for the current thread and restarts counting.
+   *
+   * @return the number of statements since the previous reset
+   */
+  public static int reset() {
+    int[] count = COUNT.get();
+    int statements = count[0];
+    count[0] = 0;
+    return statements;
+  }
+}
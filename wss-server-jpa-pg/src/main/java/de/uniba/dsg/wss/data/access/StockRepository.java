@@ -4,8 +4,11 @@ import de.uniba.dsg.wss.data.model.StockEntity;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -18,12 +21,79 @@ public interface StockRepository extends JpaRepository<StockEntity, String> {
 
   Optional<StockEntity> findByProductIdAndWarehouseId(String productId, String warehouseId);
 
+  String STOCKS_BY_KEYS =
+      "SELECT s FROM Stock s WHERE s.warehouse.id IN :warehouseIds AND s.product.id IN :productIds"
+          + " AND CONCAT(s.warehouse.id, '/', s.product.id) IN :stockKeys"
+          + " ORDER BY s.product.id, s.warehouse.id";
+
+  /**
+   * Finds the stocks identified by the given {@link #stockKey(String, String) keys} in a single
+   * statement.
+   *
+   * <p>The warehouse and product identifiers narrow the query down to the rows of the composite
+   * warehouse and product index, of which only the requested combinations are selected.
+   *
+   * @param warehouseIds the identifiers of all warehouses of the stocks
+   * @param productIds the identifiers of all products of the stocks
+   * @param stockKeys the keys of the stocks
+   * @return the stocks, ordered by product and warehouse
+   */
+  @Query(STOCKS_BY_KEYS)
+  List<StockEntity> findAllByKeys(
+      Collection<String> warehouseIds, Collection<String> productIds, Collection<String> stockKeys);
+
+  /**
+   * Like {@link #findAllByKeys(Collection, Collection, Collection)}, but locks the stocks until the
+   * end of the current transaction.
+   *
+   * <p>The stocks are locked in the order of their product and warehouse identifiers. As every
+   * transaction locks its stocks in the same order, transactions which modify overlapping stocks
+   * wait for each other instead of deadlocking.
+   *
+   * <p>The query must run in the read-write transaction of the calling service, as databases like
+   * PostgreSQL refuse to lock rows in the read-only transactions of this repository.
+   *
+   * @param warehouseIds the identifiers of all warehouses of the stocks
+   * @param productIds the identifiers of all products of the stocks
+   * @param stockKeys the keys of the stocks
+   * @return the locked stocks, ordered by product and warehouse
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(STOCKS_BY_KEYS)
+  List<StockEntity> findAllByKeysForUpdate(
+      Collection<String> warehouseIds, Collection<String> productIds, Collection<String> stockKeys);
+
+  /**
+   * Returns the key of the stock of the given product at the given warehouse, as used by {@link
+   * #findAllByKeys(Collection, Collection, Collection)}.
+   *
+   * @param warehouseId the identifier of the warehouse
+   * @param productId the identifier of the product
+   * @return the key of the stock
+   */
+  static String stockKey(String warehouseId, String productId) {
+    return warehouseId + '/' + productId;
+  }
+
+  /**
+   * Counts the stocks of a warehouse whose quantity is below the given threshold and whose products
+   * are part of the 20 most recent orders of a district, in a single statement which joins the
+   * recent orders, their items and the stocks.
+   *
+   * @param warehouseId the identifier of the warehouse
+   * @param districtId the identifier of the district
+   * @param quantityThreshold the exclusive upper bound of the quantity of counted stocks
+   * @return the number of distinct stocks
+   */
   @Query(
       value =
-          "SELECT * FROM stocks WHERE warehouse_id = :warehouseId AND product_id IN :productIds AND quantity < :quantityThreshold",
+          "SELECT COUNT(DISTINCT s.id) FROM (SELECT id FROM orders WHERE district_id = :districtId ORDER BY entrydate DESC LIMIT 20) o"
+              + " JOIN orderitems i ON i.order_id = o.id"
+              + " JOIN stocks s ON s.product_id = i.product_id"
+              + " WHERE s.warehouse_id = :warehouseId AND s.quantity < :quantityThreshold",
       nativeQuery = true)
-  List<StockEntity> findByWarehouseIdAndProductIdAndQuantityThreshold(
-      String warehouseId, Collection<String> productIds, int quantityThreshold);
+  int countLowStocksOfRecentOrders(String warehouseId, String districtId, int quantityThreshold);
 
   List<StockEntity> findByWarehouseId(String warehouseId);
 }
@@ -0,0 +1,84 @@
+package de.uniba.dsg.wss.data.access;
+
+import de.uniba.dsg.wss.service.TransactionPhase;
+import de.uniba.dsg.wss.service.TransactionTimings;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA transaction manager which marks the {@link TransactionPhase#PERSIST persist} phase of the
+ * {@link TransactionTimings} of the current transaction.
+ *
+ * <p>As the services create their responses before returning from their transactional methods, the
+ * time between the last phase marked by a service and the commit is attributed to {@link
+ * TransactionPhase#BUILD_RESPONSE}. Committing includes flushing all pending changes, so the time
+ * spent doing so is attributed to {@link TransactionPhase#PERSIST}.
+ *
+ * <p>If enabled, the number of statements sent to the database by every committed transaction, as
+ * counted by the {@link StatementCounter}, is available as {@value #METRIC_NAME} metric, tagged
+ * with the name of the transaction, i.e. the transaction type for transactions run by the {@link
+ * TransactionRunner}, e.g. {@code new-order}, or else the name of the class which started the
+ * transaction.
+ *
+ * @author Benedikt Full
+ */
+public class TimedJpaTransactionManager extends JpaTransactionManager {
+
+  /** Name of the statement count metric. */
+  public static final String METRIC_NAME = "wss.jpa.statements";
+
+  private final MeterRegistry meterRegistry;
+  private final boolean countStatements;
+  private final Map<String, DistributionSummary> statementCounts;
+
+  /**
+   * Creates a new transaction manager.
+   *
+   * @param meterRegistry the registry for the statement count metric
+   * @param countStatements whether the {@link StatementCounter} is installed, i.e. whether the
+   *     statements per transaction should be recorded
+   */
+  public TimedJpaTransactionManager(MeterRegistry meterRegistry, boolean countStatements) {
+    this.meterRegistry = meterRegistry;
+    this.countStatements = countStatements;
+    statementCounts = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  protected void doBegin(Object transaction, TransactionDefinition definition) {
+    super.doBegin(transaction, definition);
+    if (countStatements) {
+      StatementCounter.reset();
+    }
+  }
+
+  @Override
+  protected void doCommit(DefaultTransactionStatus status) {
+    TransactionTimings.mark(TransactionPhase.BUILD_RESPONSE);
+    super.doCommit(status);
+    TransactionTimings.mark(TransactionPhase.PERSIST);
+    if (!countStatements) {
+      return;
+    }
+    String name = TransactionSynchronizationManager.getCurrentTransactionName();
+    statementCounts
+        .computeIfAbsent(name == null ? "unknown" : name, this::statementCount)
+        .record(StatementCounter.reset());
+  }
+
+  private DistributionSummary statementCount(String transactionName) {
+    // declarative transactions are named after the fully qualified class and method name
+    int methodStart = transactionName.lastIndexOf('.');
+    String className =
+        methodStart < 0 ? transactionName : transactionName.substring(0, methodStart);
+    return DistributionSummary.builder(METRIC_NAME)
+        .tag("transaction", className.substring(className.lastIndexOf('.') + 1))
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,240 @@
+package de.uniba.dsg.wss.data.access;
+
+import static java.util.Objects.requireNonNull;
+
+import de.uniba.dsg.wss.service.TransactionPhase;
+import de.uniba.dsg.wss.service.TransactionTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the transactions of the JPA services according to the {@link ConcurrencyStrategy} configured
+ * for their type, and retries transactions which failed due to conflicts with concurrent ones.
+ *
+ * <p>Whether a failed transaction is retried depends on its {@link ConflictCause}. Transactions
+ * failing for any other reason, e.g. due to invalid requests, are not retried. Retries happen after
+ * an exponentially growing delay, of which a random fraction is actually waited (full jitter), so
+ * that retries of transactions which conflicted with each other do not collide again.
+ *
+ * <p>Commits, conflicts, retries and aborts are counted as {@value #METRIC_NAME}{@code .commits},
+ * {@value #METRIC_NAME}{@code .conflicts}, {@value #METRIC_NAME}{@code .retries} and {@value
+ * #METRIC_NAME}{@code .aborts} metrics, tagged with the transaction type and strategy. Conflicts
+ * and aborts are additionally tagged with their cause, which is {@code error} for aborts not caused
+ * by conflicts. The time retried transactions spent on failed attempts and on waiting before
+ * retrying is available as {@value #METRIC_NAME}{@code .retry.latency} metric.
+ *
+ * @author Benedikt Full
+ */
+public class TransactionRunner {
+
+  /** Prefix of the metric names. */
+  public static final String METRIC_NAME = "wss.contention";
+
+  private static final Logger LOG = LogManager.getLogger(TransactionRunner.class);
+
+  private final PlatformTransactionManager transactionManager;
+  private final Function<String, ConcurrencyStrategy> strategies;
+  private final int maxAttempts;
+  private final long baseDelayNanos;
+  private final long maxDelayNanos;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, TransactionType> transactionTypes;
+
+  /**
+   * Creates a new transaction runner.
+   *
+   * @param transactionManager the manager of the transactions
+   * @param strategies returns the concurrency strategy of a transaction type
+   * @param maxAttempts how often a transaction is attempted, must be greater than zero
+   * @param baseDelay the maximum delay before the first retry, which doubles with every retry
+   * @param maxDelay the upper bound of the delay before a retry
+   * @param meterRegistry the registry for the metrics
+   */
+  public TransactionRunner(
+      PlatformTransactionManager transactionManager,
+      Function<String, ConcurrencyStrategy> strategies,
+      int maxAttempts,
+      Duration baseDelay,
+      Duration maxDelay,
+      MeterRegistry meterRegistry) {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("Max attempts must be greater than zero");
+    }
+    this.transactionManager = requireNonNull(transactionManager);
+    this.strategies = requireNonNull(strategies);
+    this.maxAttempts = maxAttempts;
+    baseDelayNanos = requireNonNull(baseDelay).toNanos();
+    maxDelayNanos = requireNonNull(maxDelay).toNanos();
+    if (baseDelayNanos < 1 || maxDelayNanos < baseDelayNanos) {
+      throw new IllegalArgumentException(
+          "Base delay must be positive and must not exceed the max delay");
+    }
+    this.meterRegistry = requireNonNull(meterRegistry);
+    transactionTypes = new ConcurrentHashMap<>();
+    LOG.info(
+        "Retrying conflicting transactions up to {} times (base delay: {}, max delay: {})",
+        maxAttempts,
+        baseDelay,
+        maxDelay);
+  }
+
+  /**
+   * Returns the concurrency strategy of the given transaction type.
+   *
+   * @param transactionType the type of the transaction, e.g. {@code new-order}
+   * @return the strategy
+   */
+  public ConcurrencyStrategy getStrategy(String transactionType) {
+    return transactionTypeOf(transactionType).strategy;
+  }
+
+  /**
+   * Runs and commits the transaction with the isolation level of the strategy of its type, retrying
+   * it in case of conflicts. If a transaction is already active, e.g. in tests, the transaction is
+   * run as part of it and is not retried.
+   *
+   * @param transactionType the type of the transaction, e.g. {@code new-order}
+   * @param readOnly whether the transaction does not modify any data
+   * @param transaction the transaction, which is passed the strategy so that it can lock the rows
+   *     it is going to modify if necessary
+   * @return the result of the transaction
+   */
+  public <T> T run(
+      String transactionType, boolean readOnly, Function<ConcurrencyStrategy, T> transaction) {
+    TransactionType type = transactionTypeOf(transactionType);
+    TransactionTemplate template = readOnly ? type.readOnlyTemplate : type.template;
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return template.execute(status -> transaction.apply(type.strategy));
+    }
+
+    long start = System.nanoTime();
+    long lastAttemptStart = start;
+    int performedAttempts = 0;
+    while (true) {
+      performedAttempts++;
+      try {
+        T result = template.execute(status -> transaction.apply(type.strategy));
+        type.commits.increment();
+        if (performedAttempts > 1) {
+          type.retryLatency.record(lastAttemptStart - start, TimeUnit.NANOSECONDS);
+        }
+        return result;
+      } catch (RuntimeException e) {
+        ConflictCause cause = ConflictCause.of(e);
+        if (cause == null) {
+          type.abort(null);
+          throw e;
+        }
+        type.conflict(cause);
+        if (performedAttempts >= maxAttempts) {
+          type.abort(cause);
+          LOG.error(
+              "Unable to complete {} transaction after having attempted it for {} times",
+              transactionType,
+              performedAttempts);
+          throw e;
+        }
+        type.retries.increment();
+        LOG.debug(
+            "Retrying {} transaction (performed attempts: {}, max attempts: {}) after {}: {}",
+            transactionType,
+            performedAttempts,
+            maxAttempts,
+            cause.getTagValue(),
+            e.getMessage());
+        try {
+          TimeUnit.NANOSECONDS.sleep(backoffNanos(performedAttempts));
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+        TransactionTimings.mark(TransactionPhase.LOCK_WAIT);
+        lastAttemptStart = System.nanoTime();
+      }
+    }
+  }
+
+  long backoffNanos(int attempt) {
+    // 2^30 times the base delay exceeds any sensible max delay
+    long delay = baseDelayNanos << Math.min(attempt - 1, 30);
+    if (delay <= 0 || delay > maxDelayNanos) {
+      delay = maxDelayNanos;
+    }
+    return ThreadLocalRandom.current().nextLong(delay + 1);
+  }
+
+  private TransactionType transactionTypeOf(String transactionType) {
+    return transactionTypes.computeIfAbsent(transactionType, TransactionType::new);
+  }
+
+  private final class TransactionType {
+    private final ConcurrencyStrategy strategy;
+    private final TransactionTemplate template;
+    private final TransactionTemplate readOnlyTemplate;
+    private final Counter commits;
+    private final Counter retries;
+    private final Timer retryLatency;
+    private final Map<ConflictCause, Counter> conflicts;
+    private final Map<ConflictCause, Counter> aborts;
+    private final Counter errors;
+
+    private TransactionType(String name) {
+      strategy = requireNonNull(strategies.apply(name));
+      template = new TransactionTemplate(transactionManager);
+      // names the transaction for the statement metrics of the transaction manager
+      template.setName(name);
+      template.setIsolationLevel(strategy.getIsolation().value());
+      readOnlyTemplate = new TransactionTemplate(transactionManager, template);
+      readOnlyTemplate.setReadOnly(true);
+
+      String strategyName = strategy.name().toLowerCase(Locale.ROOT).replace('_', '-');
+      commits = counter("commits", name, strategyName, null);
+      retries = counter("retries", name, strategyName, null);
+      retryLatency =
+          Timer.builder(METRIC_NAME + ".retry.latency")
+              .tag("transaction", name)
+              .tag("strategy", strategyName)
+              .register(meterRegistry);
+      conflicts = new EnumMap<>(ConflictCause.class);
+      aborts = new EnumMap<>(ConflictCause.class);
+      for (ConflictCause cause : ConflictCause.values()) {
+        conflicts.put(cause, counter("conflicts", name, strategyName, cause.getTagValue()));
+        aborts.put(cause, counter("aborts", name, strategyName, cause.getTagValue()));
+      }
+      errors = counter("aborts", name, strategyName, "error");
+    }
+
+    private Counter counter(String metric, String name, String strategyName, String cause) {
+      Counter.Builder builder =
+          Counter.builder(METRIC_NAME + "." + metric)
+              .tag("transaction", name)
+              .tag("strategy", strategyName);
+      if (cause != null) {
+        builder.tag("cause", cause);
+      }
+      return builder.register(meterRegistry);
+    }
+
+    private void conflict(ConflictCause cause) {
+      conflicts.get(cause).increment();
+    }
+
+    private void abort(ConflictCause cause) {
+      (cause == null ? errors : aborts.get(cause)).increment();
+    }
+  }
+}
@@ -8,4 +8,5 @@ import org.springframework.data.jpa.repository.JpaRepository;
  *
  * @author Benedikt Full
  */
-public interface WarehouseRepository extends JpaRepository<WarehouseEntity, String> {}
+public interface WarehouseRepository
+    extends JpaRepository<WarehouseEntity, String>, LockingRepository<WarehouseEntity> {}
@@ -0,0 +1,535 @@
+package de.uniba.dsg.wss.data.gen;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import de.uniba.dsg.wss.commons.Stopwatch;
+import de.uniba.dsg.wss.data.model.AddressEmbeddable;
+import de.uniba.dsg.wss.data.model.BaseEntity;
+import de.uniba.dsg.wss.data.model.CarrierEntity;
+import de.uniba.dsg.wss.data.model.CustomerEntity;
+import de.uniba.dsg.wss.data.model.DistrictEntity;
+import de.uniba.dsg.wss.data.model.EmployeeEntity;
+import de.uniba.dsg.wss.data.model.NewOrderEntity;
+import de.uniba.dsg.wss.data.model.OrderEntity;
+import de.uniba.dsg.wss.data.model.OrderItemEntity;
+import de.uniba.dsg.wss.data.model.PaymentEntity;
+import de.uniba.dsg.wss.data.model.ProductEntity;
+import de.uniba.dsg.wss.data.model.StockEntity;
+import de.uniba.dsg.wss.data.model.WarehouseEntity;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.sql.DataSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Can be used to write a wholesale supplier data model to a JPA-based persistence solution in bulk,
+ * i.e. without persisting every object of the model as managed entity.
+ *
+ * <p>The rows of every table are streamed to the database in CSV format, using {@code COPY FROM
+ * STDIN} for PostgreSQL and {@code CSVREAD} for H2. The secondary indexes declared by the entities
+ * and the foreign keys of the tables are dropped before and created after loading the tables, and
+ * the number of rows loaded per second is logged for every table. The tables must have been created
+ * beforehand, which Hibernate does on startup.
+ *
+ * @author Benedikt Full
+ */
+@Component
+public class JpaBulkDataWriter
+    implements DataWriter<ProductEntity, WarehouseEntity, EmployeeEntity, CarrierEntity> {
+
+  private static final Logger LOG = LogManager.getLogger(JpaBulkDataWriter.class);
+  private static final DateTimeFormatter TIMESTAMP_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSSSSS");
+  private static final int BUFFER_SIZE = 1 << 16;
+  private final DataSource dataSource;
+
+  @Autowired
+  public JpaBulkDataWriter(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  public void write(
+      DataModel<ProductEntity, WarehouseEntity, EmployeeEntity, CarrierEntity> model) {
+    if (!supports(model)) {
+      throw new UnsupportedDataModelException("Data model was null");
+    }
+    Stopwatch stopwatch = new Stopwatch().start();
+    List<BulkTable<?>> tables = tables(model);
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      String databaseName = connection.getMetaData().getDatabaseProductName();
+      boolean postgres = databaseName.equals("PostgreSQL");
+      if (!postgres && !databaseName.equals("H2")) {
+        throw new UnsupportedOperationException(
+            "Bulk loading is not supported for " + databaseName);
+      }
+      List<String> dropStatements = new ArrayList<>();
+      List<String> createStatements = new ArrayList<>();
+      collectConstraints(connection.getMetaData(), tables, dropStatements, createStatements);
+      execute(connection, dropStatements);
+
+      for (BulkTable<?> table : tables) {
+        Stopwatch tableStopwatch = new Stopwatch().start();
+        long rowCount = postgres ? copy(connection, table) : csvRead(connection, table);
+        tableStopwatch.stop();
+        LOG.info(
+            "Loaded {} rows into {}, took {} ({} rows/s)",
+            rowCount,
+            table.getName(),
+            tableStopwatch.getDuration(),
+            rowCount * 1_000_000_000L / Math.max(1, tableStopwatch.getDurationNanos()));
+      }
+
+      Stopwatch indexStopwatch = new Stopwatch().start();
+      execute(connection, createStatements);
+      if (postgres) {
+        // the planner has no statistics for the loaded rows yet
+        execute(connection, List.of("ANALYZE"));
+      }
+      indexStopwatch.stop();
+      LOG.info("Created indexes and foreign keys, took {}", indexStopwatch.getDuration());
+      connection.commit();
+    } catch (SQLException | IOException e) {
+      throw new IllegalStateException("Failed to load model data", e);
+    }
+    stopwatch.stop();
+    LOG.info("Wrote model data to database in bulk, took {}", stopwatch.getDuration());
+  }
+
+  /**
+   * Collects the statements for dropping the foreign keys and secondary indexes of the tables
+   * before loading them, and for creating them again afterwards. Foreign keys are dropped first, as
+   * H2 uses the secondary indexes for checking foreign keys.
+   */
+  private static void collectConstraints(
+      DatabaseMetaData metaData,
+      List<BulkTable<?>> tables,
+      List<String> dropStatements,
+      List<String> createStatements)
+      throws SQLException {
+    List<String> foreignKeyStatements = new ArrayList<>();
+    for (BulkTable<?> table : tables) {
+      String tableName =
+          metaData.storesUpperCaseIdentifiers()
+              ? table.getName().toUpperCase(Locale.ROOT)
+              : table.getName();
+      try (ResultSet foreignKeys =
+          metaData.getImportedKeys(null, metaData.getConnection().getSchema(), tableName)) {
+        while (foreignKeys.next()) {
+          String foreignKeyName = foreignKeys.getString("FK_NAME");
+          dropStatements.add(
+              "ALTER TABLE " + table.getName() + " DROP CONSTRAINT " + foreignKeyName);
+          foreignKeyStatements.add(
+              "ALTER TABLE "
+                  + table.getName()
+                  + " ADD CONSTRAINT "
+                  + foreignKeyName
+                  + " FOREIGN KEY ("
+                  + foreignKeys.getString("FKCOLUMN_NAME")
+                  + ") REFERENCES "
+                  + foreignKeys.getString("PKTABLE_NAME")
+                  + " ("
+                  + foreignKeys.getString("PKCOLUMN_NAME")
+                  + ")");
+        }
+      }
+    }
+    for (BulkTable<?> table : tables) {
+      for (Index index : table.getIndexes()) {
+        dropStatements.add("DROP INDEX IF EXISTS " + index.name());
+        createStatements.add(
+            "CREATE INDEX "
+                + index.name()
+                + " ON "
+                + table.getName()
+                + " ("
+                + index.columnList()
+                + ")");
+      }
+    }
+    createStatements.addAll(foreignKeyStatements);
+  }
+
+  private static void execute(Connection connection, List<String> sqlStatements)
+      throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      for (String sql : sqlStatements) {
+        statement.execute(sql);
+      }
+    }
+  }
+
+  private static long copy(Connection connection, BulkTable<?> table)
+      throws SQLException, IOException {
+    PGCopyOutputStream copy =
+        new PGCopyOutputStream(
+            connection.unwrap(PGConnection.class),
+            "COPY "
+                + table.getName()
+                + " ("
+                + String.join(",", table.getColumns())
+                + ") FROM STDIN WITH (FORMAT csv)",
+            BUFFER_SIZE);
+    try {
+      Writer out = new BufferedWriter(new OutputStreamWriter(copy, UTF_8), BUFFER_SIZE);
+      table.writeRows(out);
+      out.flush();
+      return copy.endCopy();
+    } finally {
+      if (copy.isActive()) {
+        copy.cancelCopy();
+      }
+    }
+  }
+
+  private static long csvRead(Connection connection, BulkTable<?> table)
+      throws SQLException, IOException {
+    Path file = Files.createTempFile("wss-" + table.getName(), ".csv");
+    try {
+      try (Writer out = Files.newBufferedWriter(file, UTF_8)) {
+        table.writeRows(out);
+      }
+      // the arguments of table functions are evaluated when preparing statements
+      try (Statement statement = connection.createStatement()) {
+        return statement.executeUpdate(
+            "INSERT INTO "
+                + table.getName()
+                + " ("
+                + String.join(",", table.getColumns())
+                + ") SELECT * FROM CSVREAD("
+                + sqlString(file.toString())
+                + ", "
+                + sqlString(String.join(",", table.getColumns()))
+                + ", 'charset=UTF-8')");
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private static String sqlString(String value) {
+    return "'" + value.replace("'", "''") + "'";
+  }
+
+  // ordered so that referenced rows are loaded first
+  private static List<BulkTable<?>> tables(
+      DataModel<ProductEntity, WarehouseEntity, EmployeeEntity, CarrierEntity> model) {
+    Supplier<Stream<DistrictEntity>> districts =
+        () -> model.getWarehouses().stream().flatMap(w -> w.getDistricts().stream());
+    Supplier<Stream<CustomerEntity>> customers =
+        () -> districts.get().flatMap(d -> d.getCustomers().stream());
+    Supplier<Stream<OrderEntity>> orders =
+        () -> districts.get().flatMap(d -> d.getOrders().stream());
+    return List.of(
+        new BulkTable<>(
+            ProductEntity.class,
+            List.of("imagePath", "name", "price", "data"),
+            () -> model.getProducts().stream(),
+            p -> new Object[] {p.getImagePath(), p.getName(), p.getPrice(), p.getData()}),
+        new BulkTable<>(
+            CarrierEntity.class,
+            withAddress("name", "phoneNumber"),
+            () -> model.getCarriers().stream(),
+            c -> withAddress(c.getAddress(), c.getName(), c.getPhoneNumber())),
+        new BulkTable<>(
+            WarehouseEntity.class,
+            withAddress("name", "salesTax", "yearToDateBalance"),
+            () -> model.getWarehouses().stream(),
+            w ->
+                withAddress(
+                    w.getAddress(), w.getName(), w.getSalesTax(), w.getYearToDateBalance())),
+        new BulkTable<>(
+            DistrictEntity.class,
+            withAddress("warehouse_id", "name", "salesTax", "yearToDateBalance"),
+            districts,
+            d ->
+                withAddress(
+                    d.getAddress(),
+                    d.getWarehouse(),
+                    d.getName(),
+                    d.getSalesTax(),
+                    d.getYearToDateBalance())),
+        new BulkTable<>(
+            CustomerEntity.class,
+            withAddress(
+                "firstName",
+                "middleName",
+                "lastName",
+                "phoneNumber",
+                "email",
+                "district_id",
+                "since",
+                "credit",
+                "creditLimit",
+                "discount",
+                "balance",
+                "yearToDatePayment",
+                "paymentCount",
+                "deliveryCount",
+                "data"),
+            customers,
+            c ->
+                withAddress(
+                    c.getAddress(),
+                    c.getFirstName(),
+                    c.getMiddleName(),
+                    c.getLastName(),
+                    c.getPhoneNumber(),
+                    c.getEmail(),
+                    c.getDistrict(),
+                    c.getSince(),
+                    c.getCredit(),
+                    c.getCreditLimit(),
+                    c.getDiscount(),
+                    c.getBalance(),
+                    c.getYearToDatePayment(),
+                    c.getPaymentCount(),
+                    c.getDeliveryCount(),
+                    c.getData())),
+        new BulkTable<>(
+            EmployeeEntity.class,
+            withAddress(
+                "firstName",
+                "middleName",
+                "lastName",
+                "phoneNumber",
+                "email",
+                "district_id",
+                "title",
+                "username",
+                "password",
+                "role"),
+            () -> model.getEmployees().stream(),
+            e ->
+                withAddress(
+                    e.getAddress(),
+                    e.getFirstName(),
+                    e.getMiddleName(),
+                    e.getLastName(),
+                    e.getPhoneNumber(),
+                    e.getEmail(),
+                    e.getDistrict(),
+                    e.getTitle(),
+                    e.getUsername(),
+                    e.getPassword(),
+                    e.getRole())),
+        new BulkTable<>(
+            OrderEntity.class,
+            List.of(
+                "district_id",
+                "customer_id",
+                "entrydate",
+                "carrier_id",
+                "itemCount",
+                "allLocal",
+                "fulfilled"),
+            orders,
+            o ->
+                new Object[] {
+                  o.getDistrict(),
+                  o.getCustomer(),
+                  o.getEntryDate(),
+                  o.getCarrier(),
+                  o.getItemCount(),
+                  o.isAllLocal(),
+                  o.isFulfilled()
+                }),
+        new BulkTable<>(
+            OrderItemEntity.class,
+            List.of(
+                "order_id",
+                "number",
+                "product_id",
+                "supplyingWarehouse_id",
+                "deliveryDate",
+                "quantity",
+                "amount",
+                "distInfo"),
+            () -> orders.get().flatMap(o -> o.getItems().stream()),
+            i ->
+                new Object[] {
+                  i.getOrder(),
+                  i.getNumber(),
+                  i.getProduct(),
+                  i.getSupplyingWarehouse(),
+                  i.getDeliveryDate(),
+                  i.getQuantity(),
+                  i.getAmount(),
+                  i.getDistInfo()
+                }),
+        new BulkTable<>(
+            NewOrderEntity.class,
+            List.of("district_id", "entrydate"),
+            () -> orders.get().filter(o -> !o.isFulfilled()).map(NewOrderEntity::new),
+            o -> new Object[] {o.getDistrict(), o.getEntryDate()}),
+        new BulkTable<>(
+            PaymentEntity.class,
+            List.of("customer_id", "history_date", "district_id", "amount", "data"),
+            () -> customers.get().flatMap(c -> c.getPayments().stream()),
+            p ->
+                new Object[] {
+                  p.getCustomer(), p.getDate(), p.getDistrict(), p.getAmount(), p.getData()
+                }),
+        new BulkTable<>(
+            StockEntity.class,
+            List.of(
+                "product_id",
+                "quantity",
+                "warehouse_id",
+                "yearToDateBalance",
+                "orderCount",
+                "remoteCount",
+                "data",
+                "dist01",
+                "dist02",
+                "dist03",
+                "dist04",
+                "dist05",
+                "dist06",
+                "dist07",
+                "dist08",
+                "dist09",
+                "dist10"),
+            () -> model.getWarehouses().stream().flatMap(w -> w.getStocks().stream()),
+            s ->
+                new Object[] {
+                  s.getProduct(),
+                  s.getQuantity(),
+                  s.getWarehouse(),
+                  s.getYearToDateBalance(),
+                  s.getOrderCount(),
+                  s.getRemoteCount(),
+                  s.getData(),
+                  s.getDist01(),
+                  s.getDist02(),
+                  s.getDist03(),
+                  s.getDist04(),
+                  s.getDist05(),
+                  s.getDist06(),
+                  s.getDist07(),
+                  s.getDist08(),
+                  s.getDist09(),
+                  s.getDist10()
+                }));
+  }
+
+  private static List<String> withAddress(String... columns) {
+    String[] allColumns = Arrays.copyOf(columns, columns.length + 5);
+    allColumns[columns.length] = "street1";
+    allColumns[columns.length + 1] = "street2";
+    allColumns[columns.length + 2] = "zipCode";
+    allColumns[columns.length + 3] = "city";
+    allColumns[columns.length + 4] = "state";
+    return List.of(allColumns);
+  }
+
+  private static Object[] withAddress(AddressEmbeddable address, Object... values) {
+    Object[] allValues = Arrays.copyOf(values, values.length + 5);
+    if (address != null) {
+      allValues[values.length] = address.getStreet1();
+      allValues[values.length + 1] = address.getStreet2();
+      allValues[values.length + 2] = address.getZipCode();
+      allValues[values.length + 3] = address.getCity();
+      allValues[values.length + 4] = address.getState();
+    }
+    return allValues;
+  }
+
+  /**
+   * The rows of a table along with the columns they are written to. Every row starts with the
+   * identifier and version of the entity.
+   *
+   * @param <T> the type of the entity stored in the table
+   */
+  private static class BulkTable<T extends BaseEntity> {
+
+    private final Table table;
+    private final List<String> columns;
+    private final Supplier<Stream<T>> entities;
+    private final Function<T, Object[]> values;
+
+    BulkTable(
+        Class<T> entityClass,
+        List<String> columns,
+        Supplier<Stream<T>> entities,
+        Function<T, Object[]> values) {
+      table = entityClass.getAnnotation(Table.class);
+      this.columns =
+          Stream.concat(Stream.of("id", "version"), columns.stream()).collect(Collectors.toList());
+      this.entities = entities;
+      this.values = values;
+    }
+
+    String getName() {
+      return table.name();
+    }
+
+    List<String> getColumns() {
+      return columns;
+    }
+
+    Index[] getIndexes() {
+      return table.indexes();
+    }
+
+    /**
+     * Writes the rows in CSV format, in which unquoted empty values are read as {@code null} and
+     * entities are referenced by their identifier.
+     */
+    void writeRows(Writer out) throws IOException {
+      for (T entity : (Iterable<T>) entities.get()::iterator) {
+        out.write(entity.getId());
+        out.write(",0");
+        for (Object value : values.apply(entity)) {
+          out.write(',');
+          writeValue(out, value);
+        }
+        out.write('\n');
+      }
+    }
+
+    private static void writeValue(Writer out, Object value) throws IOException {
+      if (value == null) {
+        return;
+      }
+      if (value instanceof BaseEntity) {
+        out.write(((BaseEntity) value).getId());
+      } else if (value instanceof String) {
+        out.write('"');
+        out.write(((String) value).replace("\"", "\"\""));
+        out.write('"');
+      } else if (value instanceof LocalDateTime) {
+        out.write(TIMESTAMP_FORMAT.format((LocalDateTime) value));
+      } else {
+        out.write(value.toString());
+      }
+    }
+  }
+}
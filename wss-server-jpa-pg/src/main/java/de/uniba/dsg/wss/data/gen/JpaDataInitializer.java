@@ -4,6 +4,10 @@ import de.uniba.dsg.wss.data.gen.model.Carrier;
 import de.uniba.dsg.wss.data.gen.model.Employee;
 import de.uniba.dsg.wss.data.gen.model.Product;
 import de.uniba.dsg.wss.data.gen.model.Warehouse;
+import de.uniba.dsg.wss.data.model.CarrierEntity;
+import de.uniba.dsg.wss.data.model.EmployeeEntity;
+import de.uniba.dsg.wss.data.model.ProductEntity;
+import de.uniba.dsg.wss.data.model.WarehouseEntity;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,13 +27,20 @@ import org.springframework.stereotype.Component;
 public class JpaDataInitializer extends DataInitializer {
 
   private static final Logger LOG = LogManager.getLogger(JpaDataInitializer.class);
-  private final JpaDataWriter databaseWriter;
+  private final DataWriter<ProductEntity, WarehouseEntity, EmployeeEntity, CarrierEntity>
+      databaseWriter;
 
   @Autowired
   public JpaDataInitializer(
-      Environment environment, PasswordEncoder passwordEncoder, JpaDataWriter databaseWriter) {
+      Environment environment,
+      PasswordEncoder passwordEncoder,
+      JpaDataWriter databaseWriter,
+      JpaBulkDataWriter bulkDatabaseWriter) {
     super(environment, passwordEncoder);
-    this.databaseWriter = databaseWriter;
+    this.databaseWriter =
+        environment.getProperty("wss.jpa.bulk-load.enabled", Boolean.class, false)
+            ? bulkDatabaseWriter
+            : databaseWriter;
   }
 
   @Override
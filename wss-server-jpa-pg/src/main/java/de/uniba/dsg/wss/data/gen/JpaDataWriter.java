@@ -3,12 +3,15 @@ package de.uniba.dsg.wss.data.gen;
 import de.uniba.dsg.wss.commons.Stopwatch;
 import de.uniba.dsg.wss.data.access.CarrierRepository;
 import de.uniba.dsg.wss.data.access.EmployeeRepository;
+import de.uniba.dsg.wss.data.access.NewOrderRepository;
 import de.uniba.dsg.wss.data.access.ProductRepository;
 import de.uniba.dsg.wss.data.access.WarehouseRepository;
 import de.uniba.dsg.wss.data.model.CarrierEntity;
 import de.uniba.dsg.wss.data.model.EmployeeEntity;
+import de.uniba.dsg.wss.data.model.NewOrderEntity;
 import de.uniba.dsg.wss.data.model.ProductEntity;
 import de.uniba.dsg.wss.data.model.WarehouseEntity;
+import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,17 +31,20 @@ public class JpaDataWriter
   private final CarrierRepository carrierRepository;
   private final WarehouseRepository warehouseRepository;
   private final EmployeeRepository employeeRepository;
+  private final NewOrderRepository newOrderRepository;
 
   @Autowired
   public JpaDataWriter(
       ProductRepository productRepository,
       CarrierRepository carrierRepository,
       WarehouseRepository warehouseRepository,
-      EmployeeRepository employeeRepository) {
+      EmployeeRepository employeeRepository,
+      NewOrderRepository newOrderRepository) {
     this.productRepository = productRepository;
     this.carrierRepository = carrierRepository;
     this.warehouseRepository = warehouseRepository;
     this.employeeRepository = employeeRepository;
+    this.newOrderRepository = newOrderRepository;
   }
 
   @Override
@@ -52,6 +58,14 @@ public class JpaDataWriter
     carrierRepository.saveAll(model.getCarriers());
     warehouseRepository.saveAll(model.getWarehouses());
     employeeRepository.saveAll(model.getEmployees());
+    // the queue of undelivered orders is not mapped by the districts
+    newOrderRepository.saveAll(
+        model.getWarehouses().stream()
+            .flatMap(w -> w.getDistricts().stream())
+            .flatMap(d -> d.getOrders().stream())
+            .filter(o -> !o.isFulfilled())
+            .map(NewOrderEntity::new)
+            .collect(Collectors.toList()));
     stopwatch.stop();
     LOG.info("Wrote model data to database, took {}", stopwatch.getDuration());
   }
@@ -11,6 +11,11 @@ import javax.persistence.Version;
  * and a version field for optimistic locking. Furthermore, object equality and hashcode are defined
  * as functions of the identity.
  *
+ * <p>As identifiers are assigned when creating an entity, Spring Data determines whether an entity
+ * is new by its version, which is {@code null} until the entity has been persisted. New entities
+ * are therefore persisted without being selected first, and their inserts can be sent to the
+ * database in JDBC batches.
+ *
  * @author Benedikt Full
  */
 @MappedSuperclass
@@ -1,17 +1,25 @@
 package de.uniba.dsg.wss.data.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A carrier is responsible for fulfilling {@link OrderEntity orders} by delivering the ordered
  * items to the {@link CustomerEntity customer}.
  *
+ * <p>Carriers are never modified once created, which is why they are kept in the read-only {@code
+ * carriers} region of the second-level cache, if enabled.
+ *
  * @author Benedikt Full
  */
 @Entity(name = "Carrier")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "carriers")
 @Table(name = "carriers")
 public class CarrierEntity extends BaseEntity {
 
@@ -8,7 +8,6 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.Index;
-import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
@@ -54,8 +53,8 @@ public class CustomerEntity extends PersonEntity {
   private int paymentCount;
   private int deliveryCount;
 
-  @Lob
-  @Column(nullable = false)
+  // not a LOB, which Hibernate would store as large object in PostgreSQL
+  @Column(nullable = false, length = 500)
   private String data;
 
   public DistrictEntity getDistrict() {
@@ -2,6 +2,7 @@ package de.uniba.dsg.wss.data.model;
 
 import java.util.ArrayList;
 import java.util.List;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
@@ -12,15 +13,23 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A district is one of ten areas supplied by a specific {@link WarehouseEntity warehouse}. Each
  * district is administered by a single {@link EmployeeEntity employee} and has 3000 {@link
  * CustomerEntity customers}.
  *
+ * <p>Districts are read by most transactions, but only the balance is modified by payments, which
+ * is why they are kept in the read-write {@code districts} region of the second-level cache, if
+ * enabled. Modifications update the cached entry once the transaction has been committed.
+ *
  * @author Benedikt Full
  */
 @Entity(name = "District")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "districts")
 @Table(
     name = "districts",
     indexes = {@Index(name = "districts_idx_warehouse_id", columnList = "warehouse_id")})
@@ -0,0 +1,65 @@
+package de.uniba.dsg.wss.data.model;
+
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Index;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+/**
+ * An entry of the queue of {@link OrderEntity orders} which have not been delivered yet, like the
+ * NEW_ORDER table of TPC-C. Entries are added by the New-Order transaction and removed by the
+ * Delivery transaction, so the queue only holds the pending orders instead of growing with every
+ * order placed.
+ *
+ * <p>An entry is identified by the identifier of its order. It does not reference the order via a
+ * foreign key, so that entries can be removed independently of the orders. The composite index on
+ * district and entry date returns the oldest entry of a district without sorting.
+ *
+ * @author Benedikt Full
+ */
+@Entity(name = "NewOrder")
+@Table(
+    name = "neworders",
+    indexes = {
+      @Index(name = "neworders_idx_district_id_entrydate", columnList = "district_id, entrydate")
+    })
+public class NewOrderEntity extends BaseEntity {
+
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
+  private DistrictEntity district;
+
+  @Column(nullable = false, name = "entrydate")
+  private LocalDateTime entryDate;
+
+  public NewOrderEntity() {}
+
+  /**
+   * Creates the queue entry of the given order.
+   *
+   * @param order the order, whose district and entry date have already been set
+   */
+  public NewOrderEntity(OrderEntity order) {
+    setId(order.getId());
+    district = order.getDistrict();
+    entryDate = order.getEntryDate();
+  }
+
+  public DistrictEntity getDistrict() {
+    return district;
+  }
+
+  public void setDistrict(DistrictEntity district) {
+    this.district = district;
+  }
+
+  public LocalDateTime getEntryDate() {
+    return entryDate;
+  }
+
+  public void setEntryDate(LocalDateTime entryDate) {
+    this.entryDate = entryDate;
+  }
+}
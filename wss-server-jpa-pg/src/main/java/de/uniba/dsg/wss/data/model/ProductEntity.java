@@ -1,15 +1,23 @@
 package de.uniba.dsg.wss.data.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A product of the wholesale supplier.
  *
+ * <p>Products are never modified once created, which is why they are kept in the read-only {@code
+ * products} region of the second-level cache, if enabled.
+ *
  * @author Benedikt Full
  */
 @Entity(name = "Product")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "products")
 @Table(name = "products")
 public class ProductEntity extends BaseEntity {
 
@@ -2,6 +2,7 @@ package de.uniba.dsg.wss.data.model;
 
 import java.util.ArrayList;
 import java.util.List;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
@@ -9,14 +10,22 @@ import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A warehouse of the wholesale supplier.
  *
+ * <p>Warehouses are read by most transactions, but only the balance is modified by payments, which
+ * is why they are kept in the read-write {@code warehouses} region of the second-level cache, if
+ * enabled. Modifications update the cached entry once the transaction has been committed.
+ *
  * @author Benedikt Full
  * @author Johannes Manner
  */
 @Entity(name = "Warehouse")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "warehouses")
 @Table(name = "warehouses")
 public class WarehouseEntity extends BaseEntity {
 
@@ -1,67 +1,79 @@
 package de.uniba.dsg.wss.service;
 
 import de.uniba.dsg.wss.data.access.CarrierRepository;
+import de.uniba.dsg.wss.data.access.ConcurrencyStrategy;
 import de.uniba.dsg.wss.data.access.CustomerRepository;
 import de.uniba.dsg.wss.data.access.DistrictRepository;
+import de.uniba.dsg.wss.data.access.NewOrderRepository;
 import de.uniba.dsg.wss.data.access.OrderRepository;
+import de.uniba.dsg.wss.data.access.TransactionRunner;
 import de.uniba.dsg.wss.data.model.CarrierEntity;
 import de.uniba.dsg.wss.data.model.CustomerEntity;
 import de.uniba.dsg.wss.data.model.DistrictEntity;
+import de.uniba.dsg.wss.data.model.NewOrderEntity;
 import de.uniba.dsg.wss.data.model.OrderEntity;
 import de.uniba.dsg.wss.data.model.OrderItemEntity;
 import de.uniba.dsg.wss.data.transfer.messages.DeliveryRequest;
 import de.uniba.dsg.wss.data.transfer.messages.DeliveryResponse;
-import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
-import org.postgresql.util.PSQLException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class JpaDeliveryService extends DeliveryService {
 
   private final DistrictRepository districtRepository;
+  private final NewOrderRepository newOrderRepository;
   private final OrderRepository orderRepository;
   private final CustomerRepository customerRepository;
   private final CarrierRepository carrierRepository;
+  private final TransactionRunner transactionRunner;
 
   @Autowired
   public JpaDeliveryService(
       DistrictRepository districtRepository,
+      NewOrderRepository newOrderRepository,
       OrderRepository orderRepository,
       CustomerRepository customerRepository,
-      CarrierRepository carrierRepository) {
+      CarrierRepository carrierRepository,
+      TransactionRunner transactionRunner) {
     this.districtRepository = districtRepository;
+    this.newOrderRepository = newOrderRepository;
     this.orderRepository = orderRepository;
     this.customerRepository = customerRepository;
     this.carrierRepository = carrierRepository;
+    this.transactionRunner = transactionRunner;
   }
 
-  @Retryable(
-      value = {RuntimeException.class, SQLException.class, PSQLException.class},
-      backoff = @Backoff(delay = 100),
-      maxAttempts = 5)
-  @Transactional(isolation = Isolation.REPEATABLE_READ)
   @Override
   public DeliveryResponse process(DeliveryRequest req) {
+    return transactionRunner.run("delivery", false, strategy -> process(req, strategy));
+  }
+
+  private DeliveryResponse process(DeliveryRequest req, ConcurrencyStrategy strategy) {
     // Find districts and carrier
     List<DistrictEntity> districts = districtRepository.findByWarehouseId(req.getWarehouseId());
     CarrierEntity carrier = carrierRepository.getById(req.getCarrierId());
+    TransactionTimings.mark(TransactionPhase.LOOKUP);
 
     for (DistrictEntity district : districts) {
       double amountSum = 0;
-      // Find oldest new/unfulfilled order
-      OrderEntity order =
-          orderRepository.findOldestUnfulfilledOrderOfDistrict(district.getId()).orElse(null);
-      if (order == null) {
+      // Take oldest new/unfulfilled order from the queue of the district
+      NewOrderEntity newOrder =
+          (strategy.isLocking()
+                  ? newOrderRepository.findOldestOfDistrictForUpdate(district.getId())
+                  : newOrderRepository.findOldestOfDistrict(district.getId()))
+              .orElse(null);
+      if (newOrder == null) {
         // No unfulfilled orders for this district, do nothing
+        TransactionTimings.mark(TransactionPhase.LOOKUP);
         continue;
       }
+      // Only the transaction which removes the entry from the queue delivers the order
+      newOrderRepository.delete(newOrder);
+      OrderEntity order = orderRepository.getById(newOrder.getId());
+      TransactionTimings.mark(TransactionPhase.LOOKUP);
 
       // Update fulfillment status and carrier of order
       order.setCarrier(carrier);
@@ -77,9 +89,13 @@ public class JpaDeliveryService extends DeliveryService {
 
       // Update customer balance and delivery count
       CustomerEntity customer = order.getCustomer();
+      if (strategy.isLocking()) {
+        customerRepository.lockForUpdate(customer);
+      }
       customer.setBalance(customer.getBalance() + amountSum);
       customer.setDeliveryCount(customer.getDeliveryCount() + 1);
       customerRepository.save(customer);
+      TransactionTimings.mark(TransactionPhase.MUTATE);
     }
     return new DeliveryResponse(req);
   }
@@ -1,13 +1,17 @@
 package de.uniba.dsg.wss.service;
 
+import de.uniba.dsg.wss.data.access.ConcurrencyStrategy;
 import de.uniba.dsg.wss.data.access.CustomerRepository;
+import de.uniba.dsg.wss.data.access.NewOrderRepository;
 import de.uniba.dsg.wss.data.access.OrderRepository;
 import de.uniba.dsg.wss.data.access.ProductRepository;
 import de.uniba.dsg.wss.data.access.StockRepository;
+import de.uniba.dsg.wss.data.access.TransactionRunner;
 import de.uniba.dsg.wss.data.access.WarehouseRepository;
 import de.uniba.dsg.wss.data.model.BaseEntity;
 import de.uniba.dsg.wss.data.model.CustomerEntity;
 import de.uniba.dsg.wss.data.model.DistrictEntity;
+import de.uniba.dsg.wss.data.model.NewOrderEntity;
 import de.uniba.dsg.wss.data.model.OrderEntity;
 import de.uniba.dsg.wss.data.model.OrderItemEntity;
 import de.uniba.dsg.wss.data.model.ProductEntity;
@@ -17,7 +21,6 @@ import de.uniba.dsg.wss.data.transfer.messages.NewOrderRequest;
 import de.uniba.dsg.wss.data.transfer.messages.NewOrderRequestItem;
 import de.uniba.dsg.wss.data.transfer.messages.NewOrderResponse;
 import de.uniba.dsg.wss.data.transfer.messages.NewOrderResponseItem;
-import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -25,13 +28,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import org.postgresql.util.PSQLException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class JpaNewOrderService extends NewOrderService {
@@ -40,7 +38,9 @@ public class JpaNewOrderService extends NewOrderService {
   private final ProductRepository productRepository;
   private final StockRepository stockRepository;
   private final OrderRepository orderRepository;
+  private final NewOrderRepository newOrderRepository;
   private final CustomerRepository customerRepository;
+  private final TransactionRunner transactionRunner;
 
   @Autowired
   public JpaNewOrderService(
@@ -48,21 +48,24 @@ public class JpaNewOrderService extends NewOrderService {
       ProductRepository productRepository,
       StockRepository stockRepository,
       OrderRepository orderRepository,
-      CustomerRepository customerRepository) {
+      NewOrderRepository newOrderRepository,
+      CustomerRepository customerRepository,
+      TransactionRunner transactionRunner) {
     this.warehouseRepository = warehouseRepository;
     this.productRepository = productRepository;
     this.stockRepository = stockRepository;
     this.orderRepository = orderRepository;
+    this.newOrderRepository = newOrderRepository;
     this.customerRepository = customerRepository;
+    this.transactionRunner = transactionRunner;
   }
 
-  @Retryable(
-      value = {RuntimeException.class, SQLException.class, PSQLException.class},
-      backoff = @Backoff(delay = 100),
-      maxAttempts = 5)
-  @Transactional(isolation = Isolation.REPEATABLE_READ)
   @Override
   public NewOrderResponse process(NewOrderRequest req) {
+    return transactionRunner.run("new-order", false, strategy -> process(req, strategy));
+  }
+
+  private NewOrderResponse process(NewOrderRequest req, ConcurrencyStrategy strategy) {
     // Fetch warehouse, district and customer
     CustomerEntity customer = customerRepository.getById(req.getCustomerId());
     DistrictEntity district = customer.getDistrict();
@@ -72,6 +75,7 @@ public class JpaNewOrderService extends NewOrderService {
       throw new IllegalArgumentException();
     }
     WarehouseEntity warehouse = district.getWarehouse();
+    TransactionTimings.mark(TransactionPhase.LOOKUP);
 
     // Create and persist a new order
     OrderEntity order = new OrderEntity();
@@ -103,18 +107,43 @@ public class JpaNewOrderService extends NewOrderService {
     Map<String, ProductEntity> orderProducts =
         productRepository.findAllById(orderProductIds).stream()
             .collect(Collectors.toMap(BaseEntity::getId, Function.identity()));
-
-    for (int i = 0; i < orderItems.size(); i++) {
-      OrderItemEntity orderItem = orderItems.get(i);
+    for (OrderItemEntity orderItem : orderItems) {
       orderItem.setSupplyingWarehouse(
           supplyingWarehouses.get(orderItem.getSupplyingWarehouse().getId()));
       orderItem.setProduct(orderProducts.get(orderItem.getProduct().getId()));
-      ProductEntity product = productRepository.getById(orderItem.getProduct().getId());
+    }
+    // Find (and lock) all stocks in a single statement, they are updated in a single batch when
+    // committing
+    Set<String> stockKeys =
+        orderItems.stream()
+            .map(
+                i ->
+                    StockRepository.stockKey(
+                        i.getSupplyingWarehouse().getId(), i.getProduct().getId()))
+            .collect(Collectors.toSet());
+    List<StockEntity> foundStocks =
+        strategy.isLocking()
+            ? stockRepository.findAllByKeysForUpdate(
+                supplyingWarehouseIds, orderProductIds, stockKeys)
+            : stockRepository.findAllByKeys(supplyingWarehouseIds, orderProductIds, stockKeys);
+    Map<String, StockEntity> stocks =
+        foundStocks.stream()
+            .collect(
+                Collectors.toMap(
+                    s -> StockRepository.stockKey(s.getWarehouse().getId(), s.getProduct().getId()),
+                    Function.identity()));
+    if (stockKeys.size() != stocks.size()) {
+      throw new IllegalStateException();
+    }
+    TransactionTimings.mark(TransactionPhase.LOOKUP);
+
+    for (int i = 0; i < orderItems.size(); i++) {
+      OrderItemEntity orderItem = orderItems.get(i);
+      ProductEntity product = orderItem.getProduct();
       StockEntity stock =
-          stockRepository
-              .findByProductIdAndWarehouseId(
-                  product.getId(), orderItem.getSupplyingWarehouse().getId())
-              .orElseThrow(IllegalStateException::new);
+          stocks.get(
+              StockRepository.stockKey(
+                  orderItem.getSupplyingWarehouse().getId(), orderItem.getProduct().getId()));
       NewOrderResponseItem responseLine = newOrderResponseLine(orderItem);
       responseLines.add(responseLine);
       int stockQuantity = stock.getQuantity();
@@ -122,7 +151,6 @@ public class JpaNewOrderService extends NewOrderService {
       stock.setQuantity(determineNewStockQuantity(stockQuantity, orderItemQuantity));
       stock.setYearToDateBalance(stock.getYearToDateBalance() + orderItemQuantity);
       stock.setOrderCount(stock.getOrderCount() + 1);
-      stock = stockRepository.save(stock);
       responseLine.setStockQuantity(stock.getQuantity());
       responseLine.setItemName(product.getName());
       responseLine.setItemPrice(product.getPrice());
@@ -133,10 +161,13 @@ public class JpaNewOrderService extends NewOrderService {
       orderItem.setNumber(i + 1);
       orderItem.setDistInfo(getRandomDistrictInfo(stock));
       orderItemSum += orderItem.getAmount();
+      TransactionTimings.mark(TransactionPhase.MUTATE);
     }
     order.setItems(orderItems);
-    // Save order and items
+    // Save order and items, and add the order to the queue of orders to be delivered
     order = orderRepository.save(order);
+    newOrderRepository.save(new NewOrderEntity(order));
+    TransactionTimings.mark(TransactionPhase.MUTATE);
 
     // Prepare the response object
     NewOrderResponse res = newOrderResponse(req, order, warehouse, district, customer);
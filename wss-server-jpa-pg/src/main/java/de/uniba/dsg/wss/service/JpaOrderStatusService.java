@@ -1,99 +1,84 @@
 package de.uniba.dsg.wss.service;
 
-import de.uniba.dsg.wss.data.access.CustomerRepository;
 import de.uniba.dsg.wss.data.access.OrderRepository;
-import de.uniba.dsg.wss.data.model.CarrierEntity;
-import de.uniba.dsg.wss.data.model.CustomerEntity;
-import de.uniba.dsg.wss.data.model.OrderEntity;
-import de.uniba.dsg.wss.data.model.OrderItemEntity;
+import de.uniba.dsg.wss.data.access.OrderStatusView;
+import de.uniba.dsg.wss.data.access.TransactionRunner;
 import de.uniba.dsg.wss.data.transfer.messages.OrderItemStatusResponse;
 import de.uniba.dsg.wss.data.transfer.messages.OrderStatusRequest;
 import de.uniba.dsg.wss.data.transfer.messages.OrderStatusResponse;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import org.postgresql.util.PSQLException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class JpaOrderStatusService extends OrderStatusService {
 
-  private final CustomerRepository customerRepository;
   private final OrderRepository orderRepository;
+  private final TransactionRunner transactionRunner;
 
   @Autowired
   public JpaOrderStatusService(
-      CustomerRepository customerRepository, OrderRepository orderRepository) {
-    this.customerRepository = customerRepository;
+      OrderRepository orderRepository, TransactionRunner transactionRunner) {
     this.orderRepository = orderRepository;
+    this.transactionRunner = transactionRunner;
   }
 
-  @Retryable(
-      value = {RuntimeException.class, SQLException.class, PSQLException.class},
-      backoff = @Backoff(delay = 100),
-      maxAttempts = 5)
-  @Transactional(isolation = Isolation.READ_COMMITTED, readOnly = true)
   @Override
   public OrderStatusResponse process(OrderStatusRequest req) {
-    // Fetch customer (either by id or email)
-    String customerId = req.getCustomerId();
-    CustomerEntity customer;
-    if (customerId == null) {
-      customer =
-          customerRepository
-              .findByEmail(req.getCustomerEmail())
-              .orElseThrow(IllegalArgumentException::new);
-      customerId = customer.getId();
-    } else {
-      customer = customerRepository.getById(customerId);
-    }
-
-    // Find the most recent order of the customer and parse the delivery dates (and some other info)
-    OrderEntity order =
-        orderRepository
-            .findMostRecentOrderOfCustomer(customerId)
-            .orElseThrow(IllegalStateException::new);
-    return toOrderStatusResponse(req, order, customer, toOrderItemStatusResponse(order.getItems()));
+    return transactionRunner.run("order-status", true, strategy -> processTransaction(req));
   }
 
-  private static List<OrderItemStatusResponse> toOrderItemStatusResponse(
-      List<OrderItemEntity> orderItems) {
-    List<OrderItemStatusResponse> responses = new ArrayList<>(orderItems.size());
-    for (OrderItemEntity entity : orderItems) {
-      OrderItemStatusResponse res = new OrderItemStatusResponse();
-      res.setSupplyingWarehouseId(entity.getSupplyingWarehouse().getId());
-      res.setProductId(entity.getProduct().getId());
-      res.setQuantity(entity.getQuantity());
-      res.setAmount(entity.getAmount());
-      res.setDeliveryDate(entity.getDeliveryDate());
-      responses.add(res);
+  private OrderStatusResponse processTransaction(OrderStatusRequest req) {
+    // Find the items of the most recent order of the customer (either by id or email), together
+    // with the required customer and order fields
+    String customerId = req.getCustomerId();
+    List<OrderStatusView> items =
+        customerId == null
+            ? orderRepository.findMostRecentOrderStatusOfCustomerByEmail(req.getCustomerEmail())
+            : orderRepository.findMostRecentOrderStatusOfCustomer(customerId);
+    if (items.isEmpty()) {
+      // unknown customer
+      throw customerId == null ? new IllegalArgumentException() : new IllegalStateException();
     }
-    return responses;
+    if (items.get(0).getOrderId() == null) {
+      // the customer has not placed any order yet
+      throw new IllegalStateException();
+    }
+    TransactionTimings.mark(TransactionPhase.LOOKUP);
+    return toOrderStatusResponse(req, items);
   }
 
   private static OrderStatusResponse toOrderStatusResponse(
-      OrderStatusRequest req,
-      OrderEntity order,
-      CustomerEntity customer,
-      List<OrderItemStatusResponse> itemStatusResponses) {
+      OrderStatusRequest req, List<OrderStatusView> items) {
+    OrderStatusView order = items.get(0);
     OrderStatusResponse res = new OrderStatusResponse();
     res.setWarehouseId(req.getWarehouseId());
     res.setDistrictId(req.getDistrictId());
-    res.setCustomerId(customer.getId());
-    res.setCustomerFirstName(customer.getFirstName());
-    res.setCustomerMiddleName(customer.getMiddleName());
-    res.setCustomerLastName(customer.getLastName());
-    res.setCustomerBalance(customer.getBalance());
-    res.setOrderId(order.getId());
-    res.setOrderEntryDate(order.getEntryDate());
-    CarrierEntity carrier = order.getCarrier();
-    res.setOrderCarrierId(carrier != null ? carrier.getId() : null);
-    res.setItemStatus(itemStatusResponses);
+    res.setCustomerId(order.getCustomerId());
+    res.setCustomerFirstName(order.getCustomerFirstName());
+    res.setCustomerMiddleName(order.getCustomerMiddleName());
+    res.setCustomerLastName(order.getCustomerLastName());
+    res.setCustomerBalance(order.getCustomerBalance());
+    res.setOrderId(order.getOrderId());
+    res.setOrderEntryDate(order.getOrderEntryDate());
+    res.setOrderCarrierId(order.getOrderCarrierId());
+
+    List<OrderItemStatusResponse> itemStatus = new ArrayList<>(items.size());
+    for (OrderStatusView item : items) {
+      // orders placed at the same time would both be the most recent one
+      if (item.getProductId() == null || !item.getOrderId().equals(order.getOrderId())) {
+        continue;
+      }
+      OrderItemStatusResponse itemRes = new OrderItemStatusResponse();
+      itemRes.setSupplyingWarehouseId(item.getSupplyingWarehouseId());
+      itemRes.setProductId(item.getProductId());
+      itemRes.setQuantity(item.getQuantity());
+      itemRes.setAmount(item.getAmount());
+      itemRes.setDeliveryDate(item.getDeliveryDate());
+      itemStatus.add(itemRes);
+    }
+    res.setItemStatus(itemStatus);
     return res;
   }
 }
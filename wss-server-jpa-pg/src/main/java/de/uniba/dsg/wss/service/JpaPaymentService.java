@@ -1,8 +1,10 @@
 package de.uniba.dsg.wss.service;
 
+import de.uniba.dsg.wss.data.access.ConcurrencyStrategy;
 import de.uniba.dsg.wss.data.access.CustomerRepository;
 import de.uniba.dsg.wss.data.access.DistrictRepository;
 import de.uniba.dsg.wss.data.access.PaymentRepository;
+import de.uniba.dsg.wss.data.access.TransactionRunner;
 import de.uniba.dsg.wss.data.access.WarehouseRepository;
 import de.uniba.dsg.wss.data.model.CustomerEntity;
 import de.uniba.dsg.wss.data.model.DistrictEntity;
@@ -10,15 +12,9 @@ import de.uniba.dsg.wss.data.model.PaymentEntity;
 import de.uniba.dsg.wss.data.model.WarehouseEntity;
 import de.uniba.dsg.wss.data.transfer.messages.PaymentRequest;
 import de.uniba.dsg.wss.data.transfer.messages.PaymentResponse;
-import java.sql.SQLException;
 import java.time.LocalDateTime;
-import org.postgresql.util.PSQLException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class JpaPaymentService extends PaymentService {
@@ -27,26 +23,28 @@ public class JpaPaymentService extends PaymentService {
   private final DistrictRepository districtRepository;
   private final CustomerRepository customerRepository;
   private final PaymentRepository paymentRepository;
+  private final TransactionRunner transactionRunner;
 
   @Autowired
   public JpaPaymentService(
       WarehouseRepository warehouseRepository,
       DistrictRepository districtRepository,
       CustomerRepository customerRepository,
-      PaymentRepository paymentRepository) {
+      PaymentRepository paymentRepository,
+      TransactionRunner transactionRunner) {
     this.warehouseRepository = warehouseRepository;
     this.districtRepository = districtRepository;
     this.customerRepository = customerRepository;
     this.paymentRepository = paymentRepository;
+    this.transactionRunner = transactionRunner;
   }
 
-  @Retryable(
-      value = {RuntimeException.class, SQLException.class, PSQLException.class},
-      backoff = @Backoff(delay = 100),
-      maxAttempts = 5)
-  @Transactional(isolation = Isolation.REPEATABLE_READ)
   @Override
   public PaymentResponse process(PaymentRequest req) {
+    return transactionRunner.run("payment", false, strategy -> process(req, strategy));
+  }
+
+  private PaymentResponse process(PaymentRequest req, ConcurrencyStrategy strategy) {
     // Fetch warehouse, district, and customer (either by id or email)
     WarehouseEntity warehouse = warehouseRepository.getById(req.getWarehouseId());
     DistrictEntity district = districtRepository.getById(req.getDistrictId());
@@ -60,6 +58,13 @@ public class JpaPaymentService extends PaymentService {
     } else {
       customer = customerRepository.getById(customerId);
     }
+    if (strategy.isLocking()) {
+      // Lock in the order of the hierarchy, so that concurrent payments do not deadlock
+      warehouseRepository.lockForUpdate(warehouse);
+      districtRepository.lockForUpdate(district);
+      customerRepository.lockForUpdate(customer);
+    }
+    TransactionTimings.mark(TransactionPhase.LOOKUP);
 
     // Update warehouse and district year to data balance
     warehouse.setYearToDateBalance(warehouse.getYearToDateBalance() + req.getAmount());
@@ -91,6 +96,7 @@ public class JpaPaymentService extends PaymentService {
     payment.setData(buildPaymentData(warehouse.getName(), district.getName()));
     payment.setAmount(req.getAmount());
     payment = paymentRepository.save(payment);
+    TransactionTimings.mark(TransactionPhase.MUTATE);
 
     PaymentResponse res = new PaymentResponse(req);
     res.setCustomerId(customer.getId());
@@ -0,0 +1,107 @@
+package de.uniba.dsg.wss;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.uniba.dsg.wss.data.access.CarrierRepository;
+import de.uniba.dsg.wss.data.access.OrderRepository;
+import de.uniba.dsg.wss.data.access.ProductRepository;
+import de.uniba.dsg.wss.data.access.TimedJpaTransactionManager;
+import de.uniba.dsg.wss.data.access.WarehouseRepository;
+import de.uniba.dsg.wss.data.gen.JpaDataConverter;
+import de.uniba.dsg.wss.data.gen.JpaDataModel;
+import de.uniba.dsg.wss.data.gen.TestDataGenerator;
+import de.uniba.dsg.wss.data.model.BaseEntity;
+import de.uniba.dsg.wss.data.model.WarehouseEntity;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(
+    properties = {"wss.jpa.hibernate.cache.enabled=true", "wss.jpa.statements.enabled=true"})
+public class JpaSecondLevelCacheTests {
+
+  @Autowired private ProductRepository productRepository;
+  @Autowired private CarrierRepository carrierRepository;
+  @Autowired private WarehouseRepository warehouseRepository;
+  @Autowired private OrderRepository orderRepository;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private MeterRegistry meterRegistry;
+  private List<String> productIds;
+  private String warehouseId;
+
+  @BeforeEach
+  public void setUp() {
+    JpaDataModel model = new JpaDataConverter().convert(new TestDataGenerator().generate());
+    productRepository.saveAll(model.getProducts());
+    carrierRepository.saveAll(model.getCarriers());
+    warehouseRepository.saveAll(model.getWarehouses());
+    productIds = model.getProducts().stream().map(BaseEntity::getId).collect(Collectors.toList());
+    warehouseId = model.getWarehouses().get(0).getId();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    orderRepository.deleteAll();
+    warehouseRepository.deleteAll();
+    productRepository.deleteAll();
+    carrierRepository.deleteAll();
+    // deleted entities remain locked for a short time, which would prevent re-created entities with
+    // the same identifiers from being cached by the next test
+    entityManagerFactory.getCache().evictAll();
+  }
+
+  private DistributionSummary statements(String transaction) {
+    return meterRegistry.summary(
+        TimedJpaTransactionManager.METRIC_NAME, "transaction", transaction);
+  }
+
+  private double cacheHits(String region) {
+    return meterRegistry
+        .get("cache.gets")
+        .tag("cache", region)
+        .tag("result", "hit")
+        .functionCounter()
+        .count();
+  }
+
+  @Test
+  public void cachedProductsAreLoadedWithoutStatements() {
+    assertEquals(productIds.size(), productRepository.findAllById(productIds).size());
+    double hits = cacheHits("products");
+    DistributionSummary statements = statements("MultiLoadJpaRepository");
+    long transactionCount = statements.count();
+    double statementCount = statements.totalAmount();
+
+    assertEquals(productIds.size(), productRepository.findAllById(productIds).size());
+    assertEquals(transactionCount + 1, statements.count());
+    assertEquals(statementCount, statements.totalAmount());
+    assertEquals(hits + productIds.size(), cacheHits("products"));
+    assertTrue(
+        meterRegistry.get("wss.jpa.cache.hit.ratio").tag("cache", "products").gauge().value() > 0);
+  }
+
+  @Test
+  public void cachedWarehousesReflectModifications() {
+    warehouseRepository.findById(warehouseId);
+    DistributionSummary statements = statements("MultiLoadJpaRepository");
+    long transactionCount = statements.count();
+    double statementCount = statements.totalAmount();
+    WarehouseEntity warehouse = warehouseRepository.findById(warehouseId).get();
+    assertEquals(transactionCount + 1, statements.count());
+    assertEquals(statementCount, statements.totalAmount());
+
+    warehouse.setYearToDateBalance(warehouse.getYearToDateBalance() + 10);
+    warehouseRepository.save(warehouse);
+    assertEquals(
+        warehouse.getYearToDateBalance(),
+        warehouseRepository.findById(warehouseId).get().getYearToDateBalance());
+  }
+}
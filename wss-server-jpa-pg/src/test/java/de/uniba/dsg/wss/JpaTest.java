@@ -0,0 +1,33 @@
+package de.uniba.dsg.wss;
+
+import de.uniba.dsg.wss.data.access.ConcurrencyStrategy;
+import de.uniba.dsg.wss.data.access.TransactionRunner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@DataJpaTest
+public abstract class JpaTest {
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  /**
+   * Creates a runner for the transactions of the services under test, which joins the transaction
+   * of the test and does not retry transactions. The pessimistic strategy makes the services use
+   * their locking queries as well, the strategies themselves are covered by the tests of the {@link
+   * TransactionRunner}.
+   *
+   * @return the transaction runner
+   */
+  public TransactionRunner createTransactionRunner() {
+    return new TransactionRunner(
+        transactionManager,
+        type -> ConcurrencyStrategy.PESSIMISTIC,
+        1,
+        Duration.ofMillis(1),
+        Duration.ofMillis(1),
+        new SimpleMeterRegistry());
+  }
+}
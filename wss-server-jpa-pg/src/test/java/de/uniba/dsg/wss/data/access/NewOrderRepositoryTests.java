@@ -0,0 +1,24 @@
+package de.uniba.dsg.wss.data.access;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest
+public class NewOrderRepositoryTests {
+
+  @Autowired private NewOrderRepository newOrderRepository;
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void lockingOldestOrderRequiresSurroundingTransaction() {
+    assertThrows(
+        IllegalTransactionStateException.class,
+        () -> newOrderRepository.findOldestOfDistrictForUpdate("D0"));
+  }
+}
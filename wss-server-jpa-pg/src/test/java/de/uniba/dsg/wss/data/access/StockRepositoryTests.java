@@ -0,0 +1,27 @@
+package de.uniba.dsg.wss.data.access;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest
+public class StockRepositoryTests {
+
+  @Autowired private StockRepository stockRepository;
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void lockingStocksRequiresSurroundingTransaction() {
+    assertThrows(
+        IllegalTransactionStateException.class,
+        () ->
+            stockRepository.findAllByKeysForUpdate(
+                List.of("W0"), List.of("P0"), List.of(StockRepository.stockKey("W0", "P0"))));
+  }
+}
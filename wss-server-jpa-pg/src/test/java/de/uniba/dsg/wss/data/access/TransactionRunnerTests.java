@@ -0,0 +1,201 @@
+package de.uniba.dsg.wss.data.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.RequiredSearch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.persistence.OptimisticLockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.jpa.JpaSystemException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+public class TransactionRunnerTests {
+
+  private MeterRegistry meterRegistry;
+  private NoOpTransactionManager transactionManager;
+  private TransactionRunner transactionRunner;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    transactionManager = new NoOpTransactionManager();
+    transactionRunner =
+        new TransactionRunner(
+            transactionManager,
+            type ->
+                type.equals("payment")
+                    ? ConcurrencyStrategy.SERIALIZABLE
+                    : ConcurrencyStrategy.PESSIMISTIC,
+            3,
+            Duration.ofNanos(1_000),
+            Duration.ofNanos(10_000),
+            meterRegistry);
+  }
+
+  @Test
+  public void backoffGrowsExponentiallyUpToMaxDelay() {
+    for (int i = 0; i < 100; i++) {
+      assertTrue(transactionRunner.backoffNanos(1) <= 1_000);
+      assertTrue(transactionRunner.backoffNanos(3) <= 4_000);
+      assertTrue(transactionRunner.backoffNanos(64) <= 10_000);
+    }
+  }
+
+  @Test
+  public void strategyIsPassedToTransaction() {
+    assertEquals(ConcurrencyStrategy.SERIALIZABLE, transactionRunner.run("payment", false, s -> s));
+    assertEquals(
+        ConcurrencyStrategy.PESSIMISTIC, transactionRunner.run("new-order", false, s -> s));
+  }
+
+  @ParameterizedTest
+  @EnumSource(ConcurrencyStrategy.class)
+  public void transactionRunsWithIsolationOfStrategy(ConcurrencyStrategy strategy) {
+    transactionRunner =
+        new TransactionRunner(
+            transactionManager,
+            type -> strategy,
+            3,
+            Duration.ofNanos(1_000),
+            Duration.ofNanos(10_000),
+            meterRegistry);
+
+    assertEquals(strategy, transactionRunner.run("payment", false, s -> s));
+    assertEquals(strategy.getIsolation().value(), transactionManager.isolationLevel);
+    assertEquals(strategy, transactionRunner.run("stock-level", true, s -> s));
+    assertEquals(strategy.getIsolation().value(), transactionManager.isolationLevel);
+  }
+
+  @Test
+  public void conflictingTransactionIsRetried() {
+    AtomicInteger attempts = new AtomicInteger();
+    String result =
+        transactionRunner.run(
+            "payment",
+            false,
+            strategy -> {
+              if (attempts.incrementAndGet() < 3) {
+                throw new CannotAcquireLockException(
+                    "conflict", new SQLException("conflict", "40001"));
+              }
+              return "done";
+            });
+
+    assertEquals("done", result);
+    assertEquals(1, count("commits", "payment", null));
+    assertEquals(2, count("conflicts", "payment", "serialization-failure"));
+    assertEquals(2, count("retries", "payment", null));
+    assertEquals(0, count("aborts", "payment", "serialization-failure"));
+    assertEquals(
+        1,
+        meterRegistry
+            .get(TransactionRunner.METRIC_NAME + ".retry.latency")
+            .tag("transaction", "payment")
+            .tag("strategy", "serializable")
+            .timer()
+            .count());
+  }
+
+  @Test
+  public void transactionIsAbortedAfterMaxAttempts() {
+    AtomicInteger attempts = new AtomicInteger();
+    assertThrows(
+        OptimisticLockException.class,
+        () ->
+            transactionRunner.run(
+                "delivery",
+                false,
+                strategy -> {
+                  attempts.incrementAndGet();
+                  throw new OptimisticLockException();
+                }));
+
+    assertEquals(3, attempts.get());
+    assertEquals(3, count("conflicts", "delivery", "optimistic-lock"));
+    assertEquals(2, count("retries", "delivery", null));
+    assertEquals(1, count("aborts", "delivery", "optimistic-lock"));
+    assertEquals(0, count("commits", "delivery", null));
+  }
+
+  @Test
+  public void failingTransactionIsNotRetried() {
+    AtomicInteger attempts = new AtomicInteger();
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            transactionRunner.run(
+                "new-order",
+                false,
+                strategy -> {
+                  attempts.incrementAndGet();
+                  throw new IllegalArgumentException();
+                }));
+
+    assertEquals(1, attempts.get());
+    assertEquals(0, count("retries", "new-order", null));
+    assertEquals(1, count("aborts", "new-order", "error"));
+  }
+
+  @Test
+  public void conflictsAreClassifiedBySqlState() {
+    assertEquals(
+        ConflictCause.DEADLOCK,
+        ConflictCause.of(new JpaSystemException(new RuntimeException(sqlException("40P01")))));
+    assertEquals(ConflictCause.LOCK_TIMEOUT, ConflictCause.of(sqlException("55P03")));
+    BatchUpdateException batch = new BatchUpdateException();
+    batch.setNextException(sqlException("40001"));
+    assertEquals(ConflictCause.SERIALIZATION_FAILURE, ConflictCause.of(batch));
+    assertNull(ConflictCause.of(sqlException("23505")));
+    assertNull(ConflictCause.of(new IllegalStateException()));
+  }
+
+  private static SQLException sqlException(String sqlState) {
+    return new SQLException("failure", sqlState);
+  }
+
+  private double count(String metric, String transactionType, String cause) {
+    RequiredSearch search =
+        meterRegistry
+            .get(TransactionRunner.METRIC_NAME + "." + metric)
+            .tag("transaction", transactionType);
+    if (cause != null) {
+      search.tag("cause", cause);
+    }
+    return search.counter().count();
+  }
+
+  private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+    private int isolationLevel;
+
+    @Override
+    protected Object doGetTransaction() {
+      return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+      isolationLevel = definition.getIsolationLevel();
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {}
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {}
+  }
+}
@@ -0,0 +1,169 @@
+package de.uniba.dsg.wss.data.gen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.uniba.dsg.wss.data.access.CarrierRepository;
+import de.uniba.dsg.wss.data.access.CustomerRepository;
+import de.uniba.dsg.wss.data.access.EmployeeRepository;
+import de.uniba.dsg.wss.data.access.NewOrderRepository;
+import de.uniba.dsg.wss.data.access.OrderRepository;
+import de.uniba.dsg.wss.data.access.PaymentRepository;
+import de.uniba.dsg.wss.data.access.ProductRepository;
+import de.uniba.dsg.wss.data.access.StockRepository;
+import de.uniba.dsg.wss.data.access.WarehouseRepository;
+import de.uniba.dsg.wss.data.model.CustomerEntity;
+import de.uniba.dsg.wss.data.model.DistrictEntity;
+import de.uniba.dsg.wss.data.model.EmployeeEntity;
+import de.uniba.dsg.wss.data.model.OrderEntity;
+import de.uniba.dsg.wss.data.model.StockEntity;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class JpaBulkDataWriterTests {
+
+  @Autowired private JpaBulkDataWriter writer;
+  @Autowired private DataSource dataSource;
+  @Autowired private ProductRepository productRepository;
+  @Autowired private CarrierRepository carrierRepository;
+  @Autowired private WarehouseRepository warehouseRepository;
+  @Autowired private EmployeeRepository employeeRepository;
+  @Autowired private CustomerRepository customerRepository;
+  @Autowired private OrderRepository orderRepository;
+  @Autowired private NewOrderRepository newOrderRepository;
+  @Autowired private PaymentRepository paymentRepository;
+  @Autowired private StockRepository stockRepository;
+  private JpaDataModel model;
+
+  @BeforeEach
+  public void setUp() {
+    model = new JpaDataConverter().convert(new TestDataGenerator().generate());
+    // the test data omits the mandatory employee properties which are not required by services
+    for (EmployeeEntity employee : model.getEmployees()) {
+      employee.setFirstName("");
+      employee.setMiddleName("");
+      employee.setLastName("");
+      employee.setPhoneNumber("");
+      employee.setEmail(employee.getId() + "@jbp.io");
+      employee.setTitle("");
+      employee.setRole("");
+    }
+    writer.write(model);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    employeeRepository.deleteAll();
+    newOrderRepository.deleteAll();
+    orderRepository.deleteAll();
+    warehouseRepository.deleteAll();
+    productRepository.deleteAll();
+    carrierRepository.deleteAll();
+  }
+
+  private Stream<DistrictEntity> districts() {
+    return model.getWarehouses().stream().flatMap(w -> w.getDistricts().stream());
+  }
+
+  // timestamps are stored with microsecond precision
+  private static void assertSameTimestamp(LocalDateTime expected, LocalDateTime actual) {
+    assertTrue(Duration.between(expected, actual).abs().toNanos() < 1_000);
+  }
+
+  @Test
+  public void writingLoadsAllRows() {
+    assertEquals(model.getProducts().size(), productRepository.count());
+    assertEquals(model.getCarriers().size(), carrierRepository.count());
+    assertEquals(model.getWarehouses().size(), warehouseRepository.count());
+    assertEquals(model.getEmployees().size(), employeeRepository.count());
+    assertEquals(
+        districts().mapToLong(d -> d.getCustomers().size()).sum(), customerRepository.count());
+    assertEquals(districts().mapToLong(d -> d.getOrders().size()).sum(), orderRepository.count());
+    assertEquals(
+        districts().flatMap(d -> d.getOrders().stream()).filter(o -> !o.isFulfilled()).count(),
+        newOrderRepository.count());
+    assertEquals(
+        districts()
+            .flatMap(d -> d.getCustomers().stream())
+            .mapToLong(c -> c.getPayments().size())
+            .sum(),
+        paymentRepository.count());
+    assertEquals(
+        model.getWarehouses().stream().mapToLong(w -> w.getStocks().size()).sum(),
+        stockRepository.count());
+  }
+
+  @Test
+  public void writingPreservesValues() {
+    CustomerEntity expectedCustomer = districts().findFirst().get().getCustomers().get(0);
+    CustomerEntity customer = customerRepository.findById(expectedCustomer.getId()).get();
+    assertEquals(expectedCustomer.getDistrict().getId(), customer.getDistrict().getId());
+    assertSameTimestamp(expectedCustomer.getSince(), customer.getSince());
+    assertEquals(expectedCustomer.getBalance(), customer.getBalance());
+    assertEquals(expectedCustomer.getData(), customer.getData());
+    assertEquals(expectedCustomer.getEmail(), customer.getEmail());
+
+    OrderEntity expectedOrder =
+        districts()
+            .flatMap(d -> d.getOrders().stream())
+            .filter(o -> o.getCarrier() == null)
+            .findFirst()
+            .get();
+    OrderEntity order = orderRepository.findById(expectedOrder.getId()).get();
+    assertNull(order.getCarrier());
+    assertEquals(expectedOrder.getCustomer().getId(), order.getCustomer().getId());
+    assertSameTimestamp(expectedOrder.getEntryDate(), order.getEntryDate());
+    assertEquals(expectedOrder.isFulfilled(), order.isFulfilled());
+  }
+
+  @Test
+  public void writingRecreatesIndexes() throws SQLException {
+    Set<String> indexNames = new HashSet<>();
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet =
+            statement.executeQuery("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES")) {
+      while (resultSet.next()) {
+        indexNames.add(resultSet.getString(1));
+      }
+    }
+    assertTrue(
+        indexNames.containsAll(
+            List.of(
+                "CUSTOMERS_IDX_EMAIL",
+                "CUSTOMERS_IDX_DISTRICT_ID",
+                "DISTRICTS_IDX_WAREHOUSE_ID",
+                "EMPLOYEES_IDX_USERNAME",
+                "ORDERS_IDX_ENTRYDATE",
+                "ORDERS_IDX_CUSTOMER_ID",
+                "ORDERS_IDX_DISTRICT_ID",
+                "ORDERITEMS_IDX_ORDER_ID",
+                "NEWORDERS_IDX_DISTRICT_ID_ENTRYDATE",
+                "STOCKS_IDX_WAREHOUSE_PRODUCT_ID")));
+  }
+
+  @Test
+  public void loadedEntitiesCanBeUpdated() {
+    StockEntity stock = stockRepository.findAll().get(0);
+    stock.setQuantity(stock.getQuantity() + 1);
+    stock = stockRepository.save(stock);
+
+    assertEquals(stock.getQuantity(), stockRepository.findById(stock.getId()).get().getQuantity());
+  }
+}
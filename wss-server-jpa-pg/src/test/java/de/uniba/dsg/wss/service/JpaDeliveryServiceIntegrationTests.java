@@ -1,39 +1,44 @@
 package de.uniba.dsg.wss.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import de.uniba.dsg.wss.JpaTest;
 import de.uniba.dsg.wss.data.access.CarrierRepository;
 import de.uniba.dsg.wss.data.access.CustomerRepository;
 import de.uniba.dsg.wss.data.access.DistrictRepository;
+import de.uniba.dsg.wss.data.access.NewOrderRepository;
 import de.uniba.dsg.wss.data.access.OrderRepository;
 import de.uniba.dsg.wss.data.access.ProductRepository;
+import de.uniba.dsg.wss.data.access.TransactionRunner;
 import de.uniba.dsg.wss.data.access.WarehouseRepository;
 import de.uniba.dsg.wss.data.gen.DataModel;
 import de.uniba.dsg.wss.data.gen.JpaDataConverter;
 import de.uniba.dsg.wss.data.gen.TestDataGenerator;
 import de.uniba.dsg.wss.data.model.CarrierEntity;
 import de.uniba.dsg.wss.data.model.EmployeeEntity;
+import de.uniba.dsg.wss.data.model.NewOrderEntity;
 import de.uniba.dsg.wss.data.model.OrderEntity;
 import de.uniba.dsg.wss.data.model.OrderItemEntity;
 import de.uniba.dsg.wss.data.model.ProductEntity;
 import de.uniba.dsg.wss.data.model.WarehouseEntity;
 import de.uniba.dsg.wss.data.transfer.messages.DeliveryRequest;
 import de.uniba.dsg.wss.data.transfer.messages.DeliveryResponse;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
-@DataJpaTest
-public class JpaDeliveryServiceIntegrationTests {
+public class JpaDeliveryServiceIntegrationTests extends JpaTest {
 
   @Autowired private WarehouseRepository warehouseRepository;
   @Autowired private ProductRepository productRepository;
   @Autowired private DistrictRepository districtRepository;
   @Autowired private OrderRepository orderRepository;
+  @Autowired private NewOrderRepository newOrderRepository;
   @Autowired private CustomerRepository customerRepository;
   @Autowired private CarrierRepository carrierRepository;
   private JpaDeliveryService deliveryService;
@@ -57,14 +62,25 @@ public class JpaDeliveryServiceIntegrationTests {
     order.setFulfilled(false);
     order.getItems().forEach(i -> i.setDeliveryDate(null));
     orderRepository.save(order);
+    newOrderRepository.saveAll(
+        orderRepository.findAll().stream()
+            .filter(o -> !o.isFulfilled())
+            .map(NewOrderEntity::new)
+            .collect(Collectors.toList()));
 
     request = new DeliveryRequest();
     request.setWarehouseId("W0");
     request.setCarrierId("CC0");
 
+    TransactionRunner transactionRunner = createTransactionRunner();
     deliveryService =
         new JpaDeliveryService(
-            districtRepository, orderRepository, customerRepository, carrierRepository);
+            districtRepository,
+            newOrderRepository,
+            orderRepository,
+            customerRepository,
+            carrierRepository,
+            transactionRunner);
   }
 
   @Test
@@ -87,6 +103,16 @@ public class JpaDeliveryServiceIntegrationTests {
     }
   }
 
+  @Test
+  public void orderIsRemovedFromQueueByDeliveryRequest() {
+    long queuedOrderCount = newOrderRepository.count();
+
+    deliveryService.process(request);
+
+    assertFalse(newOrderRepository.existsById(orderId));
+    assertTrue(newOrderRepository.count() < queuedOrderCount);
+  }
+
   @AfterEach
   public void tearDown() {
     warehouseRepository.deleteAll();
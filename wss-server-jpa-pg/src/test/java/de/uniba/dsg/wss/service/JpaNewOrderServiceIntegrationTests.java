@@ -3,11 +3,14 @@ package de.uniba.dsg.wss.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import de.uniba.dsg.wss.JpaTest;
 import de.uniba.dsg.wss.data.access.CarrierRepository;
 import de.uniba.dsg.wss.data.access.CustomerRepository;
+import de.uniba.dsg.wss.data.access.NewOrderRepository;
 import de.uniba.dsg.wss.data.access.OrderRepository;
 import de.uniba.dsg.wss.data.access.ProductRepository;
 import de.uniba.dsg.wss.data.access.StockRepository;
+import de.uniba.dsg.wss.data.access.TransactionRunner;
 import de.uniba.dsg.wss.data.access.WarehouseRepository;
 import de.uniba.dsg.wss.data.gen.DataModel;
 import de.uniba.dsg.wss.data.gen.JpaDataConverter;
@@ -16,27 +19,30 @@ import de.uniba.dsg.wss.data.model.CarrierEntity;
 import de.uniba.dsg.wss.data.model.CustomerEntity;
 import de.uniba.dsg.wss.data.model.DistrictEntity;
 import de.uniba.dsg.wss.data.model.EmployeeEntity;
+import de.uniba.dsg.wss.data.model.NewOrderEntity;
 import de.uniba.dsg.wss.data.model.OrderEntity;
 import de.uniba.dsg.wss.data.model.ProductEntity;
+import de.uniba.dsg.wss.data.model.StockEntity;
 import de.uniba.dsg.wss.data.model.WarehouseEntity;
 import de.uniba.dsg.wss.data.transfer.messages.NewOrderRequest;
 import de.uniba.dsg.wss.data.transfer.messages.NewOrderRequestItem;
 import de.uniba.dsg.wss.data.transfer.messages.NewOrderResponse;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
-@DataJpaTest
-public class JpaNewOrderServiceIntegrationTests {
+public class JpaNewOrderServiceIntegrationTests extends JpaTest {
 
   @Autowired private WarehouseRepository warehouseRepository;
   @Autowired private ProductRepository productRepository;
   @Autowired private OrderRepository orderRepository;
+  @Autowired private NewOrderRepository newOrderRepository;
   @Autowired private CarrierRepository carrierRepository;
   @Autowired private StockRepository stockRepository;
   @Autowired private CustomerRepository customerRepository;
@@ -108,13 +114,16 @@ public class JpaNewOrderServiceIntegrationTests {
                         * i.getQuantity())
             .sum();
 
+    TransactionRunner transactionRunner = createTransactionRunner();
     newOrderService =
         new JpaNewOrderService(
             warehouseRepository,
             productRepository,
             stockRepository,
             orderRepository,
-            customerRepository);
+            newOrderRepository,
+            customerRepository,
+            transactionRunner);
   }
 
   @Test
@@ -125,6 +134,14 @@ public class JpaNewOrderServiceIntegrationTests {
     assertNotNull(orderRepository.findById(res.getOrderId()).get());
   }
 
+  @Test
+  public void processingQueuesNewOrderForDelivery() {
+    NewOrderResponse res = newOrderService.process(request);
+
+    NewOrderEntity newOrder = newOrderRepository.findById(res.getOrderId()).get();
+    assertEquals(district.getId(), newOrder.getDistrict().getId());
+  }
+
   @Test
   public void processingReturnsExpectedValues() {
     NewOrderResponse res = newOrderService.process(request);
@@ -148,6 +165,49 @@ public class JpaNewOrderServiceIntegrationTests {
     assertEquals(total, res.getTotalAmount());
   }
 
+  @Test
+  public void processingUpdatesStocksOfAllItems() {
+    Map<String, Integer> orderCounts =
+        stockRepository.findAll().stream()
+            .collect(Collectors.toMap(StockEntity::getId, StockEntity::getOrderCount));
+    newOrderService.process(request);
+
+    for (StockEntity stock : stockRepository.findAll()) {
+      long itemCount =
+          request.getItems().stream()
+              .filter(
+                  i ->
+                      i.getProductId().equals(stock.getProduct().getId())
+                          && i.getSupplyingWarehouseId().equals(stock.getWarehouse().getId()))
+              .count();
+      assertEquals(orderCounts.get(stock.getId()) + itemCount, stock.getOrderCount());
+    }
+  }
+
+  @Test
+  public void findingStocksByKeysReturnsRequestedStocksInProductOrder() {
+    List<String> warehouseIds = List.of("W0", "W2");
+    List<String> productIds = List.of("P4", "P0", "P2");
+    List<String> stockKeys =
+        List.of(
+            StockRepository.stockKey("W2", "P4"),
+            StockRepository.stockKey("W0", "P0"),
+            StockRepository.stockKey("W2", "P0"),
+            StockRepository.stockKey("W0", "P2"));
+    List<String> expectedStockIds = List.of("W0P0", "W2P0", "W0P2", "W2P4");
+
+    assertEquals(
+        expectedStockIds,
+        stockRepository.findAllByKeys(warehouseIds, productIds, stockKeys).stream()
+            .map(StockEntity::getId)
+            .collect(Collectors.toList()));
+    assertEquals(
+        expectedStockIds,
+        stockRepository.findAllByKeysForUpdate(warehouseIds, productIds, stockKeys).stream()
+            .map(StockEntity::getId)
+            .collect(Collectors.toList()));
+  }
+
   @AfterEach
   public void tearDown() {
     warehouseRepository.deleteAll();
@@ -1,12 +1,15 @@
 package de.uniba.dsg.wss.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import de.uniba.dsg.wss.JpaTest;
 import de.uniba.dsg.wss.data.access.CarrierRepository;
-import de.uniba.dsg.wss.data.access.CustomerRepository;
 import de.uniba.dsg.wss.data.access.OrderRepository;
 import de.uniba.dsg.wss.data.access.ProductRepository;
+import de.uniba.dsg.wss.data.access.TransactionRunner;
 import de.uniba.dsg.wss.data.access.WarehouseRepository;
 import de.uniba.dsg.wss.data.gen.DataModel;
 import de.uniba.dsg.wss.data.gen.JpaDataConverter;
@@ -15,24 +18,27 @@ import de.uniba.dsg.wss.data.model.CarrierEntity;
 import de.uniba.dsg.wss.data.model.CustomerEntity;
 import de.uniba.dsg.wss.data.model.EmployeeEntity;
 import de.uniba.dsg.wss.data.model.OrderEntity;
+import de.uniba.dsg.wss.data.model.OrderItemEntity;
 import de.uniba.dsg.wss.data.model.ProductEntity;
 import de.uniba.dsg.wss.data.model.WarehouseEntity;
+import de.uniba.dsg.wss.data.transfer.messages.OrderItemStatusResponse;
 import de.uniba.dsg.wss.data.transfer.messages.OrderStatusRequest;
 import de.uniba.dsg.wss.data.transfer.messages.OrderStatusResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
-@DataJpaTest
-public class JpaOrderStatusServiceIntegrationTests {
+public class JpaOrderStatusServiceIntegrationTests extends JpaTest {
 
   @Autowired private WarehouseRepository warehouseRepository;
   @Autowired private ProductRepository productRepository;
   @Autowired private OrderRepository orderRepository;
-  @Autowired private CustomerRepository customerRepository;
   @Autowired private CarrierRepository carrierRepository;
   private JpaOrderStatusService orderStatusService;
   private OrderStatusRequest request;
@@ -62,7 +68,8 @@ public class JpaOrderStatusServiceIntegrationTests {
     request.setCustomerId(customer.getId());
     request.setCustomerEmail(null);
 
-    orderStatusService = new JpaOrderStatusService(customerRepository, orderRepository);
+    TransactionRunner transactionRunner = createTransactionRunner();
+    orderStatusService = new JpaOrderStatusService(orderRepository, transactionRunner);
   }
 
   @Test
@@ -109,6 +116,62 @@ public class JpaOrderStatusServiceIntegrationTests {
     assertEquals(order.getItemCount(), res.getItemStatus().size());
   }
 
+  @Test
+  public void processingReturnsItemsOfMostRecentOrder() {
+    OrderStatusResponse res = orderStatusService.process(request);
+
+    assertSameTime(order.getEntryDate(), res.getOrderEntryDate());
+    assertEquals(
+        order.getCarrier() == null ? null : order.getCarrier().getId(), res.getOrderCarrierId());
+    List<OrderItemEntity> items =
+        order.getItems().stream()
+            .sorted(Comparator.comparingInt(OrderItemEntity::getNumber))
+            .collect(Collectors.toList());
+    for (int i = 0; i < items.size(); i++) {
+      OrderItemEntity item = items.get(i);
+      OrderItemStatusResponse itemRes = res.getItemStatus().get(i);
+      assertEquals(item.getProduct().getId(), itemRes.getProductId());
+      assertEquals(item.getSupplyingWarehouse().getId(), itemRes.getSupplyingWarehouseId());
+      assertEquals(item.getQuantity(), itemRes.getQuantity());
+      assertEquals(item.getAmount(), itemRes.getAmount());
+      assertSameTime(item.getDeliveryDate(), itemRes.getDeliveryDate());
+    }
+  }
+
+  @Test
+  public void processingFailsForUnknownCustomerEmail() {
+    request.setCustomerId(null);
+    request.setCustomerEmail("unknown@example.com");
+
+    assertThrows(IllegalArgumentException.class, () -> orderStatusService.process(request));
+  }
+
+  @Test
+  public void processingFailsForCustomerWithoutOrdersIfCustomerIdIsProvided() {
+    // the test data only contains orders of the first customer of each district
+    request.setCustomerId("C10");
+    request.setCustomerEmail(null);
+
+    assertThrows(IllegalStateException.class, () -> orderStatusService.process(request));
+  }
+
+  @Test
+  public void processingFailsForCustomerWithoutOrdersIfCustomerEmailIsProvided() {
+    request.setCustomerId(null);
+    request.setCustomerEmail("C10@jbp.io");
+
+    assertThrows(IllegalStateException.class, () -> orderStatusService.process(request));
+  }
+
+  private static void assertSameTime(LocalDateTime expected, LocalDateTime actual) {
+    if (expected == null) {
+      assertNull(actual);
+    } else {
+      // the database stores timestamps with a precision of microseconds
+      assertTrue(Duration.between(expected, actual).abs().toNanos() < 1_000);
+    }
+  }
+
   @AfterEach
   public void tearDown() {
     warehouseRepository.deleteAll();
@@ -4,12 +4,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import de.uniba.dsg.wss.JpaTest;
 import de.uniba.dsg.wss.data.access.CarrierRepository;
 import de.uniba.dsg.wss.data.access.CustomerRepository;
 import de.uniba.dsg.wss.data.access.DistrictRepository;
 import de.uniba.dsg.wss.data.access.OrderRepository;
 import de.uniba.dsg.wss.data.access.PaymentRepository;
 import de.uniba.dsg.wss.data.access.ProductRepository;
+import de.uniba.dsg.wss.data.access.TransactionRunner;
 import de.uniba.dsg.wss.data.access.WarehouseRepository;
 import de.uniba.dsg.wss.data.gen.DataModel;
 import de.uniba.dsg.wss.data.gen.JpaDataConverter;
@@ -26,10 +28,8 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
-@DataJpaTest
-public class JpaPaymentServiceIntegrationTests {
+public class JpaPaymentServiceIntegrationTests extends JpaTest {
 
   @Autowired private WarehouseRepository warehouseRepository;
   @Autowired private DistrictRepository districtRepository;
@@ -81,9 +81,14 @@ public class JpaPaymentServiceIntegrationTests {
     request.setCustomerEmail(null);
     request.setAmount(500);
 
+    TransactionRunner transactionRunner = createTransactionRunner();
     paymentService =
         new JpaPaymentService(
-            warehouseRepository, districtRepository, customerRepository, paymentRepository);
+            warehouseRepository,
+            districtRepository,
+            customerRepository,
+            paymentRepository,
+            transactionRunner);
   }
 
   @Test
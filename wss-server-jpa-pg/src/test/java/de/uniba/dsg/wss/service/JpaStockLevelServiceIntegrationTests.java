@@ -2,10 +2,11 @@ package de.uniba.dsg.wss.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import de.uniba.dsg.wss.JpaTest;
 import de.uniba.dsg.wss.data.access.CarrierRepository;
-import de.uniba.dsg.wss.data.access.OrderRepository;
 import de.uniba.dsg.wss.data.access.ProductRepository;
 import de.uniba.dsg.wss.data.access.StockRepository;
+import de.uniba.dsg.wss.data.access.TransactionRunner;
 import de.uniba.dsg.wss.data.access.WarehouseRepository;
 import de.uniba.dsg.wss.data.gen.DataModel;
 import de.uniba.dsg.wss.data.gen.JpaDataConverter;
@@ -25,14 +26,11 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
-@DataJpaTest
-public class JpaStockLevelServiceIntegrationTests {
+public class JpaStockLevelServiceIntegrationTests extends JpaTest {
 
   @Autowired private WarehouseRepository warehouseRepository;
   @Autowired private ProductRepository productRepository;
-  @Autowired private OrderRepository orderRepository;
   @Autowired private CarrierRepository carrierRepository;
   @Autowired private StockRepository stockRepository;
   private JpaStockLevelService stockLevelService;
@@ -68,7 +66,8 @@ public class JpaStockLevelServiceIntegrationTests {
     request.setDistrictId(district.getId());
     request.setStockThreshold(threshold);
 
-    stockLevelService = new JpaStockLevelService(orderRepository, stockRepository);
+    TransactionRunner transactionRunner = createTransactionRunner();
+    stockLevelService = new JpaStockLevelService(stockRepository, transactionRunner);
   }
 
   @Test
@@ -0,0 +1,144 @@
+package de.uniba.dsg.wss.benchmark;
+
+import de.uniba.dsg.wss.data.model.BaseData;
+import de.uniba.dsg.wss.data.model.OrderData;
+import de.uniba.dsg.wss.data.model.OrderItemData;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jacis.container.JacisContainer;
+import org.jacis.container.JacisObjectTypeSpec;
+import org.jacis.extension.objectadapter.cloning.microstream.JacisMicrostreamCloningObjectAdapter;
+import org.jacis.plugin.objectadapter.cloning.AbstractJacisCloningObjectAdapter;
+import org.jacis.plugin.objectadapter.cloning.JacisCloningObjectAdapter;
+import org.jacis.store.JacisStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the object adapters which can be selected via {@code wss.ms.object-adapter}, i.e. the
+ * hand-written {@link org.jacis.plugin.objectadapter.cloning.JacisCloneable} implementations of the
+ * data classes and the {@link JacisMicrostreamCloningObjectAdapter}.
+ *
+ * <p>Each benchmark method corresponds to one transaction reading an order along with its items,
+ * which is the largest aggregate of the data model. The allocation per transaction is reported when
+ * running the benchmark with the GC profiler, i.e. {@code -prof gc}, as {@code gc.alloc.rate.norm}.
+ *
+ * @author Benedikt Full
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MsObjectAdapterBenchmark {
+
+  /** The object adapter, see {@code wss.ms.object-adapter}. */
+  @Param({"cloneable", "microstream"})
+  public String objectAdapter;
+
+  /** Whether the order items are part of the order, see {@code wss.ms.aggregates.enabled}. */
+  @Param({"false", "true"})
+  public boolean aggregated;
+
+  private JacisContainer container;
+  private JacisStore<String, OrderData> orderStore;
+  private JacisStore<String, OrderItemData> orderItemStore;
+  private String orderId;
+  private List<String> orderItemIds;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    container = new JacisContainer();
+    orderStore = container.createStore(createTypeSpec(OrderData.class)).getStore();
+    orderItemStore = container.createStore(createTypeSpec(OrderItemData.class)).getStore();
+
+    OrderData order = new OrderData();
+    order.setDistrictId("D0");
+    order.setCustomerId("C0");
+    order.setEntryDate(LocalDateTime.now());
+    List<OrderItemData> items = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      OrderItemData item = new OrderItemData();
+      item.setOrderId(order.getId());
+      item.setNumber(i + 1);
+      item.setProductId("P" + i);
+      item.setSupplyingWarehouseId("W0");
+      item.setQuantity(5);
+      item.setAmount(42.5);
+      item.setDistInfo("dist-info-" + i);
+      items.add(item);
+    }
+    order.setItemCount(items.size());
+    orderId = order.getId();
+    orderItemIds = new ArrayList<>();
+    if (aggregated) {
+      order.setItems(items);
+    } else {
+      items.forEach(item -> orderItemIds.add(item.getId()));
+    }
+    container.withLocalTx(
+        () -> {
+          orderStore.update(order.getId(), order);
+          if (!aggregated) {
+            items.forEach(item -> orderItemStore.update(item.getId(), item));
+          }
+        });
+  }
+
+  private <V extends BaseData> JacisObjectTypeSpec<String, V, V> createTypeSpec(
+      Class<V> valueClass) {
+    AbstractJacisCloningObjectAdapter<V> adapter =
+        objectAdapter.equals("microstream")
+            ? new JacisMicrostreamCloningObjectAdapter<>()
+            : new JacisCloningObjectAdapter<>();
+    adapter.setThrowIfMissingReadOnlyModeDetected(true);
+    return new JacisObjectTypeSpec<>(String.class, valueClass, adapter);
+  }
+
+  /** Reads writable copies of the order and its items within a transaction. */
+  @Benchmark
+  public void writable(Blackhole blackhole) {
+    container.withLocalTx(
+        () -> {
+          blackhole.consume(orderStore.get(orderId));
+          for (String orderItemId : orderItemIds) {
+            blackhole.consume(orderItemStore.get(orderItemId));
+          }
+        });
+  }
+
+  /** Reads the order and its items within a transaction, but without modifying them. */
+  @Benchmark
+  public void readOnlyInTransaction(Blackhole blackhole) {
+    container.withLocalTx(
+        () -> {
+          blackhole.consume(orderStore.getReadOnly(orderId));
+          for (String orderItemId : orderItemIds) {
+            blackhole.consume(orderItemStore.getReadOnly(orderItemId));
+          }
+        });
+  }
+
+  /** Reads the committed order and its items without a transaction, like the read-only services. */
+  @Benchmark
+  public void readOnly(Blackhole blackhole) {
+    blackhole.consume(orderStore.getReadOnly(orderId));
+    for (String orderItemId : orderItemIds) {
+      blackhole.consume(orderItemStore.getReadOnly(orderItemId));
+    }
+  }
+}
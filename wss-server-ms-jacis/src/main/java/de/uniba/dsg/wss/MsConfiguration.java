@@ -1,6 +1,19 @@
 package de.uniba.dsg.wss;
 
 import de.uniba.dsg.wss.commons.Stopwatch;
+import de.uniba.dsg.wss.data.access.AggregatedMsDataLayout;
+import de.uniba.dsg.wss.data.access.AsyncMicrostreamStorage;
+import de.uniba.dsg.wss.data.access.ContentionManager;
+import de.uniba.dsg.wss.data.access.CustomerOrdersView;
+import de.uniba.dsg.wss.data.access.DistrictOrdersView;
+import de.uniba.dsg.wss.data.access.GroupCommitMicrostreamStorage;
+import de.uniba.dsg.wss.data.access.GroupCommitter;
+import de.uniba.dsg.wss.data.access.MsBatchWriter;
+import de.uniba.dsg.wss.data.access.MsDataLayout;
+import de.uniba.dsg.wss.data.access.MsIndexes;
+import de.uniba.dsg.wss.data.access.NormalizedMsDataLayout;
+import de.uniba.dsg.wss.data.access.TransactionManager;
+import de.uniba.dsg.wss.data.model.BaseData;
 import de.uniba.dsg.wss.data.model.CarrierData;
 import de.uniba.dsg.wss.data.model.CustomerData;
 import de.uniba.dsg.wss.data.model.DistrictData;
@@ -11,7 +24,10 @@ import de.uniba.dsg.wss.data.model.PaymentData;
 import de.uniba.dsg.wss.data.model.ProductData;
 import de.uniba.dsg.wss.data.model.StockData;
 import de.uniba.dsg.wss.data.model.WarehouseData;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import one.microstream.afs.nio.types.NioFileSystem;
+import one.microstream.persistence.types.Storer;
 import one.microstream.storage.embedded.types.EmbeddedStorageFoundation;
 import one.microstream.storage.embedded.types.EmbeddedStorageManager;
 import one.microstream.storage.types.Storage;
@@ -21,8 +37,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jacis.container.JacisContainer;
 import org.jacis.container.JacisObjectTypeSpec;
+import org.jacis.extension.objectadapter.cloning.microstream.JacisMicrostreamCloningObjectAdapter;
 import org.jacis.extension.persistence.microstream.MicrostreamPersistenceAdapter;
 import org.jacis.extension.persistence.microstream.MicrostreamStorage;
+import org.jacis.plugin.objectadapter.cloning.AbstractJacisCloningObjectAdapter;
+import org.jacis.plugin.objectadapter.cloning.JacisCloningObjectAdapter;
 import org.jacis.store.JacisStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
@@ -55,28 +74,28 @@ public class MsConfiguration {
   }
 
   @Bean
-  public EmbeddedStorageManager embeddedStorageManager() {
+  public EmbeddedStorageFoundation<?> embeddedStorageFoundation() {
     NioFileSystem fileSystem = NioFileSystem.New();
-    EmbeddedStorageFoundation<?> foundation =
-        EmbeddedStorageFoundation.New()
-            .setConfiguration(
-                StorageConfiguration.Builder()
-                    .setHousekeepingController(Storage.HousekeepingController(1_000, 10_000_000))
-                    .setDataFileEvaluator(
-                        Storage.DataFileEvaluator(1024 * 1024, 1024 * 1024 * 8, 0.75))
-                    .setEntityCacheEvaluator(
-                        Storage.EntityCacheEvaluator(86_400_000, 1_000_000_000))
-                    .setStorageFileProvider(
-                        Storage.FileProviderBuilder(fileSystem)
-                            .setDirectory(
-                                fileSystem.ensureDirectoryPath(
-                                    environment.getRequiredProperty("wss.ms.storage.dir")))
-                            .createFileProvider())
-                    .setChannelCountProvider(
-                        StorageChannelCountProvider.New(
-                            Integer.highestOneBit(Runtime.getRuntime().availableProcessors() - 1)))
-                    .createConfiguration());
+    return EmbeddedStorageFoundation.New()
+        .setConfiguration(
+            StorageConfiguration.Builder()
+                .setHousekeepingController(Storage.HousekeepingController(1_000, 10_000_000))
+                .setDataFileEvaluator(Storage.DataFileEvaluator(1024 * 1024, 1024 * 1024 * 8, 0.75))
+                .setEntityCacheEvaluator(Storage.EntityCacheEvaluator(86_400_000, 1_000_000_000))
+                .setStorageFileProvider(
+                    Storage.FileProviderBuilder(fileSystem)
+                        .setDirectory(
+                            fileSystem.ensureDirectoryPath(
+                                environment.getRequiredProperty("wss.ms.storage.dir")))
+                        .createFileProvider())
+                .setChannelCountProvider(
+                    StorageChannelCountProvider.New(
+                        Integer.highestOneBit(Runtime.getRuntime().availableProcessors() - 1)))
+                .createConfiguration());
+  }
 
+  @Bean
+  public EmbeddedStorageManager embeddedStorageManager(EmbeddedStorageFoundation<?> foundation) {
     EmbeddedStorageManager storageManager = foundation.createEmbeddedStorageManager();
 
     Stopwatch stopwatch = new Stopwatch(true);
@@ -88,8 +107,44 @@ public class MsConfiguration {
   }
 
   @Bean
-  public MicrostreamStorage microstreamStorage(EmbeddedStorageManager storageManager) {
-    return new MicrostreamStorage(storageManager);
+  public GroupCommitter<Storer> groupCommitter(
+      EmbeddedStorageManager storageManager,
+      EmbeddedStorageFoundation<?> foundation,
+      MeterRegistry meterRegistry) {
+    boolean enabled = environment.getProperty("wss.ms.group-commit.enabled", Boolean.class, false);
+    int maxBatchSize =
+        environment.getProperty("wss.ms.group-commit.max-batch-size", Integer.class, 64);
+    return new GroupCommitter<>(
+        "ms-jacis",
+        new MsBatchWriter(storageManager, foundation),
+        enabled ? maxBatchSize : 1,
+        Duration.ofNanos(
+            1_000 * environment.getProperty("wss.ms.group-commit.max-delay", Long.class, 500L)),
+        environment.getProperty("wss.ms.group-commit.queue-capacity", Integer.class, 1_024),
+        meterRegistry);
+  }
+
+  @Bean
+  public MicrostreamStorage microstreamStorage(
+      EmbeddedStorageManager storageManager,
+      GroupCommitter<Storer> groupCommitter,
+      JacisContainer container,
+      MeterRegistry meterRegistry) {
+    if (environment.getProperty("wss.ms.async-persistence.enabled", Boolean.class, false)) {
+      if (groupCommitter.isEnabled()) {
+        LOG.warn("Group commit is not used, as objects are stored asynchronously");
+      }
+      return new AsyncMicrostreamStorage(
+          storageManager,
+          container,
+          environment.getProperty("wss.ms.async-persistence.durable", Boolean.class, true),
+          Duration.ofNanos(
+              1_000
+                  * environment.getProperty(
+                      "wss.ms.async-persistence.max-delay", Long.class, 1_000L)),
+          meterRegistry);
+    }
+    return new GroupCommitMicrostreamStorage(storageManager, groupCommitter);
   }
 
   @Bean
@@ -97,11 +152,36 @@ public class MsConfiguration {
     return new JacisContainer();
   }
 
+  @Bean
+  public ContentionManager contentionManager(MeterRegistry meterRegistry) {
+    return new ContentionManager(
+        environment.getProperty("wss.ms.contention.max-attempts", Integer.class, 5),
+        Duration.ofNanos(
+            1_000 * environment.getProperty("wss.ms.contention.base-delay", Long.class, 1_000L)),
+        Duration.ofNanos(
+            1_000 * environment.getProperty("wss.ms.contention.max-delay", Long.class, 100_000L)),
+        environment.getProperty("wss.ms.contention.serialization.enabled", Boolean.class, false),
+        environment.getProperty("wss.ms.contention.serialization.threshold", Integer.class, 3),
+        environment.getProperty(
+            "wss.ms.contention.serialization.max-queue-length", Integer.class, 8),
+        Duration.ofNanos(
+            1_000
+                * environment.getProperty(
+                    "wss.ms.contention.serialization.max-wait", Long.class, 10_000L)),
+        meterRegistry);
+  }
+
+  @Bean
+  public TransactionManager jacisTransactionManager(
+      JacisContainer container, ContentionManager contentionManager) {
+    return new TransactionManager(container, contentionManager);
+  }
+
   @Bean
   public JacisStore<String, CarrierData> carrierStore(
       JacisContainer container, MicrostreamStorage storage) {
     JacisObjectTypeSpec<String, CarrierData, CarrierData> carrierTypeSpec =
-        new JacisObjectTypeSpec<>(String.class, CarrierData.class);
+        createTypeSpec(CarrierData.class);
     carrierTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
     return container.createStore(carrierTypeSpec).getStore();
   }
@@ -110,7 +190,7 @@ public class MsConfiguration {
   public JacisStore<String, ProductData> productStore(
       JacisContainer container, MicrostreamStorage storage) {
     JacisObjectTypeSpec<String, ProductData, ProductData> productTypeSpec =
-        new JacisObjectTypeSpec<>(String.class, ProductData.class);
+        createTypeSpec(ProductData.class);
     productTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
     return container.createStore(productTypeSpec).getStore();
   }
@@ -119,7 +199,7 @@ public class MsConfiguration {
   public JacisStore<String, WarehouseData> warehouseStore(
       JacisContainer container, MicrostreamStorage storage) {
     JacisObjectTypeSpec<String, WarehouseData, WarehouseData> warehouseTypeSpec =
-        new JacisObjectTypeSpec<>(String.class, WarehouseData.class);
+        createTypeSpec(WarehouseData.class);
     warehouseTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
     return container.createStore(warehouseTypeSpec).getStore();
   }
@@ -128,7 +208,7 @@ public class MsConfiguration {
   public JacisStore<String, StockData> stockStore(
       JacisContainer container, MicrostreamStorage storage) {
     JacisObjectTypeSpec<String, StockData, StockData> stockTypeSpec =
-        new JacisObjectTypeSpec<>(String.class, StockData.class);
+        createTypeSpec(StockData.class);
     stockTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
     return container.createStore(stockTypeSpec).getStore();
   }
@@ -137,43 +217,53 @@ public class MsConfiguration {
   public JacisStore<String, DistrictData> districtStore(
       JacisContainer container, MicrostreamStorage storage) {
     JacisObjectTypeSpec<String, DistrictData, DistrictData> districtTypeSpec =
-        new JacisObjectTypeSpec<>(String.class, DistrictData.class);
+        createTypeSpec(DistrictData.class);
     districtTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
-    return container.createStore(districtTypeSpec).getStore();
+    JacisStore<String, DistrictData> store = container.createStore(districtTypeSpec).getStore();
+    MsIndexes.DISTRICTS_BY_WAREHOUSE.register(store);
+    return store;
   }
 
   @Bean
   public JacisStore<String, CustomerData> customerStore(
       JacisContainer container, MicrostreamStorage storage) {
     JacisObjectTypeSpec<String, CustomerData, CustomerData> customerTypeSpec =
-        new JacisObjectTypeSpec<>(String.class, CustomerData.class);
+        createTypeSpec(CustomerData.class);
     customerTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
-    return container.createStore(customerTypeSpec).getStore();
+    JacisStore<String, CustomerData> store = container.createStore(customerTypeSpec).getStore();
+    MsIndexes.CUSTOMERS_BY_DISTRICT.register(store);
+    MsIndexes.CUSTOMERS_BY_EMAIL.register(store);
+    return store;
   }
 
   @Bean
   public JacisStore<String, OrderData> orderStore(
       JacisContainer container, MicrostreamStorage storage) {
     JacisObjectTypeSpec<String, OrderData, OrderData> orderTypeSpec =
-        new JacisObjectTypeSpec<>(String.class, OrderData.class);
+        createTypeSpec(OrderData.class);
     orderTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
-    return container.createStore(orderTypeSpec).getStore();
+    JacisStore<String, OrderData> store = container.createStore(orderTypeSpec).getStore();
+    store.getTrackedViewRegistry().registerTrackedView(new DistrictOrdersView());
+    store.getTrackedViewRegistry().registerTrackedView(new CustomerOrdersView());
+    return store;
   }
 
   @Bean
   public JacisStore<String, OrderItemData> orderItemStore(
       JacisContainer container, MicrostreamStorage storage) {
     JacisObjectTypeSpec<String, OrderItemData, OrderItemData> orderItemTypeSpec =
-        new JacisObjectTypeSpec<>(String.class, OrderItemData.class);
+        createTypeSpec(OrderItemData.class);
     orderItemTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
-    return container.createStore(orderItemTypeSpec).getStore();
+    JacisStore<String, OrderItemData> store = container.createStore(orderItemTypeSpec).getStore();
+    MsIndexes.ORDER_ITEMS_BY_ORDER.register(store);
+    return store;
   }
 
   @Bean
   public JacisStore<String, PaymentData> paymentStore(
       JacisContainer container, MicrostreamStorage storage) {
     JacisObjectTypeSpec<String, PaymentData, PaymentData> paymentTypeSpec =
-        new JacisObjectTypeSpec<>(String.class, PaymentData.class);
+        createTypeSpec(PaymentData.class);
     paymentTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
     return container.createStore(paymentTypeSpec).getStore();
   }
@@ -182,8 +272,56 @@ public class MsConfiguration {
   public JacisStore<String, EmployeeData> employeeStore(
       JacisContainer container, MicrostreamStorage storage) {
     JacisObjectTypeSpec<String, EmployeeData, EmployeeData> employeeTypeSpec =
-        new JacisObjectTypeSpec<>(String.class, EmployeeData.class);
+        createTypeSpec(EmployeeData.class);
     employeeTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
-    return container.createStore(employeeTypeSpec).getStore();
+    JacisStore<String, EmployeeData> store = container.createStore(employeeTypeSpec).getStore();
+    MsIndexes.EMPLOYEES_BY_USERNAME.register(store);
+    return store;
+  }
+
+  /**
+   * Creates the type specification of a store, using the object adapter configured via {@code
+   * wss.ms.object-adapter} for copying objects between the committed store and transactions.
+   *
+   * <p>Both adapters return the committed instances themselves for read-only access, which is why
+   * all data classes must support the read-only mode. Read-only access never requires a copy this
+   * way, and accessing a class lacking support fails instead of silently copying objects.
+   *
+   * <p>JACIS tracks the original values of the objects modified by a transaction by default, which
+   * costs one more copy per modified object. Disabling it is not possible, as every store requires
+   * the original values for updating its tracked views, such as the indexes of {@link MsIndexes}.
+   *
+   * @param valueClass the class of the stored objects
+   * @return the type specification
+   */
+  private <V extends BaseData> JacisObjectTypeSpec<String, V, V> createTypeSpec(
+      Class<V> valueClass) {
+    String objectAdapter = environment.getProperty("wss.ms.object-adapter", "cloneable");
+    AbstractJacisCloningObjectAdapter<V> adapter;
+    switch (objectAdapter) {
+      case "cloneable":
+        adapter = new JacisCloningObjectAdapter<>();
+        break;
+      case "microstream":
+        adapter = new JacisMicrostreamCloningObjectAdapter<>();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown object adapter " + objectAdapter);
+    }
+    adapter.setThrowIfMissingReadOnlyModeDetected(true);
+    return new JacisObjectTypeSpec<>(String.class, valueClass, adapter);
+  }
+
+  @Bean
+  public MsDataLayout dataLayout(
+      JacisStore<String, OrderData> orderStore,
+      JacisStore<String, OrderItemData> orderItemStore,
+      JacisStore<String, CustomerData> customerStore,
+      JacisStore<String, PaymentData> paymentStore) {
+    if (environment.getProperty("wss.ms.aggregates.enabled", Boolean.class, false)) {
+      LOG.info("Storing order items and payments as part of their orders and customers");
+      return new AggregatedMsDataLayout(orderStore, customerStore);
+    }
+    return new NormalizedMsDataLayout(orderStore, orderItemStore, paymentStore);
   }
 }
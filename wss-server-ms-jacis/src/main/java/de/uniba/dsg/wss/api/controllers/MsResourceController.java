@@ -1,5 +1,7 @@
 package de.uniba.dsg.wss.api.controllers;
 
+import de.uniba.dsg.wss.data.access.DistrictOrdersView;
+import de.uniba.dsg.wss.data.access.MsIndexes;
 import de.uniba.dsg.wss.data.model.CarrierData;
 import de.uniba.dsg.wss.data.model.CustomerData;
 import de.uniba.dsg.wss.data.model.DistrictData;
@@ -17,6 +19,7 @@ import de.uniba.dsg.wss.data.transfer.representations.ProductRepresentation;
 import de.uniba.dsg.wss.data.transfer.representations.StockRepresentation;
 import de.uniba.dsg.wss.data.transfer.representations.WarehouseRepresentation;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import org.jacis.store.JacisStore;
 import org.modelmapper.ModelMapper;
@@ -76,7 +79,7 @@ public class MsResourceController implements ResourceController {
   @Override
   public ResponseEntity<EmployeeRepresentation> getEmployee(String username) {
     EmployeeData employee =
-        employeeStore.streamReadOnly(e -> e.getUsername().equals(username)).findAny().orElse(null);
+        MsIndexes.EMPLOYEES_BY_USERNAME.of(employeeStore).getUniqueReadOnly(username).orElse(null);
     if (employee == null) {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
     }
@@ -99,9 +102,7 @@ public class MsResourceController implements ResourceController {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
     }
     List<DistrictRepresentation> districts =
-        districtStore
-            .streamReadOnly(d -> d.getWarehouseId().equals(warehouseId))
-            .parallel()
+        MsIndexes.DISTRICTS_BY_WAREHOUSE.of(districtStore).getReadOnly(warehouseId).stream()
             .map(d -> modelMapper.map(d, DistrictRepresentation.class))
             .collect(Collectors.toList());
     return ResponseEntity.ok(districts);
@@ -129,9 +130,7 @@ public class MsResourceController implements ResourceController {
     }
 
     List<CustomerRepresentation> customers =
-        customerStore
-            .streamReadOnly(c -> c.getDistrictId().equals(districtId))
-            .parallel()
+        MsIndexes.CUSTOMERS_BY_DISTRICT.of(customerStore).getReadOnly(districtId).stream()
             .map(c -> modelMapper.map(c, CustomerRepresentation.class))
             .collect(Collectors.toList());
     return ResponseEntity.ok(customers);
@@ -145,9 +144,9 @@ public class MsResourceController implements ResourceController {
     }
 
     List<OrderRepresentation> orders =
-        orderStore
-            .streamReadOnly(o -> o.getDistrictId().equals(districtId))
-            .parallel()
+        DistrictOrdersView.of(orderStore).getRecentOrderIds(districtId, Integer.MAX_VALUE).stream()
+            .map(orderStore::getReadOnly)
+            .filter(Objects::nonNull)
             .map(o -> modelMapper.map(o, OrderRepresentation.class))
             .collect(Collectors.toList());
     return ResponseEntity.ok(orders);
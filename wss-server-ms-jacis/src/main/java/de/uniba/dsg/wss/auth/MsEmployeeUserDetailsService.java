@@ -1,5 +1,6 @@
 package de.uniba.dsg.wss.auth;
 
+import de.uniba.dsg.wss.data.access.MsIndexes;
 import de.uniba.dsg.wss.data.model.EmployeeData;
 import org.jacis.store.JacisStore;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,10 +28,9 @@ public class MsEmployeeUserDetailsService extends EmployeeUserDetailsService {
   @Override
   public EmployeeUserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
     EmployeeData employee =
-        employeeStore
-            .streamReadOnly(e -> e.getUsername().equals(username))
-            .parallel()
-            .findAny()
+        MsIndexes.EMPLOYEES_BY_USERNAME
+            .of(employeeStore)
+            .getUniqueReadOnly(username)
             .orElseThrow(
                 () -> new UsernameNotFoundException("Unable to find user with name " + username));
     return createUserDetails(employee.getUsername(), employee.getPassword(), employee.getRole());
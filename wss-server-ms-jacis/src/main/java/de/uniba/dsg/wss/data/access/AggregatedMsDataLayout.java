@@ -0,0 +1,79 @@
+package de.uniba.dsg.wss.data.access;
+
+import static java.util.Objects.requireNonNull;
+
+import de.uniba.dsg.wss.data.model.CustomerData;
+import de.uniba.dsg.wss.data.model.OrderData;
+import de.uniba.dsg.wss.data.model.OrderItemData;
+import de.uniba.dsg.wss.data.model.PaymentData;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.jacis.store.JacisStore;
+
+/**
+ * Data layout in which orders own their items and customers own their payments (see {@link
+ * OrderData#getItems()} and {@link CustomerData#getPayments()}). The stores for order items and
+ * payments remain empty.
+ *
+ * <p>Reading an order writable copies all its items, and reading a customer writable copies its
+ * whole payment history, which grows with every Payment transaction.
+ *
+ * @author Benedikt Full
+ */
+public class AggregatedMsDataLayout implements MsDataLayout {
+
+  private final JacisStore<String, OrderData> orderStore;
+  private final JacisStore<String, CustomerData> customerStore;
+
+  public AggregatedMsDataLayout(
+      JacisStore<String, OrderData> orderStore, JacisStore<String, CustomerData> customerStore) {
+    this.orderStore = requireNonNull(orderStore);
+    this.customerStore = requireNonNull(customerStore);
+  }
+
+  @Override
+  public boolean isAggregated() {
+    return true;
+  }
+
+  @Override
+  public void insertOrder(OrderData order, List<OrderItemData> items) {
+    order.setItems(items);
+    orderStore.update(order.getId(), order);
+  }
+
+  @Override
+  public void updateOrder(OrderData order, List<OrderItemData> items) {
+    // the items are owned and have therefore been changed as part of the order
+    orderStore.update(order.getId(), order);
+  }
+
+  @Override
+  public List<OrderItemData> getOrderItems(OrderData order) {
+    return order.getItems();
+  }
+
+  @Override
+  public List<OrderItemData> getOrderItemsReadOnly(OrderData order) {
+    return order.getItems();
+  }
+
+  @Override
+  public List<String> getOrderedProductIds(String orderId) {
+    // the projection is applied to null if there is no such order
+    return orderStore.getProjectionReadOnly(
+        orderId,
+        o ->
+            o == null
+                ? List.of()
+                : o.getItems().stream()
+                    .map(OrderItemData::getProductId)
+                    .collect(Collectors.toList()));
+  }
+
+  @Override
+  public void insertPayment(CustomerData customer, PaymentData payment) {
+    customer.addPayment(payment);
+    customerStore.update(customer.getId(), customer);
+  }
+}
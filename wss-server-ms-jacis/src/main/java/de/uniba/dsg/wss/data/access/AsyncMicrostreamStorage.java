@@ -0,0 +1,360 @@
+package de.uniba.dsg.wss.data.access;
+
+import static java.util.Objects.requireNonNull;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import one.microstream.persistence.types.Storer;
+import one.microstream.storage.types.StorageManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jacis.container.JacisContainer;
+import org.jacis.container.JacisTransactionHandle;
+import org.jacis.extension.persistence.microstream.MicrostreamPersistenceAdapter;
+import org.jacis.extension.persistence.microstream.MicrostreamStorage;
+
+/**
+ * MicroStream storage for JACIS which stores the objects modified by committed transactions in a
+ * background thread, so that storing objects is no longer part of the commit of a transaction.
+ *
+ * <p>The {@link MicrostreamPersistenceAdapter} of every store tracks the modified objects of a
+ * transaction as one persistent entity per key, which references the current value of the key.
+ * Instead of storing these entities right away, this storage only adds them to a set of pending
+ * entities, which is stored by the writer thread once the oldest pending transaction has been
+ * committed for {@code maxDelay}. Since the set contains every entity only once, a key modified by
+ * multiple transactions in the meantime, e.g. a warehouse or district, is stored only once with its
+ * latest value.
+ *
+ * <p>The writer holds the transaction demarcation lock of the container for reading while writing
+ * the pending entities to its storer. The entities are thus neither modified by concurrently
+ * committing transactions while being serialized, nor does a storage commit contain only some of
+ * the entities modified by a transaction. The storage commit itself happens outside of the lock.
+ *
+ * <p>In durable mode, the committing thread has to call {@link #awaitCommit()} after the JACIS
+ * transaction has been completed, which waits until the objects of the transaction have been stored
+ * (see {@link TransactionManager}). In relaxed mode, transactions are acknowledged once they have
+ * been committed in memory, which means that transactions committed within the last {@code
+ * maxDelay} plus the duration of a storage commit may be lost in case of a crash.
+ *
+ * <p>If a storage commit fails, its entities are added to the pending ones again, so that they are
+ * stored by the next storage commit, which is attempted after {@code maxDelay}, but no earlier than
+ * {@value #MIN_RETRY_DELAY_MILLIS} ms. Durable transactions waiting for the failed storage commit
+ * receive its exception, since their objects are not stored yet. The number of failed storage
+ * commits is available as {@value #METRIC_NAME}{@code .failures} metric.
+ *
+ * <p>The persistence lag, i.e. the time between the commit of the oldest transaction of a storage
+ * commit and the completion of the storage commit, is available as {@value #METRIC_NAME}{@code
+ * .lag} metric. The entities per storage commit, the duration of storage commits, the number of
+ * modifications which have been coalesced with pending ones, and the number of pending entities are
+ * available as {@value #METRIC_NAME}{@code .batch.size}, {@value #METRIC_NAME}{@code .flush},
+ * {@value #METRIC_NAME}{@code .coalesced}, and {@value #METRIC_NAME}{@code .pending} metrics.
+ *
+ * @author Benedikt Full
+ */
+public class AsyncMicrostreamStorage extends MicrostreamStorage implements AutoCloseable {
+
+  /** Prefix of the metric names. */
+  public static final String METRIC_NAME = "wss.async-persistence";
+
+  /** Minimum time between a failed storage commit and the next attempt. */
+  public static final long MIN_RETRY_DELAY_MILLIS = 1_000;
+
+  private static final Logger LOG = LogManager.getLogger(AsyncMicrostreamStorage.class);
+  private static final ThreadLocal<CompletableFuture<Void>> PENDING_COMMIT = new ThreadLocal<>();
+
+  private final Supplier<Storer> storers;
+  private final Lock demarcationLock;
+  private final boolean durable;
+  private final long maxDelayNanos;
+  private final long retryDelayNanos;
+  private final Map<JacisTransactionHandle, Set<Object>> objectsToStore;
+  private final ReentrantLock lock;
+  private final Condition workAvailable;
+  private final Thread writer;
+  private final Timer lag;
+  private final Timer flushLatency;
+  private final DistributionSummary batchSizes;
+  private final Counter coalesced;
+  private final Counter failures;
+  private Set<Object> pending;
+  private long oldestPendingCommit;
+  private CompletableFuture<Void> nextFlush;
+  private volatile int pendingCount;
+  private boolean closed;
+
+  /**
+   * Creates a new storage and starts its writer thread.
+   *
+   * @param storageManager the storage manager
+   * @param container the container whose transactions are stored
+   * @param durable whether transactions have to wait for their objects to be stored
+   * @param maxDelay the maximum time the objects of a transaction are pending before being stored
+   * @param meterRegistry the registry for the metrics
+   */
+  public AsyncMicrostreamStorage(
+      StorageManager storageManager,
+      JacisContainer container,
+      boolean durable,
+      Duration maxDelay,
+      MeterRegistry meterRegistry) {
+    this(
+        storageManager,
+        storageManager::createLazyStorer,
+        container,
+        durable,
+        maxDelay,
+        meterRegistry);
+  }
+
+  // allows tests to replace the storers
+  AsyncMicrostreamStorage(
+      StorageManager storageManager,
+      Supplier<Storer> storers,
+      JacisContainer container,
+      boolean durable,
+      Duration maxDelay,
+      MeterRegistry meterRegistry) {
+    super(storageManager);
+    this.storers = requireNonNull(storers);
+    demarcationLock = container.getTransactionDemarcationLock().readLock();
+    this.durable = durable;
+    maxDelayNanos = requireNonNull(maxDelay).toNanos();
+    retryDelayNanos =
+        Math.max(maxDelayNanos, TimeUnit.MILLISECONDS.toNanos(MIN_RETRY_DELAY_MILLIS));
+    objectsToStore = new ConcurrentHashMap<>();
+    lock = new ReentrantLock();
+    workAvailable = lock.newCondition();
+    pending = newIdentitySet();
+    nextFlush = new CompletableFuture<>();
+    lag = Timer.builder(METRIC_NAME + ".lag").register(meterRegistry);
+    flushLatency = Timer.builder(METRIC_NAME + ".flush").register(meterRegistry);
+    batchSizes = DistributionSummary.builder(METRIC_NAME + ".batch.size").register(meterRegistry);
+    coalesced = meterRegistry.counter(METRIC_NAME + ".coalesced");
+    failures = meterRegistry.counter(METRIC_NAME + ".failures");
+    Gauge.builder(METRIC_NAME + ".pending", this, AsyncMicrostreamStorage::getPendingCount)
+        .register(meterRegistry);
+    writer = new Thread(this::flushContinuously, "wss-async-persistence");
+    writer.setDaemon(true);
+    writer.start();
+    LOG.info(
+        "Storing committed transactions asynchronously (durable: {}, max delay: {})",
+        durable,
+        maxDelay);
+  }
+
+  public boolean isDurable() {
+    return durable;
+  }
+
+  /**
+   * Returns the number of entities which have been modified by committed transactions, but which
+   * have not been stored yet.
+   *
+   * @return the number of pending entities
+   */
+  public int getPendingCount() {
+    return pendingCount;
+  }
+
+  @Override
+  public void trackObjectsToStore(JacisTransactionHandle transaction, Set<Object> objects) {
+    objectsToStore.computeIfAbsent(transaction, t -> new HashSet<>()).addAll(objects);
+  }
+
+  @Override
+  public void afterCommit(JacisTransactionHandle transaction) {
+    Set<Object> objects = objectsToStore.remove(transaction);
+    if (objects == null || objects.isEmpty()) {
+      return;
+    }
+    CompletableFuture<Void> flush;
+    lock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("Storage has been closed");
+      }
+      int previousCount = pending.size();
+      pending.addAll(objects);
+      pendingCount = pending.size();
+      coalesced.increment(objects.size() - (pendingCount - previousCount));
+      if (previousCount == 0) {
+        oldestPendingCommit = System.nanoTime();
+        workAvailable.signal();
+      }
+      flush = nextFlush;
+    } finally {
+      lock.unlock();
+    }
+    if (durable) {
+      // flushes complete in order, so waiting for the latest one is sufficient
+      PENDING_COMMIT.set(flush);
+    }
+  }
+
+  @Override
+  public void afterRollback(JacisTransactionHandle transaction) {
+    objectsToStore.remove(transaction);
+  }
+
+  /**
+   * Waits until the objects of all transactions committed by the current thread have been stored.
+   * Returns immediately if the thread has not committed any transaction since the last call, or if
+   * the storage is not in durable mode.
+   */
+  public static void awaitCommit() {
+    CompletableFuture<Void> pendingCommit = PENDING_COMMIT.get();
+    if (pendingCommit != null) {
+      PENDING_COMMIT.remove();
+      GroupCommitter.await(pendingCommit);
+    }
+  }
+
+  /** Stores all pending objects and stops the writer thread. */
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      workAvailable.signal();
+    } finally {
+      lock.unlock();
+    }
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void flushContinuously() {
+    try {
+      while (awaitWork()) {
+        if (!flush()) {
+          awaitRetry();
+        }
+      }
+    } catch (InterruptedException e) {
+      LOG.warn("Writer has been interrupted, storing pending objects");
+    }
+    if (!flush()) {
+      LOG.error(
+          "Failed to store pending objects before closing, {} objects are lost", pendingCount);
+    }
+  }
+
+  // returns false once the storage has been closed
+  private boolean awaitWork() throws InterruptedException {
+    lock.lock();
+    try {
+      while (true) {
+        if (closed) {
+          return false;
+        }
+        if (pending.isEmpty()) {
+          workAvailable.await();
+        } else {
+          long remainingNanos = oldestPendingCommit + maxDelayNanos - System.nanoTime();
+          if (remainingNanos <= 0) {
+            return true;
+          }
+          workAvailable.awaitNanos(remainingNanos);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void awaitRetry() throws InterruptedException {
+    lock.lock();
+    try {
+      long remainingNanos = retryDelayNanos;
+      while (!closed && remainingNanos > 0) {
+        remainingNanos = workAvailable.awaitNanos(remainingNanos);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // returns false if the pending objects could not be stored
+  private boolean flush() {
+    Set<Object> objects;
+    long oldestCommit;
+    CompletableFuture<Void> flush;
+    Storer storer;
+    // commits are blocked while the objects are serialized, but not during I/O
+    demarcationLock.lock();
+    try {
+      lock.lock();
+      try {
+        if (pending.isEmpty()) {
+          return true;
+        }
+        objects = pending;
+        oldestCommit = oldestPendingCommit;
+        flush = nextFlush;
+        pending = newIdentitySet();
+        pendingCount = 0;
+        nextFlush = new CompletableFuture<>();
+      } finally {
+        lock.unlock();
+      }
+      storer = storers.get();
+      storer.storeAll(objects);
+    } finally {
+      demarcationLock.unlock();
+    }
+
+    long start = System.nanoTime();
+    try {
+      storer.commit();
+    } catch (RuntimeException e) {
+      LOG.error("Failed to store {} objects, retrying", objects.size(), e);
+      failures.increment();
+      requeue(objects, oldestCommit);
+      flush.completeExceptionally(e);
+      return false;
+    }
+    long end = System.nanoTime();
+    flushLatency.record(end - start, TimeUnit.NANOSECONDS);
+    lag.record(end - oldestCommit, TimeUnit.NANOSECONDS);
+    batchSizes.record(objects.size());
+    flush.complete(null);
+    return true;
+  }
+
+  private void requeue(Set<Object> objects, long oldestCommit) {
+    lock.lock();
+    try {
+      // entities modified again in the meantime are pending already and stored with their latest
+      // value
+      pending.addAll(objects);
+      pendingCount = pending.size();
+      // the failed objects have been committed before any of the pending ones
+      oldestPendingCommit = oldestCommit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static Set<Object> newIdentitySet() {
+    return Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+}
@@ -0,0 +1,261 @@
+package de.uniba.dsg.wss.data.access;
+
+import static java.util.Objects.requireNonNull;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Decides how the {@link TransactionManager} reacts to conflicting transactions, and keeps
+ * statistics about these conflicts.
+ *
+ * <p>Transactions are retried after an exponentially growing delay, of which a random fraction is
+ * actually waited (full jitter). This spreads retries of transactions which conflicted with each
+ * other, instead of making them collide again.
+ *
+ * <p>Conflicts are counted per contention key, e.g. the warehouse modified by a transaction. Each
+ * conflict raises the score of the key, and each successful transaction lowers it again. If
+ * serialization is enabled, transactions on keys whose score reached the threshold are run one
+ * after another, as long as the queue of waiting transactions is short. Transactions which would
+ * exceed the queue length or wait too long run concurrently instead.
+ *
+ * <p>Conflicts, retries, aborts, and serialized attempts are counted per transaction type.
+ *
+ * @author Benedikt Full
+ */
+public class ContentionManager {
+
+  /**
+   * Prefix of the counter metrics ({@code conflicts}, {@code retries}, {@code aborts}, and {@code
+   * serialized}), which are tagged with {@code transaction}.
+   */
+  public static final String METRIC_NAME = "wss.contention";
+
+  private static final Logger LOG = LogManager.getLogger(ContentionManager.class);
+
+  private final int maxAttempts;
+  private final long baseDelayNanos;
+  private final long maxDelayNanos;
+  private final boolean serializationEnabled;
+  private final int serializationThreshold;
+  private final int maxQueueLength;
+  private final long maxQueueWaitNanos;
+  private final MeterRegistry meterRegistry;
+  private final Map<Object, KeyStats> keyStats;
+  private final Map<String, TransactionCounters> counters;
+  private final AtomicInteger hotKeyCount;
+
+  /**
+   * Creates a new contention manager.
+   *
+   * @param maxAttempts how often a transaction is attempted, must be greater than zero
+   * @param baseDelay the maximum delay before the first retry, which doubles with every retry
+   * @param maxDelay the upper bound of the delay before a retry
+   * @param serializationEnabled whether transactions on hot keys should be serialized
+   * @param serializationThreshold the score from which on a key is considered hot
+   * @param maxQueueLength the maximum number of transactions waiting for a hot key
+   * @param maxQueueWait how long a transaction waits for a hot key at most
+   * @param meterRegistry the registry for the metrics
+   */
+  public ContentionManager(
+      int maxAttempts,
+      Duration baseDelay,
+      Duration maxDelay,
+      boolean serializationEnabled,
+      int serializationThreshold,
+      int maxQueueLength,
+      Duration maxQueueWait,
+      MeterRegistry meterRegistry) {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("Max attempts must be greater than zero");
+    }
+    if (serializationThreshold < 1) {
+      throw new IllegalArgumentException("Serialization threshold must be greater than zero");
+    }
+    this.maxAttempts = maxAttempts;
+    this.baseDelayNanos = requireNonNull(baseDelay).toNanos();
+    this.maxDelayNanos = requireNonNull(maxDelay).toNanos();
+    if (baseDelayNanos < 1 || maxDelayNanos < baseDelayNanos) {
+      throw new IllegalArgumentException(
+          "Base delay must be positive and must not exceed the max delay");
+    }
+    this.serializationEnabled = serializationEnabled;
+    this.serializationThreshold = serializationThreshold;
+    this.maxQueueLength = maxQueueLength;
+    this.maxQueueWaitNanos = requireNonNull(maxQueueWait).toNanos();
+    this.meterRegistry = requireNonNull(meterRegistry);
+    keyStats = new ConcurrentHashMap<>();
+    counters = new ConcurrentHashMap<>();
+    hotKeyCount = new AtomicInteger();
+    Gauge.builder(METRIC_NAME + ".hot-keys", hotKeyCount, AtomicInteger::get)
+        .register(meterRegistry);
+    LOG.info(
+        "Retrying conflicting transactions up to {} times (base delay: {}, max delay: {}), serialization of hot keys {}",
+        maxAttempts,
+        baseDelay,
+        maxDelay,
+        serializationEnabled ? "enabled" : "disabled");
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * Must be called before each attempt of a transaction. If the contention key is hot and
+   * serialization is enabled, this waits until the attempts of preceding transactions for the key
+   * have finished.
+   *
+   * @param transactionType the type of the transaction, e.g. {@code new-order}
+   * @param key the contention key of the transaction
+   * @return whether the attempt is serialized, in which case {@link #afterAttempt(Object)} must be
+   *     called once the attempt has finished
+   */
+  public boolean beforeAttempt(String transactionType, Object key) {
+    if (!serializationEnabled) {
+      return false;
+    }
+    KeyStats stats = keyStats.get(key);
+    if (stats == null
+        || stats.score.get() < serializationThreshold
+        || stats.permit.getQueueLength() >= maxQueueLength) {
+      return false;
+    }
+    try {
+      if (!stats.permit.tryAcquire(maxQueueWaitNanos, TimeUnit.NANOSECONDS)) {
+        return false;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    countersOf(transactionType).serialized.increment();
+    return true;
+  }
+
+  /**
+   * Releases the key of a serialized attempt.
+   *
+   * @param key the contention key of the transaction
+   */
+  public void afterAttempt(Object key) {
+    keyStats.get(key).permit.release();
+  }
+
+  /**
+   * Records the successful commit of a transaction, which lowers the score of its key.
+   *
+   * @param key the contention key of the transaction
+   */
+  public void onCommit(Object key) {
+    KeyStats stats = keyStats.get(key);
+    if (stats != null) {
+      int previous = stats.score.getAndUpdate(score -> Math.max(0, score - 1));
+      if (previous == serializationThreshold) {
+        hotKeyCount.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Records a conflict of a transaction and waits before the transaction may be retried. Must be
+   * called after the key of a serialized attempt has been {@link #afterAttempt(Object) released},
+   * so that waiting does not block the transactions queued for the key.
+   *
+   * @param transactionType the type of the transaction
+   * @param key the contention key of the transaction
+   * @param attempt the number of the attempt which failed, starting at one
+   * @return whether the transaction should be retried, {@code false} if it must be aborted
+   */
+  public boolean onConflict(String transactionType, Object key, int attempt) {
+    TransactionCounters transactionCounters = countersOf(transactionType);
+    transactionCounters.conflicts.increment();
+    KeyStats stats = keyStats.computeIfAbsent(key, k -> new KeyStats());
+    stats.conflicts.incrementAndGet();
+    // capped, so that a key cools down again after a few successful transactions
+    int score = stats.score.updateAndGet(s -> Math.min(2 * serializationThreshold, s + 1));
+    if (score == serializationThreshold) {
+      hotKeyCount.incrementAndGet();
+      LOG.debug("Key {} is hot after {} conflicts in total", key, stats.conflicts.get());
+    }
+
+    if (attempt >= maxAttempts) {
+      transactionCounters.aborts.increment();
+      return false;
+    }
+    transactionCounters.retries.increment();
+    try {
+      TimeUnit.NANOSECONDS.sleep(backoffNanos(attempt));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return true;
+  }
+
+  /**
+   * Returns the number of conflicts recorded for the key so far.
+   *
+   * @param key the contention key
+   * @return the number of conflicts
+   */
+  public long getConflicts(Object key) {
+    KeyStats stats = keyStats.get(key);
+    return stats == null ? 0 : stats.conflicts.get();
+  }
+
+  /**
+   * Returns whether the key is currently considered hot.
+   *
+   * @param key the contention key
+   * @return {@code true} if transactions on the key are serialized (if enabled)
+   */
+  public boolean isHot(Object key) {
+    KeyStats stats = keyStats.get(key);
+    return stats != null && stats.score.get() >= serializationThreshold;
+  }
+
+  long backoffNanos(int attempt) {
+    // 2^30 times the base delay exceeds any sensible max delay
+    long delay = baseDelayNanos << Math.min(attempt - 1, 30);
+    if (delay <= 0 || delay > maxDelayNanos) {
+      delay = maxDelayNanos;
+    }
+    return ThreadLocalRandom.current().nextLong(delay + 1);
+  }
+
+  private TransactionCounters countersOf(String transactionType) {
+    return counters.computeIfAbsent(transactionType, TransactionCounters::new);
+  }
+
+  private static final class KeyStats {
+    private final AtomicInteger score = new AtomicInteger();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final Semaphore permit = new Semaphore(1, true);
+  }
+
+  private final class TransactionCounters {
+    private final Counter conflicts;
+    private final Counter retries;
+    private final Counter aborts;
+    private final Counter serialized;
+
+    private TransactionCounters(String transactionType) {
+      conflicts = meterRegistry.counter(METRIC_NAME + ".conflicts", "transaction", transactionType);
+      retries = meterRegistry.counter(METRIC_NAME + ".retries", "transaction", transactionType);
+      aborts = meterRegistry.counter(METRIC_NAME + ".aborts", "transaction", transactionType);
+      serialized =
+          meterRegistry.counter(METRIC_NAME + ".serialized", "transaction", transactionType);
+    }
+  }
+}
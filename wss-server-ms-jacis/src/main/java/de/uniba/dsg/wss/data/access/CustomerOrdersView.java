@@ -0,0 +1,86 @@
+package de.uniba.dsg.wss.data.access;
+
+import de.uniba.dsg.wss.data.model.CustomerData;
+import de.uniba.dsg.wss.data.model.OrderData;
+import java.util.List;
+import java.util.Optional;
+import org.jacis.store.JacisStore;
+import org.jacis.trackedviews.TrackedView;
+
+/**
+ * Tracked view of the order store, which keeps the orders of each {@link CustomerData customer}
+ * sorted by their entry date. This allows the Order-Status transaction to find the most recent
+ * order of a customer without scanning the whole order store.
+ *
+ * <p>Like the {@link DistrictOrdersView}, this view is thread-safe and meant to be read via the
+ * live view of the registry.
+ *
+ * @author Benedikt Full
+ */
+public class CustomerOrdersView implements TrackedView<OrderData> {
+
+  private final OrderIndex orders;
+
+  public CustomerOrdersView() {
+    orders = new OrderIndex();
+  }
+
+  /**
+   * Returns the live view registered for the given store.
+   *
+   * @param orderStore the order store
+   * @return the view of the store
+   */
+  public static CustomerOrdersView of(JacisStore<String, OrderData> orderStore) {
+    return orderStore.getTrackedViewRegistry().getLifeView(CustomerOrdersView.class);
+  }
+
+  /**
+   * Returns the id of the most recent order of the customer.
+   *
+   * @param customerId the id of the customer
+   * @return the order id, or an empty optional if the customer has not placed any orders yet
+   */
+  public Optional<String> getLatestOrderId(String customerId) {
+    return orders.getLatest(customerId);
+  }
+
+  @Override
+  public void trackModification(OrderData oldValue, OrderData newValue) {
+    orders.update(
+        customerId(oldValue),
+        OrderIndex.Entry.of(oldValue),
+        customerId(newValue),
+        OrderIndex.Entry.of(newValue));
+  }
+
+  @Override
+  public void checkView(List<OrderData> values) {
+    CustomerOrdersView expected = new CustomerOrdersView();
+    values.forEach(order -> expected.trackModification(null, order));
+    if (!orders.equals(expected.orders)) {
+      throw new IllegalStateException("Customer orders view differs from the order store");
+    }
+  }
+
+  @Override
+  public void clear() {
+    orders.clear();
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  @Override
+  public CustomerOrdersView clone() {
+    CustomerOrdersView clone = new CustomerOrdersView();
+    orders.copyTo(clone.orders);
+    return clone;
+  }
+
+  private static String customerId(OrderData order) {
+    return order == null ? null : order.getCustomerId();
+  }
+}
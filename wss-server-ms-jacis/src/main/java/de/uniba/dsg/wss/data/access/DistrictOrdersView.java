@@ -0,0 +1,113 @@
+package de.uniba.dsg.wss.data.access;
+
+import de.uniba.dsg.wss.data.model.DistrictData;
+import de.uniba.dsg.wss.data.model.OrderData;
+import java.util.List;
+import java.util.Optional;
+import org.jacis.store.JacisStore;
+import org.jacis.store.TrackedViewRegistry;
+import org.jacis.trackedviews.TrackedView;
+
+/**
+ * Tracked view of the order store, which keeps the orders and the unfulfilled orders of each {@link
+ * DistrictData district} sorted by their entry date. This allows the Delivery and Stock-Level
+ * transactions to find their orders without scanning the whole order store.
+ *
+ * <p>The view is updated by JACIS whenever a transaction modifying orders is committed. Since it is
+ * thread-safe, it may be read via {@link TrackedViewRegistry#getLifeView(Class)}, which avoids
+ * cloning the view for every transaction. The orders found this way must be read from the store, as
+ * the view only contains their ids.
+ *
+ * @author Benedikt Full
+ */
+public class DistrictOrdersView implements TrackedView<OrderData> {
+
+  private final OrderIndex orders;
+  private final OrderIndex unfulfilledOrders;
+
+  public DistrictOrdersView() {
+    orders = new OrderIndex();
+    unfulfilledOrders = new OrderIndex();
+  }
+
+  /**
+   * Returns the live view registered for the given store.
+   *
+   * @param orderStore the order store
+   * @return the view of the store
+   */
+  public static DistrictOrdersView of(JacisStore<String, OrderData> orderStore) {
+    return orderStore.getTrackedViewRegistry().getLifeView(DistrictOrdersView.class);
+  }
+
+  /**
+   * Returns the id of the oldest order of the district which has not been fulfilled yet.
+   *
+   * @param districtId the id of the district
+   * @return the order id, or an empty optional if all orders of the district have been fulfilled
+   */
+  public Optional<String> getOldestUnfulfilledOrderId(String districtId) {
+    return unfulfilledOrders.getOldest(districtId);
+  }
+
+  /**
+   * Returns the ids of the most recent orders of the district.
+   *
+   * @param districtId the id of the district
+   * @param limit the max number of orders
+   * @return the order ids, starting with the most recent order
+   */
+  public List<String> getRecentOrderIds(String districtId, int limit) {
+    return orders.getLatest(districtId, limit);
+  }
+
+  @Override
+  public void trackModification(OrderData oldValue, OrderData newValue) {
+    orders.update(
+        districtId(oldValue),
+        OrderIndex.Entry.of(oldValue),
+        districtId(newValue),
+        OrderIndex.Entry.of(newValue));
+    unfulfilledOrders.update(
+        districtId(oldValue),
+        isUnfulfilled(oldValue) ? OrderIndex.Entry.of(oldValue) : null,
+        districtId(newValue),
+        isUnfulfilled(newValue) ? OrderIndex.Entry.of(newValue) : null);
+  }
+
+  @Override
+  public void checkView(List<OrderData> values) {
+    DistrictOrdersView expected = new DistrictOrdersView();
+    values.forEach(order -> expected.trackModification(null, order));
+    if (!orders.equals(expected.orders) || !unfulfilledOrders.equals(expected.unfulfilledOrders)) {
+      throw new IllegalStateException("District orders view differs from the order store");
+    }
+  }
+
+  @Override
+  public void clear() {
+    orders.clear();
+    unfulfilledOrders.clear();
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  @Override
+  public DistrictOrdersView clone() {
+    DistrictOrdersView clone = new DistrictOrdersView();
+    orders.copyTo(clone.orders);
+    unfulfilledOrders.copyTo(clone.unfulfilledOrders);
+    return clone;
+  }
+
+  private static String districtId(OrderData order) {
+    return order == null ? null : order.getDistrictId();
+  }
+
+  private static boolean isUnfulfilled(OrderData order) {
+    return order != null && !order.isFulfilled();
+  }
+}
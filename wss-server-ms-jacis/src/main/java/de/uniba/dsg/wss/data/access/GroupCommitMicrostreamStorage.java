@@ -0,0 +1,68 @@
+package de.uniba.dsg.wss.data.access;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import one.microstream.storage.types.StorageManager;
+import org.jacis.container.JacisTransactionHandle;
+import org.jacis.extension.persistence.microstream.MicrostreamStorage;
+
+/**
+ * MicroStream storage for JACIS which hands the objects modified by committed transactions to a
+ * {@link GroupCommitter} instead of storing them in a commit of their own.
+ *
+ * <p>JACIS notifies the storage about committed transactions while holding the global commit lock
+ * of the container, which is why the storage only enqueues the objects of a transaction, but does
+ * not wait for them to be durable. Instead, the committing thread has to call {@link
+ * #awaitCommit()} after the JACIS transaction has been completed (see {@link TransactionManager}).
+ *
+ * @author Benedikt Full
+ */
+public class GroupCommitMicrostreamStorage extends MicrostreamStorage {
+
+  private static final ThreadLocal<CompletableFuture<Void>> PENDING_COMMIT = new ThreadLocal<>();
+
+  private final GroupCommitter<?> committer;
+  private final Map<JacisTransactionHandle, Set<Object>> objectsToStore;
+
+  public GroupCommitMicrostreamStorage(StorageManager storageManager, GroupCommitter<?> committer) {
+    super(storageManager);
+    this.committer = requireNonNull(committer);
+    objectsToStore = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public void trackObjectsToStore(JacisTransactionHandle transaction, Set<Object> objects) {
+    objectsToStore.computeIfAbsent(transaction, t -> new HashSet<>()).addAll(objects);
+  }
+
+  @Override
+  public void afterCommit(JacisTransactionHandle transaction) {
+    Set<Object> objects = objectsToStore.remove(transaction);
+    if (objects != null && !objects.isEmpty()) {
+      // batches are committed in order, so waiting for the latest one is sufficient
+      PENDING_COMMIT.set(committer.enqueue(objects));
+    }
+  }
+
+  @Override
+  public void afterRollback(JacisTransactionHandle transaction) {
+    objectsToStore.remove(transaction);
+  }
+
+  /**
+   * Waits until the objects of all transactions committed by the current thread are durable.
+   * Returns immediately if the thread has not committed any transaction since the last call.
+   */
+  public static void awaitCommit() {
+    CompletableFuture<Void> pendingCommit = PENDING_COMMIT.get();
+    if (pendingCommit != null) {
+      PENDING_COMMIT.remove();
+      GroupCommitter.await(pendingCommit);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package de.uniba.dsg.wss.data.access;
+
+import de.uniba.dsg.wss.data.model.CustomerData;
+import de.uniba.dsg.wss.data.model.OrderData;
+import de.uniba.dsg.wss.data.model.OrderItemData;
+import de.uniba.dsg.wss.data.model.PaymentData;
+import java.util.List;
+
+/**
+ * Defines how order items and payments are laid out in the JACIS stores, which allows the
+ * transaction services to be independent of the layout actually used.
+ *
+ * <p>In the {@link NormalizedMsDataLayout normalized layout}, order items and payments are separate
+ * objects of their own stores, which reference their order or customer by id. In the {@link
+ * AggregatedMsDataLayout aggregated layout}, orders own their items and customers own their
+ * payments, so that they are read, copied, and written as one object. The former keeps the objects
+ * copied by transactions small, while the latter avoids looking up items and payments in large
+ * stores.
+ *
+ * <p>Unless stated otherwise, the methods must be called within a transaction.
+ *
+ * @author Benedikt Full
+ */
+public interface MsDataLayout {
+
+  /**
+   * Returns whether order items and payments are owned by their orders and customers.
+   *
+   * @return {@code true} for the aggregated layout, {@code false} otherwise
+   */
+  boolean isAggregated();
+
+  /**
+   * Stores a new order together with its items.
+   *
+   * @param order the new order
+   * @param items the items of the order
+   */
+  void insertOrder(OrderData order, List<OrderItemData> items);
+
+  /**
+   * Stores the changes made to an order and to the given items of the order.
+   *
+   * @param order the order, which must have been read writable
+   * @param items the changed items, as returned by {@link #getOrderItems(OrderData)}
+   */
+  void updateOrder(OrderData order, List<OrderItemData> items);
+
+  /**
+   * Returns writable copies of the items of an order.
+   *
+   * @param order the order, which must have been read writable
+   * @return the items of the order
+   */
+  List<OrderItemData> getOrderItems(OrderData order);
+
+  /**
+   * Returns read-only copies of the items of an order.
+   *
+   * @param order the order
+   * @return the items of the order
+   */
+  List<OrderItemData> getOrderItemsReadOnly(OrderData order);
+
+  /**
+   * Returns the ids of the products ordered by an order without copying the order or its items.
+   *
+   * @param orderId the id of the order
+   * @return the product ids, which may contain duplicates
+   */
+  List<String> getOrderedProductIds(String orderId);
+
+  /**
+   * Stores a new payment of a customer.
+   *
+   * @param customer the paying customer, which must have been read writable
+   * @param payment the new payment
+   */
+  void insertPayment(CustomerData customer, PaymentData payment);
+}
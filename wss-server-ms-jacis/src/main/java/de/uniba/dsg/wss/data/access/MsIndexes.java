@@ -0,0 +1,34 @@
+package de.uniba.dsg.wss.data.access;
+
+import de.uniba.dsg.wss.data.model.CustomerData;
+import de.uniba.dsg.wss.data.model.DistrictData;
+import de.uniba.dsg.wss.data.model.EmployeeData;
+import de.uniba.dsg.wss.data.model.OrderItemData;
+
+/**
+ * Defines the secondary indexes of the JACIS stores, which are registered when the stores are
+ * created and used by the services to avoid scanning whole stores.
+ *
+ * @author Benedikt Full
+ */
+public final class MsIndexes {
+
+  public static final StoreIndex.Definition<String, DistrictData, String> DISTRICTS_BY_WAREHOUSE =
+      StoreIndex.nonUnique(
+          "districts-by-warehouse", DistrictData::getId, DistrictData::getWarehouseId);
+
+  public static final StoreIndex.Definition<String, CustomerData, String> CUSTOMERS_BY_DISTRICT =
+      StoreIndex.nonUnique(
+          "customers-by-district", CustomerData::getId, CustomerData::getDistrictId);
+
+  public static final StoreIndex.Definition<String, CustomerData, String> CUSTOMERS_BY_EMAIL =
+      StoreIndex.unique("customers-by-email", CustomerData::getId, CustomerData::getEmail);
+
+  public static final StoreIndex.Definition<String, EmployeeData, String> EMPLOYEES_BY_USERNAME =
+      StoreIndex.unique("employees-by-username", EmployeeData::getId, EmployeeData::getUsername);
+
+  public static final StoreIndex.Definition<String, OrderItemData, String> ORDER_ITEMS_BY_ORDER =
+      StoreIndex.nonUnique("order-items-by-order", OrderItemData::getId, OrderItemData::getOrderId);
+
+  private MsIndexes() {}
+}
@@ -0,0 +1,80 @@
+package de.uniba.dsg.wss.data.access;
+
+import static java.util.Objects.requireNonNull;
+
+import de.uniba.dsg.wss.data.model.CustomerData;
+import de.uniba.dsg.wss.data.model.OrderData;
+import de.uniba.dsg.wss.data.model.OrderItemData;
+import de.uniba.dsg.wss.data.model.PaymentData;
+import java.util.ArrayList;
+import java.util.List;
+import org.jacis.store.JacisStore;
+
+/**
+ * Data layout in which order items and payments are stored as separate objects. The items of an
+ * order are found via the {@link MsIndexes#ORDER_ITEMS_BY_ORDER order items index}.
+ *
+ * @author Benedikt Full
+ */
+public class NormalizedMsDataLayout implements MsDataLayout {
+
+  private final JacisStore<String, OrderData> orderStore;
+  private final JacisStore<String, OrderItemData> orderItemStore;
+  private final JacisStore<String, PaymentData> paymentStore;
+
+  public NormalizedMsDataLayout(
+      JacisStore<String, OrderData> orderStore,
+      JacisStore<String, OrderItemData> orderItemStore,
+      JacisStore<String, PaymentData> paymentStore) {
+    this.orderStore = requireNonNull(orderStore);
+    this.orderItemStore = requireNonNull(orderItemStore);
+    this.paymentStore = requireNonNull(paymentStore);
+  }
+
+  @Override
+  public boolean isAggregated() {
+    return false;
+  }
+
+  @Override
+  public void insertOrder(OrderData order, List<OrderItemData> items) {
+    orderStore.update(order.getId(), order);
+    orderItemStore.update(items, OrderItemData::getId);
+  }
+
+  @Override
+  public void updateOrder(OrderData order, List<OrderItemData> items) {
+    orderStore.update(order.getId(), order);
+    orderItemStore.update(items, OrderItemData::getId);
+  }
+
+  @Override
+  public List<OrderItemData> getOrderItems(OrderData order) {
+    return MsIndexes.ORDER_ITEMS_BY_ORDER.of(orderItemStore).get(order.getId());
+  }
+
+  @Override
+  public List<OrderItemData> getOrderItemsReadOnly(OrderData order) {
+    return MsIndexes.ORDER_ITEMS_BY_ORDER.of(orderItemStore).getReadOnly(order.getId());
+  }
+
+  @Override
+  public List<String> getOrderedProductIds(String orderId) {
+    List<String> productIds = new ArrayList<>();
+    for (String itemId : MsIndexes.ORDER_ITEMS_BY_ORDER.of(orderItemStore).getKeys(orderId)) {
+      String productId =
+          orderItemStore.getProjectionReadOnly(
+              itemId, item -> item == null ? null : item.getProductId());
+      // the item may have been removed in the meantime
+      if (productId != null) {
+        productIds.add(productId);
+      }
+    }
+    return productIds;
+  }
+
+  @Override
+  public void insertPayment(CustomerData customer, PaymentData payment) {
+    paymentStore.update(payment.getId(), payment);
+  }
+}
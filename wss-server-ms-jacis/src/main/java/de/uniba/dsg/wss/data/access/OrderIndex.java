@@ -0,0 +1,162 @@
+package de.uniba.dsg.wss.data.access;
+
+import de.uniba.dsg.wss.data.model.OrderData;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Groups orders by some key (e.g. their district) and keeps the orders of each group sorted by
+ * their entry date. Used by the tracked views of the order store.
+ *
+ * <p>All modifications are atomic per key, so the index may be updated and read concurrently.
+ *
+ * @author Benedikt Full
+ */
+class OrderIndex {
+
+  private final Map<String, NavigableSet<Entry>> entries;
+
+  OrderIndex() {
+    entries = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Moves an order from its old to its new position in the index. Either of the keys and entries
+   * may be {@code null} if the order was not or is no longer part of the index.
+   */
+  void update(String oldKey, Entry oldEntry, String newKey, Entry newEntry) {
+    if (Objects.equals(oldKey, newKey) && Objects.equals(oldEntry, newEntry)) {
+      return;
+    }
+    // the new entry is added first, so that concurrent readers never miss an order
+    if (newKey != null && newEntry != null) {
+      entries.compute(
+          newKey,
+          (k, orders) -> {
+            NavigableSet<Entry> result =
+                orders == null ? new ConcurrentSkipListSet<>(Entry.ORDER) : orders;
+            result.add(newEntry);
+            return result;
+          });
+    }
+    if (oldKey != null && oldEntry != null) {
+      entries.computeIfPresent(
+          oldKey,
+          (k, orders) -> {
+            orders.remove(oldEntry);
+            return orders.isEmpty() ? null : orders;
+          });
+    }
+  }
+
+  Optional<String> getOldest(String key) {
+    NavigableSet<Entry> orders = entries.get(key);
+    if (orders == null) {
+      return Optional.empty();
+    }
+    // the set may become empty concurrently, which is why first() is not used here
+    Iterator<Entry> iterator = orders.iterator();
+    return iterator.hasNext() ? Optional.of(iterator.next().getOrderId()) : Optional.empty();
+  }
+
+  Optional<String> getLatest(String key) {
+    return getLatest(key, 1).stream().findFirst();
+  }
+
+  /** Returns the ids of the most recent orders of the given key, starting with the most recent. */
+  List<String> getLatest(String key, int limit) {
+    NavigableSet<Entry> orders = entries.get(key);
+    if (orders == null) {
+      return List.of();
+    }
+    List<String> orderIds = new ArrayList<>();
+    Iterator<Entry> iterator = orders.descendingIterator();
+    while (iterator.hasNext() && orderIds.size() < limit) {
+      orderIds.add(iterator.next().getOrderId());
+    }
+    return orderIds;
+  }
+
+  void clear() {
+    entries.clear();
+  }
+
+  void copyTo(OrderIndex other) {
+    entries.forEach(
+        (key, orders) -> {
+          NavigableSet<Entry> copy = new ConcurrentSkipListSet<>(Entry.ORDER);
+          copy.addAll(orders);
+          other.entries.put(key, copy);
+        });
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return entries.equals(((OrderIndex) o).entries);
+  }
+
+  @Override
+  public int hashCode() {
+    return entries.hashCode();
+  }
+
+  /** The position of a single order in the index. */
+  static final class Entry {
+
+    private static final Comparator<Entry> ORDER =
+        Comparator.comparing(Entry::getEntryDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Entry::getOrderId);
+
+    private final String orderId;
+    private final LocalDateTime entryDate;
+
+    private Entry(String orderId, LocalDateTime entryDate) {
+      this.orderId = orderId;
+      this.entryDate = entryDate;
+    }
+
+    static Entry of(OrderData order) {
+      return order == null ? null : new Entry(order.getId(), order.getEntryDate());
+    }
+
+    String getOrderId() {
+      return orderId;
+    }
+
+    LocalDateTime getEntryDate() {
+      return entryDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Entry entry = (Entry) o;
+      return orderId.equals(entry.orderId) && Objects.equals(entryDate, entry.entryDate);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(orderId, entryDate);
+    }
+  }
+}
@@ -0,0 +1,285 @@
+package de.uniba.dsg.wss.data.access;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jacis.store.JacisStore;
+import org.jacis.store.TrackedViewRegistry;
+import org.jacis.trackedviews.TrackedView;
+
+/**
+ * Secondary index of a {@link JacisStore}, which maps the values of some attribute of the stored
+ * objects to the keys of these objects. Indexes are defined once via {@link #unique(String,
+ * Function, Function)} or {@link #nonUnique(String, Function, Function)} and registered for their
+ * store when the store is created (see {@link Definition#register(JacisStore)}).
+ *
+ * <p>An index is a tracked view of its store. It is therefore updated by JACIS in the commit phase
+ * of every transaction modifying the store, i.e. changes become visible in the index together with
+ * the committed objects. Since the index is thread-safe, it is read via {@link
+ * TrackedViewRegistry#getLifeView(String)} instead of being cloned for every transaction.
+ *
+ * <p>The lookup methods read the indexed objects from the store within the current transaction and
+ * only return the ones whose attribute still matches. Objects whose attribute has been changed by
+ * the current transaction are therefore not returned. Objects created by the current transaction
+ * are not returned either, as they are only added to the index when the transaction is committed.
+ *
+ * <p>Uniqueness can't be enforced before a commit with the public API of JACIS, which is why unique
+ * indexes only log duplicates when they are committed, and reject them when looking up a value (see
+ * {@link #getUnique(Object)}).
+ *
+ * @param <K> the key type of the store
+ * @param <V> the value type of the store
+ * @param <I> the type of the indexed attribute
+ * @author Benedikt Full
+ */
+public class StoreIndex<K, V, I> implements TrackedView<V> {
+
+  private static final Logger LOG = LogManager.getLogger(StoreIndex.class);
+
+  private final Definition<K, V, I> definition;
+  private final JacisStore<K, V> store;
+  private final Map<I, Set<K>> keys;
+
+  private StoreIndex(Definition<K, V, I> definition, JacisStore<K, V> store) {
+    this.definition = definition;
+    this.store = store;
+    keys = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Defines an index for an attribute which is unique among all objects of the store.
+   *
+   * @param name the name of the index, which must be unique for the store
+   * @param keyFunction returns the key of a stored object
+   * @param indexFunction returns the indexed attribute of a stored object, objects for which {@code
+   *     null} is returned are not indexed
+   * @return the index definition
+   */
+  public static <K, V, I> Definition<K, V, I> unique(
+      String name, Function<V, K> keyFunction, Function<V, I> indexFunction) {
+    return new Definition<>(name, keyFunction, indexFunction, true);
+  }
+
+  /**
+   * Defines an index for an attribute which may be shared by multiple objects of the store.
+   *
+   * @param name the name of the index, which must be unique for the store
+   * @param keyFunction returns the key of a stored object
+   * @param indexFunction returns the indexed attribute of a stored object, objects for which {@code
+   *     null} is returned are not indexed
+   * @return the index definition
+   */
+  public static <K, V, I> Definition<K, V, I> nonUnique(
+      String name, Function<V, K> keyFunction, Function<V, I> indexFunction) {
+    return new Definition<>(name, keyFunction, indexFunction, false);
+  }
+
+  /**
+   * Returns the keys of the committed objects with the given attribute value.
+   *
+   * @param value the attribute value
+   * @return a copy of the keys, which is empty if there are no such objects or the value is {@code
+   *     null}
+   */
+  public Set<K> getKeys(I value) {
+    if (value == null) {
+      return Set.of();
+    }
+    Set<K> valueKeys = keys.get(value);
+    return valueKeys == null ? Set.of() : new HashSet<>(valueKeys);
+  }
+
+  /**
+   * Returns writable copies of the objects with the given attribute value. Must be called within a
+   * transaction.
+   *
+   * @param value the attribute value
+   * @return the objects, in no particular order
+   */
+  public List<V> get(I value) {
+    return lookup(value, store::get);
+  }
+
+  /**
+   * Returns read-only copies of the objects with the given attribute value.
+   *
+   * @param value the attribute value
+   * @return the objects, in no particular order
+   */
+  public List<V> getReadOnly(I value) {
+    return lookup(value, store::getReadOnly);
+  }
+
+  /**
+   * Returns a writable copy of the only object with the given attribute value. Must be called
+   * within a transaction.
+   *
+   * @param value the attribute value
+   * @return the object, or an empty optional if there is no such object
+   * @throws IllegalStateException if there are multiple objects with the attribute value
+   */
+  public Optional<V> getUnique(I value) {
+    return unique(value, get(value));
+  }
+
+  /**
+   * Returns a read-only copy of the only object with the given attribute value.
+   *
+   * @param value the attribute value
+   * @return the object, or an empty optional if there is no such object
+   * @throws IllegalStateException if there are multiple objects with the attribute value
+   */
+  public Optional<V> getUniqueReadOnly(I value) {
+    return unique(value, getReadOnly(value));
+  }
+
+  private List<V> lookup(I value, Function<K, V> reader) {
+    Set<K> valueKeys = getKeys(value);
+    List<V> objects = new ArrayList<>(valueKeys.size());
+    for (K key : valueKeys) {
+      V object = reader.apply(key);
+      // the object may have been modified or removed by the current transaction
+      if (object != null && value.equals(definition.indexFunction.apply(object))) {
+        objects.add(object);
+      }
+    }
+    return objects;
+  }
+
+  private Optional<V> unique(I value, List<V> objects) {
+    if (objects.size() > 1) {
+      throw new IllegalStateException(
+          "Found " + objects.size() + " objects for " + value + " in index " + definition.name);
+    }
+    return objects.stream().findAny();
+  }
+
+  @Override
+  public void trackModification(V oldValue, V newValue) {
+    I oldIndexValue = oldValue == null ? null : definition.indexFunction.apply(oldValue);
+    I newIndexValue = newValue == null ? null : definition.indexFunction.apply(newValue);
+    if (Objects.equals(oldIndexValue, newIndexValue)) {
+      return;
+    }
+    // the new entry is added first, so that concurrent readers never miss an object
+    if (newIndexValue != null) {
+      K key = definition.keyFunction.apply(newValue);
+      keys.compute(
+          newIndexValue,
+          (v, valueKeys) -> {
+            Set<K> result = valueKeys == null ? ConcurrentHashMap.newKeySet() : valueKeys;
+            result.add(key);
+            if (definition.unique && result.size() > 1) {
+              LOG.warn(
+                  "Unique index {} contains {} objects for {}", definition.name, result.size(), v);
+            }
+            return result;
+          });
+    }
+    if (oldIndexValue != null) {
+      K key = definition.keyFunction.apply(oldValue);
+      keys.computeIfPresent(
+          oldIndexValue,
+          (v, valueKeys) -> {
+            valueKeys.remove(key);
+            return valueKeys.isEmpty() ? null : valueKeys;
+          });
+    }
+  }
+
+  @Override
+  public void checkView(List<V> values) {
+    StoreIndex<K, V, I> expected = new StoreIndex<>(definition, store);
+    values.forEach(value -> expected.trackModification(null, value));
+    if (!keys.equals(expected.keys)) {
+      throw new IllegalStateException("Index " + definition.name + " differs from its store");
+    }
+  }
+
+  @Override
+  public void clear() {
+    keys.clear();
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  @Override
+  public StoreIndex<K, V, I> clone() {
+    StoreIndex<K, V, I> clone = new StoreIndex<>(definition, store);
+    keys.forEach(
+        (value, valueKeys) -> {
+          Set<K> copy = ConcurrentHashMap.newKeySet();
+          copy.addAll(valueKeys);
+          clone.keys.put(value, copy);
+        });
+    return clone;
+  }
+
+  /**
+   * Defines an index independently of the store it is registered for, which allows defining indexes
+   * as constants (see {@link MsIndexes}).
+   *
+   * @param <K> the key type of the store
+   * @param <V> the value type of the store
+   * @param <I> the type of the indexed attribute
+   */
+  public static final class Definition<K, V, I> {
+
+    private final String name;
+    private final Function<V, K> keyFunction;
+    private final Function<V, I> indexFunction;
+    private final boolean unique;
+
+    private Definition(
+        String name, Function<V, K> keyFunction, Function<V, I> indexFunction, boolean unique) {
+      this.name = requireNonNull(name);
+      this.keyFunction = requireNonNull(keyFunction);
+      this.indexFunction = requireNonNull(indexFunction);
+      this.unique = unique;
+    }
+
+    /**
+     * Registers a new index for the store, which is populated with the objects already contained in
+     * the store. The store must track the original values of its objects, which JACIS does by
+     * default.
+     *
+     * @param store the store to index
+     * @return the registered index
+     */
+    public StoreIndex<K, V, I> register(JacisStore<K, V> store) {
+      store.getTrackedViewRegistry().registerTrackedView(name, new StoreIndex<>(this, store));
+      return of(store);
+    }
+
+    /**
+     * Returns the index registered for the store.
+     *
+     * @param store the indexed store
+     * @return the live index of the store
+     */
+    public StoreIndex<K, V, I> of(JacisStore<K, V> store) {
+      return store.getTrackedViewRegistry().getLifeView(name);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public boolean isUnique() {
+      return unique;
+    }
+  }
+}
@@ -2,12 +2,13 @@ package de.uniba.dsg.wss.data.access;
 
 import static java.util.Objects.requireNonNull;
 
+import de.uniba.dsg.wss.service.TransactionPhase;
+import de.uniba.dsg.wss.service.TransactionTimings;
 import java.util.function.Supplier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jacis.container.JacisContainer;
 import org.jacis.exception.JacisStaleObjectException;
-import org.jacis.exception.JacisTxCommitException;
 import org.jacis.plugin.txadapter.local.JacisLocalTransaction;
 
 /**
@@ -16,114 +17,124 @@ import org.jacis.plugin.txadapter.local.JacisLocalTransaction;
  * are missing. For example, the container has no method which allows a transaction with a return
  * value being retried for a certain amount of times.
  *
+ * <p>Transactions failing due to concurrent modifications are retried as decided by the shared
+ * {@link ContentionManager}, based on the contention key passed for the transaction.
+ *
  * @author Benedikt Full
  */
 public class TransactionManager {
 
   private static final Logger LOG = LogManager.getLogger(TransactionManager.class);
   private final JacisContainer container;
-  private final int attempts;
-  private final int delay;
-
-  public TransactionManager(JacisContainer container) {
-    this(container, 5, 100);
-  }
+  private final ContentionManager contentionManager;
 
-  public TransactionManager(JacisContainer container, int attempts, int delay) {
+  public TransactionManager(JacisContainer container, ContentionManager contentionManager) {
     this.container = requireNonNull(container, "Container must not be null");
-    this.attempts = requireValidAttempts(attempts);
-    this.delay = requireValidBackoff(delay);
+    this.contentionManager =
+        requireNonNull(contentionManager, "Contention manager must not be null");
   }
 
   public JacisContainer getContainer() {
     return container;
   }
 
-  public int getAttempts() {
-    return attempts;
-  }
-
-  public int getDelay() {
-    return delay;
+  public ContentionManager getContentionManager() {
+    return contentionManager;
   }
 
-  public <T> T commit(Supplier<T> transaction) {
-    return executeAndCommit(transaction);
+  /**
+   * Runs and commits the transaction, retrying it in case of conflicts.
+   *
+   * @param transactionType the type of the transaction, e.g. {@code new-order}
+   * @param contentionKey the object most likely modified by concurrent transactions as well, e.g.
+   *     the id of the warehouse
+   * @param transaction the transaction
+   * @return the result of the transaction
+   */
+  public <T> T commit(String transactionType, Object contentionKey, Supplier<T> transaction) {
+    return executeAndCommit(transactionType, contentionKey, transaction);
   }
 
-  public void commit(Runnable transaction) {
+  public void commit(String transactionType, Object contentionKey, Runnable transaction) {
     executeAndCommit(
+        transactionType,
+        contentionKey,
         () -> {
           transaction.run();
           return null;
         });
   }
 
-  private <T> T executeAndCommit(Supplier<T> transaction) {
-    final int maxAttempts = this.attempts;
+  private <T> T executeAndCommit(
+      String transactionType, Object contentionKey, Supplier<T> transaction) {
     int performedAttempts = 0;
-    while ((maxAttempts - performedAttempts++) > 0) {
+    while (true) {
+      performedAttempts++;
+      boolean serialized = contentionManager.beforeAttempt(transactionType, contentionKey);
+      if (serialized) {
+        TransactionTimings.mark(TransactionPhase.LOCK_WAIT);
+      }
+      JacisStaleObjectException conflict;
       try {
-        JacisLocalTransaction tx = container.beginLocalTransaction();
-        Throwable txException = null;
-        try {
-          T result = transaction.get();
-          tx.prepare();
-          tx.commit();
-          tx = null;
-          return result;
-        } catch (Throwable e) {
-          txException = e;
-          throw e;
-        } finally {
-          if (tx != null) {
-            try {
-              tx.rollback();
-            } catch (Throwable rollbackException) {
-              RuntimeException exceptionToThrow =
-                  new RuntimeException("Rollback failed after " + txException, txException);
-              exceptionToThrow.addSuppressed(rollbackException);
-              // noinspection ThrowFromFinallyBlock
-              throw exceptionToThrow;
-            }
-          }
-        }
+        T result = executeAndCommit(transaction);
+        contentionManager.onCommit(contentionKey);
+        return result;
       } catch (JacisStaleObjectException e) {
-        if (performedAttempts == maxAttempts) {
-          LOG.error(
-              "Unable to complete transaction after having attempted it for {} times",
-              performedAttempts);
-          throw e;
-        } else {
-          try {
-            Thread.sleep(delay);
-          } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-          }
-          LOG.warn(
-              "Retrying transaction (performed attempts: {}, max attempts: {}) after having encountered exception: {}: {}",
-              performedAttempts,
-              maxAttempts,
-              e.getClass().getName(),
-              e.getMessage());
+        conflict = e;
+      } finally {
+        if (serialized) {
+          contentionManager.afterAttempt(contentionKey);
         }
       }
+      // backs off only after having released the key, which queued transactions are waiting for
+      if (!contentionManager.onConflict(transactionType, contentionKey, performedAttempts)) {
+        LOG.error(
+            "Unable to complete {} transaction after having attempted it for {} times",
+            transactionType,
+            performedAttempts);
+        throw conflict;
+      }
+      TransactionTimings.mark(TransactionPhase.LOCK_WAIT);
+      LOG.debug(
+          "Retrying {} transaction on {} (performed attempts: {}, max attempts: {}) after having encountered exception: {}: {}",
+          transactionType,
+          contentionKey,
+          performedAttempts,
+          contentionManager.getMaxAttempts(),
+          conflict.getClass().getName(),
+          conflict.getMessage());
     }
-    throw new JacisTxCommitException(
-        "Unable to commit transaction after " + maxAttempts + " tries");
-  }
-
-  private int requireValidAttempts(int attempts) {
-    if (attempts < 1) {
-      throw new IllegalArgumentException("Max tries must be greater than zero");
-    }
-    return attempts;
   }
 
-  private int requireValidBackoff(int backoff) {
-    if (backoff < 1) {
-      throw new IllegalArgumentException("Backoff millis must be greater than zero");
+  private <T> T executeAndCommit(Supplier<T> transaction) {
+    JacisLocalTransaction tx = container.beginLocalTransaction();
+    Throwable txException = null;
+    try {
+      T result = transaction.get();
+      TransactionTimings.mark(TransactionPhase.MUTATE);
+      tx.prepare();
+      tx.commit();
+      tx = null;
+      // outside of the commit lock of the container, only one of the storages is in use
+      GroupCommitMicrostreamStorage.awaitCommit();
+      AsyncMicrostreamStorage.awaitCommit();
+      TransactionTimings.mark(TransactionPhase.PERSIST);
+      return result;
+    } catch (Throwable e) {
+      txException = e;
+      throw e;
+    } finally {
+      if (tx != null) {
+        try {
+          tx.rollback();
+        } catch (Throwable rollbackException) {
+          RuntimeException exceptionToThrow =
+              new RuntimeException("Rollback failed after " + txException, txException);
+          exceptionToThrow.addSuppressed(rollbackException);
+          // noinspection ThrowFromFinallyBlock
+          throw exceptionToThrow;
+        }
+      }
     }
-    return backoff;
   }
 }
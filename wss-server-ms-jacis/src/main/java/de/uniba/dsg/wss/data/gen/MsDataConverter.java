@@ -26,6 +26,7 @@ import de.uniba.dsg.wss.data.model.WarehouseData;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -33,6 +34,10 @@ import org.apache.logging.log4j.Logger;
 /**
  * Converts a generated data model to a MicroStream data model.
  *
+ * <p>If the aggregated layout is requested, the order items are added to their orders and the
+ * payments to their customers instead of being returned as separate objects (see {@link
+ * de.uniba.dsg.wss.data.access.MsDataLayout}).
+ *
  * @see DataGenerator
  * @author Benedikt Full
  */
@@ -41,7 +46,15 @@ public class MsDataConverter
 
   private static final Logger LOG = LogManager.getLogger(MsDataConverter.class);
 
-  public MsDataConverter() {}
+  private final boolean aggregated;
+
+  public MsDataConverter() {
+    this(false);
+  }
+
+  public MsDataConverter(boolean aggregated) {
+    this.aggregated = aggregated;
+  }
 
   @Override
   public MsDataModel convert(DataModel<Product, Warehouse, Employee, Carrier> model) {
@@ -57,6 +70,12 @@ public class MsDataConverter
     List<OrderData> orders = convertOrders(model.getWarehouses());
     List<OrderItemData> orderItems = convertOrderItems(model.getWarehouses());
     List<PaymentData> payments = convertPayments(model.getWarehouses());
+    if (aggregated) {
+      aggregateOrderItems(orders, orderItems);
+      aggregatePayments(customers, payments);
+      orderItems = List.of();
+      payments = List.of();
+    }
     stopwatch.stop();
 
     // Create summary data
@@ -78,7 +97,8 @@ public class MsDataConverter
             orders,
             orderItems,
             payments,
-            stocks);
+            stocks,
+            aggregated);
 
     LOG.info("Converted model data to MicroStream data, took {}", stopwatch.getDuration());
 
@@ -334,6 +354,27 @@ public class MsDataConverter
     return payments;
   }
 
+  private static void aggregateOrderItems(List<OrderData> orders, List<OrderItemData> items) {
+    Map<String, List<OrderItemData>> itemsByOrder =
+        items.stream()
+            .sorted(Comparator.comparingInt(OrderItemData::getNumber))
+            .collect(Collectors.groupingBy(OrderItemData::getOrderId));
+    for (OrderData order : orders) {
+      order.setItems(itemsByOrder.getOrDefault(order.getId(), List.of()));
+    }
+    LOG.debug("Added {} order items to their orders", items.size());
+  }
+
+  private static void aggregatePayments(List<CustomerData> customers, List<PaymentData> payments) {
+    // payments are sorted by date already
+    Map<String, List<PaymentData>> paymentsByCustomer =
+        payments.stream().collect(Collectors.groupingBy(PaymentData::getCustomerId));
+    for (CustomerData customer : customers) {
+      customer.setPayments(paymentsByCustomer.getOrDefault(customer.getId(), List.of()));
+    }
+    LOG.debug("Added {} payments to their customers", payments.size());
+  }
+
   private DistrictData district(District d, Warehouse w) {
     DistrictData district = new DistrictData();
     district.setId(d.getId());
@@ -1,5 +1,6 @@
 package de.uniba.dsg.wss.data.gen;
 
+import de.uniba.dsg.wss.data.access.MsDataLayout;
 import de.uniba.dsg.wss.data.gen.model.Carrier;
 import de.uniba.dsg.wss.data.gen.model.Employee;
 import de.uniba.dsg.wss.data.gen.model.Product;
@@ -24,19 +25,24 @@ public class MsDataInitializer extends DataInitializer {
 
   private static final Logger LOG = LogManager.getLogger(MsDataInitializer.class);
   private final MsDataWriter dataWriter;
+  private final MsDataLayout dataLayout;
 
   @Autowired
   public MsDataInitializer(
-      Environment environment, PasswordEncoder passwordEncoder, MsDataWriter dataWriter) {
+      Environment environment,
+      PasswordEncoder passwordEncoder,
+      MsDataWriter dataWriter,
+      MsDataLayout dataLayout) {
     super(environment, passwordEncoder);
     this.dataWriter = dataWriter;
+    this.dataLayout = dataLayout;
   }
 
   @Override
   public void initializePersistentData() {
     LOG.info("Beginning model data generation");
     DataModel<Product, Warehouse, Employee, Carrier> model = generateData();
-    MsDataModel msDataModel = new MsDataConverter().convert(model);
+    MsDataModel msDataModel = new MsDataConverter(dataLayout.isAggregated()).convert(model);
     dataWriter.write(msDataModel);
   }
 }
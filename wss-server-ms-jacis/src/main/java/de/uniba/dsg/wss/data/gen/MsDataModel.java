@@ -26,6 +26,7 @@ public class MsDataModel
   private final List<OrderItemData> orderItems;
   private final List<PaymentData> payments;
   private final List<StockData> stocks;
+  private final boolean aggregated;
 
   public MsDataModel(
       List<ProductData> products,
@@ -38,7 +39,8 @@ public class MsDataModel
       List<OrderData> orders,
       List<OrderItemData> orderItems,
       List<PaymentData> payments,
-      List<StockData> stocks) {
+      List<StockData> stocks,
+      boolean aggregated) {
     super(products, warehouses, employees, carriers, stats);
     this.districts = districts;
     this.customers = customers;
@@ -46,6 +48,7 @@ public class MsDataModel
     this.orderItems = orderItems;
     this.payments = payments;
     this.stocks = stocks;
+    this.aggregated = aggregated;
   }
 
   public List<DistrictData> getDistricts() {
@@ -71,4 +74,14 @@ public class MsDataModel
   public List<StockData> getStocks() {
     return stocks;
   }
+
+  /**
+   * Returns whether the order items and payments of the model are owned by their orders and
+   * customers, in which case {@link #getOrderItems()} and {@link #getPayments()} are empty.
+   *
+   * @return {@code true} if the model uses the aggregated layout
+   */
+  public boolean isAggregated() {
+    return aggregated;
+  }
 }
@@ -1,6 +1,7 @@
 package de.uniba.dsg.wss.data.gen;
 
 import de.uniba.dsg.wss.commons.Stopwatch;
+import de.uniba.dsg.wss.data.access.MsDataLayout;
 import de.uniba.dsg.wss.data.model.CarrierData;
 import de.uniba.dsg.wss.data.model.CustomerData;
 import de.uniba.dsg.wss.data.model.DistrictData;
@@ -22,6 +23,10 @@ import org.springframework.stereotype.Component;
  * Can be used to write a wholesale supplier data model to MicroStream-based storage via the JACIS
  * stores.
  *
+ * <p>The layout of the written model must match the configured {@link MsDataLayout}, i.e. order
+ * items and payments must only be owned by their orders and customers if the aggregated layout is
+ * used (see {@link MsDataConverter#MsDataConverter(boolean)}).
+ *
  * @author Benedikt Full
  */
 @Component
@@ -40,6 +45,7 @@ public class MsDataWriter
   private final JacisStore<String, OrderData> orderStore;
   private final JacisStore<String, OrderItemData> orderItemStore;
   private final JacisStore<String, PaymentData> paymentStore;
+  private final MsDataLayout dataLayout;
 
   @Autowired
   public MsDataWriter(
@@ -53,7 +59,8 @@ public class MsDataWriter
       JacisStore<String, CustomerData> customerStore,
       JacisStore<String, OrderData> orderStore,
       JacisStore<String, OrderItemData> orderItemStore,
-      JacisStore<String, PaymentData> paymentStore) {
+      JacisStore<String, PaymentData> paymentStore,
+      MsDataLayout dataLayout) {
     this.container = container;
     this.carrierStore = carrierStore;
     this.productStore = productStore;
@@ -65,6 +72,7 @@ public class MsDataWriter
     this.orderStore = orderStore;
     this.orderItemStore = orderItemStore;
     this.paymentStore = paymentStore;
+    this.dataLayout = dataLayout;
   }
 
   @Override
@@ -78,12 +86,19 @@ public class MsDataWriter
               + (model == null ? null : model.getClass().getName()));
     }
     MsDataModel msDataModel = (MsDataModel) model;
+    if (msDataModel.isAggregated() != dataLayout.isAggregated()) {
+      throw new IllegalArgumentException(
+          "Model layout does not match the configured layout, expected "
+              + (dataLayout.isAggregated() ? "aggregated" : "normalized")
+              + " model");
+    }
     container.withLocalTx(
         () -> {
           carrierStore.update(msDataModel.getCarriers(), CarrierData::getId);
           productStore.update(msDataModel.getProducts(), ProductData::getId);
           warehouseStore.update(msDataModel.getWarehouses(), WarehouseData::getId);
-          stockStore.update(msDataModel.getStocks(), StockData::getId);
+          stockStore.update(
+              msDataModel.getStocks(), s -> StockData.key(s.getWarehouseId(), s.getProductId()));
           districtStore.update(msDataModel.getDistricts(), DistrictData::getId);
           employeeStore.update(msDataModel.getEmployees(), EmployeeData::getId);
           customerStore.update(msDataModel.getCustomers(), CustomerData::getId);
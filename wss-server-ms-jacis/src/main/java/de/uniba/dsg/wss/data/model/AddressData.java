@@ -1,11 +1,13 @@
 package de.uniba.dsg.wss.data.model;
 
+import java.io.Serializable;
+
 /**
  * An immutable representation of a United States address.
  *
  * @author Benedikt Full
  */
-public class AddressData {
+public class AddressData implements Serializable {
 
   private final String street1;
   private final String street2;
@@ -1,5 +1,6 @@
 package de.uniba.dsg.wss.data.model;
 
+import java.io.Serializable;
 import java.util.UUID;
 import org.jacis.exception.ReadOnlyException;
 import org.jacis.plugin.readonly.object.JacisReadonlyModeSupport;
@@ -13,9 +14,13 @@ import org.jacis.plugin.readonly.object.JacisReadonlyModeSupport;
  * objects can be switched between read and write mode, as defined by the JACIS library (see {@link
  * JacisReadonlyModeSupport} for further information).
  *
+ * <p>Data classes are {@link Serializable} so that they may also be copied by the {@link
+ * org.jacis.extension.objectadapter.cloning.microstream.JacisMicrostreamCloningObjectAdapter}
+ * instead of their {@link org.jacis.plugin.objectadapter.cloning.JacisCloneable} implementation.
+ *
  * @author Benedikt Full
  */
-public abstract class BaseData implements JacisReadonlyModeSupport {
+public abstract class BaseData implements JacisReadonlyModeSupport, Serializable {
 
   private transient boolean writable;
   private String id;
@@ -1,11 +1,19 @@
 package de.uniba.dsg.wss.data.model;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.jacis.plugin.objectadapter.cloning.JacisCloneable;
 
 /**
  * A customer of the wholesale supplier.
  *
+ * <p>Depending on the configured data layout, the payments of the customer are either stored as
+ * separate {@link PaymentData} objects, or they are owned by the customer (see {@link
+ * #getPayments()}). Owned payments are copied together with the customer and follow its read-only
+ * mode.
+ *
  * @author Benedikt Full
  */
 public class CustomerData extends PersonData implements JacisCloneable<CustomerData> {
@@ -21,6 +29,7 @@ public class CustomerData extends PersonData implements JacisCloneable<CustomerD
   private int paymentCount;
   private int deliveryCount;
   private String data;
+  private List<PaymentData> payments;
 
   public String getWarehouseId() {
     return warehouseId;
@@ -121,8 +130,52 @@ public class CustomerData extends PersonData implements JacisCloneable<CustomerD
     this.data = data;
   }
 
+  /**
+   * Returns the payments owned by this customer.
+   *
+   * @return an unmodifiable view of the payments, which is empty if the payments are stored
+   *     separately
+   */
+  public List<PaymentData> getPayments() {
+    return payments == null ? List.of() : Collections.unmodifiableList(payments);
+  }
+
+  public void setPayments(List<PaymentData> payments) {
+    checkWritable();
+    this.payments = payments == null ? null : new ArrayList<>(payments);
+  }
+
+  public void addPayment(PaymentData payment) {
+    checkWritable();
+    if (payments == null) {
+      payments = new ArrayList<>();
+    }
+    payments.add(payment);
+  }
+
+  @Override
+  public void switchToReadOnlyMode() {
+    super.switchToReadOnlyMode();
+    if (payments != null) {
+      payments.forEach(PaymentData::switchToReadOnlyMode);
+    }
+  }
+
+  @Override
+  public void switchToReadWriteMode() {
+    super.switchToReadWriteMode();
+    if (payments != null) {
+      payments.forEach(PaymentData::switchToReadWriteMode);
+    }
+  }
+
   @Override
   public CustomerData clone() {
-    return (CustomerData) super.clone();
+    CustomerData clone = (CustomerData) super.clone();
+    if (payments != null) {
+      clone.payments = new ArrayList<>(payments.size());
+      payments.forEach(payment -> clone.payments.add(payment.clone()));
+    }
+    return clone;
   }
 }
@@ -1,12 +1,19 @@
 package de.uniba.dsg.wss.data.model;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.jacis.plugin.objectadapter.cloning.JacisCloneable;
 
 /**
  * An order issued by a {@link CustomerData customer} for a certain amount of {@link ProductData
  * products}.
  *
+ * <p>Depending on the configured data layout, the items of the order are either stored as separate
+ * {@link OrderItemData} objects, or they are owned by the order (see {@link #getItems()}). Owned
+ * items are copied together with the order and follow its read-only mode.
+ *
  * @see OrderItemData
  * @author Benedikt Full
  */
@@ -19,6 +26,7 @@ public class OrderData extends BaseData implements JacisCloneable<OrderData> {
   private int itemCount;
   private boolean allLocal;
   private boolean fulfilled;
+  private List<OrderItemData> items;
 
   public String getDistrictId() {
     return districtId;
@@ -83,8 +91,43 @@ public class OrderData extends BaseData implements JacisCloneable<OrderData> {
     this.fulfilled = fulfilled;
   }
 
+  /**
+   * Returns the items owned by this order.
+   *
+   * @return an unmodifiable view of the items, which is empty if the items are stored separately
+   */
+  public List<OrderItemData> getItems() {
+    return items == null ? List.of() : Collections.unmodifiableList(items);
+  }
+
+  public void setItems(List<OrderItemData> items) {
+    checkWritable();
+    this.items = items == null ? null : new ArrayList<>(items);
+  }
+
+  @Override
+  public void switchToReadOnlyMode() {
+    super.switchToReadOnlyMode();
+    if (items != null) {
+      items.forEach(OrderItemData::switchToReadOnlyMode);
+    }
+  }
+
+  @Override
+  public void switchToReadWriteMode() {
+    super.switchToReadWriteMode();
+    if (items != null) {
+      items.forEach(OrderItemData::switchToReadWriteMode);
+    }
+  }
+
   @Override
   public OrderData clone() {
-    return (OrderData) super.clone();
+    OrderData clone = (OrderData) super.clone();
+    if (items != null) {
+      clone.items = new ArrayList<>(items.size());
+      items.forEach(item -> clone.items.add(item.clone()));
+    }
+    return clone;
   }
 }
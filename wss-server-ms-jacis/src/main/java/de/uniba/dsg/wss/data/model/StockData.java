@@ -6,6 +6,9 @@ import org.jacis.plugin.objectadapter.cloning.JacisCloneable;
  * The available amount of a specific {@link ProductData product} at some {@link WarehouseData
  * warehouse}.
  *
+ * <p>Stocks are stored by their natural key (see {@link #key(String, String)}) instead of their id,
+ * so that the stock of a product at some warehouse can be looked up directly.
+ *
  * @author Benedikt Full
  */
 public class StockData extends BaseData implements JacisCloneable<StockData> {
@@ -28,6 +31,17 @@ public class StockData extends BaseData implements JacisCloneable<StockData> {
   private String dist09;
   private String dist10;
 
+  /**
+   * Returns the key of the stock of the given product at the given warehouse.
+   *
+   * @param warehouseId the id of the warehouse holding the stock
+   * @param productId the id of the stocked product
+   * @return the key of the stock
+   */
+  public static String key(String warehouseId, String productId) {
+    return warehouseId + productId;
+  }
+
   public String getProductId() {
     return productId;
   }
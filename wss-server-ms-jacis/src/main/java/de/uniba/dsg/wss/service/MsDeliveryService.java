@@ -1,5 +1,8 @@
 package de.uniba.dsg.wss.service;
 
+import de.uniba.dsg.wss.data.access.DistrictOrdersView;
+import de.uniba.dsg.wss.data.access.MsDataLayout;
+import de.uniba.dsg.wss.data.access.MsIndexes;
 import de.uniba.dsg.wss.data.access.TransactionManager;
 import de.uniba.dsg.wss.data.model.CarrierData;
 import de.uniba.dsg.wss.data.model.CustomerData;
@@ -10,11 +13,9 @@ import de.uniba.dsg.wss.data.model.WarehouseData;
 import de.uniba.dsg.wss.data.transfer.messages.DeliveryRequest;
 import de.uniba.dsg.wss.data.transfer.messages.DeliveryResponse;
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
-import org.jacis.container.JacisContainer;
 import org.jacis.store.JacisStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -22,87 +23,76 @@ import org.springframework.stereotype.Service;
 @Service
 public class MsDeliveryService extends DeliveryService {
 
-  private final JacisContainer container;
+  private final TransactionManager transactionManager;
   private final JacisStore<String, WarehouseData> warehouseStore;
   private final JacisStore<String, DistrictData> districtStore;
   private final JacisStore<String, CustomerData> customerStore;
   private final JacisStore<String, OrderData> orderStore;
-  private final JacisStore<String, OrderItemData> orderItemStore;
   private final JacisStore<String, CarrierData> carrierStore;
+  private final MsDataLayout dataLayout;
 
   @Autowired
   public MsDeliveryService(
-      JacisContainer container,
+      TransactionManager transactionManager,
       JacisStore<String, WarehouseData> warehouseStore,
       JacisStore<String, DistrictData> districtStore,
       JacisStore<String, CustomerData> customerStore,
       JacisStore<String, OrderData> orderStore,
-      JacisStore<String, OrderItemData> orderItemStore,
-      JacisStore<String, CarrierData> carrierStore) {
-    this.container = container;
+      JacisStore<String, CarrierData> carrierStore,
+      MsDataLayout dataLayout) {
+    this.transactionManager = transactionManager;
     this.warehouseStore = warehouseStore;
     this.districtStore = districtStore;
     this.customerStore = customerStore;
     this.orderStore = orderStore;
-    this.orderItemStore = orderItemStore;
     this.carrierStore = carrierStore;
+    this.dataLayout = dataLayout;
   }
 
   @Override
   public DeliveryResponse process(DeliveryRequest req) {
-    TransactionManager transactionManager = new TransactionManager(container, 5, 100);
     return transactionManager.commit(
+        "delivery",
+        req.getWarehouseId(),
         () -> {
           // Find warehouse and carrier to be employed for delivery
           WarehouseData warehouse = warehouseStore.getReadOnly(req.getWarehouseId());
           List<DistrictData> districts =
-              districtStore
-                  .streamReadOnly(d -> d.getWarehouseId().equals(warehouse.getId()))
-                  .parallel()
-                  .collect(Collectors.toList());
+              MsIndexes.DISTRICTS_BY_WAREHOUSE.of(districtStore).getReadOnly(warehouse.getId());
           CarrierData carrier = carrierStore.getReadOnly(req.getCarrierId());
 
           // Find an order for each district (the oldest unfulfilled order)
-          List<String> orderIds =
-              districts.parallelStream()
-                  .map(
-                      d ->
-                          orderStore
-                              .streamReadOnly(
-                                  o -> o.getDistrictId().equals(d.getId()) && !o.isFulfilled())
-                              .parallel()
-                              .min(Comparator.comparing(OrderData::getEntryDate))
-                              .orElse(null))
-                  .filter(Objects::nonNull)
-                  .map(OrderData::getId)
-                  .collect(Collectors.toList());
+          DistrictOrdersView districtOrders = DistrictOrdersView.of(orderStore);
           List<OrderData> orders =
-              orderIds.stream().map(orderStore::get).collect(Collectors.toList());
+              districts.stream()
+                  .map(d -> districtOrders.getOldestUnfulfilledOrderId(d.getId()))
+                  .flatMap(Optional::stream)
+                  .map(orderStore::get)
+                  // the order may have been fulfilled by a transaction committed in the meantime
+                  .filter(o -> o != null && !o.isFulfilled())
+                  .collect(Collectors.toList());
 
           // Get the order items of all orders
-          List<OrderItemData> allOrderItems =
-              orderItemStore.stream(i -> orderIds.contains(i.getOrderId()))
-                  .parallel()
-                  .collect(Collectors.toList());
+          List<List<OrderItemData>> allOrderItems =
+              orders.stream().map(dataLayout::getOrderItems).collect(Collectors.toList());
+          TransactionTimings.mark(TransactionPhase.LOOKUP);
 
           // Actually deliver the orders
-          for (OrderData order : orders) {
-            double amountSum = 0;
-            // Update fulfillment status and carrier of order
-            order.setCarrierId(carrier.getId());
-            order.setFulfilled(true);
-            orderStore.update(order.getId(), order);
-
-            // For each order item, set delivery date to now and sum amount
-            List<OrderItemData> orderItems =
-                allOrderItems.stream()
-                    .filter(i -> i.getOrderId().equals(order.getId()))
-                    .peek(i -> i.setDeliveryDate(LocalDateTime.now()))
-                    .collect(Collectors.toList());
+          for (int i = 0; i < orders.size(); i++) {
+            OrderData order = orders.get(i);
+            List<OrderItemData> orderItems = allOrderItems.get(i);
             if (orderItems.isEmpty()) {
               throw new IllegalStateException("Order has no items");
             }
-            amountSum += orderItems.stream().mapToDouble(OrderItemData::getAmount).sum();
+
+            // Update fulfillment status and carrier of order, set delivery date of each order
+            // item to now and sum amount
+            order.setCarrierId(carrier.getId());
+            order.setFulfilled(true);
+            LocalDateTime deliveryDate = LocalDateTime.now();
+            orderItems.forEach(item -> item.setDeliveryDate(deliveryDate));
+            double amountSum = orderItems.stream().mapToDouble(OrderItemData::getAmount).sum();
+            dataLayout.updateOrder(order, orderItems);
 
             // Update customer balance and delivery count
             CustomerData customer = customerStore.get(order.getCustomerId());
@@ -110,7 +100,6 @@ public class MsDeliveryService extends DeliveryService {
             customer.setDeliveryCount(customer.getDeliveryCount() + 1);
             customerStore.update(customer.getId(), customer);
           }
-          orderItemStore.update(allOrderItems, OrderItemData::getId);
 
           return new DeliveryResponse(req);
         });
@@ -1,5 +1,6 @@
 package de.uniba.dsg.wss.service;
 
+import de.uniba.dsg.wss.data.access.MsDataLayout;
 import de.uniba.dsg.wss.data.access.TransactionManager;
 import de.uniba.dsg.wss.data.model.CustomerData;
 import de.uniba.dsg.wss.data.model.DistrictData;
@@ -15,8 +16,6 @@ import de.uniba.dsg.wss.data.transfer.messages.NewOrderResponseItem;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-import org.jacis.container.JacisContainer;
 import org.jacis.store.JacisStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -24,39 +23,37 @@ import org.springframework.stereotype.Service;
 @Service
 public class MsNewOrderService extends NewOrderService {
 
-  private final JacisContainer container;
+  private final TransactionManager transactionManager;
   private final JacisStore<String, WarehouseData> warehouseStore;
   private final JacisStore<String, DistrictData> districtStore;
   private final JacisStore<String, StockData> stockStore;
   private final JacisStore<String, CustomerData> customerStore;
-  private final JacisStore<String, OrderData> orderStore;
-  private final JacisStore<String, OrderItemData> orderItemStore;
   private final JacisStore<String, ProductData> productStore;
+  private final MsDataLayout dataLayout;
 
   @Autowired
   public MsNewOrderService(
-      JacisContainer container,
+      TransactionManager transactionManager,
       JacisStore<String, WarehouseData> warehouseStore,
       JacisStore<String, DistrictData> districtStore,
       JacisStore<String, StockData> stockStore,
       JacisStore<String, CustomerData> customerStore,
-      JacisStore<String, OrderData> orderStore,
-      JacisStore<String, OrderItemData> orderItemStore,
-      JacisStore<String, ProductData> productStore) {
-    this.container = container;
+      JacisStore<String, ProductData> productStore,
+      MsDataLayout dataLayout) {
+    this.transactionManager = transactionManager;
     this.warehouseStore = warehouseStore;
     this.districtStore = districtStore;
     this.stockStore = stockStore;
     this.customerStore = customerStore;
-    this.orderStore = orderStore;
-    this.orderItemStore = orderItemStore;
     this.productStore = productStore;
+    this.dataLayout = dataLayout;
   }
 
   @Override
   public NewOrderResponse process(NewOrderRequest req) {
-    TransactionManager transactionManager = new TransactionManager(container, 5, 100);
     return transactionManager.commit(
+        "new-order",
+        req.getWarehouseId(),
         () -> {
           // Get warehouse, district and customer
           WarehouseData warehouse = warehouseStore.getReadOnly(req.getWarehouseId());
@@ -65,34 +62,37 @@ public class MsNewOrderService extends NewOrderService {
               || !district.getWarehouseId().equals(req.getWarehouseId())) {
             throw new IllegalArgumentException();
           }
-          CustomerData customer = customerStore.get(req.getCustomerId());
-
-          // Get all supplying warehouses and products to ensure no invalid ids have been
-          // provided
-          List<String> supplyingWarehouseIds =
-              req.getItems().stream()
-                  .map(NewOrderRequestItem::getSupplyingWarehouseId)
-                  .collect(Collectors.toList());
-          List<String> productIds =
-              req.getItems().stream()
-                  .map(NewOrderRequestItem::getProductId)
-                  .collect(Collectors.toList());
-
-          List<WarehouseData> supplyingWarehouses =
-              supplyingWarehouseIds.stream()
-                  .map(warehouseStore::getReadOnly)
-                  .collect(Collectors.toList());
-          List<ProductData> orderItemProducts =
-              productIds.stream().map(productStore::getReadOnly).collect(Collectors.toList());
-
-          // Get all relevant stocks
-          List<StockData> stocks =
-              stockStore.stream(
-                      s ->
-                          productIds.contains(s.getProductId())
-                              && supplyingWarehouseIds.contains(s.getWarehouseId()))
-                  .parallel()
-                  .collect(Collectors.toList());
+          // the customer is only read, so the committed instance is used instead of a copy
+          CustomerData customer = customerStore.getReadOnly(req.getCustomerId());
+
+          // Get all supplying warehouses, products and stocks of the order lines, which ensures
+          // that no invalid ids have been provided
+          List<ProductData> orderItemProducts = new ArrayList<>(req.getItems().size());
+          List<StockData> stocks = new ArrayList<>(req.getItems().size());
+          for (NewOrderRequestItem reqItem : req.getItems()) {
+            WarehouseData supplyingWarehouse =
+                warehouseStore.getReadOnly(reqItem.getSupplyingWarehouseId());
+            if (supplyingWarehouse == null) {
+              throw new IllegalStateException(
+                  "Failed to find warehouse " + reqItem.getSupplyingWarehouseId());
+            }
+            ProductData product = productStore.getReadOnly(reqItem.getProductId());
+            if (product == null) {
+              throw new IllegalStateException("Failed to find product " + reqItem.getProductId());
+            }
+            StockData stock =
+                stockStore.get(StockData.key(supplyingWarehouse.getId(), product.getId()));
+            if (stock == null) {
+              throw new IllegalStateException(
+                  "Failed to find stock for product "
+                      + product.getId()
+                      + " of warehouse "
+                      + supplyingWarehouse.getId());
+            }
+            orderItemProducts.add(product);
+            stocks.add(stock);
+          }
+          TransactionTimings.mark(TransactionPhase.LOOKUP);
 
           // Create a new order
           OrderData order = new OrderData();
@@ -100,42 +100,14 @@ public class MsNewOrderService extends NewOrderService {
           order.setCustomerId(customer.getId());
           order.setEntryDate(LocalDateTime.now());
           order.setItemCount(req.getItems().size());
-          orderStore.update(order.getId(), order);
 
+          List<OrderItemData> orderItems = new ArrayList<>(req.getItems().size());
           List<NewOrderResponseItem> responseLines = new ArrayList<>(req.getItems().size());
           double orderItemSum = 0;
           for (int i = 0; i < req.getItems().size(); i++) {
             NewOrderRequestItem reqItem = req.getItems().get(i);
-            WarehouseData supplyingWarehouse =
-                supplyingWarehouses.stream()
-                    .filter(w -> w.getId().equals(reqItem.getSupplyingWarehouseId()))
-                    .findAny()
-                    .orElseThrow(
-                        () ->
-                            new IllegalStateException(
-                                "Failed to find warehouse " + reqItem.getSupplyingWarehouseId()));
-            ProductData product =
-                orderItemProducts.stream()
-                    .filter(p -> p.getId().equals(reqItem.getProductId()))
-                    .findAny()
-                    .orElseThrow(
-                        () ->
-                            new IllegalStateException(
-                                "Failed to find product " + reqItem.getProductId()));
-            StockData stock =
-                stocks.stream()
-                    .filter(
-                        s ->
-                            s.getWarehouseId().equals(supplyingWarehouse.getId())
-                                && s.getProductId().equals(product.getId()))
-                    .findAny()
-                    .orElseThrow(
-                        () ->
-                            new IllegalStateException(
-                                "Failed to find stock for product "
-                                    + product.getId()
-                                    + " of warehouse "
-                                    + supplyingWarehouse.getId()));
+            ProductData product = orderItemProducts.get(i);
+            StockData stock = stocks.get(i);
 
             OrderItemData orderItem = new OrderItemData();
             orderItem.setOrderId(order.getId());
@@ -144,10 +116,9 @@ public class MsNewOrderService extends NewOrderService {
             orderItem.setSupplyingWarehouseId(reqItem.getSupplyingWarehouseId());
             orderItem.setDeliveryDate(null);
             orderItem.setQuantity(reqItem.getQuantity());
-            orderItem.setAmount(orderItemProducts.get(i).getPrice() * reqItem.getQuantity());
+            orderItem.setAmount(product.getPrice() * reqItem.getQuantity());
             orderItem.setDistInfo(getRandomDistrictInfo(stock));
-
-            orderItemStore.update(orderItem.getId(), orderItem);
+            orderItems.add(orderItem);
 
             NewOrderResponseItem responseLine = newOrderResponseLine(orderItem);
             responseLines.add(responseLine);
@@ -156,7 +127,7 @@ public class MsNewOrderService extends NewOrderService {
             stock.setQuantity(determineNewStockQuantity(stockQuantity, orderItemQuantity));
             stock.setYearToDateBalance(stock.getYearToDateBalance() + orderItemQuantity);
             stock.setOrderCount(stock.getOrderCount() + 1);
-            stockStore.update(stock.getId(), stock);
+            stockStore.update(StockData.key(stock.getWarehouseId(), stock.getProductId()), stock);
             responseLine.setStockQuantity(stock.getQuantity());
             responseLine.setItemName(product.getName());
             responseLine.setItemPrice(product.getPrice());
@@ -165,6 +136,7 @@ public class MsNewOrderService extends NewOrderService {
 
             orderItemSum += orderItem.getAmount();
           }
+          dataLayout.insertOrder(order, orderItems);
 
           // Prepare the response object
           NewOrderResponse res =
@@ -1,5 +1,8 @@
 package de.uniba.dsg.wss.service;
 
+import de.uniba.dsg.wss.data.access.CustomerOrdersView;
+import de.uniba.dsg.wss.data.access.MsDataLayout;
+import de.uniba.dsg.wss.data.access.MsIndexes;
 import de.uniba.dsg.wss.data.model.CustomerData;
 import de.uniba.dsg.wss.data.model.DistrictData;
 import de.uniba.dsg.wss.data.model.OrderData;
@@ -9,9 +12,7 @@ import de.uniba.dsg.wss.data.transfer.messages.OrderItemStatusResponse;
 import de.uniba.dsg.wss.data.transfer.messages.OrderStatusRequest;
 import de.uniba.dsg.wss.data.transfer.messages.OrderStatusResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.jacis.container.JacisContainer;
 import org.jacis.store.JacisStore;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,7 +26,7 @@ public class MsOrderStatusService extends OrderStatusService {
   private final JacisStore<String, DistrictData> districtStore;
   private final JacisStore<String, CustomerData> customerStore;
   private final JacisStore<String, OrderData> orderStore;
-  private final JacisStore<String, OrderItemData> orderItemStore;
+  private final MsDataLayout dataLayout;
 
   @Autowired
   public MsOrderStatusService(
@@ -34,13 +35,13 @@ public class MsOrderStatusService extends OrderStatusService {
       JacisStore<String, DistrictData> districtStore,
       JacisStore<String, CustomerData> customerStore,
       JacisStore<String, OrderData> orderStore,
-      JacisStore<String, OrderItemData> orderItemStore) {
+      MsDataLayout dataLayout) {
     this.container = container;
     this.warehouseStore = warehouseStore;
     this.districtStore = districtStore;
     this.customerStore = customerStore;
     this.orderStore = orderStore;
-    this.orderItemStore = orderItemStore;
+    this.dataLayout = dataLayout;
   }
 
   @Override
@@ -52,41 +53,30 @@ public class MsOrderStatusService extends OrderStatusService {
     CustomerData customer;
     if (customerId == null) {
       customer =
-          customerStore
-              .streamReadOnly()
-              .parallel()
-              .filter(c -> c.getEmail().equals(req.getCustomerEmail()))
-              .findAny()
+          MsIndexes.CUSTOMERS_BY_EMAIL
+              .of(customerStore)
+              .getUniqueReadOnly(req.getCustomerEmail())
               .orElseThrow(
                   () ->
                       new IllegalStateException(
                           "Failed to find customer with email " + req.getCustomerEmail()));
     } else {
-      customer =
-          customerStore
-              .streamReadOnly()
-              .parallel()
-              .filter(c -> c.getId().equals(customerId))
-              .findAny()
-              .orElseThrow(
-                  () -> new IllegalStateException("Failed to find customer with id " + customerId));
+      customer = customerStore.getReadOnly(customerId);
+      if (customer == null) {
+        throw new IllegalStateException("Failed to find customer with id " + customerId);
+      }
     }
 
     // Find the most recent order of the customer and parse the delivery dates (and some other
     // info)
     OrderData order =
-        orderStore
-            .streamReadOnly()
-            .parallel()
-            .filter(o -> o.getCustomerId().equals(customer.getId()))
-            .max(Comparator.comparing(OrderData::getEntryDate))
+        CustomerOrdersView.of(orderStore)
+            .getLatestOrderId(customer.getId())
+            .map(orderStore::getReadOnly)
             .orElseThrow(IllegalStateException::new);
 
-    List<OrderItemData> orderItems =
-        orderItemStore
-            .streamReadOnly(i -> i.getOrderId().equals(order.getId()))
-            .parallel()
-            .collect(Collectors.toList());
+    List<OrderItemData> orderItems = dataLayout.getOrderItemsReadOnly(order);
+    TransactionTimings.mark(TransactionPhase.LOOKUP);
 
     return toOrderStatusResponse(req, order, customer, toOrderItemStatusResponse(orderItems));
   }
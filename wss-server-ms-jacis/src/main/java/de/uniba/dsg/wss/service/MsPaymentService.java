@@ -1,5 +1,7 @@
 package de.uniba.dsg.wss.service;
 
+import de.uniba.dsg.wss.data.access.MsDataLayout;
+import de.uniba.dsg.wss.data.access.MsIndexes;
 import de.uniba.dsg.wss.data.access.TransactionManager;
 import de.uniba.dsg.wss.data.model.CustomerData;
 import de.uniba.dsg.wss.data.model.DistrictData;
@@ -8,7 +10,6 @@ import de.uniba.dsg.wss.data.model.WarehouseData;
 import de.uniba.dsg.wss.data.transfer.messages.PaymentRequest;
 import de.uniba.dsg.wss.data.transfer.messages.PaymentResponse;
 import java.time.LocalDateTime;
-import org.jacis.container.JacisContainer;
 import org.jacis.store.JacisStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -16,54 +17,53 @@ import org.springframework.stereotype.Service;
 @Service
 public class MsPaymentService extends PaymentService {
 
-  private final JacisContainer container;
+  private final TransactionManager transactionManager;
   private final JacisStore<String, WarehouseData> warehouseStore;
   private final JacisStore<String, DistrictData> districtStore;
   private final JacisStore<String, CustomerData> customerStore;
-  private final JacisStore<String, PaymentData> paymentStore;
+  private final MsDataLayout dataLayout;
 
   @Autowired
   public MsPaymentService(
-      JacisContainer container,
+      TransactionManager transactionManager,
       JacisStore<String, WarehouseData> warehouseStore,
       JacisStore<String, DistrictData> districtStore,
       JacisStore<String, CustomerData> customerStore,
-      JacisStore<String, PaymentData> paymentStore) {
-    this.container = container;
+      MsDataLayout dataLayout) {
+    this.transactionManager = transactionManager;
     this.warehouseStore = warehouseStore;
     this.districtStore = districtStore;
     this.customerStore = customerStore;
-    this.paymentStore = paymentStore;
+    this.dataLayout = dataLayout;
   }
 
   @Override
   public PaymentResponse process(PaymentRequest req) {
-    TransactionManager transactionManager = new TransactionManager(container, 5, 100);
     return transactionManager.commit(
+        "payment",
+        req.getWarehouseId(),
         () -> {
           // Find customer (either by id or email)
           String customerId = req.getCustomerId();
           CustomerData customer;
           if (customerId == null) {
             customer =
-                customerStore.stream(c -> c.getEmail().equals(req.getCustomerEmail()))
-                    .parallel()
-                    .findAny()
+                MsIndexes.CUSTOMERS_BY_EMAIL
+                    .of(customerStore)
+                    .getUnique(req.getCustomerEmail())
                     .orElseThrow(
                         () ->
                             new IllegalStateException(
                                 "Failed to find customer with email " + req.getCustomerEmail()));
           } else {
-            customer =
-                customerStore.stream(c -> c.getId().equals(customerId))
-                    .parallel()
-                    .findAny()
-                    .orElseThrow(
-                        () ->
-                            new IllegalStateException(
-                                "Failed to find customer with id " + customerId));
+            customer = customerStore.get(customerId);
+            if (customer == null) {
+              throw new IllegalStateException("Failed to find customer with id " + customerId);
+            }
           }
 
+          TransactionTimings.mark(TransactionPhase.LOOKUP);
+
           // Update warehouse and district year to data balance
           WarehouseData warehouse = warehouseStore.get(req.getWarehouseId());
           warehouse.setYearToDateBalance(warehouse.getYearToDateBalance() + req.getAmount());
@@ -98,7 +98,7 @@ public class MsPaymentService extends PaymentService {
           payment.setDate(LocalDateTime.now());
           payment.setAmount(req.getAmount());
           payment.setData(buildPaymentData(warehouse.getName(), district.getName()));
-          paymentStore.update(payment.getId(), payment);
+          dataLayout.insertPayment(customer, payment);
 
           PaymentResponse res = new PaymentResponse(req);
           res.setPaymentId(payment.getId());
@@ -1,13 +1,13 @@
 package de.uniba.dsg.wss.service;
 
+import de.uniba.dsg.wss.data.access.DistrictOrdersView;
+import de.uniba.dsg.wss.data.access.MsDataLayout;
 import de.uniba.dsg.wss.data.model.DistrictData;
 import de.uniba.dsg.wss.data.model.OrderData;
-import de.uniba.dsg.wss.data.model.OrderItemData;
 import de.uniba.dsg.wss.data.model.StockData;
 import de.uniba.dsg.wss.data.model.WarehouseData;
 import de.uniba.dsg.wss.data.transfer.messages.StockLevelRequest;
 import de.uniba.dsg.wss.data.transfer.messages.StockLevelResponse;
-import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.jacis.container.JacisContainer;
@@ -22,8 +22,8 @@ public class MsStockLevelService extends StockLevelService {
   private final JacisStore<String, WarehouseData> warehouseStore;
   private final JacisStore<String, DistrictData> districtStore;
   private final JacisStore<String, OrderData> orderStore;
-  private final JacisStore<String, OrderItemData> orderItemStore;
   private final JacisStore<String, StockData> stockStore;
+  private final MsDataLayout dataLayout;
 
   @Autowired
   public MsStockLevelService(
@@ -31,14 +31,14 @@ public class MsStockLevelService extends StockLevelService {
       JacisStore<String, WarehouseData> warehouseStore,
       JacisStore<String, DistrictData> districtStore,
       JacisStore<String, OrderData> orderStore,
-      JacisStore<String, OrderItemData> orderItemStore,
-      JacisStore<String, StockData> stockStore) {
+      JacisStore<String, StockData> stockStore,
+      MsDataLayout dataLayout) {
     this.container = container;
     this.warehouseStore = warehouseStore;
     this.districtStore = districtStore;
     this.orderStore = orderStore;
-    this.orderItemStore = orderItemStore;
     this.stockStore = stockStore;
+    this.dataLayout = dataLayout;
   }
 
   @Override
@@ -46,34 +46,23 @@ public class MsStockLevelService extends StockLevelService {
     // Fetch warehouse and district
     WarehouseData warehouse = warehouseStore.getReadOnly(req.getWarehouseId());
     DistrictData district = districtStore.getReadOnly(req.getDistrictId());
-    // Find the most 20 recent orders for the district
-    List<String> orderIds =
-        orderStore
-            .streamReadOnly(o -> o.getDistrictId().equals(district.getId()))
-            .parallel()
-            .sorted(Comparator.comparing(OrderData::getEntryDate))
-            .limit(20)
-            .map(OrderData::getId)
-            .collect(Collectors.toList());
-
-    // Find the corresponding stock objects and count the ones below the given threshold
+    // Find the 20 most recent orders of the district and the products ordered by them
     List<String> productIds =
-        orderItemStore
-            .streamReadOnly(i -> orderIds.contains(i.getOrderId()))
-            .parallel()
-            .map(OrderItemData::getProductId)
+        DistrictOrdersView.of(orderStore).getRecentOrderIds(district.getId(), 20).stream()
+            .flatMap(orderId -> dataLayout.getOrderedProductIds(orderId).stream())
             .distinct()
             .collect(Collectors.toList());
+
+    // Find the corresponding stock objects and count the ones below the given threshold
     int lowStockCount =
         (int)
-            stockStore
-                .streamReadOnly(s -> s.getWarehouseId().equals(warehouse.getId()))
-                .parallel()
-                .filter(
-                    s ->
-                        productIds.contains(s.getProductId())
-                            && s.getQuantity() < req.getStockThreshold())
+            productIds.stream()
+                .map(
+                    productId ->
+                        stockStore.getReadOnly(StockData.key(warehouse.getId(), productId)))
+                .filter(s -> s != null && s.getQuantity() < req.getStockThreshold())
                 .count();
+    TransactionTimings.mark(TransactionPhase.LOOKUP);
 
     StockLevelResponse res = new StockLevelResponse(req);
     res.setLowStocksCount(lowStockCount);
@@ -1,5 +1,6 @@
 package de.uniba.dsg.wss;
 
+import de.uniba.dsg.wss.data.access.MsDataLayout;
 import de.uniba.dsg.wss.data.gen.MsDataConverter;
 import de.uniba.dsg.wss.data.gen.MsDataWriter;
 import de.uniba.dsg.wss.data.gen.TestDataGenerator;
@@ -14,8 +15,10 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 public abstract class MicroStreamTest {
 
   @Autowired private MsDataWriter dataWriter;
+  @Autowired private MsDataLayout dataLayout;
 
   public void populateStorage() {
-    dataWriter.write(new MsDataConverter().convert(new TestDataGenerator().generate()));
+    dataWriter.write(
+        new MsDataConverter(dataLayout.isAggregated()).convert(new TestDataGenerator().generate()));
   }
 }
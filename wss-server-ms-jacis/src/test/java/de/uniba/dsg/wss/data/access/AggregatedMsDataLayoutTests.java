@@ -0,0 +1,115 @@
+package de.uniba.dsg.wss.data.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.uniba.dsg.wss.data.model.CustomerData;
+import de.uniba.dsg.wss.data.model.OrderData;
+import de.uniba.dsg.wss.data.model.OrderItemData;
+import de.uniba.dsg.wss.data.model.PaymentData;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.jacis.container.JacisContainer;
+import org.jacis.container.JacisObjectTypeSpec;
+import org.jacis.exception.ReadOnlyException;
+import org.jacis.plugin.txadapter.local.JacisLocalTransaction;
+import org.jacis.store.JacisStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AggregatedMsDataLayoutTests {
+
+  private JacisContainer container;
+  private JacisStore<String, OrderData> orderStore;
+  private JacisStore<String, CustomerData> customerStore;
+  private MsDataLayout dataLayout;
+
+  @BeforeEach
+  public void setUp() {
+    container = new JacisContainer();
+    orderStore =
+        container.createStore(new JacisObjectTypeSpec<>(String.class, OrderData.class)).getStore();
+    customerStore =
+        container
+            .createStore(new JacisObjectTypeSpec<>(String.class, CustomerData.class))
+            .getStore();
+    dataLayout = new AggregatedMsDataLayout(orderStore, customerStore);
+
+    container.withLocalTx(
+        () -> {
+          CustomerData customer = new CustomerData();
+          customer.setId("C0");
+          customerStore.update(customer.getId(), customer);
+
+          OrderData order = new OrderData();
+          order.setId("O0");
+          order.setCustomerId(customer.getId());
+          List<OrderItemData> items = new ArrayList<>();
+          for (int i = 0; i < 3; i++) {
+            OrderItemData item = new OrderItemData();
+            item.setOrderId(order.getId());
+            item.setNumber(i + 1);
+            item.setProductId("P" + i);
+            items.add(item);
+          }
+          dataLayout.insertOrder(order, items);
+        });
+  }
+
+  @Test
+  public void itemsAreStoredWithOrder() {
+    OrderData order = orderStore.getReadOnly("O0");
+    List<OrderItemData> items = dataLayout.getOrderItemsReadOnly(order);
+    assertEquals(3, items.size());
+    assertEquals(List.of("P0", "P1", "P2"), dataLayout.getOrderedProductIds("O0"));
+    assertEquals(List.of(), dataLayout.getOrderedProductIds("O1"));
+    assertThrows(ReadOnlyException.class, () -> items.get(0).setQuantity(1));
+  }
+
+  @Test
+  public void itemChangesAreCommittedWithOrder() {
+    LocalDateTime deliveryDate = LocalDateTime.now();
+    JacisLocalTransaction tx = container.beginLocalTransaction();
+    OrderData order = orderStore.get("O0");
+    List<OrderItemData> items = dataLayout.getOrderItems(order);
+    items.forEach(item -> item.setDeliveryDate(deliveryDate));
+    tx.rollback();
+
+    // the committed items must not be affected by changes to the copy of the order
+    for (OrderItemData item : orderStore.getReadOnly("O0").getItems()) {
+      assertNull(item.getDeliveryDate());
+    }
+
+    container.withLocalTx(
+        () -> {
+          OrderData writableOrder = orderStore.get("O0");
+          List<OrderItemData> writableItems = dataLayout.getOrderItems(writableOrder);
+          writableItems.forEach(item -> item.setDeliveryDate(deliveryDate));
+          dataLayout.updateOrder(writableOrder, writableItems);
+        });
+
+    for (OrderItemData item : orderStore.getReadOnly("O0").getItems()) {
+      assertEquals(deliveryDate, item.getDeliveryDate());
+    }
+  }
+
+  @Test
+  public void paymentsAreStoredWithCustomer() {
+    container.withLocalTx(
+        () -> {
+          CustomerData customer = customerStore.get("C0");
+          PaymentData payment = new PaymentData();
+          payment.setCustomerId(customer.getId());
+          payment.setAmount(10);
+          dataLayout.insertPayment(customer, payment);
+        });
+
+    CustomerData customer = customerStore.getReadOnly("C0");
+    assertEquals(1, customer.getPayments().size());
+    assertNotNull(customer.getPayments().get(0).getId());
+    assertThrows(ReadOnlyException.class, () -> customer.getPayments().get(0).setAmount(20));
+  }
+}
@@ -0,0 +1,159 @@
+package de.uniba.dsg.wss.data.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.uniba.dsg.wss.data.model.WarehouseData;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import one.microstream.persistence.types.Storer;
+import one.microstream.storage.embedded.types.EmbeddedStorage;
+import one.microstream.storage.embedded.types.EmbeddedStorageManager;
+import org.jacis.container.JacisContainer;
+import org.jacis.container.JacisObjectTypeSpec;
+import org.jacis.extension.persistence.microstream.MicrostreamPersistenceAdapter;
+import org.jacis.store.JacisStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AsyncMicrostreamStorageTests {
+
+  @TempDir Path storageDir;
+  private EmbeddedStorageManager storageManager;
+  private SimpleMeterRegistry meterRegistry;
+  private AsyncMicrostreamStorage storage;
+  private JacisContainer container;
+  private JacisStore<String, WarehouseData> warehouseStore;
+
+  private void start(boolean durable, Duration maxDelay) {
+    start(durable, maxDelay, () -> storageManager.createLazyStorer());
+  }
+
+  private void start(boolean durable, Duration maxDelay, Supplier<Storer> storers) {
+    storageManager = EmbeddedStorage.start(storageDir);
+    meterRegistry = new SimpleMeterRegistry();
+    container = new JacisContainer();
+    storage =
+        new AsyncMicrostreamStorage(
+            storageManager, storers, container, durable, maxDelay, meterRegistry);
+    JacisObjectTypeSpec<String, WarehouseData, WarehouseData> warehouseTypeSpec =
+        new JacisObjectTypeSpec<>(String.class, WarehouseData.class);
+    warehouseTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
+    warehouseStore = container.createStore(warehouseTypeSpec).getStore();
+  }
+
+  private void stop() {
+    storage.close();
+    storageManager.shutdown();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    stop();
+  }
+
+  private void updateBalance(String warehouseId, double balance) {
+    container.withLocalTx(
+        () -> {
+          WarehouseData warehouse = warehouseStore.get(warehouseId);
+          if (warehouse == null) {
+            warehouse = new WarehouseData();
+            warehouse.setId(warehouseId);
+          }
+          warehouse.setYearToDateBalance(balance);
+          warehouseStore.update(warehouseId, warehouse);
+        });
+  }
+
+  @Test
+  public void durableTransactionsAreStoredOnceAwaited() {
+    start(true, Duration.ofMillis(1));
+    for (int i = 1; i <= 5; i++) {
+      updateBalance("W0", i);
+      AsyncMicrostreamStorage.awaitCommit();
+      assertEquals(0, storage.getPendingCount());
+    }
+    assertEquals(5, meterRegistry.timer(AsyncMicrostreamStorage.METRIC_NAME + ".lag").count());
+
+    stop();
+    start(true, Duration.ofMillis(1));
+    assertEquals(5, warehouseStore.getReadOnly("W0").getYearToDateBalance());
+  }
+
+  @Test
+  public void relaxedTransactionsAreCoalesced() {
+    start(false, Duration.ofHours(1));
+    updateBalance("W0", 0);
+    updateBalance("W1", 0);
+    int pendingCount = storage.getPendingCount();
+    double coalescedCount =
+        meterRegistry.counter(AsyncMicrostreamStorage.METRIC_NAME + ".coalesced").count();
+    for (int i = 1; i <= 100; i++) {
+      updateBalance("W0", i);
+      updateBalance("W1", -i);
+      // returns immediately in relaxed mode
+      AsyncMicrostreamStorage.awaitCommit();
+    }
+    assertEquals(pendingCount, storage.getPendingCount());
+    assertEquals(
+        coalescedCount + 200,
+        meterRegistry.counter(AsyncMicrostreamStorage.METRIC_NAME + ".coalesced").count());
+
+    // closing the storage stores the pending objects
+    stop();
+    assertEquals(
+        1, meterRegistry.summary(AsyncMicrostreamStorage.METRIC_NAME + ".batch.size").count());
+    start(false, Duration.ofHours(1));
+    assertEquals(100, warehouseStore.getReadOnly("W0").getYearToDateBalance());
+    assertEquals(-100, warehouseStore.getReadOnly("W1").getYearToDateBalance());
+  }
+
+  @Test
+  public void failedStorageCommitIsRetried() throws InterruptedException {
+    AtomicInteger failingCommits = new AtomicInteger(1);
+    start(false, Duration.ofMillis(1), () -> failingStorer(failingCommits));
+    updateBalance("W0", 1);
+
+    // the lag is only recorded for successful storage commits
+    Timer lag = meterRegistry.timer(AsyncMicrostreamStorage.METRIC_NAME + ".lag");
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (lag.count() == 0) {
+      assertTrue(System.nanoTime() < deadline, "Objects have not been stored");
+      Thread.sleep(10);
+    }
+    assertEquals(
+        1, meterRegistry.counter(AsyncMicrostreamStorage.METRIC_NAME + ".failures").count());
+    assertEquals(0, storage.getPendingCount());
+
+    stop();
+    start(false, Duration.ofMillis(1));
+    assertEquals(1, warehouseStore.getReadOnly("W0").getYearToDateBalance());
+  }
+
+  // creates a storer whose commit fails as long as the given count is positive
+  private Storer failingStorer(AtomicInteger failingCommits) {
+    Storer storer = storageManager.createLazyStorer();
+    return (Storer)
+        Proxy.newProxyInstance(
+            Storer.class.getClassLoader(),
+            new Class<?>[] {Storer.class},
+            (proxy, method, args) -> {
+              if (method.getName().equals("commit") && failingCommits.getAndDecrement() > 0) {
+                throw new IllegalStateException("Disk full");
+              }
+              try {
+                return method.invoke(storer, args);
+              } catch (InvocationTargetException e) {
+                throw e.getCause();
+              }
+            });
+  }
+}
@@ -0,0 +1,169 @@
+package de.uniba.dsg.wss.data.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jacis.container.JacisContainer;
+import org.jacis.exception.JacisStaleObjectException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ContentionManagerTests {
+
+  private MeterRegistry meterRegistry;
+  private ContentionManager contentionManager;
+  private TransactionManager transactionManager;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    contentionManager =
+        new ContentionManager(
+            3,
+            Duration.ofNanos(1_000),
+            Duration.ofNanos(10_000),
+            true,
+            2,
+            4,
+            Duration.ofMillis(10),
+            meterRegistry);
+    transactionManager = new TransactionManager(new JacisContainer(), contentionManager);
+  }
+
+  @Test
+  public void backoffGrowsExponentiallyUpToMaxDelay() {
+    for (int i = 0; i < 100; i++) {
+      assertTrue(contentionManager.backoffNanos(1) <= 1_000);
+      assertTrue(contentionManager.backoffNanos(3) <= 4_000);
+      assertTrue(contentionManager.backoffNanos(64) <= 10_000);
+    }
+  }
+
+  @Test
+  public void conflictingTransactionIsRetried() {
+    AtomicInteger attempts = new AtomicInteger();
+    String result =
+        transactionManager.commit(
+            "payment",
+            "W1",
+            () -> {
+              if (attempts.incrementAndGet() < 3) {
+                throw new JacisStaleObjectException("conflict");
+              }
+              return "done";
+            });
+
+    assertEquals("done", result);
+    assertEquals(2, contentionManager.getConflicts("W1"));
+    assertEquals(2, count("conflicts", "payment"));
+    assertEquals(2, count("retries", "payment"));
+    assertEquals(0, count("aborts", "payment"));
+  }
+
+  @Test
+  public void transactionIsAbortedAfterMaxAttempts() {
+    assertThrows(
+        JacisStaleObjectException.class,
+        () ->
+            transactionManager.commit(
+                "delivery",
+                "W1",
+                () -> {
+                  throw new JacisStaleObjectException("conflict");
+                }));
+
+    assertEquals(3, count("conflicts", "delivery"));
+    assertEquals(2, count("retries", "delivery"));
+    assertEquals(1, count("aborts", "delivery"));
+  }
+
+  @Test
+  public void hotKeysAreSerializedUntilTheyCoolDown() {
+    contentionManager.onConflict("new-order", "W1", 1);
+    assertFalse(contentionManager.isHot("W1"));
+    contentionManager.onConflict("new-order", "W1", 1);
+    assertTrue(contentionManager.isHot("W1"));
+    assertFalse(contentionManager.isHot("W2"));
+
+    assertTrue(contentionManager.beforeAttempt("new-order", "W1"));
+    contentionManager.afterAttempt("W1");
+    assertFalse(contentionManager.beforeAttempt("new-order", "W2"));
+    assertEquals(1, count("serialized", "new-order"));
+
+    contentionManager.onCommit("W1");
+    assertFalse(contentionManager.isHot("W1"));
+    assertFalse(contentionManager.beforeAttempt("new-order", "W1"));
+  }
+
+  @Test
+  public void backoffOfConflictingTransactionDoesNotBlockHotKey() throws Exception {
+    long backoffNanos = TimeUnit.SECONDS.toNanos(2);
+    ContentionManager slowContentionManager =
+        new ContentionManager(
+            3,
+            Duration.ofNanos(backoffNanos),
+            Duration.ofNanos(backoffNanos),
+            true,
+            2,
+            4,
+            Duration.ofSeconds(10),
+            meterRegistry) {
+          @Override
+          long backoffNanos(int attempt) {
+            return backoffNanos;
+          }
+        };
+    // the last attempt is aborted without backing off
+    slowContentionManager.onConflict("new-order", "W1", 3);
+    slowContentionManager.onConflict("new-order", "W1", 3);
+    assertTrue(slowContentionManager.isHot("W1"));
+    TransactionManager slowTransactionManager =
+        new TransactionManager(new JacisContainer(), slowContentionManager);
+
+    CountDownLatch conflicted = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> conflicting =
+          executor.submit(
+              () ->
+                  slowTransactionManager.commit(
+                      "new-order",
+                      "W1",
+                      () -> {
+                        if (conflicted.getCount() > 0) {
+                          conflicted.countDown();
+                          throw new JacisStaleObjectException("conflict");
+                        }
+                      }));
+      assertTrue(conflicted.await(10, TimeUnit.SECONDS));
+
+      long start = System.nanoTime();
+      slowTransactionManager.commit("new-order", "W1", () -> {});
+      // serialized, but not waiting for the backoff of the conflicting transaction
+      assertTrue(System.nanoTime() - start < backoffNanos / 2);
+      assertEquals(2, count("serialized", "new-order"));
+      conflicting.get(10, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private double count(String metric, String transactionType) {
+    return meterRegistry
+        .get(ContentionManager.METRIC_NAME + "." + metric)
+        .tag("transaction", transactionType)
+        .counter()
+        .count();
+  }
+}
@@ -0,0 +1,81 @@
+package de.uniba.dsg.wss.data.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.uniba.dsg.wss.data.model.OrderData;
+import de.uniba.dsg.wss.data.model.OrderItemData;
+import java.util.List;
+import org.jacis.container.JacisContainer;
+import org.jacis.container.JacisObjectTypeSpec;
+import org.jacis.exception.ReadOnlyException;
+import org.jacis.extension.objectadapter.cloning.microstream.JacisMicrostreamCloningObjectAdapter;
+import org.jacis.plugin.objectadapter.cloning.AbstractJacisCloningObjectAdapter;
+import org.jacis.plugin.objectadapter.cloning.JacisCloningObjectAdapter;
+import org.jacis.store.JacisStore;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class ObjectAdapterTests {
+
+  private JacisContainer container;
+  private JacisStore<String, OrderData> orderStore;
+
+  private void setUp(String objectAdapter) {
+    AbstractJacisCloningObjectAdapter<OrderData> adapter =
+        objectAdapter.equals("microstream")
+            ? new JacisMicrostreamCloningObjectAdapter<>()
+            : new JacisCloningObjectAdapter<>();
+    adapter.setThrowIfMissingReadOnlyModeDetected(true);
+    container = new JacisContainer();
+    orderStore =
+        container
+            .createStore(new JacisObjectTypeSpec<>(String.class, OrderData.class, adapter))
+            .getStore();
+
+    OrderItemData item = new OrderItemData();
+    item.setOrderId("O0");
+    item.setNumber(1);
+    item.setProductId("P0");
+    OrderData order = new OrderData();
+    order.setId("O0");
+    order.setItems(List.of(item));
+    container.withLocalTx(() -> orderStore.update(order.getId(), order));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"cloneable", "microstream"})
+  public void readOnlyAccessReturnsCommittedInstance(String objectAdapter) {
+    setUp(objectAdapter);
+    OrderData order = orderStore.getReadOnly("O0");
+    assertSame(order, orderStore.getReadOnly("O0"));
+    assertSame(order, container.withLocalTx(() -> orderStore.getReadOnly("O0")));
+    assertThrows(ReadOnlyException.class, () -> order.setFulfilled(true));
+    assertThrows(ReadOnlyException.class, () -> order.getItems().get(0).setQuantity(5));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"cloneable", "microstream"})
+  public void writableAccessCopiesAggregate(String objectAdapter) {
+    setUp(objectAdapter);
+    OrderData committed = orderStore.getReadOnly("O0");
+    container.withLocalTx(
+        () -> {
+          OrderData order = orderStore.get("O0");
+          assertNotSame(committed, order);
+          assertNotSame(committed.getItems().get(0), order.getItems().get(0));
+          order.getItems().get(0).setQuantity(5);
+          order.setFulfilled(true);
+          orderStore.update(order.getId(), order);
+        });
+
+    OrderData order = orderStore.getReadOnly("O0");
+    assertTrue(order.isFulfilled());
+    assertEquals(5, order.getItems().get(0).getQuantity());
+    assertEquals(0, committed.getItems().get(0).getQuantity());
+    assertThrows(ReadOnlyException.class, () -> order.getItems().get(0).setQuantity(6));
+  }
+}
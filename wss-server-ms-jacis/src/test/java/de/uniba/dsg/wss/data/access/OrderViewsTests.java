@@ -0,0 +1,83 @@
+package de.uniba.dsg.wss.data.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.uniba.dsg.wss.data.model.OrderData;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.jacis.container.JacisContainer;
+import org.jacis.container.JacisObjectTypeSpec;
+import org.jacis.store.JacisStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class OrderViewsTests {
+
+  private JacisContainer container;
+  private JacisStore<String, OrderData> orderStore;
+
+  @BeforeEach
+  public void setUp() {
+    container = new JacisContainer();
+    JacisObjectTypeSpec<String, OrderData, OrderData> orderTypeSpec =
+        new JacisObjectTypeSpec<>(String.class, OrderData.class);
+    orderTypeSpec.setTrackOriginalValue(true);
+    orderStore = container.createStore(orderTypeSpec).getStore();
+    orderStore.getTrackedViewRegistry().registerTrackedView(new DistrictOrdersView());
+    orderStore.getTrackedViewRegistry().registerTrackedView(new CustomerOrdersView());
+
+    LocalDateTime now = LocalDateTime.now();
+    container.withLocalTx(
+        () -> {
+          for (int i = 0; i < 30; i++) {
+            OrderData order = new OrderData();
+            order.setId("O" + i);
+            order.setDistrictId(i % 2 == 0 ? "D0" : "D1");
+            order.setCustomerId(i < 3 ? "C" + i : "C0");
+            order.setEntryDate(now.minusMinutes(30 - i));
+            order.setFulfilled(i < 4);
+            orderStore.update(order.getId(), order);
+          }
+        });
+  }
+
+  @Test
+  public void districtOrdersViewTracksUnfulfilledOrders() {
+    DistrictOrdersView view = DistrictOrdersView.of(orderStore);
+    assertEquals(Optional.of("O4"), view.getOldestUnfulfilledOrderId("D0"));
+    assertEquals(Optional.of("O5"), view.getOldestUnfulfilledOrderId("D1"));
+    assertTrue(view.getOldestUnfulfilledOrderId("D2").isEmpty());
+
+    container.withLocalTx(
+        () -> {
+          OrderData order = orderStore.get("O4");
+          order.setFulfilled(true);
+          orderStore.update(order.getId(), order);
+        });
+
+    assertEquals(Optional.of("O6"), view.getOldestUnfulfilledOrderId("D0"));
+    assertEquals(List.of("O28", "O26", "O24"), view.getRecentOrderIds("D0", 3));
+    assertEquals(15, view.getRecentOrderIds("D1", 20).size());
+  }
+
+  @Test
+  public void customerOrdersViewTracksLatestOrder() {
+    CustomerOrdersView view = CustomerOrdersView.of(orderStore);
+    assertEquals(Optional.of("O29"), view.getLatestOrderId("C0"));
+    assertEquals(Optional.of("O2"), view.getLatestOrderId("C2"));
+
+    container.withLocalTx(() -> orderStore.remove("O29"));
+
+    assertEquals(Optional.of("O28"), view.getLatestOrderId("C0"));
+  }
+
+  @Test
+  public void viewsMatchStores() {
+    orderStore
+        .getTrackedViewRegistry()
+        .getAllViews()
+        .forEach(view -> view.checkView(orderStore.getAllReadOnly()));
+  }
+}
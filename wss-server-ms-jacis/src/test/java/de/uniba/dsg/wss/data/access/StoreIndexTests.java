@@ -0,0 +1,114 @@
+package de.uniba.dsg.wss.data.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.uniba.dsg.wss.data.model.CustomerData;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.jacis.container.JacisContainer;
+import org.jacis.container.JacisObjectTypeSpec;
+import org.jacis.store.JacisStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class StoreIndexTests {
+
+  private JacisContainer container;
+  private JacisStore<String, CustomerData> customerStore;
+  private StoreIndex<String, CustomerData, String> customersByDistrict;
+  private StoreIndex<String, CustomerData, String> customersByEmail;
+
+  @BeforeEach
+  public void setUp() {
+    container = new JacisContainer();
+    JacisObjectTypeSpec<String, CustomerData, CustomerData> customerTypeSpec =
+        new JacisObjectTypeSpec<>(String.class, CustomerData.class);
+    customerTypeSpec.setTrackOriginalValue(true);
+    customerStore = container.createStore(customerTypeSpec).getStore();
+
+    container.withLocalTx(
+        () -> {
+          for (int i = 0; i < 10; i++) {
+            CustomerData customer = new CustomerData();
+            customer.setId("C" + i);
+            customer.setDistrictId(i < 4 ? "D0" : "D1");
+            customer.setEmail("c" + i + "@example.com");
+            customerStore.update(customer.getId(), customer);
+          }
+        });
+
+    // registered after the initial load to check that indexes are populated from the store
+    customersByDistrict = MsIndexes.CUSTOMERS_BY_DISTRICT.register(customerStore);
+    customersByEmail = MsIndexes.CUSTOMERS_BY_EMAIL.register(customerStore);
+  }
+
+  @Test
+  public void lookupReturnsObjectsWithValue() {
+    assertEquals(Set.of("C0", "C1", "C2", "C3"), customersByDistrict.getKeys("D0"));
+    assertEquals(
+        Set.of("C0", "C1", "C2", "C3"),
+        customersByDistrict.getReadOnly("D0").stream()
+            .map(CustomerData::getId)
+            .collect(Collectors.toSet()));
+    assertTrue(customersByDistrict.getReadOnly("D2").isEmpty());
+    assertEquals("C5", customersByEmail.getUniqueReadOnly("c5@example.com").orElseThrow().getId());
+    assertTrue(customersByEmail.getUniqueReadOnly("c10@example.com").isEmpty());
+  }
+
+  @Test
+  public void committedChangesUpdateIndex() {
+    container.withLocalTx(
+        () -> {
+          CustomerData customer = customerStore.get("C0");
+          customer.setDistrictId("D2");
+          customerStore.update(customer.getId(), customer);
+          customerStore.remove("C1");
+        });
+
+    assertEquals(Set.of("C2", "C3"), customersByDistrict.getKeys("D0"));
+    assertEquals(Set.of("C0"), customersByDistrict.getKeys("D2"));
+    assertTrue(customersByEmail.getKeys("c1@example.com").isEmpty());
+  }
+
+  @Test
+  public void lookupSkipsObjectsModifiedInTransaction() {
+    container.withLocalTx(
+        () -> {
+          CustomerData customer = customerStore.get("C0");
+          customer.setDistrictId("D2");
+          customerStore.update(customer.getId(), customer);
+
+          assertEquals(3, customersByDistrict.get("D0").size());
+          // the index itself is only updated on commit
+          assertTrue(customersByDistrict.get("D2").isEmpty());
+        });
+  }
+
+  @Test
+  public void uniqueLookupRejectsDuplicates() {
+    container.withLocalTx(
+        () -> {
+          CustomerData customer = customerStore.get("C1");
+          customer.setEmail("c0@example.com");
+          customerStore.update(customer.getId(), customer);
+        });
+
+    assertThrows(
+        IllegalStateException.class, () -> customersByEmail.getUniqueReadOnly("c0@example.com"));
+  }
+
+  @Test
+  public void indexesMatchStoreAndAreCleared() {
+    customerStore
+        .getTrackedViewRegistry()
+        .getAllViews()
+        .forEach(view -> view.checkView(customerStore.getAllReadOnly()));
+
+    customerStore.clear();
+
+    assertTrue(customersByDistrict.getKeys("D0").isEmpty());
+    assertTrue(customersByEmail.getKeys("c0@example.com").isEmpty());
+  }
+}
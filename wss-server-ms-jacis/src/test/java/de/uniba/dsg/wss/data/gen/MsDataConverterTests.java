@@ -0,0 +1,43 @@
+package de.uniba.dsg.wss.data.gen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.uniba.dsg.wss.data.gen.model.Carrier;
+import de.uniba.dsg.wss.data.gen.model.Employee;
+import de.uniba.dsg.wss.data.gen.model.Product;
+import de.uniba.dsg.wss.data.gen.model.Warehouse;
+import de.uniba.dsg.wss.data.model.OrderData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MsDataConverterTests {
+
+  private DataModel<Product, Warehouse, Employee, Carrier> model;
+
+  @BeforeEach
+  public void setUp() {
+    model = new TestDataGenerator().generate();
+  }
+
+  @Test
+  public void aggregatedModelOwnsItemsAndPayments() {
+    MsDataModel normalized = new MsDataConverter().convert(model);
+    MsDataModel aggregated = new MsDataConverter(true).convert(model);
+
+    assertFalse(normalized.isAggregated());
+    assertTrue(aggregated.isAggregated());
+    assertTrue(aggregated.getOrderItems().isEmpty());
+    assertTrue(aggregated.getPayments().isEmpty());
+    assertEquals(
+        normalized.getOrderItems().size(),
+        aggregated.getOrders().stream().mapToInt(o -> o.getItems().size()).sum());
+    assertEquals(
+        normalized.getPayments().size(),
+        aggregated.getCustomers().stream().mapToInt(c -> c.getPayments().size()).sum());
+    for (OrderData order : aggregated.getOrders()) {
+      assertEquals(order.getItemCount(), order.getItems().size());
+    }
+  }
+}
@@ -1,5 +1,12 @@
 package de.uniba.dsg.wss.service;
 
+import de.uniba.dsg.wss.data.access.ContentionManager;
+import de.uniba.dsg.wss.data.access.CustomerOrdersView;
+import de.uniba.dsg.wss.data.access.DistrictOrdersView;
+import de.uniba.dsg.wss.data.access.MsDataLayout;
+import de.uniba.dsg.wss.data.access.MsIndexes;
+import de.uniba.dsg.wss.data.access.NormalizedMsDataLayout;
+import de.uniba.dsg.wss.data.access.TransactionManager;
 import de.uniba.dsg.wss.data.gen.MsDataWriter;
 import de.uniba.dsg.wss.data.model.CarrierData;
 import de.uniba.dsg.wss.data.model.CustomerData;
@@ -11,6 +18,8 @@ import de.uniba.dsg.wss.data.model.PaymentData;
 import de.uniba.dsg.wss.data.model.ProductData;
 import de.uniba.dsg.wss.data.model.StockData;
 import de.uniba.dsg.wss.data.model.WarehouseData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import one.microstream.afs.nio.types.NioFileSystem;
 import one.microstream.storage.embedded.types.EmbeddedStorageFoundation;
 import one.microstream.storage.embedded.types.EmbeddedStorageManager;
@@ -30,26 +39,26 @@ import org.springframework.context.annotation.Bean;
 public class MicroStreamTestConfiguration {
 
   @Bean
-  public EmbeddedStorageManager embeddedStorageManager() {
+  public EmbeddedStorageFoundation<?> embeddedStorageFoundation() {
     NioFileSystem fileSystem = NioFileSystem.New();
-    EmbeddedStorageFoundation<?> foundation =
-        EmbeddedStorageFoundation.New()
-            .setConfiguration(
-                StorageConfiguration.Builder()
-                    .setHousekeepingController(Storage.HousekeepingController(1_000, 1_000_000))
-                    .setDataFileEvaluator(
-                        Storage.DataFileEvaluator(1024 * 1024, 1024 * 1024 * 8, 0.75))
-                    .setEntityCacheEvaluator(
-                        Storage.EntityCacheEvaluator(86_400_000, 1_000_000_000))
-                    .setStorageFileProvider(
-                        Storage.FileProviderBuilder(fileSystem)
-                            .setDirectory(fileSystem.ensureDirectoryPath("test-storage"))
-                            .createFileProvider())
-                    .setChannelCountProvider(
-                        StorageChannelCountProvider.New(
-                            Integer.highestOneBit(Runtime.getRuntime().availableProcessors() - 1)))
-                    .createConfiguration());
+    return EmbeddedStorageFoundation.New()
+        .setConfiguration(
+            StorageConfiguration.Builder()
+                .setHousekeepingController(Storage.HousekeepingController(1_000, 1_000_000))
+                .setDataFileEvaluator(Storage.DataFileEvaluator(1024 * 1024, 1024 * 1024 * 8, 0.75))
+                .setEntityCacheEvaluator(Storage.EntityCacheEvaluator(86_400_000, 1_000_000_000))
+                .setStorageFileProvider(
+                    Storage.FileProviderBuilder(fileSystem)
+                        .setDirectory(fileSystem.ensureDirectoryPath("test-storage"))
+                        .createFileProvider())
+                .setChannelCountProvider(
+                    StorageChannelCountProvider.New(
+                        Integer.highestOneBit(Runtime.getRuntime().availableProcessors() - 1)))
+                .createConfiguration());
+  }
 
+  @Bean
+  public EmbeddedStorageManager embeddedStorageManager(EmbeddedStorageFoundation<?> foundation) {
     EmbeddedStorageManager storageManager = foundation.createEmbeddedStorageManager();
 
     storageManager.start();
@@ -69,6 +78,21 @@ public class MicroStreamTestConfiguration {
     return new JacisContainer();
   }
 
+  @Bean
+  public TransactionManager jacisTransactionManager(JacisContainer container) {
+    return new TransactionManager(
+        container,
+        new ContentionManager(
+            5,
+            Duration.ofMillis(1),
+            Duration.ofMillis(100),
+            false,
+            3,
+            8,
+            Duration.ofMillis(10),
+            new SimpleMeterRegistry()));
+  }
+
   @Bean
   public JacisStore<String, CarrierData> carrierStore(
       JacisContainer container, MicrostreamStorage storage) {
@@ -115,7 +139,9 @@ public class MicroStreamTestConfiguration {
         new JacisObjectTypeSpec<>(
             String.class, DistrictData.class, new JacisCloningObjectAdapter<>());
     districtTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
-    return container.createStore(districtTypeSpec).getStore();
+    JacisStore<String, DistrictData> store = container.createStore(districtTypeSpec).getStore();
+    MsIndexes.DISTRICTS_BY_WAREHOUSE.register(store);
+    return store;
   }
 
   @Bean
@@ -125,7 +151,10 @@ public class MicroStreamTestConfiguration {
         new JacisObjectTypeSpec<>(
             String.class, CustomerData.class, new JacisCloningObjectAdapter<>());
     customerTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
-    return container.createStore(customerTypeSpec).getStore();
+    JacisStore<String, CustomerData> store = container.createStore(customerTypeSpec).getStore();
+    MsIndexes.CUSTOMERS_BY_DISTRICT.register(store);
+    MsIndexes.CUSTOMERS_BY_EMAIL.register(store);
+    return store;
   }
 
   @Bean
@@ -134,7 +163,10 @@ public class MicroStreamTestConfiguration {
     JacisObjectTypeSpec<String, OrderData, OrderData> orderTypeSpec =
         new JacisObjectTypeSpec<>(String.class, OrderData.class, new JacisCloningObjectAdapter<>());
     orderTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
-    return container.createStore(orderTypeSpec).getStore();
+    JacisStore<String, OrderData> store = container.createStore(orderTypeSpec).getStore();
+    store.getTrackedViewRegistry().registerTrackedView(new DistrictOrdersView());
+    store.getTrackedViewRegistry().registerTrackedView(new CustomerOrdersView());
+    return store;
   }
 
   @Bean
@@ -144,7 +176,9 @@ public class MicroStreamTestConfiguration {
         new JacisObjectTypeSpec<>(
             String.class, OrderItemData.class, new JacisCloningObjectAdapter<>());
     orderItemTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
-    return container.createStore(orderItemTypeSpec).getStore();
+    JacisStore<String, OrderItemData> store = container.createStore(orderItemTypeSpec).getStore();
+    MsIndexes.ORDER_ITEMS_BY_ORDER.register(store);
+    return store;
   }
 
   @Bean
@@ -164,7 +198,17 @@ public class MicroStreamTestConfiguration {
         new JacisObjectTypeSpec<>(
             String.class, EmployeeData.class, new JacisCloningObjectAdapter<>());
     employeeTypeSpec.setPersistenceAdapter(new MicrostreamPersistenceAdapter<>(storage));
-    return container.createStore(employeeTypeSpec).getStore();
+    JacisStore<String, EmployeeData> store = container.createStore(employeeTypeSpec).getStore();
+    MsIndexes.EMPLOYEES_BY_USERNAME.register(store);
+    return store;
+  }
+
+  @Bean
+  public MsDataLayout dataLayout(
+      JacisStore<String, OrderData> orderStore,
+      JacisStore<String, OrderItemData> orderItemStore,
+      JacisStore<String, PaymentData> paymentStore) {
+    return new NormalizedMsDataLayout(orderStore, orderItemStore, paymentStore);
   }
 
   @Bean
@@ -179,7 +223,8 @@ public class MicroStreamTestConfiguration {
       JacisStore<String, CustomerData> customerStore,
       JacisStore<String, OrderData> orderStore,
       JacisStore<String, OrderItemData> orderItemStore,
-      JacisStore<String, PaymentData> paymentStore) {
+      JacisStore<String, PaymentData> paymentStore,
+      MsDataLayout dataLayout) {
     return new MsDataWriter(
         container,
         carrierStore,
@@ -191,6 +236,7 @@ public class MicroStreamTestConfiguration {
         customerStore,
         orderStore,
         orderItemStore,
-        paymentStore);
+        paymentStore,
+        dataLayout);
   }
 }
@@ -6,6 +6,8 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import de.uniba.dsg.wss.MicroStreamTest;
+import de.uniba.dsg.wss.data.access.MsDataLayout;
+import de.uniba.dsg.wss.data.access.TransactionManager;
 import de.uniba.dsg.wss.data.model.CarrierData;
 import de.uniba.dsg.wss.data.model.CustomerData;
 import de.uniba.dsg.wss.data.model.DistrictData;
@@ -28,6 +30,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 class MsDeliveryServiceIntegrationTests extends MicroStreamTest {
 
   @Autowired private JacisContainer container;
+  @Autowired private TransactionManager transactionManager;
+  @Autowired private MsDataLayout dataLayout;
   @Autowired private JacisStore<String, WarehouseData> warehouseStore;
   @Autowired private JacisStore<String, DistrictData> districtStore;
   @Autowired private JacisStore<String, CustomerData> customerStore;
@@ -71,13 +75,13 @@ class MsDeliveryServiceIntegrationTests extends MicroStreamTest {
     tx.commit();
     deliveryService =
         new MsDeliveryService(
-            container,
+            transactionManager,
             warehouseStore,
             districtStore,
             customerStore,
             orderStore,
-            orderItemStore,
-            carrierStore);
+            carrierStore,
+            dataLayout);
   }
 
   @Test
@@ -3,10 +3,11 @@ package de.uniba.dsg.wss.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import de.uniba.dsg.wss.MicroStreamTest;
+import de.uniba.dsg.wss.data.access.MsDataLayout;
+import de.uniba.dsg.wss.data.access.TransactionManager;
 import de.uniba.dsg.wss.data.model.CustomerData;
 import de.uniba.dsg.wss.data.model.DistrictData;
 import de.uniba.dsg.wss.data.model.OrderData;
-import de.uniba.dsg.wss.data.model.OrderItemData;
 import de.uniba.dsg.wss.data.model.ProductData;
 import de.uniba.dsg.wss.data.model.StockData;
 import de.uniba.dsg.wss.data.model.WarehouseData;
@@ -27,13 +28,14 @@ import org.springframework.boot.test.context.SpringBootTest;
 public class MsNewOrderServiceIntegrationTests extends MicroStreamTest {
 
   @Autowired private JacisContainer container;
+  @Autowired private TransactionManager transactionManager;
+  @Autowired private MsDataLayout dataLayout;
   @Autowired private JacisStore<String, ProductData> productStore;
   @Autowired private JacisStore<String, WarehouseData> warehouseStore;
   @Autowired private JacisStore<String, StockData> stockStore;
   @Autowired private JacisStore<String, DistrictData> districtStore;
   @Autowired private JacisStore<String, CustomerData> customerStore;
   @Autowired private JacisStore<String, OrderData> orderStore;
-  @Autowired private JacisStore<String, OrderItemData> orderItemStore;
   private MsNewOrderService newOrderService;
   private NewOrderRequest request;
   private String warehouseId;
@@ -104,14 +106,13 @@ public class MsNewOrderServiceIntegrationTests extends MicroStreamTest {
 
     newOrderService =
         new MsNewOrderService(
-            container,
+            transactionManager,
             warehouseStore,
             districtStore,
             stockStore,
             customerStore,
-            orderStore,
-            orderItemStore,
-            productStore);
+            productStore,
+            dataLayout);
   }
 
   @Test
@@ -150,6 +151,18 @@ public class MsNewOrderServiceIntegrationTests extends MicroStreamTest {
     assertEquals(total, res.getTotalAmount());
   }
 
+  @Test
+  public void processingUpdatesStock() {
+    StockData stock = stockStore.getReadOnly(StockData.key("W0", "P0"));
+
+    NewOrderResponse res = newOrderService.process(request);
+
+    StockData updatedStock = stockStore.getReadOnly(StockData.key("W0", "P0"));
+    assertEquals(res.getOrderItems().get(0).getStockQuantity(), updatedStock.getQuantity());
+    assertEquals(stock.getOrderCount() + 1, updatedStock.getOrderCount());
+    assertEquals(stock.getYearToDateBalance() + 5, updatedStock.getYearToDateBalance());
+  }
+
   @AfterEach
   public void tearDown() {
     container.clearAllStores();
@@ -4,10 +4,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import de.uniba.dsg.wss.MicroStreamTest;
+import de.uniba.dsg.wss.data.access.MsDataLayout;
 import de.uniba.dsg.wss.data.model.CustomerData;
 import de.uniba.dsg.wss.data.model.DistrictData;
 import de.uniba.dsg.wss.data.model.OrderData;
-import de.uniba.dsg.wss.data.model.OrderItemData;
 import de.uniba.dsg.wss.data.model.WarehouseData;
 import de.uniba.dsg.wss.data.transfer.messages.OrderStatusRequest;
 import de.uniba.dsg.wss.data.transfer.messages.OrderStatusResponse;
@@ -25,11 +25,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 public class MsOrderStatusIntegrationTests extends MicroStreamTest {
 
   @Autowired private JacisContainer container;
+  @Autowired private MsDataLayout dataLayout;
   @Autowired private JacisStore<String, WarehouseData> warehouseStore;
   @Autowired private JacisStore<String, DistrictData> districtStore;
   @Autowired private JacisStore<String, CustomerData> customerStore;
   @Autowired private JacisStore<String, OrderData> orderStore;
-  @Autowired private JacisStore<String, OrderItemData> orderItemStore;
 
   private MsOrderStatusService orderStatusService;
   private OrderStatusRequest request;
@@ -86,7 +86,7 @@ public class MsOrderStatusIntegrationTests extends MicroStreamTest {
 
     orderStatusService =
         new MsOrderStatusService(
-            container, warehouseStore, districtStore, customerStore, orderStore, orderItemStore);
+            container, warehouseStore, districtStore, customerStore, orderStore, dataLayout);
   }
 
   @Test
@@ -5,6 +5,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import de.uniba.dsg.wss.MicroStreamTest;
+import de.uniba.dsg.wss.data.access.MsDataLayout;
+import de.uniba.dsg.wss.data.access.TransactionManager;
 import de.uniba.dsg.wss.data.model.CustomerData;
 import de.uniba.dsg.wss.data.model.DistrictData;
 import de.uniba.dsg.wss.data.model.PaymentData;
@@ -24,6 +26,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 public class MsPaymentIntegrationTests extends MicroStreamTest {
 
   @Autowired private JacisContainer container;
+  @Autowired private TransactionManager transactionManager;
+  @Autowired private MsDataLayout dataLayout;
   @Autowired private JacisStore<String, WarehouseData> warehouseStore;
   @Autowired private JacisStore<String, DistrictData> districtStore;
   @Autowired private JacisStore<String, CustomerData> customerStore;
@@ -84,7 +88,8 @@ public class MsPaymentIntegrationTests extends MicroStreamTest {
     request.setAmount(500);
 
     paymentService =
-        new MsPaymentService(container, warehouseStore, districtStore, customerStore, paymentStore);
+        new MsPaymentService(
+            transactionManager, warehouseStore, districtStore, customerStore, dataLayout);
   }
 
   @Test
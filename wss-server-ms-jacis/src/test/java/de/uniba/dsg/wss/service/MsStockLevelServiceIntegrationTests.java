@@ -3,6 +3,7 @@ package de.uniba.dsg.wss.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import de.uniba.dsg.wss.MicroStreamTest;
+import de.uniba.dsg.wss.data.access.MsDataLayout;
 import de.uniba.dsg.wss.data.model.DistrictData;
 import de.uniba.dsg.wss.data.model.OrderData;
 import de.uniba.dsg.wss.data.model.OrderItemData;
@@ -26,6 +27,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 public class MsStockLevelServiceIntegrationTests extends MicroStreamTest {
 
   @Autowired private JacisContainer container;
+  @Autowired private MsDataLayout dataLayout;
   @Autowired private JacisStore<String, WarehouseData> warehouseStore;
   @Autowired private JacisStore<String, StockData> stockStore;
   @Autowired private JacisStore<String, DistrictData> districtStore;
@@ -75,7 +77,7 @@ public class MsStockLevelServiceIntegrationTests extends MicroStreamTest {
 
     stockLevelService =
         new MsStockLevelService(
-            container, warehouseStore, districtStore, orderStore, orderItemStore, stockStore);
+            container, warehouseStore, districtStore, orderStore, stockStore, dataLayout);
   }
 
   @Test
@@ -0,0 +1,55 @@
+package de.uniba.dsg.wss.benchmark;
+
+import de.uniba.dsg.wss.MsNativeConfiguration;
+import de.uniba.dsg.wss.data.gen.DataModel;
+import de.uniba.dsg.wss.data.gen.MsDataConverter;
+import de.uniba.dsg.wss.data.gen.MsDataWriter;
+import de.uniba.dsg.wss.data.gen.model.Carrier;
+import de.uniba.dsg.wss.data.gen.model.Employee;
+import de.uniba.dsg.wss.data.gen.model.Product;
+import de.uniba.dsg.wss.data.gen.model.Warehouse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Map;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Benchmarks the transaction services of the MicroStream-based implementation, which relies on
+ * synchronization for ensuring data consistency.
+ *
+ * @author Benedikt Full
+ */
+public class MsTransactionServiceBenchmark extends TransactionServiceBenchmark {
+
+  @Override
+  protected Class<?> getConfigurationClass() {
+    return BenchmarkConfiguration.class;
+  }
+
+  @Override
+  protected Map<String, Object> getProperties() {
+    try {
+      return Map.of(
+          "wss.ms.storage.dir",
+          Files.createTempDirectory("wss-ms-sync-benchmark").toAbsolutePath().toString());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  protected void writeModel(
+      ConfigurableApplicationContext context,
+      DataModel<Product, Warehouse, Employee, Carrier> model) {
+    context.getBean(MsDataWriter.class).write(new MsDataConverter().convert(model));
+  }
+
+  @Configuration
+  @Import(MsNativeConfiguration.class)
+  @ComponentScan(basePackages = {"de.uniba.dsg.wss.data", "de.uniba.dsg.wss.service"})
+  static class BenchmarkConfiguration {}
+}
@@ -1,8 +1,13 @@
 package de.uniba.dsg.wss;
 
 import de.uniba.dsg.wss.commons.Stopwatch;
+import de.uniba.dsg.wss.data.access.GroupCommitter;
+import de.uniba.dsg.wss.data.access.MsBatchWriter;
 import de.uniba.dsg.wss.data.model.MsDataRoot;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import one.microstream.afs.nio.types.NioFileSystem;
+import one.microstream.persistence.types.Storer;
 import one.microstream.storage.embedded.types.EmbeddedStorageFoundation;
 import one.microstream.storage.embedded.types.EmbeddedStorageManager;
 import one.microstream.storage.types.Storage;
@@ -41,28 +46,28 @@ public class MsNativeConfiguration {
   }
 
   @Bean
-  public EmbeddedStorageManager embeddedStorageManager() {
+  public EmbeddedStorageFoundation<?> embeddedStorageFoundation() {
     NioFileSystem fileSystem = NioFileSystem.New();
-    EmbeddedStorageFoundation<?> foundation =
-        EmbeddedStorageFoundation.New()
-            .setConfiguration(
-                StorageConfiguration.Builder()
-                    .setHousekeepingController(Storage.HousekeepingController(1_000, 10_000_000))
-                    .setDataFileEvaluator(
-                        Storage.DataFileEvaluator(1024 * 1024, 1024 * 1024 * 8, 0.75))
-                    .setEntityCacheEvaluator(
-                        Storage.EntityCacheEvaluator(86_400_000, 1_000_000_000))
-                    .setStorageFileProvider(
-                        Storage.FileProviderBuilder(fileSystem)
-                            .setDirectory(
-                                fileSystem.ensureDirectoryPath(
-                                    environment.getRequiredProperty("wss.ms.storage.dir")))
-                            .createFileProvider())
-                    .setChannelCountProvider(
-                        StorageChannelCountProvider.New(
-                            Integer.highestOneBit(Runtime.getRuntime().availableProcessors() - 1)))
-                    .createConfiguration());
+    return EmbeddedStorageFoundation.New()
+        .setConfiguration(
+            StorageConfiguration.Builder()
+                .setHousekeepingController(Storage.HousekeepingController(1_000, 10_000_000))
+                .setDataFileEvaluator(Storage.DataFileEvaluator(1024 * 1024, 1024 * 1024 * 8, 0.75))
+                .setEntityCacheEvaluator(Storage.EntityCacheEvaluator(86_400_000, 1_000_000_000))
+                .setStorageFileProvider(
+                    Storage.FileProviderBuilder(fileSystem)
+                        .setDirectory(
+                            fileSystem.ensureDirectoryPath(
+                                environment.getRequiredProperty("wss.ms.storage.dir")))
+                        .createFileProvider())
+                .setChannelCountProvider(
+                    StorageChannelCountProvider.New(
+                        Integer.highestOneBit(Runtime.getRuntime().availableProcessors() - 1)))
+                .createConfiguration());
+  }
 
+  @Bean
+  public EmbeddedStorageManager embeddedStorageManager(EmbeddedStorageFoundation<?> foundation) {
     EmbeddedStorageManager storageManager = foundation.createEmbeddedStorageManager();
 
     Stopwatch stopwatch = new Stopwatch(true);
@@ -72,4 +77,22 @@ public class MsNativeConfiguration {
 
     return storageManager;
   }
+
+  @Bean
+  public GroupCommitter<Storer> groupCommitter(
+      EmbeddedStorageManager storageManager,
+      EmbeddedStorageFoundation<?> foundation,
+      MeterRegistry meterRegistry) {
+    boolean enabled = environment.getProperty("wss.ms.group-commit.enabled", Boolean.class, false);
+    int maxBatchSize =
+        environment.getProperty("wss.ms.group-commit.max-batch-size", Integer.class, 64);
+    return new GroupCommitter<>(
+        "ms-sync",
+        new MsBatchWriter(storageManager, foundation),
+        enabled ? maxBatchSize : 1,
+        Duration.ofNanos(
+            1_000 * environment.getProperty("wss.ms.group-commit.max-delay", Long.class, 500L)),
+        environment.getProperty("wss.ms.group-commit.queue-capacity", Integer.class, 1_024),
+        meterRegistry);
+  }
 }
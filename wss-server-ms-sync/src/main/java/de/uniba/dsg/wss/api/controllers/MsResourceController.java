@@ -1,7 +1,6 @@
 package de.uniba.dsg.wss.api.controllers;
 
 import de.uniba.dsg.wss.data.model.DistrictData;
-import de.uniba.dsg.wss.data.model.EmployeeData;
 import de.uniba.dsg.wss.data.model.MsDataRoot;
 import de.uniba.dsg.wss.data.model.WarehouseData;
 import de.uniba.dsg.wss.data.transfer.representations.CarrierRepresentation;
@@ -49,11 +48,10 @@ public class MsResourceController implements ResourceController {
 
   @Override
   public ResponseEntity<EmployeeRepresentation> getEmployee(String username) {
-    EmployeeData employee = dataRoot.getEmployees().get(username);
-    if (employee == null) {
-      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
-    }
-    return ResponseEntity.ok(modelMapper.map(employee, EmployeeRepresentation.class));
+    return dataRoot
+        .findEmployeeByUsername(username)
+        .map(employee -> ResponseEntity.ok(modelMapper.map(employee, EmployeeRepresentation.class)))
+        .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
   }
 
   @Override
@@ -26,12 +26,10 @@ public class MsEmployeeUserDetailsService extends EmployeeUserDetailsService {
   @Override
   public EmployeeUserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
     EmployeeData employee =
-        dataRoot.getEmployees().entrySet().parallelStream()
-            .filter(e -> e.getValue().getUsername().equals(username))
-            .findAny()
+        dataRoot
+            .findEmployeeByUsername(username)
             .orElseThrow(
-                () -> new UsernameNotFoundException("Unable to find user with name " + username))
-            .getValue();
+                () -> new UsernameNotFoundException("Unable to find user with name " + username));
     return createUserDetails(employee.getUsername(), employee.getPassword(), employee.getRole());
   }
 }
@@ -11,9 +11,16 @@ import de.uniba.dsg.wss.data.model.StockData;
 import de.uniba.dsg.wss.data.model.WarehouseData;
 import de.uniba.dsg.wss.service.MsTransactionException;
 import de.uniba.dsg.wss.service.StockUpdateDto;
+import de.uniba.dsg.wss.service.TransactionPhase;
+import de.uniba.dsg.wss.service.TransactionTimings;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import one.microstream.storage.types.StorageManager;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -21,78 +28,242 @@ import org.springframework.stereotype.Component;
  * Handles all concurrent accesses from any of the services. All lock objects and their usage is
  * included here.
  *
+ * <p>The stock of new orders is reserved without acquiring any lock (see {@link StockData}), which
+ * is why neither concurrent new orders nor stock-level transactions wait for each other. The shared
+ * lock only protects the insertion of orders, and the updates of payments and deliveries.
+ *
+ * <p>If {@link WarehousePartitions partitioned execution} is enabled, the modifications are
+ * executed by the threads of the affected warehouse partitions instead of acquiring the shared
+ * locks. Transactions are routed to their partitions here rather than in the controllers, since the
+ * controllers are shared by all implementations. As the thread of a partition is the only writer of
+ * its customers and orders, the customer and order monitors are not held across their updates
+ * either. New orders with remote supply lines first reserve the stock in every supplying partition,
+ * and are only stored by the partition of the ordering warehouse if all reservations succeeded.
+ * Otherwise, the successful reservations are released again.
+ *
+ * <p>Each transaction records the objects it modified in a {@link UnitOfWork}, and stores only
+ * these objects instead of the whole data root. The order maps of the data root and of the
+ * districts are transient, since storing them would require writing all of their entries. New
+ * orders are stored via the order maps of their customers and the order queues of their district,
+ * from which the transient maps are rebuilt after loading (see {@link
+ * MsDataRoot#rebuildIndexes()}).
+ *
+ * <p>The recorded objects are handed to a {@link GroupCommitter}, which may combine them with the
+ * objects of concurrent transactions into a single storage commit. Transactions only wait for their
+ * commit after having released their locks, or after their partition tasks have completed, so that
+ * other transactions are not blocked while a batch is being written.
+ *
  * @author Johannes Manner
  * @author Benedikt Full
  */
 @Component
 public class DataConsistencyManager {
 
-  // low level synchronization here - one lock for updating the overall order
-  private final Object stockLock;
-  private final StorageManager storageManger;
+  // not the storage manager itself, since MicroStream synchronizes on it when creating storers
+  private final Object lock = new Object();
   private final MsDataRoot dataRoot;
+  private final WarehousePartitions partitions;
+  private final GroupCommitter<?> committer;
 
   @Autowired
-  public DataConsistencyManager(StorageManager storageManager, MsDataRoot dataRoot) {
-    stockLock = new Object();
-    this.storageManger = storageManager;
+  public DataConsistencyManager(
+      MsDataRoot dataRoot, WarehousePartitions partitions, GroupCommitter<?> committer) {
     this.dataRoot = dataRoot;
+    this.partitions = partitions;
+    this.committer = committer;
   }
 
-  private List<OrderItemData> updateStock(OrderData order, List<StockUpdateDto> stockUpdates) {
-    synchronized (stockLock) {
-      List<OrderItemData> orderItemList = new ArrayList<>();
-      int i = 0;
-      for (i = 0; i < stockUpdates.size(); i++) {
-        // update all the items, if an update fails, compensate the changes
-        StockUpdateDto stockUpdate = stockUpdates.get(i);
-        if (!stockUpdate.getStockData().reduceQuantity(stockUpdate.getQuantity())) {
-          break;
-        } else {
-          OrderItemData orderItem =
-              new OrderItemData(
-                  order,
-                  stockUpdate.getStockData().getProductRef(),
-                  stockUpdate.getStockData().getWarehouseRef(),
-                  i,
-                  stockUpdate.getQuantity(),
-                  stockUpdate.getStockData().getQuantity(),
-                  stockUpdate.getQuantity() * stockUpdate.getStockData().getProductRef().getPrice(),
-                  stockUpdate.getStockData().getDist01());
-          orderItemList.add(orderItem);
-        }
+  /**
+   * Reduces the stock of the given order lines and creates the respective order items. If an update
+   * fails, the previous updates are compensated. Stocks are updated lock-free (see {@link
+   * StockData}), so concurrent orders never wait for each other here, and a concurrent order may
+   * observe the reservations of a later compensated order.
+   *
+   * @return {@code true} if the stock of all lines has been reduced, {@code false} otherwise
+   */
+  private boolean reserveStock(
+      OrderData order,
+      List<StockUpdateDto> stockUpdates,
+      List<Integer> lines,
+      OrderItemData[] orderItems,
+      UnitOfWork unitOfWork) {
+    int i = 0;
+    for (i = 0; i < lines.size(); i++) {
+      // update all the items, if an update fails, compensate the changes
+      int line = lines.get(i);
+      StockUpdateDto stockUpdate = stockUpdates.get(line);
+      int remainingQuantity = stockUpdate.getStockData().reduceQuantity(stockUpdate.getQuantity());
+      if (remainingQuantity < 0) {
+        break;
+      } else {
+        unitOfWork.modified(stockUpdate.getStockData());
+        orderItems[line] =
+            new OrderItemData(
+                order,
+                stockUpdate.getStockData().getProductRef(),
+                stockUpdate.getStockData().getWarehouseRef(),
+                line,
+                stockUpdate.getQuantity(),
+                remainingQuantity,
+                stockUpdate.getQuantity() * stockUpdate.getStockData().getProductRef().getPrice(),
+                stockUpdate.getStockData().getDist01());
       }
+    }
 
-      // compensate the first transactions, if some updates fail
-      if (i != stockUpdates.size()) {
-        for (int j = 0; j < i; j++) {
-          StockUpdateDto stockUpdate = stockUpdates.get(j);
-          stockUpdate.getStockData().undoReduceQuantityOperation(stockUpdate.getQuantity());
-        }
-        return List.of();
-      }
-      return orderItemList;
+    // compensate the first transactions, if some updates fail
+    if (i != lines.size()) {
+      // the stock of the failed line has been increased, so that the order can be retried
+      unitOfWork.modified(stockUpdates.get(lines.get(i)).getStockData());
+      releaseStock(stockUpdates, lines.subList(0, i), unitOfWork);
+      return false;
+    }
+    return true;
+  }
+
+  private void releaseStock(
+      List<StockUpdateDto> stockUpdates, List<Integer> lines, UnitOfWork unitOfWork) {
+    for (int line : lines) {
+      StockUpdateDto stockUpdate = stockUpdates.get(line);
+      stockUpdate.getStockData().undoReduceQuantityOperation(stockUpdate.getQuantity());
+      unitOfWork.modified(stockUpdate.getStockData());
     }
   }
 
+  private OrderData insertOrder(
+      OrderData order, OrderItemData[] orderItems, UnitOfWork unitOfWork) {
+    order.getItems().addAll(Arrays.asList(orderItems));
+
+    dataRoot.getOrders().put(order.getId(), order);
+
+    // referential integrity (customer and district)
+    Object[] orderQueueObjects = order.getDistrictRef().addOrder(order);
+    order.getCustomerRef().getOrderRefs().put(order.getId(), order);
+    order.getCustomerRef().updateLatestOrder(order);
+    // the new order and its items are stored along with the order map of the customer
+    unitOfWork
+        .modified(order.getCustomerRef(), order.getCustomerRef().getOrderRefs())
+        .modified(orderQueueObjects);
+
+    persist(unitOfWork);
+    return order;
+  }
+
   public OrderData storeOrder(OrderData order, List<StockUpdateDto> stockUpdates)
       throws MsTransactionException {
-    synchronized (storageManger) {
-      List<OrderItemData> itemList = updateStock(order, stockUpdates);
-      if (itemList.isEmpty()) {
+    if (stockUpdates.isEmpty()) {
+      throw new MsTransactionException("Order item update failed");
+    }
+    if (partitions.isEnabled()) {
+      return storeOrderInPartitions(order, stockUpdates);
+    }
+    TransactionTimings.mark(TransactionPhase.MUTATE);
+    UnitOfWork unitOfWork = new UnitOfWork();
+    try {
+      OrderItemData[] orderItems = new OrderItemData[stockUpdates.size()];
+      List<Integer> lines =
+          IntStream.range(0, stockUpdates.size()).boxed().collect(Collectors.toList());
+      // all lines are reserved or rolled back without holding any shared lock
+      if (!reserveStock(order, stockUpdates, lines, orderItems, unitOfWork)) {
+        persist(unitOfWork);
         throw new MsTransactionException("Order item update failed");
       }
-      order.getItems().addAll(itemList);
+      synchronized (lock) {
+        TransactionTimings.mark(TransactionPhase.LOCK_WAIT);
+        return insertOrder(order, orderItems, unitOfWork);
+      }
+    } finally {
+      awaitCommit(unitOfWork);
+    }
+  }
 
-      dataRoot.getOrders().put(order.getId(), order);
+  private OrderData storeOrderInPartitions(OrderData order, List<StockUpdateDto> stockUpdates) {
+    String warehouseId = order.getDistrictRef().getWarehouse().getId();
+    OrderItemData[] orderItems = new OrderItemData[stockUpdates.size()];
+    Map<String, List<Integer>> linesBySupplyingWarehouse = new LinkedHashMap<>();
+    for (int i = 0; i < stockUpdates.size(); i++) {
+      linesBySupplyingWarehouse
+          .computeIfAbsent(
+              stockUpdates.get(i).getStockData().getWarehouseRef().getId(), id -> new ArrayList<>())
+          .add(i);
+    }
+
+    // single-partition order, no coordination required
+    if (linesBySupplyingWarehouse.size() == 1
+        && linesBySupplyingWarehouse.containsKey(warehouseId)) {
+      UnitOfWork unitOfWork = new UnitOfWork();
+      try {
+        return partitions.execute(
+            warehouseId,
+            () -> {
+              if (!reserveStock(
+                  order,
+                  stockUpdates,
+                  linesBySupplyingWarehouse.get(warehouseId),
+                  orderItems,
+                  unitOfWork)) {
+                persist(unitOfWork);
+                throw new MsTransactionException("Order item update failed");
+              }
+              return insertOrder(order, orderItems, unitOfWork);
+            });
+      } finally {
+        awaitCommit(unitOfWork);
+      }
+    }
 
-      // referential integrity (customer and district)
-      order.getDistrictRef().getOrders().put(order.getId(), order);
-      order.getCustomerRef().getOrderRefs().put(order.getId(), order);
+    // one unit of work per partition, as the partitions are updated concurrently
+    Map<String, UnitOfWork> unitsOfWork = new LinkedHashMap<>();
+    linesBySupplyingWarehouse.keySet().forEach(id -> unitsOfWork.put(id, new UnitOfWork()));
+    unitsOfWork.putIfAbsent(warehouseId, new UnitOfWork());
+    try {
+      // phase one: reserve the stock in all supplying partitions
+      Map<String, CompletableFuture<Boolean>> reservations = new LinkedHashMap<>();
+      linesBySupplyingWarehouse.forEach(
+          (supplyingWarehouseId, lines) ->
+              reservations.put(
+                  supplyingWarehouseId,
+                  partitions.submit(
+                      supplyingWarehouseId,
+                      () -> {
+                        UnitOfWork unitOfWork = unitsOfWork.get(supplyingWarehouseId);
+                        boolean reservedInPartition =
+                            reserveStock(order, stockUpdates, lines, orderItems, unitOfWork);
+                        persist(unitOfWork);
+                        return reservedInPartition;
+                      })));
+      boolean reserved = true;
+      for (CompletableFuture<Boolean> reservation : reservations.values()) {
+        reserved &= WarehousePartitions.join(reservation);
+      }
+      TransactionTimings.mark(TransactionPhase.LOCK_WAIT);
 
-      // A single store is faster as making a store for each object separately
-      storageManger.storeRoot();
-      return order;
+      // phase two: either store the order in the ordering partition or release the reservations
+      if (!reserved) {
+        List<CompletableFuture<Void>> releases = new ArrayList<>();
+        reservations.forEach(
+            (supplyingWarehouseId, reservation) -> {
+              if (reservation.join()) {
+                releases.add(
+                    partitions.submit(
+                        supplyingWarehouseId,
+                        () -> {
+                          UnitOfWork unitOfWork = unitsOfWork.get(supplyingWarehouseId);
+                          releaseStock(
+                              stockUpdates,
+                              linesBySupplyingWarehouse.get(supplyingWarehouseId),
+                              unitOfWork);
+                          persist(unitOfWork);
+                          return null;
+                        }));
+              }
+            });
+        releases.forEach(WarehousePartitions::join);
+        throw new MsTransactionException("Order item update failed");
+      }
+      return partitions.execute(
+          warehouseId, () -> insertOrder(order, orderItems, unitsOfWork.get(warehouseId)));
+    } finally {
+      unitsOfWork.values().forEach(this::awaitCommit);
     }
   }
 
@@ -101,71 +272,210 @@ public class DataConsistencyManager {
       DistrictData districtData,
       CustomerData customer,
       PaymentData payment) {
-    double amount = payment.getAmount();
-    synchronized (storageManger) {
-      // update warehouse - increase year to balance
-      warehouseData.increaseYearToBalance(amount);
-      // update district - increase year to balance
-      districtData.increaseYearToBalance(amount);
+    if (partitions.isEnabled()) {
+      return storePaymentInPartitions(warehouseData, districtData, customer, payment);
+    }
+    TransactionTimings.mark(TransactionPhase.MUTATE);
+    UnitOfWork unitOfWork = new UnitOfWork();
+    CustomerData copiedCustomer;
+    synchronized (lock) {
+      TransactionTimings.mark(TransactionPhase.LOCK_WAIT);
+      updateYearToDateBalances(warehouseData, districtData, payment.getAmount(), unitOfWork);
+      copiedCustomer = updateCustomer(warehouseData, districtData, customer, payment, unitOfWork);
+
+      persist(unitOfWork);
+    }
+    awaitCommit(unitOfWork);
+    // only limited copy
+    return copiedCustomer;
+  }
+
+  private CustomerData storePaymentInPartitions(
+      WarehouseData warehouseData,
+      DistrictData districtData,
+      CustomerData customer,
+      PaymentData payment) {
+    String customerWarehouseId = customer.getDistrict().getWarehouse().getId();
+    if (warehouseData.getId().equals(customerWarehouseId)) {
+      UnitOfWork unitOfWork = new UnitOfWork();
+      CustomerData copiedCustomer =
+          partitions.execute(
+              customerWarehouseId,
+              () -> {
+                updateYearToDateBalances(
+                    warehouseData, districtData, payment.getAmount(), unitOfWork);
+                CustomerData copy =
+                    updateCustomer(warehouseData, districtData, customer, payment, unitOfWork);
+                persist(unitOfWork);
+                return copy;
+              });
+      awaitCommit(unitOfWork);
+      return copiedCustomer;
+    }
+
+    // payment for a customer of a remote warehouse, both partitions are updated independently
+    UnitOfWork customerUnitOfWork = new UnitOfWork();
+    CompletableFuture<CustomerData> customerUpdate =
+        partitions.submit(
+            customerWarehouseId,
+            () -> {
+              CustomerData copiedCustomer =
+                  updateCustomer(
+                      warehouseData, districtData, customer, payment, customerUnitOfWork);
+              persist(customerUnitOfWork);
+              return copiedCustomer;
+            });
+    UnitOfWork warehouseUnitOfWork = new UnitOfWork();
+    partitions.execute(
+        warehouseData.getId(),
+        () -> {
+          updateYearToDateBalances(
+              warehouseData, districtData, payment.getAmount(), warehouseUnitOfWork);
+          persist(warehouseUnitOfWork);
+          return null;
+        });
+    CustomerData copiedCustomer = WarehousePartitions.join(customerUpdate);
+    awaitCommit(warehouseUnitOfWork);
+    awaitCommit(customerUnitOfWork);
+    return copiedCustomer;
+  }
+
+  private void updateYearToDateBalances(
+      WarehouseData warehouseData,
+      DistrictData districtData,
+      double amount,
+      UnitOfWork unitOfWork) {
+    // update warehouse - increase year to balance
+    warehouseData.increaseYearToBalance(amount);
+    // update district - increase year to balance
+    districtData.increaseYearToBalance(amount);
+    unitOfWork.modified(warehouseData, districtData);
+  }
+
+  private CustomerData updateCustomer(
+      WarehouseData warehouseData,
+      DistrictData districtData,
+      CustomerData customer,
+      PaymentData payment,
+      UnitOfWork unitOfWork) {
+    CustomerData copiedCustomer;
+    TransactionTimings.mark(TransactionPhase.MUTATE);
+    if (partitions.isEnabled()) {
+      // the partition thread is the only writer of the customer
+      copiedCustomer = applyPayment(warehouseData, districtData, customer, payment);
+    } else {
       // optimization acquiring the lock here
-      CustomerData copiedCustomer;
       synchronized (customer.getId()) {
-        // add payment to customer
-        customer.getPaymentRefs().add(payment);
-        // update customer - decrease balance - req.amount
-        customer.decreaseBalance(amount);
-        // update customer - increase year to date balance + req.amount
-        customer.increaseYearToBalance(amount);
-        // update customer - update payment count + 1
-        customer.increasePaymentCount();
-        // update customer if he/she has bad credit
-        if (customerHasBadCredit(customer.getCredit())) {
-          customer.updateData(
-              buildNewCustomerData(
-                  customer.getId(),
-                  warehouseData.getId(),
-                  districtData.getId(),
-                  amount,
-                  customer.getData()));
-        }
-        // should be done within the synchronized block
-        copiedCustomer = new CustomerData(customer);
+        TransactionTimings.mark(TransactionPhase.LOCK_WAIT);
+        copiedCustomer = applyPayment(warehouseData, districtData, customer, payment);
       }
+    }
+    // the new payment is stored along with the payment list of the customer
+    unitOfWork.modified(customer, customer.getPaymentRefs());
+    TransactionTimings.mark(TransactionPhase.MUTATE);
+    return copiedCustomer;
+  }
 
-      storageManger.storeRoot();
-      // only limited copy
-      return copiedCustomer;
+  private CustomerData applyPayment(
+      WarehouseData warehouseData,
+      DistrictData districtData,
+      CustomerData customer,
+      PaymentData payment) {
+    double amount = payment.getAmount();
+    // add payment to customer
+    customer.getPaymentRefs().add(payment);
+    // update customer - decrease balance - req.amount
+    customer.decreaseBalance(amount);
+    // update customer - increase year to date balance + req.amount
+    customer.increaseYearToBalance(amount);
+    // update customer - update payment count + 1
+    customer.increasePaymentCount();
+    // update customer if he/she has bad credit
+    if (customerHasBadCredit(customer.getCredit())) {
+      customer.updateData(
+          buildNewCustomerData(
+              customer.getId(),
+              warehouseData.getId(),
+              districtData.getId(),
+              amount,
+              customer.getData()));
     }
+    // should be done within the synchronized block, if any
+    return new CustomerData(customer);
   }
 
   public void deliverOldestOrders(List<OrderData> oldestOrderForEachDistrict, CarrierData carrier) {
-    synchronized (storageManger) {
-      for (OrderData order : oldestOrderForEachDistrict) {
-        // in cases where two terminal worker update the same oldestOrders in parallel,
-        // and they are both competing for the storageManager lock
-        if (order.isFulfilled()) {
-          continue;
-        }
-        CustomerData customer = order.getCustomerRef();
-        synchronized (customer.getId()) {
+    UnitOfWork unitOfWork = new UnitOfWork();
+    if (partitions.isEnabled()) {
+      if (!oldestOrderForEachDistrict.isEmpty()) {
+        // all districts belong to the same warehouse
+        partitions.execute(
+            oldestOrderForEachDistrict.get(0).getDistrictRef().getWarehouse().getId(),
+            () -> {
+              deliver(oldestOrderForEachDistrict, carrier, unitOfWork);
+              return null;
+            });
+      }
+    } else {
+      synchronized (lock) {
+        TransactionTimings.mark(TransactionPhase.LOCK_WAIT);
+        deliver(oldestOrderForEachDistrict, carrier, unitOfWork);
+      }
+    }
+    awaitCommit(unitOfWork);
+  }
+
+  private void deliver(
+      List<OrderData> oldestOrderForEachDistrict, CarrierData carrier, UnitOfWork unitOfWork) {
+    for (OrderData order : oldestOrderForEachDistrict) {
+      // in cases where two terminal worker update the same oldestOrders in parallel,
+      // and they are both competing for the storageManager lock
+      if (order.isFulfilled()) {
+        continue;
+      }
+      if (partitions.isEnabled()) {
+        // the partition thread is the only writer of the customer and the order
+        deliver(order, carrier, unitOfWork);
+      } else {
+        synchronized (order.getCustomerRef().getId()) {
           synchronized (order.getId()) {
-            // update carrier information
-            order.updateCarrier(carrier);
-            // update fulfillment status
-            order.setAsFulfilled();
+            deliver(order, carrier, unitOfWork);
           }
-          // compute amount of order
-          double amount = 0;
-          for (OrderItemData itemData : order.getItems()) {
-            itemData.updateDeliveryDate();
-            amount += itemData.getAmount();
-          }
-          customer.increaseBalance(amount);
-          customer.increaseDeliveryCount();
         }
       }
-      storageManger.storeRoot();
     }
+    persist(unitOfWork);
+  }
+
+  private void deliver(OrderData order, CarrierData carrier, UnitOfWork unitOfWork) {
+    CustomerData customer = order.getCustomerRef();
+    // update carrier information
+    order.updateCarrier(carrier);
+    // update fulfillment status
+    order.setAsFulfilled();
+    Object[] orderQueueObjects = order.getDistrictRef().removeUnfulfilledOrder(order);
+    // compute amount of order
+    double amount = 0;
+    for (OrderItemData itemData : order.getItems()) {
+      itemData.updateDeliveryDate();
+      amount += itemData.getAmount();
+      unitOfWork.modified(itemData);
+    }
+    customer.increaseBalance(amount);
+    customer.increaseDeliveryCount();
+    unitOfWork.modified(order, customer).modified(orderQueueObjects);
+  }
+
+  private void persist(UnitOfWork unitOfWork) {
+    TransactionTimings.mark(TransactionPhase.MUTATE);
+    // a single commit is faster as storing each object separately
+    unitOfWork.commit(committer);
+    TransactionTimings.mark(TransactionPhase.PERSIST);
+  }
+
+  private void awaitCommit(UnitOfWork unitOfWork) {
+    unitOfWork.awaitCommit();
+    TransactionTimings.mark(TransactionPhase.PERSIST);
   }
 
   // COPIED FROM PaymentService
@@ -181,8 +491,9 @@ public class DataConsistencyManager {
   }
 
   public int countStockEntriesLowerThanThreshold(List<StockData> stocks, int stockThreshold) {
-    synchronized (stockLock) {
-      return (int) stocks.parallelStream().filter(s -> s.getQuantity() < stockThreshold).count();
-    }
+    // stocks are read lock-free, which never blocks new orders
+    int count = (int) stocks.parallelStream().filter(s -> s.getQuantity() < stockThreshold).count();
+    TransactionTimings.mark(TransactionPhase.LOOKUP);
+    return count;
   }
 }
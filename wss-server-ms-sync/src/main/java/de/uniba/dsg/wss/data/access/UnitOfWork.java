@@ -0,0 +1,74 @@
+package de.uniba.dsg.wss.data.access;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Records the objects modified by a transaction, so that exactly these objects can be written to
+ * the MicroStream storage in a single commit, which may be shared with other transactions (see
+ * {@link GroupCommitter}). Objects which are referenced by a modified object but have never been
+ * stored before (e.g. a new order referenced by the order map of its customer) are stored along
+ * with it. Already stored objects are only written if they have been recorded themselves, which
+ * keeps the cost of a commit proportional to the size of the transaction instead of the size of the
+ * data.
+ *
+ * <p>Collections are objects of their own, i.e. adding an element to a collection requires the
+ * collection to be recorded, not the object owning the collection.
+ *
+ * <p>Instances are not thread-safe and are meant to be used by a single transaction only. They may
+ * be handed over to another thread, e.g. a partition thread, as long as they are not used
+ * concurrently.
+ *
+ * @author Benedikt Full
+ */
+public class UnitOfWork {
+
+  private final Set<Object> modifiedObjects;
+  private CompletableFuture<Void> pendingCommit;
+
+  public UnitOfWork() {
+    modifiedObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  /**
+   * Records the given objects as modified.
+   *
+   * @param objects the modified objects
+   * @return this unit of work
+   */
+  public UnitOfWork modified(Object... objects) {
+    Collections.addAll(modifiedObjects, objects);
+    return this;
+  }
+
+  public int size() {
+    return modifiedObjects.size();
+  }
+
+  /**
+   * Hands all recorded objects to the given group committer and clears the record. The objects are
+   * serialized immediately, but are only durable once {@link #awaitCommit()} returns.
+   *
+   * @param committer the group committer to use
+   */
+  public void commit(GroupCommitter<?> committer) {
+    if (modifiedObjects.isEmpty()) {
+      return;
+    }
+    CompletableFuture<Void> commit = committer.enqueue(modifiedObjects);
+    pendingCommit = pendingCommit == null ? commit : CompletableFuture.allOf(pendingCommit, commit);
+    modifiedObjects.clear();
+  }
+
+  /**
+   * Waits until all objects handed to the group committer by this unit of work are durable. Should
+   * be called after releasing all locks, so that other transactions can join the same batch.
+   */
+  public void awaitCommit() {
+    if (pendingCommit != null) {
+      GroupCommitter.await(pendingCommit);
+    }
+  }
+}
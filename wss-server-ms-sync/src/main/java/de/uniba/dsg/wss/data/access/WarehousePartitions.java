@@ -0,0 +1,153 @@
+package de.uniba.dsg.wss.data.access;
+
+import de.uniba.dsg.wss.service.TransactionPhase;
+import de.uniba.dsg.wss.service.TransactionTimings;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Partitions the data by warehouse and assigns each partition a dedicated thread, which is the only
+ * thread allowed to modify the data of the partition. Since the writes to a partition are
+ * serialized by its thread, transactions touching a single warehouse do not need to acquire any
+ * shared lock, and transactions of different warehouses are executed in parallel.
+ *
+ * <p>Transactions are routed to the partitions by the {@link DataConsistencyManager} and the
+ * Order-Status service. Partition tasks do not hold the customer and order monitors across
+ * multi-field updates, which is required otherwise. The accessors of the data classes still acquire
+ * these monitors briefly for each field, as the classes are shared with the non-partitioned mode
+ * and read-only transactions like Stock-Level read them from the request threads. Since all writes
+ * are executed by the partition thread, these monitors are only contended by such reads.
+ *
+ * <p>Partitioned execution is enabled via the {@code wss.ms.partitioned.enabled} property. If it is
+ * disabled, all tasks are executed by the calling thread.
+ *
+ * <p>Tasks must be submitted by threads which do not belong to a partition, e.g. the request
+ * threads. A partition task waiting for another partition could otherwise deadlock with a task of
+ * the other partition waiting for the first one. Transactions involving multiple partitions are
+ * therefore coordinated by the calling thread (see {@link DataConsistencyManager}).
+ *
+ * @author Benedikt Full
+ */
+@Component
+public class WarehousePartitions implements DisposableBean {
+
+  private static final Logger LOG = LogManager.getLogger(WarehousePartitions.class);
+  private static final ThreadLocal<String> OWNED_PARTITION = new ThreadLocal<>();
+
+  private final boolean enabled;
+  private final Map<String, ExecutorService> executors;
+
+  @Autowired
+  public WarehousePartitions(Environment environment) {
+    enabled = environment.getProperty("wss.ms.partitioned.enabled", Boolean.class, false);
+    executors = new ConcurrentHashMap<>();
+    if (enabled) {
+      LOG.info("Using partitioned execution with one thread per warehouse");
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Executes the given task by the thread of the partition of the given warehouse and waits for its
+   * completion. If partitioned execution is disabled, or the current thread already owns the
+   * partition, the task is executed directly.
+   *
+   * <p>The thread of the partition continues the {@link TransactionTimings timing} of the current
+   * thread, the time waiting for the turn of the task is attributed to {@link
+   * TransactionPhase#LOCK_WAIT}. Tasks which are only {@link #submit(String, Supplier) submitted}
+   * do not continue the timing, as several of them may be executed concurrently.
+   *
+   * @param warehouseId the id of the warehouse which owns the data modified by the task
+   * @param task the task to execute
+   * @param <T> the type of the result
+   * @return the result of the task
+   */
+  public <T> T execute(String warehouseId, Supplier<T> task) {
+    if (!enabled || warehouseId.equals(OWNED_PARTITION.get())) {
+      return task.get();
+    }
+    return join(
+        submit(
+            warehouseId,
+            TransactionTimings.propagate(
+                () -> {
+                  TransactionTimings.mark(TransactionPhase.LOCK_WAIT);
+                  T result = task.get();
+                  TransactionTimings.mark(TransactionPhase.MUTATE);
+                  return result;
+                })));
+  }
+
+  /**
+   * Submits the given task to the thread of the partition of the given warehouse without waiting
+   * for its completion.
+   *
+   * @param warehouseId the id of the warehouse which owns the data modified by the task
+   * @param task the task to execute
+   * @param <T> the type of the result
+   * @return a future which completes with the result of the task
+   * @throws IllegalStateException if the current thread belongs to a partition
+   */
+  public <T> CompletableFuture<T> submit(String warehouseId, Supplier<T> task) {
+    if (!enabled) {
+      return CompletableFuture.completedFuture(task.get());
+    }
+    if (OWNED_PARTITION.get() != null) {
+      throw new IllegalStateException(
+          "Partition " + OWNED_PARTITION.get() + " must not submit tasks to other partitions");
+    }
+    return CompletableFuture.supplyAsync(task, executors.computeIfAbsent(warehouseId, this::start));
+  }
+
+  /**
+   * Waits for the completion of the given future and rethrows any exception thrown by the task.
+   *
+   * @param future a future created by {@link #submit(String, Supplier)}
+   * @param <T> the type of the result
+   * @return the result of the task
+   */
+  public static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private ExecutorService start(String warehouseId) {
+    return Executors.newSingleThreadExecutor(
+        r -> {
+          Thread thread =
+              new Thread(
+                  () -> {
+                    OWNED_PARTITION.set(warehouseId);
+                    r.run();
+                  },
+                  "wss-partition-" + warehouseId);
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  @Override
+  public void destroy() {
+    executors.values().forEach(ExecutorService::shutdown);
+  }
+}
@@ -51,6 +51,7 @@ public class MsDataWriter
     msDataRoot.getOrders().putAll(msModel.getIdsToOrders());
     msDataRoot.getCarriers().putAll(msModel.getIdsToCarriers());
     msDataRoot.getProducts().putAll(msModel.getIdsToProducts());
+    msDataRoot.rebuildIndexes();
     storageManager.setRoot(msDataRoot);
     storageManager.storeRoot();
     stopwatch.stop();
@@ -28,6 +28,7 @@ public class CustomerData extends PersonData {
   private double balance;
   private double yearToDatePayment;
   private int paymentCount;
+  private OrderData latestOrderRef;
 
   public CustomerData(
       String id,
@@ -114,6 +115,31 @@ public class CustomerData extends PersonData {
     return this.orderRefs;
   }
 
+  /**
+   * Returns the most recent order of this customer.
+   *
+   * @return the order with the latest entry date, or {@code null} if the customer has no orders
+   */
+  public OrderData getLatestOrder() {
+    synchronized (this.id) {
+      return latestOrderRef;
+    }
+  }
+
+  /**
+   * Sets the given order as the most recent order of this customer, unless the currently referenced
+   * order has a later entry date.
+   *
+   * @param order an order of this customer, must not be {@code null}
+   */
+  public void updateLatestOrder(OrderData order) {
+    synchronized (this.id) {
+      if (latestOrderRef == null || !order.getEntryDate().isBefore(latestOrderRef.getEntryDate())) {
+        latestOrderRef = order;
+      }
+    }
+  }
+
   public List<PaymentData> getPaymentRefs() {
     return this.paymentRefs;
   }
@@ -1,6 +1,8 @@
 package de.uniba.dsg.wss.data.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -10,11 +12,25 @@ import java.util.concurrent.ConcurrentHashMap;
  * district is administered by a single {@link EmployeeData employee} and has 3000 {@link
  * CustomerData customers}.
  *
+ * <p>Besides all of its orders, a district keeps the unfulfilled orders in a FIFO queue and the
+ * {@value #RECENT_ORDER_COUNT} most recent orders in a ring, so that the Delivery and Stock-Level
+ * transactions do not need to inspect all orders of the district. The queue is a linked list of
+ * nodes, so that placing or delivering an order only requires storing the district and the nodes
+ * which have been linked or unlinked, regardless of the length of the queue.
+ *
+ * <p>The map of all orders is transient, as storing it would require writing all of its entries
+ * whenever an order is placed. It is rebuilt from the order maps of the customers of the district
+ * by {@link #rebuildOrderQueues()}, which has to be called after loading the district from the
+ * storage.
+ *
  * @author Benedikt Full
  * @author Johannes Manner
  */
 public class DistrictData extends BaseData {
 
+  /** The number of most recent orders kept by each district. */
+  public static final int RECENT_ORDER_COUNT = 20;
+
   private final WarehouseData warehouseRef;
 
   private final String name;
@@ -23,7 +39,14 @@ public class DistrictData extends BaseData {
   private double yearToDateBalance;
 
   private final List<CustomerData> customerRefs;
-  private final Map<String, OrderData> orderRefs;
+  private transient Map<String, OrderData> orderRefs;
+  private UnfulfilledOrderNode oldestUnfulfilledOrderRef;
+  private UnfulfilledOrderNode newestUnfulfilledOrderRef;
+  private final OrderData[] recentOrderRefs;
+  private int recentOrderCount;
+
+  // a plain object is stored and loaded like any other object, so the lock survives a restart
+  private final Object lock;
 
   public DistrictData(
       String id,
@@ -40,6 +63,11 @@ public class DistrictData extends BaseData {
     this.yearToDateBalance = yearToDateBalance;
     this.customerRefs = new ArrayList<>();
     this.orderRefs = new ConcurrentHashMap<>();
+    this.oldestUnfulfilledOrderRef = null;
+    this.newestUnfulfilledOrderRef = null;
+    this.recentOrderRefs = new OrderData[RECENT_ORDER_COUNT];
+    this.recentOrderCount = 0;
+    this.lock = new Object();
   }
 
   public WarehouseData getWarehouse() {
@@ -62,20 +90,157 @@ public class DistrictData extends BaseData {
     return this.customerRefs;
   }
 
+  /**
+   * Returns all orders of this district. This map is not persisted, new orders are stored via the
+   * order maps of their customers and the order queues of their district, and the map is rebuilt
+   * from the order maps of the customers by {@link #rebuildOrderQueues()}.
+   *
+   * @return all orders of this district
+   */
   public Map<String, OrderData> getOrders() {
     return this.orderRefs;
   }
 
+  /**
+   * Adds a new order to this district, i.e. to the map of all orders, to the queue of unfulfilled
+   * orders, and to the most recent orders. The map of all orders is not persisted, see {@link
+   * #getOrders()}.
+   *
+   * @param order an order of this district, must not be {@code null}
+   * @return the objects which have to be stored to persist the changed order queues
+   */
+  public Object[] addOrder(OrderData order) {
+    synchronized (lock) {
+      orderRefs.put(order.getId(), order);
+      recentOrderRefs[recentOrderCount % RECENT_ORDER_COUNT] = order;
+      recentOrderCount++;
+      if (order.isFulfilled()) {
+        return new Object[] {this, recentOrderRefs};
+      }
+      UnfulfilledOrderNode node = new UnfulfilledOrderNode(order);
+      UnfulfilledOrderNode previous = newestUnfulfilledOrderRef;
+      newestUnfulfilledOrderRef = node;
+      if (previous == null) {
+        oldestUnfulfilledOrderRef = node;
+        return new Object[] {this, recentOrderRefs, node};
+      }
+      previous.next = node;
+      return new Object[] {this, recentOrderRefs, node, previous};
+    }
+  }
+
+  /**
+   * Returns the oldest unfulfilled order of this district.
+   *
+   * @return the oldest unfulfilled order or {@code null} if all orders are fulfilled
+   */
+  public OrderData getOldestUnfulfilledOrder() {
+    synchronized (lock) {
+      return oldestUnfulfilledOrderRef == null ? null : oldestUnfulfilledOrderRef.order;
+    }
+  }
+
+  /**
+   * Removes a fulfilled order from the queue of unfulfilled orders.
+   *
+   * @param order an order of this district, must not be {@code null}
+   * @return the objects which have to be stored to persist the changed queue, empty if the order
+   *     has not been queued
+   */
+  public Object[] removeUnfulfilledOrder(OrderData order) {
+    synchronized (lock) {
+      if (oldestUnfulfilledOrderRef == null) {
+        return new Object[0];
+      }
+      // usually the oldest order is delivered, other orders require a linear search
+      if (oldestUnfulfilledOrderRef.order == order) {
+        oldestUnfulfilledOrderRef = oldestUnfulfilledOrderRef.next;
+        if (oldestUnfulfilledOrderRef == null) {
+          newestUnfulfilledOrderRef = null;
+        }
+        return new Object[] {this};
+      }
+      UnfulfilledOrderNode previous = oldestUnfulfilledOrderRef;
+      while (previous.next != null && previous.next.order != order) {
+        previous = previous.next;
+      }
+      if (previous.next == null) {
+        return new Object[0];
+      }
+      previous.next = previous.next.next;
+      if (previous.next == null) {
+        newestUnfulfilledOrderRef = previous;
+        return new Object[] {this, previous};
+      }
+      return new Object[] {previous};
+    }
+  }
+
+  /**
+   * Returns up to {@value #RECENT_ORDER_COUNT} of the most recent orders of this district.
+   *
+   * @return the most recent orders, starting with the newest one
+   */
+  public List<OrderData> getRecentOrders() {
+    synchronized (lock) {
+      int size = Math.min(recentOrderCount, RECENT_ORDER_COUNT);
+      List<OrderData> orders = new ArrayList<>(size);
+      for (int i = 1; i <= size; i++) {
+        orders.add(recentOrderRefs[(recentOrderCount - i) % RECENT_ORDER_COUNT]);
+      }
+      return orders;
+    }
+  }
+
+  /**
+   * Rebuilds the map of all orders from the order maps of the customers of this district, and the
+   * queue of unfulfilled orders and the most recent orders from the map of all orders. Orders are
+   * considered in the order of their entry date.
+   */
+  public void rebuildOrderQueues() {
+    synchronized (lock) {
+      if (orderRefs == null) {
+        // transient fields are not restored when loading the district from the storage
+        orderRefs = new ConcurrentHashMap<>();
+      }
+      orderRefs.clear();
+      for (CustomerData customer : customerRefs) {
+        orderRefs.putAll(customer.getOrderRefs());
+      }
+      oldestUnfulfilledOrderRef = null;
+      newestUnfulfilledOrderRef = null;
+      Arrays.fill(recentOrderRefs, null);
+      recentOrderCount = 0;
+      List<OrderData> orders = new ArrayList<>(orderRefs.values());
+      orders.sort(Comparator.comparing(OrderData::getEntryDate));
+      for (OrderData order : orders) {
+        addOrder(order);
+      }
+    }
+  }
+
   // MUTUAL ACCESS
   public void increaseYearToBalance(double amount) {
-    synchronized (this.id) {
+    synchronized (lock) {
       this.yearToDateBalance += amount;
     }
   }
 
   public double getYearToDateBalance() {
-    synchronized (this.id) {
+    synchronized (lock) {
       return yearToDateBalance;
     }
   }
+
+  /** A node of the queue of unfulfilled orders, which links an order to the next newer one. */
+  private static class UnfulfilledOrderNode {
+
+    private final OrderData order;
+    private UnfulfilledOrderNode next;
+
+    private UnfulfilledOrderNode(OrderData order) {
+      this.order = order;
+      this.next = null;
+    }
+  }
 }
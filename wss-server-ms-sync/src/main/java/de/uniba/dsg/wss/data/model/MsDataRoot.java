@@ -1,6 +1,7 @@
 package de.uniba.dsg.wss.data.model;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -8,6 +9,15 @@ import java.util.concurrent.ConcurrentHashMap;
  * href="https://docs.microstream.one/manual/storage/root-instances.html">MicroStream
  * documentation</a> for more information regarding this concept).
  *
+ * <p>Besides the primary maps, the root maintains unique secondary indexes for customer emails and
+ * employee usernames. These are stored along with the root and must be rebuilt via {@link
+ * #rebuildIndexes()} whenever the primary maps are (re-)populated, and after loading the root from
+ * the storage. The map of all orders is transient, as storing it would require writing all of its
+ * entries whenever an order is placed. It is rebuilt from the order maps of the customers as well.
+ * The most recent order of each customer is tracked by the customer itself (see {@link
+ * CustomerData#getLatestOrder()}), the order queues of each district by the district itself (see
+ * {@link DistrictData}).
+ *
  * @author Johannes Manner
  */
 public class MsDataRoot {
@@ -17,10 +27,14 @@ public class MsDataRoot {
   private final Map<String, CustomerData> customers;
   // map contains a compound key: warehouseId+productId
   private final Map<String, StockData> stocks;
-  private final Map<String, OrderData> orders;
+  private transient Map<String, OrderData> orders;
   private final Map<String, CarrierData> carriers;
   private final Map<String, ProductData> products;
 
+  // secondary indexes
+  private final Map<String, CustomerData> customersByEmail;
+  private final Map<String, EmployeeData> employeesByUsername;
+
   public MsDataRoot() {
     warehouses = new ConcurrentHashMap<>();
     employees = new ConcurrentHashMap<>();
@@ -29,6 +43,8 @@ public class MsDataRoot {
     orders = new ConcurrentHashMap<>();
     carriers = new ConcurrentHashMap<>();
     products = new ConcurrentHashMap<>();
+    customersByEmail = new ConcurrentHashMap<>();
+    employeesByUsername = new ConcurrentHashMap<>();
   }
 
   public Map<String, WarehouseData> getWarehouses() {
@@ -58,4 +74,66 @@ public class MsDataRoot {
   public Map<String, ProductData> getProducts() {
     return products;
   }
+
+  /**
+   * Finds the customer with the given email address.
+   *
+   * @param email the email address, may be {@code null}
+   * @return the customer or an empty optional if no customer has the given email address
+   */
+  public Optional<CustomerData> findCustomerByEmail(String email) {
+    return email == null ? Optional.empty() : Optional.ofNullable(customersByEmail.get(email));
+  }
+
+  /**
+   * Finds the employee with the given username.
+   *
+   * @param username the username, may be {@code null}
+   * @return the employee or an empty optional if no employee has the given username
+   */
+  public Optional<EmployeeData> findEmployeeByUsername(String username) {
+    return username == null
+        ? Optional.empty()
+        : Optional.ofNullable(employeesByUsername.get(username));
+  }
+
+  /**
+   * Rebuilds all secondary indexes from the current content of the primary maps. This includes the
+   * maps of all orders of the root and of every district, which are rebuilt from the order maps of
+   * the customers, the most recent order reference of every customer, and the order queues of every
+   * district.
+   *
+   * @throws IllegalStateException if two customers share an email address or two employees share a
+   *     username
+   */
+  public void rebuildIndexes() {
+    customersByEmail.clear();
+    for (CustomerData customer : customers.values()) {
+      if (customersByEmail.putIfAbsent(customer.getEmail(), customer) != null) {
+        throw new IllegalStateException("Duplicate customer email " + customer.getEmail());
+      }
+    }
+    employeesByUsername.clear();
+    for (EmployeeData employee : employees.values()) {
+      if (employeesByUsername.putIfAbsent(employee.getUsername(), employee) != null) {
+        throw new IllegalStateException("Duplicate employee username " + employee.getUsername());
+      }
+    }
+    if (orders == null) {
+      // transient fields are not restored when loading the root from the storage
+      orders = new ConcurrentHashMap<>();
+    }
+    orders.clear();
+    for (CustomerData customer : customers.values()) {
+      orders.putAll(customer.getOrderRefs());
+    }
+    for (OrderData order : orders.values()) {
+      order.getCustomerRef().updateLatestOrder(order);
+    }
+    for (WarehouseData warehouse : warehouses.values()) {
+      for (DistrictData district : warehouse.getDistricts().values()) {
+        district.rebuildOrderQueues();
+      }
+    }
+  }
 }
@@ -1,21 +1,37 @@
 package de.uniba.dsg.wss.data.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * The available amount of a specific {@link ProductData product} at some {@link WarehouseData
  * warehouse}.
  *
+ * <p>The quantity, year to date balance, and order count of a stock are kept in an immutable {@code
+ * State} object, which is replaced by compare-and-set whenever the stock is reserved or released.
+ * All three values are thus always updated and read atomically without acquiring any lock, and
+ * storing a stock always writes a consistent state, even while the stock is being modified.
+ *
  * @author Benedikt Full
  * @author Johannes Manner
  */
 public class StockData extends BaseData {
 
   public static int increaseQuantity = 100;
+  private static final VarHandle STATE;
+
+  static {
+    try {
+      STATE = MethodHandles.lookup().findVarHandle(StockData.class, "state", State.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
   private final WarehouseData warehouseRef;
   private final ProductData productRef;
-  private int quantity;
-  private double yearToDateBalance;
-  private int orderCount;
-  private int remoteCount;
+  private volatile State state;
+  private final int remoteCount;
   private final String data;
   private final String dist01;
   private final String dist02;
@@ -50,9 +66,7 @@ public class StockData extends BaseData {
     super(warehouseRef.getId() + productRef.getId());
     this.warehouseRef = warehouseRef;
     this.productRef = productRef;
-    this.quantity = quantity;
-    this.yearToDateBalance = yearToDateBalance;
-    this.orderCount = orderCount;
+    this.state = new State(quantity, yearToDateBalance, orderCount);
     this.remoteCount = remoteCount;
     this.data = data;
     this.dist01 = dist01;
@@ -76,27 +90,19 @@ public class StockData extends BaseData {
   }
 
   public int getQuantity() {
-    synchronized (this.id) {
-      return quantity;
-    }
+    return state.quantity;
   }
 
   public double getYearToDateBalance() {
-    synchronized (this.id) {
-      return yearToDateBalance;
-    }
+    return state.yearToDateBalance;
   }
 
   public int getOrderCount() {
-    synchronized (this.id) {
-      return orderCount;
-    }
+    return state.orderCount;
   }
 
   public int getRemoteCount() {
-    synchronized (this.id) {
-      return remoteCount;
-    }
+    return remoteCount;
   }
 
   public String getData() {
@@ -143,26 +149,66 @@ public class StockData extends BaseData {
     return dist10;
   }
 
-  public boolean reduceQuantity(int quantity) {
-    synchronized (this.id) {
-      if (this.quantity < quantity) {
-        // avoid permanent out-of-stock scenarios, but let this order fail and retry
-        // replace the NewOrderService#determineNewStockQuantity functionality
-        this.quantity += increaseQuantity;
-        return false;
+  /**
+   * Reduces the quantity of this stock by the given quantity, and increases the year to date
+   * balance and order count accordingly. If the available quantity is too low, the stock is
+   * refilled by {@link #increaseQuantity} instead, so that the order can be retried.
+   *
+   * @param quantity the quantity to reserve
+   * @return the remaining quantity, or {@code -1} if the available quantity was too low
+   */
+  public int reduceQuantity(int quantity) {
+    while (true) {
+      State current = state;
+      boolean available = current.quantity >= quantity;
+      // avoid permanent out-of-stock scenarios, but let this order fail and retry
+      // replace the NewOrderService#determineNewStockQuantity functionality
+      State next =
+          available
+              ? new State(
+                  current.quantity - quantity,
+                  current.yearToDateBalance + quantity,
+                  current.orderCount + 1)
+              : new State(
+                  current.quantity + increaseQuantity,
+                  current.yearToDateBalance,
+                  current.orderCount);
+      if (STATE.compareAndSet(this, current, next)) {
+        return available ? next.quantity : -1;
       }
-      this.quantity -= quantity;
-      this.yearToDateBalance += quantity;
-      this.orderCount++;
-      return true;
     }
   }
 
+  /**
+   * Reverts a successful {@link #reduceQuantity(int)} call.
+   *
+   * @param quantity the quantity which has been reserved
+   */
   public void undoReduceQuantityOperation(int quantity) {
-    synchronized (this.id) {
-      this.quantity += quantity;
-      this.yearToDateBalance -= quantity;
-      this.orderCount--;
+    while (true) {
+      State current = state;
+      State next =
+          new State(
+              current.quantity + quantity,
+              current.yearToDateBalance - quantity,
+              current.orderCount - 1);
+      if (STATE.compareAndSet(this, current, next)) {
+        return;
+      }
+    }
+  }
+
+  /** Immutable snapshot of the values of a stock which are modified by orders. */
+  private static final class State {
+
+    private final int quantity;
+    private final double yearToDateBalance;
+    private final int orderCount;
+
+    private State(int quantity, double yearToDateBalance, int orderCount) {
+      this.quantity = quantity;
+      this.yearToDateBalance = yearToDateBalance;
+      this.orderCount = orderCount;
     }
   }
 }
@@ -2,13 +2,14 @@ package de.uniba.dsg.wss.service;
 
 import de.uniba.dsg.wss.data.access.DataConsistencyManager;
 import de.uniba.dsg.wss.data.model.CarrierData;
+import de.uniba.dsg.wss.data.model.DistrictData;
 import de.uniba.dsg.wss.data.model.MsDataRoot;
 import de.uniba.dsg.wss.data.model.OrderData;
 import de.uniba.dsg.wss.data.model.WarehouseData;
 import de.uniba.dsg.wss.data.transfer.messages.DeliveryRequest;
 import de.uniba.dsg.wss.data.transfer.messages.DeliveryResponse;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -39,15 +40,10 @@ public class MsDeliveryService extends DeliveryService {
     // Find an order for each district (the oldest unfulfilled order)
     List<OrderData> oldestOrderForEachDistrict =
         warehouse.getDistricts().values().stream()
-            .map(
-                districtData ->
-                    districtData.getOrders().values().stream()
-                        .filter(OrderData::isNotFulfilled)
-                        .sorted()
-                        .findFirst())
-            .filter(Optional::isPresent)
-            .map(Optional::get)
+            .map(DistrictData::getOldestUnfulfilledOrder)
+            .filter(Objects::nonNull)
             .collect(Collectors.toList());
+    TransactionTimings.mark(TransactionPhase.LOOKUP);
 
     // update fulfillment status
     // update carrier information
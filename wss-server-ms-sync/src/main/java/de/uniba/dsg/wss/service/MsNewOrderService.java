@@ -133,6 +133,8 @@ public class MsNewOrderService extends NewOrderService {
       stockUpdates.add(stockUpdate);
     }
 
+    TransactionTimings.mark(TransactionPhase.LOOKUP);
+
     // create order
     OrderData order =
         new OrderData(
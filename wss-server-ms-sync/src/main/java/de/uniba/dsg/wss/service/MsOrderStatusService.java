@@ -1,12 +1,12 @@
 package de.uniba.dsg.wss.service;
 
+import de.uniba.dsg.wss.data.access.WarehousePartitions;
 import de.uniba.dsg.wss.data.model.CustomerData;
 import de.uniba.dsg.wss.data.model.MsDataRoot;
 import de.uniba.dsg.wss.data.model.OrderData;
 import de.uniba.dsg.wss.data.transfer.messages.OrderItemStatusResponse;
 import de.uniba.dsg.wss.data.transfer.messages.OrderStatusRequest;
 import de.uniba.dsg.wss.data.transfer.messages.OrderStatusResponse;
-import java.util.Comparator;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -14,6 +14,11 @@ import org.springframework.stereotype.Service;
 /**
  * Implements the transaction to be executed by the {@link OrderStatusService} implementation.
  *
+ * <p>If {@link WarehousePartitions partitioned execution} is enabled, the status is read by the
+ * thread of the partition of the customer, which is the only writer of the customer and its orders.
+ * Otherwise, the customer and order monitors ensure that a concurrent delivery is not observed
+ * halfway.
+ *
  * @author Johannes Manner
  * @author Benedikt Full
  */
@@ -21,10 +26,12 @@ import org.springframework.stereotype.Service;
 public class MsOrderStatusService extends OrderStatusService {
 
   private final MsDataRoot dataRoot;
+  private final WarehousePartitions partitions;
 
   @Autowired
-  public MsOrderStatusService(MsDataRoot dataRoot) {
+  public MsOrderStatusService(MsDataRoot dataRoot, WarehousePartitions partitions) {
     this.dataRoot = dataRoot;
+    this.partitions = partitions;
   }
 
   @Override
@@ -33,15 +40,12 @@ public class MsOrderStatusService extends OrderStatusService {
     CustomerData customer;
     if (req.getCustomerId() == null) {
       customer =
-          dataRoot.getCustomers().entrySet().stream()
-              .parallel()
-              .filter(c -> c.getValue().getEmail().equals(req.getCustomerEmail()))
-              .findAny()
+          dataRoot
+              .findCustomerByEmail(req.getCustomerEmail())
               .orElseThrow(
                   () ->
                       new IllegalStateException(
-                          "Failed to find customer with email " + req.getCustomerEmail()))
-              .getValue();
+                          "Failed to find customer with email " + req.getCustomerEmail()));
     } else {
       customer = dataRoot.getCustomers().get(req.getCustomerId());
       if (customer == null) {
@@ -50,39 +54,48 @@ public class MsOrderStatusService extends OrderStatusService {
       }
     }
 
-    OrderData mostRecentOrder =
-        customer.getOrderRefs().values().stream()
-            .max(Comparator.comparing(OrderData::getEntryDate))
-            .orElseThrow(IllegalStateException::new);
+    OrderData mostRecentOrder = customer.getLatestOrder();
+    if (mostRecentOrder == null) {
+      throw new IllegalStateException("Customer " + customer.getId() + " has no orders");
+    }
+    TransactionTimings.mark(TransactionPhase.LOOKUP);
 
+    if (partitions.isEnabled()) {
+      return partitions.execute(
+          customer.getDistrict().getWarehouse().getId(),
+          () -> toResponse(customer, mostRecentOrder));
+    }
     // synchronize the read access here, since the carrier for example could be set in the meantime
     // to another value
     synchronized (customer.getId()) {
       synchronized (mostRecentOrder.getId()) {
-        return new OrderStatusResponse(
-            mostRecentOrder.getDistrictRef().getWarehouse().getId(),
-            mostRecentOrder.getDistrictRef().getId(),
-            customer.getId(),
-            customer.getFirstName(),
-            customer.getMiddleName(),
-            customer.getLastName(),
-            customer.getBalance(),
-            mostRecentOrder.getId(),
-            mostRecentOrder.getEntryDate(),
-            mostRecentOrder.getCarrierRef() == null
-                ? null
-                : mostRecentOrder.getCarrierRef().getId(),
-            mostRecentOrder.getItems().stream()
-                .map(
-                    item ->
-                        new OrderItemStatusResponse(
-                            item.getSupplyingWarehouseRef().getId(),
-                            item.getProductRef().getId(),
-                            item.getQuantity(),
-                            item.getAmount(),
-                            item.getDeliveryDate()))
-                .collect(Collectors.toList()));
+        TransactionTimings.mark(TransactionPhase.LOCK_WAIT);
+        return toResponse(customer, mostRecentOrder);
       }
     }
   }
+
+  private OrderStatusResponse toResponse(CustomerData customer, OrderData mostRecentOrder) {
+    return new OrderStatusResponse(
+        mostRecentOrder.getDistrictRef().getWarehouse().getId(),
+        mostRecentOrder.getDistrictRef().getId(),
+        customer.getId(),
+        customer.getFirstName(),
+        customer.getMiddleName(),
+        customer.getLastName(),
+        customer.getBalance(),
+        mostRecentOrder.getId(),
+        mostRecentOrder.getEntryDate(),
+        mostRecentOrder.getCarrierRef() == null ? null : mostRecentOrder.getCarrierRef().getId(),
+        mostRecentOrder.getItems().stream()
+            .map(
+                item ->
+                    new OrderItemStatusResponse(
+                        item.getSupplyingWarehouseRef().getId(),
+                        item.getProductRef().getId(),
+                        item.getQuantity(),
+                        item.getAmount(),
+                        item.getDeliveryDate()))
+            .collect(Collectors.toList()));
+  }
 }
@@ -35,15 +35,12 @@ public class MsPaymentService extends PaymentService {
     CustomerData customer;
     if (req.getCustomerId() == null) {
       customer =
-          dataRoot.getCustomers().entrySet().stream()
-              .parallel()
-              .filter(c -> c.getValue().getEmail().equals(req.getCustomerEmail()))
-              .findAny()
+          dataRoot
+              .findCustomerByEmail(req.getCustomerEmail())
               .orElseThrow(
                   () ->
                       new IllegalStateException(
-                          "Failed to find customer with email " + req.getCustomerEmail()))
-              .getValue();
+                          "Failed to find customer with email " + req.getCustomerEmail()));
     } else {
       customer = dataRoot.getCustomers().get(req.getCustomerId());
       if (customer == null) {
@@ -54,6 +51,7 @@ public class MsPaymentService extends PaymentService {
 
     WarehouseData warehouseData = dataRoot.getWarehouses().get(req.getWarehouseId());
     DistrictData districtData = warehouseData.getDistricts().get(req.getDistrictId());
+    TransactionTimings.mark(TransactionPhase.LOOKUP);
 
     // create new payment
     PaymentData payment =
@@ -3,13 +3,11 @@ package de.uniba.dsg.wss.service;
 import de.uniba.dsg.wss.data.access.DataConsistencyManager;
 import de.uniba.dsg.wss.data.model.DistrictData;
 import de.uniba.dsg.wss.data.model.MsDataRoot;
-import de.uniba.dsg.wss.data.model.OrderData;
 import de.uniba.dsg.wss.data.model.StockData;
 import de.uniba.dsg.wss.data.model.WarehouseData;
 import de.uniba.dsg.wss.data.transfer.messages.StockLevelRequest;
 import de.uniba.dsg.wss.data.transfer.messages.StockLevelResponse;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,9 +36,7 @@ public class MsStockLevelService extends StockLevelService {
     WarehouseData warehouse = dataRoot.getWarehouses().get(req.getWarehouseId());
     DistrictData district = warehouse.getDistricts().get(req.getDistrictId());
     List<StockData> stocksInOrder =
-        district.getOrders().values().stream()
-            .sorted(Comparator.comparing(OrderData::getEntryDate))
-            .limit(20)
+        district.getRecentOrders().stream()
             .map(
                 order ->
                     order.getItems().stream()
@@ -55,8 +51,9 @@ public class MsStockLevelService extends StockLevelService {
             .flatMap(Collection::stream)
             .distinct()
             .collect(Collectors.toList());
+    TransactionTimings.mark(TransactionPhase.LOOKUP);
 
-    // synchronized access to read the stock infos
+    // lock-free access to read the stock infos
     int lowStockCount =
         consistencyManager.countStockEntriesLowerThanThreshold(
             stocksInOrder, req.getStockThreshold());
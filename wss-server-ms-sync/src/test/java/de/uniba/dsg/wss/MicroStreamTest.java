@@ -42,6 +42,7 @@ public abstract class MicroStreamTest {
     this.msDataRoot.getCarriers().putAll(dataModel.getIdsToCarriers());
     this.msDataRoot.getProducts().putAll(dataModel.getIdsToProducts());
     this.msDataRoot.getEmployees().putAll(dataModel.getIdsToEmployees());
+    this.msDataRoot.rebuildIndexes();
 
     this.storageManager.setRoot(msDataRoot);
     this.storageManager.storeRoot();
@@ -0,0 +1,143 @@
+package de.uniba.dsg.wss.data.access;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.uniba.dsg.wss.data.gen.MsDataConverter;
+import de.uniba.dsg.wss.data.gen.MsDataModel;
+import de.uniba.dsg.wss.data.gen.TestDataGenerator;
+import de.uniba.dsg.wss.data.model.CustomerData;
+import de.uniba.dsg.wss.data.model.DistrictData;
+import de.uniba.dsg.wss.data.model.MsDataRoot;
+import de.uniba.dsg.wss.data.model.OrderData;
+import de.uniba.dsg.wss.data.model.StockData;
+import de.uniba.dsg.wss.service.MsTransactionException;
+import de.uniba.dsg.wss.service.StockUpdateDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import one.microstream.persistence.types.Storer;
+import one.microstream.storage.embedded.types.EmbeddedStorage;
+import one.microstream.storage.embedded.types.EmbeddedStorageFoundation;
+import one.microstream.storage.embedded.types.EmbeddedStorageManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+public class UnitOfWorkTest {
+
+  @TempDir Path storageDir;
+  private EmbeddedStorageFoundation<?> foundation;
+  private MsDataRoot dataRoot;
+
+  @BeforeEach
+  public void setUp() {
+    MsDataModel model = new MsDataConverter().convert(new TestDataGenerator().generate());
+    dataRoot = new MsDataRoot();
+    dataRoot.getWarehouses().putAll(model.getIdsToWarehouses());
+    dataRoot.getCustomers().putAll(model.getIdsToCustomers());
+    dataRoot.getStocks().putAll(model.getIdsToStocks());
+    dataRoot.rebuildIndexes();
+    foundation = EmbeddedStorage.Foundation(storageDir);
+  }
+
+  @Test
+  public void onlyRecordedObjectsAreStored() {
+    EmbeddedStorageManager storageManager =
+        foundation.createEmbeddedStorageManager(dataRoot).start();
+    storageManager.storeRoot();
+    CustomerData recorded = dataRoot.getCustomers().get("C0");
+    CustomerData notRecorded = dataRoot.getCustomers().get("C1");
+    recorded.increaseBalance(10);
+    notRecorded.increaseBalance(10);
+
+    UnitOfWork unitOfWork = new UnitOfWork().modified(recorded, recorded);
+    assertEquals(1, unitOfWork.size());
+    unitOfWork.commit(groupCommitter(storageManager, 1));
+    unitOfWork.awaitCommit();
+    storageManager.shutdown();
+
+    storageManager = EmbeddedStorage.start(storageDir);
+    MsDataRoot loaded = (MsDataRoot) storageManager.root();
+    assertEquals(recorded.getBalance(), loaded.getCustomers().get("C0").getBalance());
+    assertEquals(notRecorded.getBalance() - 10, loaded.getCustomers().get("C1").getBalance());
+    storageManager.shutdown();
+  }
+
+  @Test
+  public void groupCommittedObjectsAreDurableAfterAwaitingCommit() {
+    EmbeddedStorageManager storageManager =
+        foundation.createEmbeddedStorageManager(dataRoot).start();
+    storageManager.storeRoot();
+    CustomerData first = dataRoot.getCustomers().get("C0");
+    CustomerData second = dataRoot.getCustomers().get("C1");
+    first.increaseBalance(10);
+    second.increaseBalance(20);
+
+    try (GroupCommitter<Storer> committer = groupCommitter(storageManager, 10)) {
+      UnitOfWork firstUnitOfWork = new UnitOfWork().modified(first);
+      UnitOfWork secondUnitOfWork = new UnitOfWork().modified(second);
+      firstUnitOfWork.commit(committer);
+      secondUnitOfWork.commit(committer);
+      firstUnitOfWork.awaitCommit();
+      secondUnitOfWork.awaitCommit();
+      assertEquals(0, committer.getQueueDepth());
+    }
+    storageManager.shutdown();
+
+    storageManager = EmbeddedStorage.start(storageDir);
+    MsDataRoot loaded = (MsDataRoot) storageManager.root();
+    assertEquals(first.getBalance(), loaded.getCustomers().get("C0").getBalance());
+    assertEquals(second.getBalance(), loaded.getCustomers().get("C1").getBalance());
+    storageManager.shutdown();
+  }
+
+  @Test
+  public void newOrdersAreRestoredAfterLoading() throws MsTransactionException {
+    EmbeddedStorageManager storageManager =
+        foundation.createEmbeddedStorageManager(dataRoot).start();
+    storageManager.storeRoot();
+    int orderCount = dataRoot.getOrders().size();
+    CustomerData customer = dataRoot.getCustomers().get("C0");
+    DistrictData district = customer.getDistrict();
+    int districtOrderCount = district.getOrders().size();
+
+    try (GroupCommitter<Storer> committer = groupCommitter(storageManager, 1)) {
+      DataConsistencyManager consistencyManager =
+          new DataConsistencyManager(
+              dataRoot, new WarehousePartitions(new MockEnvironment()), committer);
+      OrderData order = new OrderData(district, customer, LocalDateTime.now(), 1, true);
+      StockData stock =
+          dataRoot.getStocks().values().stream()
+              .filter(s -> s.getQuantity() > 0)
+              .findFirst()
+              .orElseThrow();
+      consistencyManager.storeOrder(order, List.of(new StockUpdateDto(stock, 1)));
+    }
+    storageManager.shutdown();
+
+    storageManager = EmbeddedStorage.start(storageDir);
+    MsDataRoot loaded = (MsDataRoot) storageManager.root();
+    loaded.rebuildIndexes();
+    DistrictData loadedDistrict = loaded.getCustomers().get("C0").getDistrict();
+    assertEquals(orderCount + 1, loaded.getOrders().size());
+    assertEquals(districtOrderCount + 1, loadedDistrict.getOrders().size());
+    assertEquals(
+        loaded.getCustomers().get("C0").getLatestOrder().getId(),
+        loadedDistrict.getRecentOrders().get(0).getId());
+    storageManager.shutdown();
+  }
+
+  private GroupCommitter<Storer> groupCommitter(
+      EmbeddedStorageManager storageManager, int maxBatchSize) {
+    return new GroupCommitter<>(
+        "test",
+        new MsBatchWriter(storageManager, foundation),
+        maxBatchSize,
+        Duration.ofMillis(1),
+        maxBatchSize,
+        new SimpleMeterRegistry());
+  }
+}
@@ -0,0 +1,119 @@
+package de.uniba.dsg.wss.data.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import de.uniba.dsg.wss.data.gen.MsDataConverter;
+import de.uniba.dsg.wss.data.gen.MsDataModel;
+import de.uniba.dsg.wss.data.gen.TestDataGenerator;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import one.microstream.storage.embedded.types.EmbeddedStorage;
+import one.microstream.storage.embedded.types.EmbeddedStorageManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DistrictDataTest {
+
+  @TempDir Path storageDir;
+  private MsDataModel model;
+  private DistrictData district;
+  private CustomerData customer;
+
+  @BeforeEach
+  public void setUp() {
+    model = new MsDataConverter().convert(new TestDataGenerator().generate());
+    customer = model.getIdsToCustomers().get("C0");
+    district = customer.getDistrict();
+    // start with an empty queue of unfulfilled orders
+    OrderData order;
+    while ((order = district.getOldestUnfulfilledOrder()) != null) {
+      district.removeUnfulfilledOrder(order);
+    }
+  }
+
+  private OrderData newOrder() {
+    return new OrderData(district, customer, LocalDateTime.now(), 1, true);
+  }
+
+  @Test
+  public void unfulfilledOrdersAreDeliveredInOrderOfPlacement() {
+    List<OrderData> orders = List.of(newOrder(), newOrder(), newOrder());
+    orders.forEach(district::addOrder);
+
+    for (OrderData order : orders) {
+      assertEquals(order, district.getOldestUnfulfilledOrder());
+      district.removeUnfulfilledOrder(order);
+    }
+    assertNull(district.getOldestUnfulfilledOrder());
+  }
+
+  @Test
+  public void ordersCanBeRemovedFromTheMiddleAndEndOfTheQueue() {
+    OrderData first = newOrder();
+    OrderData second = newOrder();
+    OrderData third = newOrder();
+    district.addOrder(first);
+    district.addOrder(second);
+    district.addOrder(third);
+
+    assertEquals(0, district.removeUnfulfilledOrder(newOrder()).length);
+    district.removeUnfulfilledOrder(third);
+    district.removeUnfulfilledOrder(second);
+    OrderData fourth = newOrder();
+    district.addOrder(fourth);
+
+    assertEquals(first, district.getOldestUnfulfilledOrder());
+    district.removeUnfulfilledOrder(first);
+    assertEquals(fourth, district.getOldestUnfulfilledOrder());
+  }
+
+  @Test
+  public void changedQueueObjectsDoNotGrowWithTheQueue() {
+    List<Integer> addedObjectCounts = new ArrayList<>();
+    List<OrderData> orders = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      OrderData order = newOrder();
+      orders.add(order);
+      addedObjectCounts.add(district.addOrder(order).length);
+    }
+
+    // the district, the recent orders, the new node and the previous newest node
+    assertEquals(3, addedObjectCounts.get(0));
+    assertEquals(Set.of(4), new HashSet<>(addedObjectCounts.subList(1, 100)));
+    // only the district refers to the oldest node
+    assertEquals(1, district.removeUnfulfilledOrder(orders.get(0)).length);
+  }
+
+  @Test
+  public void storingChangedQueueObjectsPersistsQueue() {
+    MsDataRoot dataRoot = new MsDataRoot();
+    dataRoot.getWarehouses().putAll(model.getIdsToWarehouses());
+    EmbeddedStorageManager storageManager = EmbeddedStorage.start(dataRoot, storageDir);
+    storageManager.storeRoot();
+    OrderData first = newOrder();
+    OrderData second = newOrder();
+    storageManager.storeAll(district.addOrder(first));
+    storageManager.storeAll(district.addOrder(second));
+    storageManager.storeAll(district.removeUnfulfilledOrder(first));
+    storageManager.shutdown();
+
+    storageManager = EmbeddedStorage.start(storageDir);
+    DistrictData loaded =
+        ((MsDataRoot) storageManager.root())
+            .getWarehouses()
+            .get(district.getWarehouse().getId())
+            .getDistricts()
+            .get(district.getId());
+    assertEquals(second.getId(), loaded.getOldestUnfulfilledOrder().getId());
+    assertEquals(second.getId(), loaded.getRecentOrders().get(0).getId());
+    // the lock has been restored as well
+    loaded.increaseYearToBalance(1);
+    storageManager.shutdown();
+  }
+}
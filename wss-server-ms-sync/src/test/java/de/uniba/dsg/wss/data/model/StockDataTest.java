@@ -0,0 +1,88 @@
+package de.uniba.dsg.wss.data.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.uniba.dsg.wss.data.gen.MsDataConverter;
+import de.uniba.dsg.wss.data.gen.MsDataModel;
+import de.uniba.dsg.wss.data.gen.TestDataGenerator;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import one.microstream.storage.embedded.types.EmbeddedStorage;
+import one.microstream.storage.embedded.types.EmbeddedStorageManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StockDataTest {
+
+  @TempDir Path storageDir;
+  private MsDataModel model;
+
+  @BeforeEach
+  public void setUp() {
+    model = new MsDataConverter().convert(new TestDataGenerator().generate());
+  }
+
+  @Test
+  public void concurrentReservationsAreAtomic() {
+    // W4P8 has a quantity of 12
+    StockData stock = model.getIdsToStocks().get("W4P8");
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    try {
+      for (int i = 0; i < 1_000; i++) {
+        futures.add(
+            CompletableFuture.runAsync(
+                () -> {
+                  if (stock.reduceQuantity(3) >= 0) {
+                    stock.undoReduceQuantityOperation(3);
+                  }
+                },
+                executor));
+      }
+      futures.forEach(CompletableFuture::join);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(12, stock.getQuantity());
+    assertEquals(0, stock.getOrderCount());
+    assertEquals(0, stock.getYearToDateBalance());
+  }
+
+  @Test
+  public void insufficientQuantityRefillsStock() {
+    // W1P1 has a quantity of 2
+    StockData stock = model.getIdsToStocks().get("W1P1");
+
+    assertEquals(-1, stock.reduceQuantity(3));
+    assertEquals(2 + StockData.increaseQuantity, stock.getQuantity());
+    assertEquals(StockData.increaseQuantity - 1, stock.reduceQuantity(3));
+    assertEquals(1, stock.getOrderCount());
+    assertEquals(3, stock.getYearToDateBalance());
+  }
+
+  @Test
+  public void stateIsStored() {
+    MsDataRoot dataRoot = new MsDataRoot();
+    dataRoot.getStocks().putAll(model.getIdsToStocks());
+    EmbeddedStorageManager storageManager = EmbeddedStorage.start(dataRoot, storageDir);
+    storageManager.storeRoot();
+    StockData stock = dataRoot.getStocks().get("W4P8");
+    stock.reduceQuantity(5);
+    storageManager.store(stock);
+    storageManager.shutdown();
+
+    storageManager = EmbeddedStorage.start(storageDir);
+    StockData loaded = ((MsDataRoot) storageManager.root()).getStocks().get("W4P8");
+    assertEquals(7, loaded.getQuantity());
+    assertEquals(1, loaded.getOrderCount());
+    assertEquals(5, loaded.getYearToDateBalance());
+    assertEquals(4, loaded.reduceQuantity(3));
+    storageManager.shutdown();
+  }
+}
@@ -14,26 +14,26 @@ import org.springframework.context.annotation.Bean;
 public class MicroStreamTestConfiguration {
 
   @Bean
-  public EmbeddedStorageManager embeddedStorageManager() {
+  public EmbeddedStorageFoundation<?> embeddedStorageFoundation() {
     NioFileSystem fileSystem = NioFileSystem.New();
-    EmbeddedStorageFoundation<?> foundation =
-        EmbeddedStorageFoundation.New()
-            .setConfiguration(
-                StorageConfiguration.Builder()
-                    .setHousekeepingController(Storage.HousekeepingController(1_000, 1_000_000))
-                    .setDataFileEvaluator(
-                        Storage.DataFileEvaluator(1024 * 1024, 1024 * 1024 * 8, 0.75))
-                    .setEntityCacheEvaluator(
-                        Storage.EntityCacheEvaluator(86_400_000, 1_000_000_000))
-                    .setStorageFileProvider(
-                        Storage.FileProviderBuilder(fileSystem)
-                            .setDirectory(fileSystem.ensureDirectoryPath("test-storage"))
-                            .createFileProvider())
-                    .setChannelCountProvider(
-                        StorageChannelCountProvider.New(
-                            Integer.highestOneBit(Runtime.getRuntime().availableProcessors() - 1)))
-                    .createConfiguration());
+    return EmbeddedStorageFoundation.New()
+        .setConfiguration(
+            StorageConfiguration.Builder()
+                .setHousekeepingController(Storage.HousekeepingController(1_000, 1_000_000))
+                .setDataFileEvaluator(Storage.DataFileEvaluator(1024 * 1024, 1024 * 1024 * 8, 0.75))
+                .setEntityCacheEvaluator(Storage.EntityCacheEvaluator(86_400_000, 1_000_000_000))
+                .setStorageFileProvider(
+                    Storage.FileProviderBuilder(fileSystem)
+                        .setDirectory(fileSystem.ensureDirectoryPath("test-storage"))
+                        .createFileProvider())
+                .setChannelCountProvider(
+                    StorageChannelCountProvider.New(
+                        Integer.highestOneBit(Runtime.getRuntime().availableProcessors() - 1)))
+                .createConfiguration());
+  }
 
+  @Bean
+  public EmbeddedStorageManager embeddedStorageManager(EmbeddedStorageFoundation<?> foundation) {
     EmbeddedStorageManager storageManager = foundation.createEmbeddedStorageManager();
 
     storageManager.start();
@@ -57,4 +57,15 @@ class MsDeliveryServiceIntegrationTests extends MicroStreamTest {
         dataRoot.getOrders().get("O0").getItems().get(0).getAmount(),
         dataRoot.getCustomers().get("C0").getBalance());
   }
+
+  @Test
+  public void consecutiveDeliveriesProcessOrdersInEntryOrder() {
+    DeliveryRequest request = new DeliveryRequest("W0", "CC0");
+    deliveryService.process(request);
+    deliveryService.process(request);
+
+    assertTrue(dataRoot.getOrders().get("O10").isFulfilled());
+    assertNull(
+        dataRoot.getWarehouses().get("W0").getDistricts().get("D0").getOldestUnfulfilledOrder());
+  }
 }
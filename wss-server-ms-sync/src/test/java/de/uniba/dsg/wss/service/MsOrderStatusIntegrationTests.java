@@ -47,4 +47,21 @@ public class MsOrderStatusIntegrationTests extends MicroStreamTest {
     assertEquals("O10", res.getOrderId());
     assertEquals(1, res.getItemStatus().size());
   }
+
+  @Test
+  public void processingReturnsExpectedValuesIfCustomerEmailIsProvided() {
+    OrderStatusRequest request = new OrderStatusRequest("W0", "D0", null, "C0@jbp.io");
+
+    OrderStatusResponse res = orderStatusService.process(request);
+
+    assertEquals("C0", res.getCustomerId());
+    assertEquals("O10", res.getOrderId());
+  }
+
+  @Test
+  public void processingFailsWithUnknownCustomerEmail() {
+    OrderStatusRequest request = new OrderStatusRequest("W0", "D0", null, "unknown@jbp.io");
+
+    assertThrows(IllegalStateException.class, () -> orderStatusService.process(request));
+  }
 }
@@ -0,0 +1,186 @@
+package de.uniba.dsg.wss.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.uniba.dsg.wss.MicroStreamTest;
+import de.uniba.dsg.wss.data.access.DataConsistencyManager;
+import de.uniba.dsg.wss.data.access.GroupCommitter;
+import de.uniba.dsg.wss.data.access.WarehousePartitions;
+import de.uniba.dsg.wss.data.model.CustomerData;
+import de.uniba.dsg.wss.data.model.OrderData;
+import de.uniba.dsg.wss.data.model.StockData;
+import de.uniba.dsg.wss.data.transfer.messages.DeliveryRequest;
+import de.uniba.dsg.wss.data.transfer.messages.NewOrderRequest;
+import de.uniba.dsg.wss.data.transfer.messages.NewOrderRequestItem;
+import de.uniba.dsg.wss.data.transfer.messages.NewOrderResponse;
+import de.uniba.dsg.wss.data.transfer.messages.OrderStatusRequest;
+import de.uniba.dsg.wss.data.transfer.messages.OrderStatusResponse;
+import de.uniba.dsg.wss.data.transfer.messages.PaymentRequest;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.env.MockEnvironment;
+
+@SpringBootTest
+public class MsPartitionedExecutionIntegrationTests extends MicroStreamTest {
+
+  @Autowired private GroupCommitter<?> groupCommitter;
+  private WarehousePartitions partitions;
+  private MsNewOrderService newOrderService;
+  private MsPaymentService paymentService;
+  private MsDeliveryService deliveryService;
+  private MsOrderStatusService orderStatusService;
+
+  @BeforeEach
+  public void setUp() {
+    prepareTestStorage();
+    // the storage can't be shared with a second application context, so the services are created
+    // manually instead of using a context with partitioned execution enabled
+    partitions =
+        new WarehousePartitions(
+            new MockEnvironment().withProperty("wss.ms.partitioned.enabled", "true"));
+    DataConsistencyManager consistencyManager =
+        new DataConsistencyManager(msDataRoot, partitions, groupCommitter);
+    newOrderService = new MsNewOrderService(consistencyManager, msDataRoot);
+    paymentService = new MsPaymentService(consistencyManager, msDataRoot);
+    deliveryService = new MsDeliveryService(consistencyManager, msDataRoot);
+    orderStatusService = new MsOrderStatusService(msDataRoot, partitions);
+    MsNewOrderService.maxRetries = 1;
+    StockData.increaseQuantity = 10;
+  }
+
+  @AfterEach
+  public void tearDown() {
+    partitions.destroy();
+    MsNewOrderService.maxRetries = 5;
+    StockData.increaseQuantity = 100;
+    TransactionTimings.setEnabled(false);
+  }
+
+  @Test
+  public void localOrderIsStored() {
+    NewOrderRequest request = newOrderRequest("W0", "D0", "C0", "W0", "P8", 5);
+
+    NewOrderResponse response = newOrderService.process(request);
+
+    assertEquals(3, msDataRoot.getStocks().get("W0P8").getQuantity());
+    assertEquals(
+        response.getOrderId(),
+        msDataRoot
+            .getWarehouses()
+            .get("W0")
+            .getDistricts()
+            .get("D0")
+            .getRecentOrders()
+            .get(0)
+            .getId());
+  }
+
+  @Test
+  public void crossWarehouseOrderReducesRemoteStock() {
+    NewOrderRequest request = newOrderRequest("W0", "D0", "C0", "W0", "P8", 5);
+    request.getItems().add(newOrderRequestItem("W1", "P1", 2));
+    request.getItems().add(newOrderRequestItem("W2", "P6", 4));
+
+    NewOrderResponse response = newOrderService.process(request);
+
+    assertEquals(3, response.getOrderItems().size());
+    assertEquals(21, msDataRoot.getOrders().size());
+    assertEquals(3, msDataRoot.getStocks().get("W0P8").getQuantity());
+    assertEquals(0, msDataRoot.getStocks().get("W1P1").getQuantity());
+    assertEquals(4, msDataRoot.getStocks().get("W2P6").getQuantity());
+  }
+
+  @Test
+  public void failedRemoteReservationReleasesOtherReservations() {
+    NewOrderRequest request = newOrderRequest("W0", "D0", "C0", "W1", "P1", 2);
+    request.getItems().add(newOrderRequestItem("W3", "P1", 5));
+
+    assertThrows(MsTransactionException.class, () -> newOrderService.process(request));
+
+    assertEquals(20, msDataRoot.getOrders().size());
+    assertEquals(2, msDataRoot.getStocks().get("W1P1").getQuantity());
+  }
+
+  @Test
+  public void remotePaymentUpdatesBothPartitions() {
+    CustomerData customer = msDataRoot.getCustomers().get("C0");
+    PaymentRequest request = new PaymentRequest("W1", "D1", customer.getId(), null, 10);
+
+    paymentService.process(request);
+
+    assertEquals(10, msDataRoot.getWarehouses().get("W1").getYearToDateBalance());
+    assertEquals(2, customer.getPaymentCount());
+    assertEquals(-10, customer.getBalance());
+  }
+
+  @Test
+  public void partitionContinuesTimingOfTransaction() {
+    TransactionTimings.setEnabled(true);
+    PaymentRequest request = new PaymentRequest("W0", "D0", "C0", null, 10);
+
+    TransactionTimings timings = TransactionTimings.start();
+    paymentService.process(request);
+    timings.stop();
+
+    // only marked by the partition thread, which waits for the turn of the transaction
+    assertTrue(timings.getDuration(TransactionPhase.LOCK_WAIT) > 0);
+  }
+
+  @Test
+  public void deliveryIsExecutedByWarehousePartition() {
+    deliveryService.process(new DeliveryRequest("W0", "CC0"));
+
+    assertTrue(msDataRoot.getOrders().get("O0").isFulfilled());
+  }
+
+  @Test
+  public void orderStatusIsReadByCustomerPartition() {
+    OrderData order = msDataRoot.getOrders().get("O0");
+    CustomerData customer = order.getCustomerRef();
+    deliveryService.process(new DeliveryRequest("W0", "CC0"));
+    OrderStatusRequest request = new OrderStatusRequest();
+    request.setCustomerId(customer.getId());
+
+    OrderStatusResponse response = orderStatusService.process(request);
+
+    OrderData latestOrder = customer.getLatestOrder();
+    assertEquals(latestOrder.getId(), response.getOrderId());
+    assertEquals(customer.getBalance(), response.getCustomerBalance());
+    assertEquals(
+        latestOrder.getCarrierRef() == null ? null : latestOrder.getCarrierRef().getId(),
+        response.getOrderCarrierId());
+  }
+
+  private NewOrderRequest newOrderRequest(
+      String warehouseId,
+      String districtId,
+      String customerId,
+      String supplyingWarehouseId,
+      String productId,
+      int quantity) {
+    NewOrderRequest request = new NewOrderRequest();
+    request.setWarehouseId(warehouseId);
+    request.setDistrictId(districtId);
+    request.setCustomerId(customerId);
+    List<NewOrderRequestItem> items = new ArrayList<>();
+    items.add(newOrderRequestItem(supplyingWarehouseId, productId, quantity));
+    request.setItems(items);
+    return request;
+  }
+
+  private NewOrderRequestItem newOrderRequestItem(
+      String supplyingWarehouseId, String productId, int quantity) {
+    NewOrderRequestItem item = new NewOrderRequestItem();
+    item.setSupplyingWarehouseId(supplyingWarehouseId);
+    item.setProductId(productId);
+    item.setQuantity(quantity);
+    return item;
+  }
+}